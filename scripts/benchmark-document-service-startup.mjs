@@ -0,0 +1,130 @@
+import { spawn } from "node:child_process";
+import fs from "node:fs";
+import path from "node:path";
+
+// Measures time from JVM launch to the first successful /ready and GET /api/v1/documents.
+// Build first: `mvn -DskipTests package` (jar) and/or `mvn -DskipTests -Pfast-start package` (fast-start).
+// Requires a reachable database (e.g. `docker compose up -d postgres`).
+
+const root = process.cwd();
+const serviceDir = path.join(root, "services", "document-service");
+const args = parseArgs(process.argv.slice(2));
+const runs = Number(args.runs ?? 5);
+const port = Number(args.port ?? 18081);
+const variants = (args.variants ?? "jar,fast-start").split(",");
+const timeoutMs = Number(args.timeout ?? 120000);
+
+const launchers = {
+  jar: () => ({
+    cwd: path.join(serviceDir, "target"),
+    command: ["java", "-jar", "document-service-0.1.0.jar"]
+  }),
+  "fast-start": () => ({
+    cwd: path.join(serviceDir, "target", "fast-start"),
+    command: [
+      "java",
+      "-XX:SharedArchiveFile=application.jsa",
+      "-Dspring.aot.enabled=true",
+      "-Dspring.profiles.active=fast-start",
+      "-jar",
+      "document-service-0.1.0.jar"
+    ]
+  })
+};
+
+function parseArgs(argv) {
+  const parsed = {};
+  for (let index = 0; index < argv.length; index += 1) {
+    const match = /^--([^=]+)(?:=(.*))?$/.exec(argv[index]);
+    if (!match) {
+      continue;
+    }
+    parsed[match[1]] = match[2] ?? argv[++index];
+  }
+  return parsed;
+}
+
+function sleep(ms) {
+  return new Promise((resolve) => setTimeout(resolve, ms));
+}
+
+async function waitFor(url, headers, startedAt, exited) {
+  while (performance.now() - startedAt < timeoutMs) {
+    if (exited()) {
+      throw new Error(`process exited before ${url} succeeded`);
+    }
+    try {
+      const response = await fetch(url, { headers });
+      if (response.ok) {
+        await response.arrayBuffer();
+        return performance.now() - startedAt;
+      }
+    } catch {
+      // Not listening yet.
+    }
+    await sleep(10);
+  }
+  throw new Error(`timed out waiting for ${url}`);
+}
+
+async function measure(variant) {
+  const launcher = launchers[variant];
+  if (!launcher) {
+    throw new Error(`unknown variant: ${variant}`);
+  }
+  const { cwd, command } = launcher();
+  if (!fs.existsSync(path.join(cwd, command[command.length - 1]))) {
+    throw new Error(`missing ${path.join(cwd, command[command.length - 1])}; build the ${variant} variant first`);
+  }
+
+  const startedAt = performance.now();
+  const child = spawn(command[0], [...command.slice(1), `--server.port=${port}`], {
+    cwd,
+    env: process.env,
+    stdio: ["ignore", "ignore", "inherit"]
+  });
+  let exited = false;
+  child.on("exit", () => {
+    exited = true;
+  });
+
+  try {
+    const base = `http://localhost:${port}`;
+    const readyMs = await waitFor(`${base}/ready`, {}, startedAt, () => exited);
+    const firstDocumentsMs = await waitFor(
+      `${base}/api/v1/documents`,
+      { "X-User-Id": "startup-benchmark" },
+      startedAt,
+      () => exited
+    );
+    return { readyMs, firstDocumentsMs };
+  } finally {
+    child.kill("SIGTERM");
+    await new Promise((resolve) => (exited ? resolve() : child.on("exit", resolve)));
+  }
+}
+
+function median(values) {
+  const sorted = [...values].sort((a, b) => a - b);
+  return sorted[Math.floor(sorted.length / 2)];
+}
+
+const results = [];
+for (const variant of variants) {
+  const samples = [];
+  for (let run = 1; run <= runs; run += 1) {
+    const sample = await measure(variant);
+    samples.push(sample);
+    console.log(
+      `${variant} run ${run}/${runs}: ready=${sample.readyMs.toFixed(0)}ms ` +
+        `firstDocuments=${sample.firstDocumentsMs.toFixed(0)}ms`
+    );
+  }
+  results.push({
+    variant,
+    readyMedianMs: Math.round(median(samples.map((sample) => sample.readyMs))),
+    firstDocumentsMedianMs: Math.round(median(samples.map((sample) => sample.firstDocumentsMs)))
+  });
+}
+
+console.table(results);
@@ -0,0 +1,63 @@
+package com.relaydocs.documentservice.api;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AIMD concurrency limit driven by observed latency: each fast completion grows the limit by
+ * {@code 1/limit} (about one slot per round of requests), and each slow or failed completion
+ * multiplies it by the backoff ratio. Growth only happens while the limit is actually being
+ * used, so an idle service does not drift up to the maximum.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private double limit;
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties.Limit properties, double backoffRatio) {
+        this.minLimit = Math.max(1, properties.getMinLimit());
+        this.maxLimit = Math.max(minLimit, properties.getMaxLimit());
+        this.latencyThresholdNanos = properties.getLatencyThreshold().toNanos();
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.min(maxLimit, Math.max(minLimit, properties.getInitialLimit()));
+    }
+
+    public boolean tryAcquire() {
+        int currentLimit = getLimit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= currentLimit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param failed true when the request ended in a server error, which is treated like a
+     *               latency breach regardless of how long it took
+     */
+    public void release(long latencyNanos, boolean failed) {
+        int completedInFlight = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (failed || latencyNanos > latencyThresholdNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (completedInFlight * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+        }
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
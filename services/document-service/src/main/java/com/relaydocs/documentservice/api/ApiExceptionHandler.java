@@ -1,10 +1,13 @@
 package com.relaydocs.documentservice.api;
 
 import com.relaydocs.documentservice.service.ApiBadRequestException;
+import com.relaydocs.documentservice.service.ApiConflictException;
 import com.relaydocs.documentservice.service.ApiForbiddenException;
 import com.relaydocs.documentservice.service.ApiNotFoundException;
+import com.relaydocs.documentservice.service.ApiServiceUnavailableException;
 import com.relaydocs.documentservice.service.ApiUnauthorizedException;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -27,11 +30,23 @@ public class ApiExceptionHandler {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", exception.getMessage()));
     }
 
+    @ExceptionHandler(ApiConflictException.class)
+    public ResponseEntity<Map<String, String>> handleConflict(ApiConflictException exception) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", exception.getMessage()));
+    }
+
     @ExceptionHandler(ApiUnauthorizedException.class)
     public ResponseEntity<Map<String, String>> handleUnauthorized(ApiUnauthorizedException exception) {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", exception.getMessage()));
     }
 
+    @ExceptionHandler(ApiServiceUnavailableException.class)
+    public ResponseEntity<Map<String, String>> handleServiceUnavailable(ApiServiceUnavailableException exception) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+                .body(Map.of("message", exception.getMessage()));
+    }
+
     @ExceptionHandler({
             ApiBadRequestException.class,
             MethodArgumentNotValidException.class,
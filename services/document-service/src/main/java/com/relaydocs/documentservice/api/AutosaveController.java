@@ -0,0 +1,44 @@
+package com.relaydocs.documentservice.api;
+
+import com.relaydocs.documentservice.api.dto.AutosaveAcknowledgementResponse;
+import com.relaydocs.documentservice.api.dto.UpdateDocumentRequest;
+import com.relaydocs.documentservice.service.AutosaveBuffer;
+import com.relaydocs.documentservice.service.ShardRouter;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/documents")
+@ConditionalOnProperty(name = "relaydocs.autosave.enabled", havingValue = "true")
+public class AutosaveController {
+
+    private static final String USER_HEADER = "X-User-Id";
+
+    private final AutosaveBuffer autosaveBuffer;
+    private final ShardRouter shardRouter;
+
+    public AutosaveController(AutosaveBuffer autosaveBuffer, ShardRouter shardRouter) {
+        this.autosaveBuffer = autosaveBuffer;
+        this.shardRouter = shardRouter;
+    }
+
+    @PutMapping("/{id}/autosave")
+    public ResponseEntity<AutosaveAcknowledgementResponse> autosave(
+            @RequestHeader(USER_HEADER) String actorUserId,
+            @PathVariable Long id,
+            @RequestBody @Valid UpdateDocumentRequest request
+    ) {
+        AutosaveAcknowledgementResponse acknowledgement =
+                shardRouter.onDocumentShard(id, () -> autosaveBuffer.submit(id, actorUserId, request));
+        return ResponseEntity.status(acknowledgement.buffered() ? HttpStatus.ACCEPTED : HttpStatus.OK)
+                .body(acknowledgement);
+    }
+}
@@ -0,0 +1,100 @@
+package com.relaydocs.documentservice.api;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * LRU cache of gzip-encoded single-document response bodies keyed by document id and version,
+ * bounded by the total number of cached bytes. Any change to a document bumps its version, so
+ * entries never need explicit invalidation; stale versions simply age out.
+ */
+@Component
+public class CompressedDocumentCache {
+
+    private final long maxBytes;
+    private final int minResponseBytes;
+    private final LinkedHashMap<Key, EncodedBody> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private long currentBytes;
+
+    public CompressedDocumentCache(ResponseCompressionProperties properties, MeterRegistry meterRegistry) {
+        this.maxBytes = properties.getCacheMaxBytes();
+        this.minResponseBytes = properties.getMinResponseBytes();
+        this.hitCounter = Counter.builder("relaydocs.compression.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.missCounter = Counter.builder("relaydocs.compression.cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("relaydocs.compression.cache.bytes", this, CompressedDocumentCache::currentBytes)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached encoding for this document version, serializing and compressing it with
+     * {@code serializer} on a miss. Bodies below the configured threshold are cached uncompressed.
+     */
+    public EncodedBody get(long documentId, long version, Supplier<byte[]> serializer) {
+        Key key = new Key(documentId, version);
+        synchronized (this) {
+            EncodedBody cached = entries.get(key);
+            if (cached != null) {
+                hitCounter.increment();
+                return cached;
+            }
+        }
+
+        missCounter.increment();
+        byte[] serialized = serializer.get();
+        EncodedBody encoded = serialized.length >= minResponseBytes
+                ? new EncodedBody(gzip(serialized), true)
+                : new EncodedBody(serialized, false);
+        put(key, encoded);
+        return encoded;
+    }
+
+    public synchronized long currentBytes() {
+        return currentBytes;
+    }
+
+    private synchronized void put(Key key, EncodedBody encoded) {
+        if (encoded.bytes().length > maxBytes) {
+            return;
+        }
+        EncodedBody previous = entries.put(key, encoded);
+        if (previous != null) {
+            currentBytes -= previous.bytes().length;
+        }
+        currentBytes += encoded.bytes().length;
+
+        Iterator<Map.Entry<Key, EncodedBody>> eldest = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            currentBytes -= eldest.next().getValue().bytes().length;
+            eldest.remove();
+        }
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(body);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return buffer.toByteArray();
+    }
+
+    public record EncodedBody(byte[] bytes, boolean gzipped) {
+    }
+
+    private record Key(long documentId, long version) {
+    }
+}
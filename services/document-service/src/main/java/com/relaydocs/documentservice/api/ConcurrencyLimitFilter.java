@@ -0,0 +1,181 @@
+package com.relaydocs.documentservice.api;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sheds load on the document and auth APIs before requests start queueing for database
+ * connections. Reads and writes get independent adaptive limits so a burst of slow writes
+ * cannot starve cheap reads; anything over the limit gets an immediate 503.
+ *
+ * <p>Export and bulk streams are slow by design and hold their slot until the response is fully
+ * written, so feeding them into the adaptive limits would read as overload and shrink the limit
+ * for interactive requests. They share a small fixed bulkhead instead, which never adapts.
+ */
+@Component
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String OVERLOADED_BODY = "{\"message\":\"Service is overloaded\"}";
+    static final Set<String> BULK_PATHS = Set.of("/api/v1/documents/export", "/api/v1/documents/bulk");
+
+    private final ConcurrencyLimitProperties properties;
+    private final AdaptiveConcurrencyLimiter readLimiter;
+    private final AdaptiveConcurrencyLimiter writeLimiter;
+    private final Semaphore bulkPermits;
+    private final Counter readRejectedCounter;
+    private final Counter writeRejectedCounter;
+    private final Counter bulkRejectedCounter;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.readLimiter = new AdaptiveConcurrencyLimiter(properties.getRead(), properties.getBackoffRatio());
+        this.writeLimiter = new AdaptiveConcurrencyLimiter(properties.getWrite(), properties.getBackoffRatio());
+        this.readRejectedCounter = registerMeters(meterRegistry, "read", readLimiter);
+        this.writeRejectedCounter = registerMeters(meterRegistry, "write", writeLimiter);
+
+        int bulkLimit = Math.max(1, properties.getBulkLimit());
+        this.bulkPermits = new Semaphore(bulkLimit);
+        Gauge.builder("relaydocs.concurrency.limit", () -> bulkLimit)
+                .tag("type", "bulk")
+                .register(meterRegistry);
+        Gauge.builder("relaydocs.concurrency.inflight", bulkPermits, (permits) -> bulkLimit - permits.availablePermits())
+                .tag("type", "bulk")
+                .register(meterRegistry);
+        this.bulkRejectedCounter = Counter.builder("relaydocs.concurrency.rejected")
+                .tag("type", "bulk")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !properties.isEnabled()
+                || !(path.startsWith("/api/v1/documents") || path.startsWith("/api/v1/auth"));
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        Permit permit;
+        if (BULK_PATHS.contains(request.getRequestURI())) {
+            if (!bulkPermits.tryAcquire()) {
+                reject(response, bulkRejectedCounter);
+                return;
+            }
+            permit = (latencyNanos, failed) -> bulkPermits.release();
+        } else {
+            boolean read = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+            AdaptiveConcurrencyLimiter limiter = read ? readLimiter : writeLimiter;
+            if (!limiter.tryAcquire()) {
+                reject(response, read ? readRejectedCounter : writeRejectedCounter);
+                return;
+            }
+            permit = limiter::release;
+        }
+
+        long startTime = System.nanoTime();
+        Release release = new Release(permit, response, startTime);
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (!failed && request.isAsyncStarted()) {
+                // Streaming responses hold their slot until the async dispatch completes.
+                request.getAsyncContext().addListener(release);
+            } else {
+                release.run(failed);
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return true;
+    }
+
+    private void reject(HttpServletResponse response, Counter rejectedCounter) throws IOException {
+        rejectedCounter.increment();
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(properties.getRetryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write(OVERLOADED_BODY);
+    }
+
+    private static Counter registerMeters(MeterRegistry meterRegistry, String type, AdaptiveConcurrencyLimiter limiter) {
+        Gauge.builder("relaydocs.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("type", type)
+                .register(meterRegistry);
+        Gauge.builder("relaydocs.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("type", type)
+                .register(meterRegistry);
+        return Counter.builder("relaydocs.concurrency.rejected")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    private interface Permit {
+
+        void release(long latencyNanos, boolean failed);
+    }
+
+    private static final class Release implements AsyncListener {
+
+        private final Permit permit;
+        private final HttpServletResponse response;
+        private final long startTime;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Release(Permit permit, HttpServletResponse response, long startTime) {
+            this.permit = permit;
+            this.response = response;
+            this.startTime = startTime;
+        }
+
+        private void run(boolean failed) {
+            if (released.compareAndSet(false, true)) {
+                permit.release(System.nanoTime() - startTime, failed || response.getStatus() >= 500);
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            run(false);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            run(true);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            run(true);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
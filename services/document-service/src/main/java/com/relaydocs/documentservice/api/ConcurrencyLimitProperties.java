@@ -0,0 +1,118 @@
+package com.relaydocs.documentservice.api;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "relaydocs.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+    private long retryAfterSeconds = 1;
+    private double backoffRatio = 0.9;
+    private Limit read = new Limit(64, 8, 512, Duration.ofMillis(250));
+    private Limit write = new Limit(32, 4, 256, Duration.ofMillis(500));
+    // Fixed in-flight cap for export and bulk streams, which are slow by design and stay out of the adaptive limits.
+    private int bulkLimit = 4;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public void setRetryAfterSeconds(long retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    public void setBackoffRatio(double backoffRatio) {
+        this.backoffRatio = backoffRatio;
+    }
+
+    public Limit getRead() {
+        return read;
+    }
+
+    public void setRead(Limit read) {
+        this.read = read;
+    }
+
+    public Limit getWrite() {
+        return write;
+    }
+
+    public void setWrite(Limit write) {
+        this.write = write;
+    }
+
+    public int getBulkLimit() {
+        return bulkLimit;
+    }
+
+    public void setBulkLimit(int bulkLimit) {
+        this.bulkLimit = bulkLimit;
+    }
+
+    public static class Limit {
+
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+        // Requests slower than this count as an overload signal and shrink the limit.
+        private Duration latencyThreshold;
+
+        public Limit() {
+        }
+
+        Limit(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.latencyThreshold = latencyThreshold;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public Duration getLatencyThreshold() {
+            return latencyThreshold;
+        }
+
+        public void setLatencyThreshold(Duration latencyThreshold) {
+            this.latencyThreshold = latencyThreshold;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.relaydocs.documentservice.api;
+
+import com.relaydocs.documentservice.events.ConsumerBackpressure;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Domain event consumer lag and pause state for autoscalers, served at /actuator/consumer once
+ * "consumer" is added to management.endpoints.web.exposure.include.
+ */
+@Component
+@Endpoint(id = "consumer")
+@ConditionalOnBean(ConsumerBackpressure.class)
+public class ConsumerBackpressureEndpoint {
+
+    private final ConsumerBackpressure consumerBackpressure;
+
+    public ConsumerBackpressureEndpoint(ConsumerBackpressure consumerBackpressure) {
+        this.consumerBackpressure = consumerBackpressure;
+    }
+
+    @ReadOperation
+    public Map<String, Object> consumer() {
+        return consumerBackpressure.status();
+    }
+}
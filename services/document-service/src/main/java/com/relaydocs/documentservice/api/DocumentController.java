@@ -1,38 +1,190 @@
 package com.relaydocs.documentservice.api;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.relaydocs.documentservice.api.dto.CreateDocumentRequest;
+import com.relaydocs.documentservice.api.dto.DocumentChangesApiResponse;
+import com.relaydocs.documentservice.api.dto.DocumentResponse;
+import com.relaydocs.documentservice.api.dto.ImportDocumentsApiResponse;
+import com.relaydocs.documentservice.api.dto.InsertDocumentBlockRequest;
+import com.relaydocs.documentservice.api.dto.ListDocumentBlocksApiResponse;
 import com.relaydocs.documentservice.api.dto.ListDocumentsApiResponse;
 import com.relaydocs.documentservice.api.dto.ShareDocumentRequest;
+import com.relaydocs.documentservice.api.dto.ShareDocumentWithGroupRequest;
 import com.relaydocs.documentservice.api.dto.SingleDocumentApiResponse;
+import com.relaydocs.documentservice.api.dto.SingleDocumentBlockApiResponse;
+import com.relaydocs.documentservice.api.dto.UpdateDocumentBlockRequest;
 import com.relaydocs.documentservice.api.dto.UpdateDocumentRequest;
+import com.relaydocs.documentservice.service.ApiBadRequestException;
+import com.relaydocs.documentservice.service.DocumentBlockService;
+import com.relaydocs.documentservice.service.DocumentBody;
+import com.relaydocs.documentservice.service.DocumentImportService;
+import com.relaydocs.documentservice.service.DocumentListCache;
 import com.relaydocs.documentservice.service.DocumentService;
+import com.relaydocs.documentservice.service.DocumentSnapshot;
+import com.relaydocs.documentservice.service.ShardRouter;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/v1/documents")
 public class DocumentController {
 
     private static final String USER_HEADER = "X-User-Id";
+    private static final List<MediaType> BINARY_MEDIA_TYPES = List.of(
+            MediaType.valueOf("application/x-jackson-smile"),
+            MediaType.APPLICATION_CBOR
+    );
 
     private final DocumentService documentService;
+    private final DocumentBlockService documentBlockService;
+    private final DocumentImportService documentImportService;
+    private final CompressedDocumentCache compressedDocumentCache;
+    private final ShardRouter shardRouter;
+    private final DocumentListCache documentListCache;
+    private final ObjectWriter documentWriter;
+    private final ObjectWriter listWriter;
+    private final JsonFactory jsonFactory;
 
-    public DocumentController(DocumentService documentService) {
+    public DocumentController(
+            DocumentService documentService,
+            DocumentBlockService documentBlockService,
+            DocumentImportService documentImportService,
+            CompressedDocumentCache compressedDocumentCache,
+            ShardRouter shardRouter,
+            DocumentListCache documentListCache,
+            ObjectMapper objectMapper
+    ) {
         this.documentService = documentService;
+        this.documentBlockService = documentBlockService;
+        this.documentImportService = documentImportService;
+        this.compressedDocumentCache = compressedDocumentCache;
+        this.shardRouter = shardRouter;
+        this.documentListCache = documentListCache;
+        this.documentWriter = objectMapper.writerFor(DocumentResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.listWriter = objectMapper.writerFor(ListDocumentsApiResponse.class);
+        this.jsonFactory = objectMapper.getFactory();
     }
 
     @GetMapping
-    public ResponseEntity<ListDocumentsApiResponse> listDocuments(@RequestHeader(USER_HEADER) String actorUserId) {
-        return ResponseEntity.ok(new ListDocumentsApiResponse(documentService.listVisibleDocuments(actorUserId)));
+    public ResponseEntity<?> listDocuments(
+            @RequestHeader(USER_HEADER) String actorUserId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept
+    ) {
+        // Binary formats go through normal content negotiation and are never cached.
+        if (!documentListCache.isEnabled() || !negotiatesJson(accept)) {
+            return ResponseEntity.ok(new ListDocumentsApiResponse(listVisibleDocuments(actorUserId)));
+        }
+
+        byte[] cached = documentListCache.get(actorUserId);
+        if (cached == null) {
+            long readSequence = documentListCache.beginRead();
+            List<DocumentResponse> documents = listVisibleDocuments(actorUserId);
+            try {
+                cached = listWriter.writeValueAsBytes(new ListDocumentsApiResponse(documents));
+            } catch (JsonProcessingException exception) {
+                throw new UncheckedIOException(exception);
+            }
+            long[] documentIds = documents.stream().mapToLong(DocumentResponse::id).sorted().toArray();
+            documentListCache.put(actorUserId, readSequence, documentIds, cached);
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(cached);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportDocuments(@RequestHeader(USER_HEADER) String actorUserId) {
+        StreamingResponseBody body = (outputStream) -> {
+            try (JsonGenerator generator = documentWriter.getFactory().createGenerator(outputStream)) {
+                generator.writeStartObject();
+                generator.writeArrayFieldStart("documents");
+                // Sharded exports are ordered by id within each shard, one shard after another.
+                shardRouter.forEachShard(() -> documentService.streamVisibleDocuments(
+                        actorUserId,
+                        (document) -> writeDocument(generator, document)
+                ));
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Streams the documents the user owns as newline-delimited JSON, one document per line, in the
+     * format {@code POST /bulk} accepts.
+     */
+    @GetMapping(value = "/bulk", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportOwnedDocuments(@RequestHeader(USER_HEADER) String actorUserId) {
+        StreamingResponseBody body = (outputStream) -> {
+            try (JsonGenerator generator = documentWriter.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                shardRouter.forEachShard(() -> documentService.streamOwnedDocuments(actorUserId, (document) -> {
+                    writeDocument(generator, document);
+                    try {
+                        generator.writeRaw('\n');
+                    } catch (IOException exception) {
+                        throw new UncheckedIOException(exception);
+                    }
+                }));
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ImportDocumentsApiResponse> importDocuments(
+            @RequestHeader(USER_HEADER) String actorUserId,
+            InputStream body
+    ) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(shardRouter.onOwnerShard(
+                        actorUserId,
+                        () -> documentImportService.importDocuments(actorUserId, body)
+                ));
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<DocumentChangesApiResponse> listChanges(
+            @RequestHeader(USER_HEADER) String actorUserId,
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "200") int limit
+    ) {
+        if (shardRouter.isEnabled()) {
+            // Change sequences are per shard and cannot be merged into one cursor; clients fall back to a full list.
+            throw new ApiBadRequestException("Change feed is not available when sharding is enabled");
+        }
+        return ResponseEntity.ok(documentService.listChangesSince(actorUserId, since, limit));
     }
 
     @PostMapping
@@ -41,15 +193,51 @@ public class DocumentController {
             @RequestBody @Valid CreateDocumentRequest request
     ) {
         return ResponseEntity.status(HttpStatus.CREATED)
-                .body(new SingleDocumentApiResponse(documentService.createDocument(actorUserId, request)));
+                .body(new SingleDocumentApiResponse(shardRouter.onOwnerShard(
+                        actorUserId,
+                        () -> documentService.createDocument(actorUserId, request)
+                )));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<SingleDocumentApiResponse> getDocument(
+    public ResponseEntity<?> getDocument(
             @RequestHeader(USER_HEADER) String actorUserId,
-            @PathVariable Long id
-    ) {
-        return ResponseEntity.ok(new SingleDocumentApiResponse(documentService.getDocument(id, actorUserId)));
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse servletResponse
+    ) throws IOException {
+        // Binary formats go through normal content negotiation.
+        if (!negotiatesJson(accept)) {
+            DocumentSnapshot snapshot = shardRouter.onDocumentShard(id, () -> documentService.getDocumentSnapshot(id, actorUserId));
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .body(new SingleDocumentApiResponse(snapshot.document()));
+        }
+
+        try (DocumentBody body = shardRouter.onDocumentShard(id, () -> documentService.openDocument(id, actorUserId))) {
+            if (acceptsGzip(acceptEncoding)) {
+                CompressedDocumentCache.EncodedBody encoded = compressedDocumentCache.get(
+                        id,
+                        body.version(),
+                        () -> serialize(body)
+                );
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                if (encoded.gzipped()) {
+                    response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+                }
+                return response.body(encoded.bytes());
+            }
+
+            // Written here rather than returned so the pinned content is released as soon as it has been sent.
+            servletResponse.setStatus(HttpStatus.OK.value());
+            servletResponse.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            servletResponse.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            writeDocumentBody(body, servletResponse.getOutputStream());
+            return null;
+        }
     }
 
     @PatchMapping("/{id}")
@@ -58,7 +246,9 @@ public class DocumentController {
             @PathVariable Long id,
             @RequestBody @Valid UpdateDocumentRequest request
     ) {
-        return ResponseEntity.ok(new SingleDocumentApiResponse(documentService.updateDocument(id, actorUserId, request)));
+        return ResponseEntity.ok(new SingleDocumentApiResponse(
+                shardRouter.onDocumentShard(id, () -> documentService.updateDocument(id, actorUserId, request))
+        ));
     }
 
     @PostMapping("/{id}/share")
@@ -67,6 +257,179 @@ public class DocumentController {
             @PathVariable Long id,
             @RequestBody @Valid ShareDocumentRequest request
     ) {
-        return ResponseEntity.ok(new SingleDocumentApiResponse(documentService.shareDocument(id, actorUserId, request)));
+        return ResponseEntity.ok(new SingleDocumentApiResponse(
+                shardRouter.onDocumentShard(id, () -> documentService.shareDocument(id, actorUserId, request))
+        ));
+    }
+
+    @DeleteMapping("/{id}/share/{userId}")
+    public ResponseEntity<SingleDocumentApiResponse> unshareDocument(
+            @RequestHeader(USER_HEADER) String actorUserId,
+            @PathVariable Long id,
+            @PathVariable String userId
+    ) {
+        return ResponseEntity.ok(new SingleDocumentApiResponse(
+                shardRouter.onDocumentShard(id, () -> documentService.unshareDocument(id, actorUserId, userId))
+        ));
+    }
+
+    @PostMapping("/{id}/group-shares")
+    public ResponseEntity<SingleDocumentApiResponse> shareDocumentWithGroup(
+            @RequestHeader(USER_HEADER) String actorUserId,
+            @PathVariable Long id,
+            @RequestBody @Valid ShareDocumentWithGroupRequest request
+    ) {
+        requireGroupsAvailable();
+        return ResponseEntity.ok(new SingleDocumentApiResponse(
+                documentService.shareDocumentWithGroup(id, actorUserId, request)
+        ));
+    }
+
+    @DeleteMapping("/{id}/group-shares/{groupId}")
+    public ResponseEntity<SingleDocumentApiResponse> unshareDocumentWithGroup(
+            @RequestHeader(USER_HEADER) String actorUserId,
+            @PathVariable Long id,
+            @PathVariable Long groupId
+    ) {
+        requireGroupsAvailable();
+        return ResponseEntity.ok(new SingleDocumentApiResponse(
+                documentService.unshareDocumentWithGroup(id, actorUserId, groupId)
+        ));
+    }
+
+    @GetMapping("/{id}/blocks")
+    public ResponseEntity<ListDocumentBlocksApiResponse> listBlocks(
+            @RequestHeader(USER_HEADER) String actorUserId,
+            @PathVariable Long id,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") int limit
+    ) {
+        return ResponseEntity.ok(shardRouter.onDocumentShard(
+                id,
+                () -> documentBlockService.listBlocks(id, actorUserId, after, limit)
+        ));
+    }
+
+    @PostMapping("/{id}/blocks")
+    public ResponseEntity<SingleDocumentBlockApiResponse> insertBlock(
+            @RequestHeader(USER_HEADER) String actorUserId,
+            @PathVariable Long id,
+            @RequestBody @Valid InsertDocumentBlockRequest request
+    ) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(new SingleDocumentBlockApiResponse(
+                        shardRouter.onDocumentShard(id, () -> documentBlockService.insertBlock(id, actorUserId, request))
+                ));
+    }
+
+    @PutMapping("/{id}/blocks/{blockKey}")
+    public ResponseEntity<SingleDocumentBlockApiResponse> updateBlock(
+            @RequestHeader(USER_HEADER) String actorUserId,
+            @PathVariable Long id,
+            @PathVariable String blockKey,
+            @RequestBody @Valid UpdateDocumentBlockRequest request
+    ) {
+        return ResponseEntity.ok(new SingleDocumentBlockApiResponse(
+                shardRouter.onDocumentShard(id, () -> documentBlockService.updateBlock(id, actorUserId, blockKey, request))
+        ));
+    }
+
+    private void requireGroupsAvailable() {
+        if (shardRouter.isEnabled()) {
+            throw new ApiBadRequestException("Groups are not available when sharding is enabled");
+        }
+    }
+
+    private List<DocumentResponse> listVisibleDocuments(String actorUserId) {
+        return shardRouter.onEveryShard(
+                () -> documentService.listVisibleDocuments(actorUserId),
+                Comparator.comparing(DocumentResponse::id)
+        );
+    }
+
+    private void writeDocument(JsonGenerator generator, DocumentResponse document) {
+        try {
+            documentWriter.writeValue(generator, document);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private byte[] serialize(DocumentBody body) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream((int) Math.min(Integer.MAX_VALUE - 8, body.content().length() + 512));
+        try {
+            writeDocumentBody(body, buffer);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Writes the same JSON as serializing {@link SingleDocumentApiResponse}, except that the
+     * content is copied from the body's UTF-8 buffers instead of a {@code String}.
+     */
+    private void writeDocumentBody(DocumentBody body, OutputStream output) throws IOException {
+        DocumentResponse document = body.document();
+        try (JsonGenerator generator = jsonFactory.createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeObjectFieldStart("document");
+            generator.writeNumberField("id", document.id());
+            generator.writeStringField("ownerUserId", document.ownerUserId());
+            generator.writeStringField("title", document.title());
+            generator.writeFieldName("content");
+            // An empty raw value only emits the separator; the string itself goes straight to the stream.
+            generator.writeRawValue("");
+            generator.flush();
+            Utf8JsonStrings.writeQuoted(body.content().chunks(), output);
+            generator.writeObjectField("sharedWith", document.sharedWith());
+            generator.writeObjectField("createdAt", document.createdAt());
+            generator.writeObjectField("updatedAt", document.updatedAt());
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+    }
+
+    private static boolean negotiatesJson(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        double jsonQuality = 0;
+        double wildcardQuality = 0;
+        double binaryQuality = 0;
+        try {
+            for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+                if (mediaType.equalsTypeAndSubtype(MediaType.APPLICATION_JSON)) {
+                    jsonQuality = Math.max(jsonQuality, mediaType.getQualityValue());
+                } else if (mediaType.includes(MediaType.APPLICATION_JSON)) {
+                    wildcardQuality = Math.max(wildcardQuality, mediaType.getQualityValue());
+                } else if (BINARY_MEDIA_TYPES.stream().anyMatch(mediaType::equalsTypeAndSubtype)) {
+                    binaryQuality = Math.max(binaryQuality, mediaType.getQualityValue());
+                }
+            }
+        } catch (InvalidMediaTypeException exception) {
+            return true;
+        }
+        // An explicitly listed binary type beats wildcards, matching Spring's specificity rules.
+        if (binaryQuality > 0) {
+            return jsonQuality >= binaryQuality;
+        }
+        return jsonQuality > 0 || wildcardQuality > 0;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String candidate : acceptEncoding.split(",")) {
+            String[] parts = candidate.trim().split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            boolean rejected = parts.length > 1 && parts[1].trim().matches("q=0(\\.0*)?");
+            if (("gzip".equals(coding) || "*".equals(coding)) && !rejected) {
+                return true;
+            }
+        }
+        return false;
     }
 }
\ No newline at end of file
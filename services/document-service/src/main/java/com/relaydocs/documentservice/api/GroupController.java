@@ -0,0 +1,78 @@
+package com.relaydocs.documentservice.api;
+
+import com.relaydocs.documentservice.api.dto.CreateGroupRequest;
+import com.relaydocs.documentservice.api.dto.ListGroupsApiResponse;
+import com.relaydocs.documentservice.api.dto.SingleGroupApiResponse;
+import com.relaydocs.documentservice.service.ApiBadRequestException;
+import com.relaydocs.documentservice.service.GroupService;
+import com.relaydocs.documentservice.service.ShardRouter;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/groups")
+public class GroupController {
+
+    private static final String USER_HEADER = "X-User-Id";
+
+    private final GroupService groupService;
+    private final ShardRouter shardRouter;
+
+    public GroupController(GroupService groupService, ShardRouter shardRouter) {
+        this.groupService = groupService;
+        this.shardRouter = shardRouter;
+    }
+
+    @PostMapping
+    public ResponseEntity<SingleGroupApiResponse> createGroup(
+            @RequestHeader(USER_HEADER) String actorUserId,
+            @RequestBody @Valid CreateGroupRequest request
+    ) {
+        requireUnsharded();
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(new SingleGroupApiResponse(groupService.createGroup(actorUserId, request.name())));
+    }
+
+    @GetMapping
+    public ResponseEntity<ListGroupsApiResponse> listGroups(@RequestHeader(USER_HEADER) String actorUserId) {
+        requireUnsharded();
+        return ResponseEntity.ok(new ListGroupsApiResponse(groupService.listGroups(actorUserId)));
+    }
+
+    @PutMapping("/{id}/members/{userId}")
+    public ResponseEntity<SingleGroupApiResponse> addMember(
+            @RequestHeader(USER_HEADER) String actorUserId,
+            @PathVariable Long id,
+            @PathVariable String userId
+    ) {
+        requireUnsharded();
+        return ResponseEntity.ok(new SingleGroupApiResponse(groupService.addMember(id, actorUserId, userId)));
+    }
+
+    @DeleteMapping("/{id}/members/{userId}")
+    public ResponseEntity<SingleGroupApiResponse> removeMember(
+            @RequestHeader(USER_HEADER) String actorUserId,
+            @PathVariable Long id,
+            @PathVariable String userId
+    ) {
+        requireUnsharded();
+        return ResponseEntity.ok(new SingleGroupApiResponse(groupService.removeMember(id, actorUserId, userId)));
+    }
+
+    private void requireUnsharded() {
+        if (shardRouter.isEnabled()) {
+            // Group grants reference groups by foreign key, which cannot span shard databases.
+            throw new ApiBadRequestException("Groups are not available when sharding is enabled");
+        }
+    }
+}
@@ -1,5 +1,10 @@
 package com.relaydocs.documentservice.api;
 
+import com.relaydocs.documentservice.persistence.QueryStats;
+import com.relaydocs.documentservice.persistence.QueryStatsProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,15 +14,38 @@ import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class RequestCorrelationFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(RequestCorrelationFilter.class);
     private static final String REQUEST_ID_HEADER = "X-Request-Id";
     private static final String REQUEST_ID_MDC_KEY = "requestId";
+    public static final String QUERY_STATS_ATTRIBUTE = RequestCorrelationFilter.class.getName() + ".queryStats";
+    // Untagged so one recent p99 covers every interactive route; read by the Kafka consumer backpressure.
+    // Export and bulk streams and password hashing are slow by design and are left out.
+    public static final String LATENCY_TIMER = "relaydocs.http.server.latency";
+    private static final String AUTH_PATH_PREFIX = "/api/v1/auth";
+
+    private final MeterRegistry meterRegistry;
+    private final QueryStatsProperties queryStatsProperties;
+    private final Timer latencyTimer;
+
+    public RequestCorrelationFilter(MeterRegistry meterRegistry, QueryStatsProperties queryStatsProperties) {
+        this.meterRegistry = meterRegistry;
+        this.queryStatsProperties = queryStatsProperties;
+        this.latencyTimer = Timer.builder(LATENCY_TIMER)
+                .publishPercentiles(0.99)
+                .distributionStatisticExpiry(Duration.ofSeconds(30))
+                .distributionStatisticBufferLength(3)
+                .register(meterRegistry);
+    }
 
     @Override
     protected void doFilterInternal(
@@ -27,25 +55,72 @@ public class RequestCorrelationFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
         String requestId = resolveRequestId(request.getHeader(REQUEST_ID_HEADER));
         long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
 
         response.setHeader(REQUEST_ID_HEADER, requestId);
         MDC.put(REQUEST_ID_MDC_KEY, requestId);
+        QueryStats.begin();
 
         try {
             filterChain.doFilter(request, response);
         } finally {
             long durationMs = System.currentTimeMillis() - startTime;
+            if (isInteractive(request.getRequestURI())) {
+                latencyTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            }
+            QueryStats queryStats = QueryStats.end();
+            request.setAttribute(QUERY_STATS_ATTRIBUTE, queryStats);
             logger.info(
-                    "http_request method={} path={} status={} durationMs={}",
+                    "http_request method={} path={} status={} durationMs={} queries={} rows={} jdbcMs={}",
                     request.getMethod(),
                     request.getRequestURI(),
                     response.getStatus(),
-                    durationMs
+                    durationMs,
+                    queryStats.getStatements(),
+                    queryStats.getRows(),
+                    queryStats.getJdbcMillis()
             );
+            recordQueryStats(request, queryStats);
             MDC.remove(REQUEST_ID_MDC_KEY);
         }
     }
 
+    private void recordQueryStats(HttpServletRequest request, QueryStats queryStats) {
+        if (queryStats.getStatements() == 0) {
+            return;
+        }
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        DistributionSummary.builder("relaydocs.http.request.queries")
+                .tags("method", request.getMethod(), "uri", uri)
+                .register(meterRegistry)
+                .record(queryStats.getStatements());
+        DistributionSummary.builder("relaydocs.http.request.rows")
+                .tags("method", request.getMethod(), "uri", uri)
+                .register(meterRegistry)
+                .record(queryStats.getRows());
+        Timer.builder("relaydocs.http.request.jdbc")
+                .tags("method", request.getMethod(), "uri", uri)
+                .register(meterRegistry)
+                .record(queryStats.getJdbcNanos(), TimeUnit.NANOSECONDS);
+
+        Map.Entry<String, Integer> repeated = queryStats.mostRepeatedStatement();
+        if (repeated != null && repeated.getValue() >= queryStatsProperties.getRepeatedStatementWarnThreshold()) {
+            logger.warn(
+                    "repeated_statement method={} uri={} executions={} sql={}",
+                    request.getMethod(),
+                    uri,
+                    repeated.getValue(),
+                    repeated.getKey()
+            );
+        }
+    }
+
+    private static boolean isInteractive(String path) {
+        return !ConcurrencyLimitFilter.BULK_PATHS.contains(path) && !path.startsWith(AUTH_PATH_PREFIX);
+    }
+
     private String resolveRequestId(String incomingRequestId) {
         if (incomingRequestId != null && !incomingRequestId.trim().isEmpty()) {
             return incomingRequestId.trim();
@@ -0,0 +1,28 @@
+package com.relaydocs.documentservice.api;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "relaydocs.compression")
+public class ResponseCompressionProperties {
+
+    private long cacheMaxBytes = 32L * 1024 * 1024;
+    private int minResponseBytes = 1024;
+
+    public long getCacheMaxBytes() {
+        return cacheMaxBytes;
+    }
+
+    public void setCacheMaxBytes(long cacheMaxBytes) {
+        this.cacheMaxBytes = cacheMaxBytes;
+    }
+
+    public int getMinResponseBytes() {
+        return minResponseBytes;
+    }
+
+    public void setMinResponseBytes(int minResponseBytes) {
+        this.minResponseBytes = minResponseBytes;
+    }
+}
@@ -0,0 +1,46 @@
+package com.relaydocs.documentservice.api;
+
+import com.relaydocs.documentservice.service.ShardRebalancer;
+import com.relaydocs.documentservice.service.ShardRouter;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Operator tool for sharded deployments, served at /actuator/shards once "shards" is added to
+ * management.endpoints.web.exposure.include. {@code POST /actuator/shards/{ownerId}} with
+ * {@code {"targetShard": n}} moves that owner's documents online.
+ */
+@Component
+@Endpoint(id = "shards")
+@ConditionalOnProperty(name = "relaydocs.sharding.enabled", havingValue = "true")
+public class ShardRebalanceEndpoint {
+
+    private final ShardRouter shardRouter;
+    private final ShardRebalancer shardRebalancer;
+
+    public ShardRebalanceEndpoint(ShardRouter shardRouter, ShardRebalancer shardRebalancer) {
+        this.shardRouter = shardRouter;
+        this.shardRebalancer = shardRebalancer;
+    }
+
+    @ReadOperation
+    public Map<String, Object> shards() {
+        return Map.of("shardCount", shardRouter.shardCount());
+    }
+
+    @ReadOperation
+    public Map<String, Object> owner(@Selector String ownerId) {
+        return Map.of("ownerUserId", ownerId, "shard", shardRouter.shardForOwner(ownerId));
+    }
+
+    @WriteOperation
+    public ShardRebalancer.MoveResult moveOwner(@Selector String ownerId, int targetShard) {
+        return shardRebalancer.moveOwner(ownerId, targetShard);
+    }
+}
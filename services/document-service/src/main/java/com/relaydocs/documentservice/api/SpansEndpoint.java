@@ -0,0 +1,124 @@
+package com.relaydocs.documentservice.api;
+
+import com.relaydocs.documentservice.service.LocalSpanExporter;
+import com.relaydocs.documentservice.service.LocalSpanExporter.RecordedSpan;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Latency breakdown over the spans retained by {@link LocalSpanExporter}, served at
+ * /actuator/spans once "spans" is added to management.endpoints.web.exposure.include.
+ * {@code GET /actuator/spans} totals time per span name and lists the latest traces;
+ * {@code GET /actuator/spans/{traceId}} lists one trace's spans in start order with the time
+ * each spent outside its children.
+ */
+@Component
+@Endpoint(id = "spans")
+public class SpansEndpoint {
+
+    private static final int LATEST_TRACES = 50;
+
+    private final LocalSpanExporter localSpanExporter;
+
+    public SpansEndpoint(LocalSpanExporter localSpanExporter) {
+        this.localSpanExporter = localSpanExporter;
+    }
+
+    @ReadOperation
+    public Map<String, Object> summary() {
+        List<RecordedSpan> spans = localSpanExporter.recentSpans();
+        Set<String> spanIds = new HashSet<>();
+        for (RecordedSpan span : spans) {
+            spanIds.add(span.spanId());
+        }
+        Map<String, long[]> byName = new HashMap<>();
+        List<RecordedSpan> roots = new ArrayList<>();
+        for (RecordedSpan span : spans) {
+            // count, total, max
+            long[] totals = byName.computeIfAbsent(span.name(), (name) -> new long[3]);
+            totals[0]++;
+            totals[1] += span.durationNanos();
+            totals[2] = Math.max(totals[2], span.durationNanos());
+            // A consumer span whose producer ran elsewhere is the root of this process's part of the trace.
+            if (span.parentSpanId() == null || !spanIds.contains(span.parentSpanId())) {
+                roots.add(span);
+            }
+        }
+
+        List<Map<String, Object>> operations = byName.entrySet()
+                .stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, long[]> entry) -> entry.getValue()[1]).reversed())
+                .map((entry) -> {
+                    long[] totals = entry.getValue();
+                    Map<String, Object> operation = new LinkedHashMap<>();
+                    operation.put("name", entry.getKey());
+                    operation.put("count", totals[0]);
+                    operation.put("totalMs", millis(totals[1]));
+                    operation.put("avgMs", millis(totals[1] / totals[0]));
+                    operation.put("maxMs", millis(totals[2]));
+                    return operation;
+                })
+                .toList();
+        List<Map<String, Object>> traces = new ArrayList<>();
+        for (int index = roots.size() - 1; index >= 0 && traces.size() < LATEST_TRACES; index--) {
+            RecordedSpan root = roots.get(index);
+            Map<String, Object> trace = new LinkedHashMap<>();
+            trace.put("traceId", root.traceId());
+            trace.put("name", root.name());
+            trace.put("durationMs", millis(root.durationNanos()));
+            trace.put("error", root.error());
+            traces.add(trace);
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("spans", spans.size());
+        summary.put("operations", operations);
+        summary.put("latestTraces", traces);
+        return summary;
+    }
+
+    @ReadOperation
+    public List<Map<String, Object>> trace(@Selector String traceId) {
+        List<RecordedSpan> spans = new ArrayList<>(localSpanExporter.trace(traceId));
+        spans.sort(Comparator.comparingLong(RecordedSpan::startEpochNanos));
+        Map<String, Long> childNanos = new HashMap<>();
+        for (RecordedSpan span : spans) {
+            if (span.parentSpanId() != null) {
+                childNanos.merge(span.parentSpanId(), span.durationNanos(), Long::sum);
+            }
+        }
+        long traceStart = spans.isEmpty() ? 0L : spans.get(0).startEpochNanos();
+
+        List<Map<String, Object>> breakdown = new ArrayList<>(spans.size());
+        for (RecordedSpan span : spans) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("spanId", span.spanId());
+            entry.put("parentSpanId", span.parentSpanId());
+            entry.put("name", span.name());
+            entry.put("kind", span.kind());
+            entry.put("startOffsetMs", millis(span.startEpochNanos() - traceStart));
+            entry.put("durationMs", millis(span.durationNanos()));
+            // Children of a consumer or async span can outlast it; never report negative self time.
+            entry.put("selfMs", millis(Math.max(0L, span.durationNanos() - childNanos.getOrDefault(span.spanId(), 0L))));
+            entry.put("error", span.error());
+            entry.put("attributes", span.attributes());
+            breakdown.add(entry);
+        }
+        return breakdown;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
@@ -0,0 +1,84 @@
+package com.relaydocs.documentservice.api;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Writes UTF-8 text as a quoted JSON string straight from byte buffers, escaping it the way
+ * Jackson's default generator does, so cached content never has to become a {@code String}.
+ */
+final class Utf8JsonStrings {
+
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes();
+    private static final int BUFFER_BYTES = 8 * 1024;
+
+    private Utf8JsonStrings() {
+    }
+
+    static void writeQuoted(List<ByteBuffer> utf8, OutputStream output) throws IOException {
+        // Room for an escaped surrogate pair past the flush threshold.
+        byte[] buffer = new byte[BUFFER_BYTES + 12];
+        int used = 0;
+        int codePoint = 0;
+        int continuationBytes = 0;
+        buffer[used++] = '"';
+        for (ByteBuffer chunk : utf8) {
+            while (chunk.hasRemaining()) {
+                if (used >= BUFFER_BYTES) {
+                    output.write(buffer, 0, used);
+                    used = 0;
+                }
+                byte value = chunk.get();
+                if (continuationBytes > 0) {
+                    codePoint = (codePoint << 6) | (value & 0x3F);
+                    if (--continuationBytes == 0) {
+                        used = escapeUnicode(Character.highSurrogate(codePoint), buffer, used);
+                        used = escapeUnicode(Character.lowSurrogate(codePoint), buffer, used);
+                    }
+                } else if ((value & 0xF8) == 0xF0) {
+                    // Jackson writes characters outside the BMP as an escaped surrogate pair.
+                    codePoint = value & 0x07;
+                    continuationBytes = 3;
+                } else if (value == '"' || value == '\\') {
+                    buffer[used++] = '\\';
+                    buffer[used++] = value;
+                } else if (value >= 0 && value < 0x20) {
+                    used = escapeControl(value, buffer, used);
+                } else {
+                    buffer[used++] = value;
+                }
+            }
+        }
+        buffer[used++] = '"';
+        output.write(buffer, 0, used);
+    }
+
+    private static int escapeControl(byte value, byte[] buffer, int used) {
+        byte shortForm = switch (value) {
+            case '\b' -> 'b';
+            case '\t' -> 't';
+            case '\n' -> 'n';
+            case '\f' -> 'f';
+            case '\r' -> 'r';
+            default -> 0;
+        };
+        if (shortForm == 0) {
+            return escapeUnicode((char) value, buffer, used);
+        }
+        buffer[used++] = '\\';
+        buffer[used++] = shortForm;
+        return used;
+    }
+
+    private static int escapeUnicode(char value, byte[] buffer, int used) {
+        buffer[used++] = '\\';
+        buffer[used++] = 'u';
+        buffer[used++] = HEX[(value >> 12) & 0xF];
+        buffer[used++] = HEX[(value >> 8) & 0xF];
+        buffer[used++] = HEX[(value >> 4) & 0xF];
+        buffer[used++] = HEX[value & 0xF];
+        return used;
+    }
+}
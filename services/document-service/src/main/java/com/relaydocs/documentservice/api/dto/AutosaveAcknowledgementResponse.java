@@ -0,0 +1,15 @@
+package com.relaydocs.documentservice.api.dto;
+
+import java.time.Instant;
+
+/**
+ * @param flushBy  when the buffered save will be written, or null once it has been
+ * @param buffered false when the save was written before responding
+ */
+public record AutosaveAcknowledgementResponse(
+        Long documentId,
+        long sequence,
+        Instant flushBy,
+        boolean buffered
+) {
+}
@@ -0,0 +1,9 @@
+package com.relaydocs.documentservice.api.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public record CreateGroupRequest(
+        @NotBlank @Size(max = 255) String name
+) {
+}
@@ -0,0 +1,10 @@
+package com.relaydocs.documentservice.api.dto;
+
+import java.time.Instant;
+
+public record DocumentBlockResponse(
+        String key,
+        String content,
+        Instant updatedAt
+) {
+}
@@ -0,0 +1,11 @@
+package com.relaydocs.documentservice.api.dto;
+
+import java.util.List;
+
+public record DocumentChangesApiResponse(
+        List<DocumentResponse> documents,
+        List<Long> tombstones,
+        long cursor,
+        boolean hasMore
+) {
+}
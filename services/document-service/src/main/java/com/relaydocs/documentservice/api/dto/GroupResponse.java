@@ -0,0 +1,11 @@
+package com.relaydocs.documentservice.api.dto;
+
+import java.time.Instant;
+
+public record GroupResponse(
+        Long id,
+        String ownerUserId,
+        String name,
+        Instant createdAt
+) {
+}
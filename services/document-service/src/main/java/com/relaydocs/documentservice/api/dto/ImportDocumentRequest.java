@@ -0,0 +1,18 @@
+package com.relaydocs.documentservice.api.dto;
+
+import com.relaydocs.documentservice.domain.PermissionRole;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+import java.util.Map;
+
+/**
+ * One line of a bulk import. Lines written by the bulk export also carry ids and timestamps,
+ * which are ignored.
+ */
+public record ImportDocumentRequest(
+        @NotBlank @Size(max = 255) String title,
+        @NotBlank @Size(max = 100000) String content,
+        Map<String, PermissionRole> sharedWith
+) {
+}
@@ -0,0 +1,15 @@
+package com.relaydocs.documentservice.api.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Positions the new block right after {@code afterKey} or right before {@code beforeKey};
+ * with neither set the block is appended.
+ */
+public record InsertDocumentBlockRequest(
+        @Size(max = 255) String afterKey,
+        @Size(max = 255) String beforeKey,
+        @NotNull @Size(max = 100000) String content
+) {
+}
@@ -0,0 +1,6 @@
+package com.relaydocs.documentservice.api.dto;
+
+import java.util.List;
+
+public record ListDocumentBlocksApiResponse(List<DocumentBlockResponse> blocks, String nextAfter) {
+}
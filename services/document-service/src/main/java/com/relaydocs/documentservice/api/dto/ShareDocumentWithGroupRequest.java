@@ -0,0 +1,10 @@
+package com.relaydocs.documentservice.api.dto;
+
+import com.relaydocs.documentservice.domain.PermissionRole;
+import jakarta.validation.constraints.NotNull;
+
+public record ShareDocumentWithGroupRequest(
+        @NotNull Long groupId,
+        @NotNull PermissionRole role
+) {
+}
@@ -0,0 +1,4 @@
+package com.relaydocs.documentservice.api.dto;
+
+public record SingleGroupApiResponse(GroupResponse group) {
+}
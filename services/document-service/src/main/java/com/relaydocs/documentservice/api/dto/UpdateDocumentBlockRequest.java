@@ -0,0 +1,9 @@
+package com.relaydocs.documentservice.api.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+public record UpdateDocumentBlockRequest(
+        @NotNull @Size(max = 100000) String content
+) {
+}
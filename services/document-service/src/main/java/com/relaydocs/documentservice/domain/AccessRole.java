@@ -0,0 +1,15 @@
+package com.relaydocs.documentservice.domain;
+
+public enum AccessRole {
+    OWNER,
+    EDITOR,
+    VIEWER;
+
+    public static AccessRole fromPermission(PermissionRole role) {
+        return role == PermissionRole.EDITOR ? EDITOR : VIEWER;
+    }
+
+    public boolean canEdit() {
+        return this != VIEWER;
+    }
+}
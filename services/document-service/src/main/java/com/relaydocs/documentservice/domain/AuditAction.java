@@ -0,0 +1,13 @@
+package com.relaydocs.documentservice.domain;
+
+public enum AuditAction {
+    LOGIN_SUCCEEDED,
+    LOGIN_FAILED,
+    DOCUMENT_SHARED,
+    DOCUMENT_UNSHARED,
+    DOCUMENT_GROUP_SHARED,
+    DOCUMENT_GROUP_UNSHARED,
+    GROUP_MEMBER_ADDED,
+    GROUP_MEMBER_REMOVED,
+    DOCUMENTS_IMPORTED
+}
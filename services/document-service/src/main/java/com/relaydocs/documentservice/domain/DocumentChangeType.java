@@ -0,0 +1,6 @@
+package com.relaydocs.documentservice.domain;
+
+public enum DocumentChangeType {
+    UPSERT,
+    REVOKE
+}
@@ -0,0 +1,343 @@
+package com.relaydocs.documentservice.domain;
+
+import java.util.Arrays;
+
+/**
+ * Compressed set of document ids laid out like a Roaring bitmap: ids are split into a high key
+ * ({@code id >>> 16}) and a 16-bit low part, and each key owns one container. Sparse containers
+ * are sorted {@code char} arrays; once a container holds more than {@value #ARRAY_LIMIT} values
+ * it becomes a 65536-bit bitset, which is smaller from that point on. Not thread-safe.
+ */
+public final class DocumentIdBitmap {
+
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int BITSET_WORDS = 1 << 10;
+
+    private long[] keys = new long[0];
+    private Container[] containers = new Container[0];
+    private int size;
+
+    public static DocumentIdBitmap of(long... documentIds) {
+        DocumentIdBitmap bitmap = new DocumentIdBitmap();
+        for (long documentId : documentIds) {
+            bitmap.add(documentId);
+        }
+        return bitmap;
+    }
+
+    public boolean add(long documentId) {
+        int index = indexOf(highBits(documentId));
+        if (index < 0) {
+            index = -index - 1;
+            insertContainer(index, highBits(documentId), new ArrayContainer());
+        }
+        Container container = containers[index];
+        boolean added = container.add(lowBits(documentId));
+        if (container instanceof ArrayContainer array && array.cardinality > ARRAY_LIMIT) {
+            containers[index] = array.toBitset();
+        }
+        return added;
+    }
+
+    public boolean remove(long documentId) {
+        int index = indexOf(highBits(documentId));
+        if (index < 0) {
+            return false;
+        }
+        Container container = containers[index];
+        boolean removed = container.remove(lowBits(documentId));
+        if (container.cardinality() == 0) {
+            removeContainer(index);
+        } else if (container instanceof BitsetContainer bitset && bitset.cardinality <= ARRAY_LIMIT) {
+            containers[index] = bitset.toArray();
+        }
+        return removed;
+    }
+
+    public boolean contains(long documentId) {
+        int index = indexOf(highBits(documentId));
+        return index >= 0 && containers[index].contains(lowBits(documentId));
+    }
+
+    /**
+     * Adds every id in {@code other} to this bitmap.
+     */
+    public void or(DocumentIdBitmap other) {
+        for (int otherIndex = 0; otherIndex < other.size; otherIndex++) {
+            int index = indexOf(other.keys[otherIndex]);
+            if (index < 0) {
+                insertContainer(-index - 1, other.keys[otherIndex], other.containers[otherIndex].copy());
+                continue;
+            }
+            Container merged = containers[index].or(other.containers[otherIndex]);
+            containers[index] = merged instanceof ArrayContainer array && array.cardinality > ARRAY_LIMIT
+                    ? array.toBitset()
+                    : merged;
+        }
+    }
+
+    public long cardinality() {
+        long cardinality = 0;
+        for (int index = 0; index < size; index++) {
+            cardinality += containers[index].cardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public DocumentIdBitmap copy() {
+        DocumentIdBitmap copy = new DocumentIdBitmap();
+        copy.keys = Arrays.copyOf(keys, size);
+        copy.containers = new Container[size];
+        for (int index = 0; index < size; index++) {
+            copy.containers[index] = containers[index].copy();
+        }
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * @return the ids in ascending order
+     */
+    public long[] toArray() {
+        long[] values = new long[Math.toIntExact(cardinality())];
+        int used = 0;
+        for (int index = 0; index < size; index++) {
+            used = containers[index].appendTo(values, used, keys[index] << 16);
+        }
+        return values;
+    }
+
+    private int indexOf(long key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insertContainer(int index, long key, Container container) {
+        if (size == keys.length) {
+            int capacity = Math.max(4, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void removeContainer(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        containers[--size] = null;
+    }
+
+    private static long highBits(long documentId) {
+        if (documentId < 0) {
+            throw new IllegalArgumentException("Document ids are never negative");
+        }
+        return documentId >>> 16;
+    }
+
+    private static char lowBits(long documentId) {
+        return (char) documentId;
+    }
+
+    private sealed interface Container permits ArrayContainer, BitsetContainer {
+
+        boolean add(char value);
+
+        boolean remove(char value);
+
+        boolean contains(char value);
+
+        int cardinality();
+
+        Container or(Container other);
+
+        Container copy();
+
+        int appendTo(long[] values, int used, long base);
+    }
+
+    private static final class ArrayContainer implements Container {
+
+        private char[] values = new char[4];
+        private int cardinality;
+
+        @Override
+        public boolean add(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                return false;
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(cardinality * 2, ARRAY_LIMIT + 1));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            return true;
+        }
+
+        @Override
+        public boolean remove(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+            cardinality--;
+            return true;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public Container or(Container other) {
+            if (other instanceof BitsetContainer bitset) {
+                return bitset.or(this);
+            }
+            ArrayContainer array = (ArrayContainer) other;
+            ArrayContainer merged = new ArrayContainer();
+            merged.values = new char[cardinality + array.cardinality];
+            int left = 0;
+            int right = 0;
+            while (left < cardinality || right < array.cardinality) {
+                char next;
+                if (right == array.cardinality || (left < cardinality && values[left] < array.values[right])) {
+                    next = values[left++];
+                } else if (left == cardinality || array.values[right] < values[left]) {
+                    next = array.values[right++];
+                } else {
+                    next = values[left++];
+                    right++;
+                }
+                merged.values[merged.cardinality++] = next;
+            }
+            return merged;
+        }
+
+        @Override
+        public Container copy() {
+            ArrayContainer copy = new ArrayContainer();
+            copy.values = Arrays.copyOf(values, Math.max(4, cardinality));
+            copy.cardinality = cardinality;
+            return copy;
+        }
+
+        @Override
+        public int appendTo(long[] target, int used, long base) {
+            for (int index = 0; index < cardinality; index++) {
+                target[used++] = base | values[index];
+            }
+            return used;
+        }
+
+        private BitsetContainer toBitset() {
+            BitsetContainer bitset = new BitsetContainer();
+            for (int index = 0; index < cardinality; index++) {
+                bitset.add(values[index]);
+            }
+            return bitset;
+        }
+    }
+
+    private static final class BitsetContainer implements Container {
+
+        private final long[] words = new long[BITSET_WORDS];
+        private int cardinality;
+
+        @Override
+        public boolean add(char value) {
+            long before = words[value >>> 6];
+            words[value >>> 6] = before | (1L << value);
+            boolean added = before != words[value >>> 6];
+            if (added) {
+                cardinality++;
+            }
+            return added;
+        }
+
+        @Override
+        public boolean remove(char value) {
+            long before = words[value >>> 6];
+            words[value >>> 6] = before & ~(1L << value);
+            boolean removed = before != words[value >>> 6];
+            if (removed) {
+                cardinality--;
+            }
+            return removed;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public Container or(Container other) {
+            BitsetContainer merged = (BitsetContainer) copy();
+            if (other instanceof BitsetContainer bitset) {
+                merged.cardinality = 0;
+                for (int index = 0; index < BITSET_WORDS; index++) {
+                    merged.words[index] |= bitset.words[index];
+                    merged.cardinality += Long.bitCount(merged.words[index]);
+                }
+            } else {
+                ArrayContainer array = (ArrayContainer) other;
+                for (int index = 0; index < array.cardinality; index++) {
+                    merged.add(array.values[index]);
+                }
+            }
+            return merged;
+        }
+
+        @Override
+        public Container copy() {
+            BitsetContainer copy = new BitsetContainer();
+            System.arraycopy(words, 0, copy.words, 0, BITSET_WORDS);
+            copy.cardinality = cardinality;
+            return copy;
+        }
+
+        @Override
+        public int appendTo(long[] target, int used, long base) {
+            for (int index = 0; index < BITSET_WORDS; index++) {
+                long word = words[index];
+                while (word != 0) {
+                    target[used++] = base | ((long) index << 6) | Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                }
+            }
+            return used;
+        }
+
+        private ArrayContainer toArray() {
+            ArrayContainer array = new ArrayContainer();
+            array.values = new char[cardinality];
+            long[] values = new long[cardinality];
+            appendTo(values, 0, 0);
+            for (long value : values) {
+                array.values[array.cardinality++] = (char) value;
+            }
+            return array;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.relaydocs.documentservice.domain;
+
+/**
+ * Generates base-62 order keys that sort (by code point) strictly between two existing keys,
+ * so a block can be inserted anywhere without renumbering its neighbours. Keys never end in
+ * the zero digit, which guarantees there is always room before any key.
+ *
+ * <p>Appending after the last key (or prepending before the first) steps it by one unit in a
+ * digit position instead of halving the open range, so a run of appends does not add a digit
+ * every few keys. The position moves right only as the key fills up with leading top (or zero)
+ * digits, which keeps keys within a few characters for millions of appends.
+ */
+public final class FractionalIndex {
+
+    private static final String DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final int BASE = DIGITS.length();
+    private static final char ZERO = DIGITS.charAt(0);
+    private static final char TOP = DIGITS.charAt(BASE - 1);
+    // Longest key document_blocks.block_key holds.
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private FractionalIndex() {
+    }
+
+    /**
+     * @param lower exclusive lower bound, or null for the start of the sequence
+     * @param upper exclusive upper bound, or null for the end of the sequence
+     */
+    public static String between(String lower, String upper) {
+        String normalizedLower = lower == null ? "" : lower;
+        validate(normalizedLower);
+        if (upper != null) {
+            validate(upper);
+            if (normalizedLower.compareTo(upper) >= 0) {
+                throw new IllegalArgumentException("Lower key must sort before upper key");
+            }
+        }
+        if (upper == null && !normalizedLower.isEmpty()) {
+            return increment(normalizedLower);
+        }
+        if (upper != null && normalizedLower.isEmpty()) {
+            String decremented = decrement(upper);
+            if (decremented != null) {
+                return decremented;
+            }
+        }
+        return midpoint(normalizedLower, upper);
+    }
+
+    public static boolean isValid(String key) {
+        if (key == null || key.isEmpty() || key.charAt(key.length() - 1) == ZERO) {
+            return false;
+        }
+        for (int index = 0; index < key.length(); index++) {
+            if (DIGITS.indexOf(key.charAt(index)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The smallest key above {@code key} that has at most {@link #stepWidth} digits. The digit
+     * at {@code leadingRun} is below the top digit (or past the end of the key), so the carry
+     * always stops there.
+     */
+    private static String increment(String key) {
+        char[] digits = truncated(key, stepWidth(leadingRun(key, TOP)));
+        for (int index = digits.length - 1; index >= 0; index--) {
+            int digit = DIGITS.indexOf(digits[index]);
+            if (digit < BASE - 1) {
+                digits[index] = DIGITS.charAt(digit + 1);
+                break;
+            }
+            digits[index] = ZERO;
+        }
+        return withoutTrailingZeros(digits);
+    }
+
+    /**
+     * Like {@link #increment}, downwards. Returns null when the only shorter key below
+     * {@code key} would be empty, i.e. {@code key} is the single smallest non-zero digit.
+     */
+    private static String decrement(String key) {
+        char[] digits = truncated(key, stepWidth(leadingRun(key, ZERO)));
+        if (digits.length < key.length()) {
+            // Dropping non-zero digits already lands below the key.
+            return withoutTrailingZeros(digits);
+        }
+        for (int index = digits.length - 1; index >= 0; index--) {
+            int digit = DIGITS.indexOf(digits[index]);
+            if (digit > 0) {
+                digits[index] = DIGITS.charAt(digit - 1);
+                break;
+            }
+            digits[index] = TOP;
+        }
+        String decremented = withoutTrailingZeros(digits);
+        return decremented.isEmpty() ? null : decremented;
+    }
+
+    /**
+     * Keys whose first {@code run} digits are all top (or zero) digits step at digit
+     * {@code 2 * run + 1}: every digit of run lengthens the key by two but multiplies the steps
+     * available before the next lengthening by 62 squared. The step position never passes the
+     * longest key the column holds.
+     */
+    private static int stepWidth(int run) {
+        return Math.max(run + 1, Math.min(2 * run + 1, MAX_KEY_LENGTH));
+    }
+
+    private static int leadingRun(String key, char digit) {
+        int run = 0;
+        while (run < key.length() && key.charAt(run) == digit) {
+            run++;
+        }
+        return run;
+    }
+
+    private static char[] truncated(String key, int width) {
+        char[] digits = new char[width];
+        for (int index = 0; index < width; index++) {
+            digits[index] = charAtOrZero(key, index);
+        }
+        return digits;
+    }
+
+    private static String withoutTrailingZeros(char[] digits) {
+        int length = digits.length;
+        while (length > 0 && digits[length - 1] == ZERO) {
+            length--;
+        }
+        return new String(digits, 0, length);
+    }
+
+    private static String midpoint(String lower, String upper) {
+        if (upper != null) {
+            int prefixLength = 0;
+            while (prefixLength < upper.length() && charAtOrZero(lower, prefixLength) == upper.charAt(prefixLength)) {
+                prefixLength++;
+            }
+            if (prefixLength > 0) {
+                return upper.substring(0, prefixLength) + midpoint(
+                        lower.length() > prefixLength ? lower.substring(prefixLength) : "",
+                        upper.substring(prefixLength)
+                );
+            }
+        }
+
+        int lowerDigit = lower.isEmpty() ? 0 : DIGITS.indexOf(lower.charAt(0));
+        int upperDigit = upper == null ? BASE : DIGITS.indexOf(upper.charAt(0));
+
+        if (upperDigit - lowerDigit > 1) {
+            return String.valueOf(DIGITS.charAt((lowerDigit + upperDigit + 1) / 2));
+        }
+        if (upper != null && upper.length() > 1) {
+            return upper.substring(0, 1);
+        }
+        return DIGITS.charAt(lowerDigit) + midpoint(lower.isEmpty() ? "" : lower.substring(1), null);
+    }
+
+    private static char charAtOrZero(String value, int index) {
+        return index < value.length() ? value.charAt(index) : ZERO;
+    }
+
+    private static void validate(String key) {
+        if (!key.isEmpty() && !isValid(key)) {
+            throw new IllegalArgumentException("Invalid order key: " + key);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.relaydocs.documentservice.events;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Avro binary encoding for domain events. The envelope fields (eventId, aggregateId, occurredAt)
+ * and the payload fields are flattened into one record per event type; the event type itself is
+ * implied by the schema id in the {@value #SCHEMA_ID_HEADER} header, so neither field names nor
+ * the type string are repeated in every message.
+ */
+@Component
+public class AvroEventCodec {
+
+    public static final String SCHEMA_ID_HEADER = "relaydocs-schema-id";
+
+    private static final Set<String> ENVELOPE_FIELDS = Set.of("eventId", "aggregateId", "occurredAt");
+
+    private final EventSchemaRegistry eventSchemaRegistry;
+    private final Map<Integer, GenericDatumWriter<GenericRecord>> writers = new ConcurrentHashMap<>();
+    private final Map<Integer, GenericDatumReader<GenericRecord>> readers = new ConcurrentHashMap<>();
+
+    public AvroEventCodec(EventSchemaRegistry eventSchemaRegistry) {
+        this.eventSchemaRegistry = eventSchemaRegistry;
+    }
+
+    /**
+     * @return the encoded event, or null when no registered schema can represent it (unknown event
+     * type, or payload fields the latest schema does not declare); callers fall back to JSON.
+     */
+    public EncodedEvent encode(
+            String eventId,
+            String eventType,
+            String aggregateId,
+            Instant occurredAt,
+            Map<String, Object> payload
+    ) {
+        Integer schemaId = eventSchemaRegistry.latestSchemaIdFor(eventType).orElse(null);
+        if (schemaId == null) {
+            return null;
+        }
+        Schema schema = eventSchemaRegistry.schemaFor(schemaId);
+        for (String payloadField : payload.keySet()) {
+            if (ENVELOPE_FIELDS.contains(payloadField) || schema.getField(payloadField) == null) {
+                return null;
+            }
+        }
+
+        GenericRecord record = new GenericData.Record(schema);
+        record.put("eventId", eventId);
+        record.put("aggregateId", aggregateId);
+        record.put("occurredAt", ChronoUnit.MICROS.between(Instant.EPOCH, occurredAt));
+        for (Schema.Field field : schema.getFields()) {
+            if (ENVELOPE_FIELDS.contains(field.name())) {
+                continue;
+            }
+            Object value = payload.get(field.name());
+            if (value == null && !isNullable(field.schema())) {
+                return null;
+            }
+            record.put(field.name(), toAvro(field.schema(), value));
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream(128);
+        BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(output, null);
+        try {
+            writers.computeIfAbsent(schemaId, (id) -> new GenericDatumWriter<>(schema)).write(record, encoder);
+            encoder.flush();
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to encode domain event", exception);
+        }
+        return new EncodedEvent(schemaId, output.toByteArray());
+    }
+
+    public DecodedEvent decode(int schemaId, byte[] bytes) {
+        Schema schema = eventSchemaRegistry.schemaFor(schemaId);
+        GenericRecord record;
+        try {
+            record = readers.computeIfAbsent(schemaId, (id) -> new GenericDatumReader<>(schema))
+                    .read(null, DecoderFactory.get().binaryDecoder(bytes, null));
+        } catch (IOException | RuntimeException exception) {
+            throw new IllegalArgumentException("Invalid event payload for schema " + schemaId, exception);
+        }
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        for (Schema.Field field : schema.getFields()) {
+            if (!ENVELOPE_FIELDS.contains(field.name())) {
+                payload.put(field.name(), fromAvro(record.get(field.name())));
+            }
+        }
+        return new DecodedEvent(
+                record.get("eventId").toString(),
+                eventSchemaRegistry.eventTypeOf(schemaId),
+                record.get("aggregateId").toString(),
+                Instant.EPOCH.plus((Long) record.get("occurredAt"), ChronoUnit.MICROS),
+                payload
+        );
+    }
+
+    /**
+     * @return the schema id carried by a record, or null for JSON records
+     */
+    public static Integer schemaIdFrom(Headers headers) {
+        Header header = headers.lastHeader(SCHEMA_ID_HEADER);
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(new String(header.value(), StandardCharsets.US_ASCII));
+        } catch (NumberFormatException exception) {
+            throw new IllegalArgumentException("Invalid event schema id header", exception);
+        }
+    }
+
+    public static byte[] schemaIdHeaderValue(int schemaId) {
+        return Integer.toString(schemaId).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static boolean isNullable(Schema schema) {
+        return schema.getType() == Schema.Type.UNION
+                && schema.getTypes().stream().anyMatch((member) -> member.getType() == Schema.Type.NULL);
+    }
+
+    private static Object toAvro(Schema schema, Object value) {
+        if (value == null) {
+            return null;
+        }
+        Schema target = schema;
+        if (schema.getType() == Schema.Type.UNION) {
+            target = schema.getTypes().stream()
+                    .filter((member) -> member.getType() != Schema.Type.NULL)
+                    .findFirst()
+                    .orElseThrow();
+        }
+        return switch (target.getType()) {
+            case LONG -> ((Number) value).longValue();
+            case INT -> ((Number) value).intValue();
+            case BOOLEAN -> (Boolean) value;
+            default -> value.toString();
+        };
+    }
+
+    private static Object fromAvro(Object value) {
+        return value instanceof CharSequence text ? text.toString() : value;
+    }
+
+    public record EncodedEvent(int schemaId, byte[] bytes) {
+    }
+
+    public record DecodedEvent(
+            String eventId,
+            String eventType,
+            String aggregateId,
+            Instant occurredAt,
+            Map<String, Object> payload
+    ) {
+    }
+}
@@ -0,0 +1,135 @@
+package com.relaydocs.documentservice.events;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.relaydocs.documentservice.service.DocumentListCache;
+import com.relaydocs.documentservice.service.GroupService;
+import com.relaydocs.documentservice.service.GroupVisibilityIndex;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Applies domain events written by any node to this node's in-memory state: the
+ * {@link GroupVisibilityIndex} and the {@link DocumentListCache}. Each node reads the topic in a
+ * group of its own, starting from the latest offset, since a restarted node loads that state from
+ * the database anyway. Events are sent only after their transaction commits, so applying one
+ * reads the rows it describes.
+ */
+@Component
+@ConditionalOnExpression("${relaydocs.events.kafka.consumer-enabled:false}")
+public class BroadcastEventListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BroadcastEventListener.class);
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+    private final AvroEventCodec avroEventCodec;
+    private final GroupVisibilityIndex groupVisibilityIndex;
+    private final DocumentListCache documentListCache;
+    private final KafkaTracing kafkaTracing;
+    private final String groupId;
+
+    public BroadcastEventListener(
+            ObjectMapper objectMapper,
+            ObjectProvider<AvroEventCodec> avroEventCodec,
+            GroupVisibilityIndex groupVisibilityIndex,
+            DocumentListCache documentListCache,
+            KafkaTracing kafkaTracing,
+            RelayEventProperties relayEventProperties
+    ) {
+        this.objectMapper = objectMapper;
+        this.avroEventCodec = avroEventCodec.getIfAvailable();
+        this.groupVisibilityIndex = groupVisibilityIndex;
+        this.documentListCache = documentListCache;
+        this.kafkaTracing = kafkaTracing;
+        this.groupId = relayEventProperties.getKafkaBroadcastGroupPrefix() + "-" + UUID.randomUUID();
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    @KafkaListener(
+            topics = "#{@relayEventProperties.kafkaTopic}",
+            groupId = "#{@broadcastEventListener.groupId}",
+            containerFactory = KafkaConsumerConfiguration.DOMAIN_EVENT_CONTAINER_FACTORY,
+            properties = "auto.offset.reset=latest"
+    )
+    public void handleEvent(ConsumerRecord<String, byte[]> record) {
+        kafkaTracing.consume(record, "domain-event broadcast", () -> receive(record));
+    }
+
+    private void receive(ConsumerRecord<String, byte[]> record) {
+        Integer schemaId = AvroEventCodec.schemaIdFrom(record.headers());
+        BroadcastEvent event;
+        try {
+            event = schemaId == null ? readJson(record.value()) : readAvro(schemaId, record.value());
+        } catch (IOException | RuntimeException exception) {
+            // Nothing to retry: an unreadable event would be rejected by every consumer.
+            LOGGER.warn("Skipping unreadable domain event on broadcast listener. offset={}", record.offset(), exception);
+            return;
+        }
+        if (event == null) {
+            return;
+        }
+
+        apply(event);
+    }
+
+    void apply(BroadcastEvent event) {
+        Map<String, Object> payload = event.payload();
+        try {
+            // The index first: list eviction for a group grant resolves the group's members through it.
+            if (event.eventType().startsWith("group.member.") && payload.get("targetUserId") != null) {
+                long groupId = Long.parseLong(event.aggregateId().substring(GroupService.GROUP_AGGREGATE_PREFIX.length()));
+                groupVisibilityIndex.refreshMembership(groupId, payload.get("targetUserId").toString());
+            } else if (payload.get("targetGroupId") != null) {
+                groupVisibilityIndex.refreshGrant(
+                        Long.parseLong(payload.get("targetGroupId").toString()),
+                        Long.parseLong(event.aggregateId())
+                );
+            }
+            documentListCache.evict(event.aggregateId(), payload);
+        } catch (RuntimeException exception) {
+            LOGGER.warn("Failed to apply broadcast domain event. eventType={}, aggregateId={}",
+                    event.eventType(),
+                    event.aggregateId(),
+                    exception);
+        }
+    }
+
+    private BroadcastEvent readJson(byte[] rawEvent) throws IOException {
+        JsonNode envelope = objectMapper.readTree(rawEvent);
+        if (envelope == null || !envelope.path("eventType").isTextual() || !envelope.path("aggregateId").isTextual()) {
+            return null;
+        }
+        JsonNode payload = envelope.path("payload");
+        return new BroadcastEvent(
+                envelope.get("eventType").asText(),
+                envelope.get("aggregateId").asText(),
+                payload.isObject() ? objectMapper.convertValue(payload, PAYLOAD_TYPE) : Map.of()
+        );
+    }
+
+    private BroadcastEvent readAvro(int schemaId, byte[] rawEvent) {
+        if (avroEventCodec == null) {
+            return null;
+        }
+        AvroEventCodec.DecodedEvent decoded = avroEventCodec.decode(schemaId, rawEvent);
+        return new BroadcastEvent(decoded.eventType(), decoded.aggregateId(), decoded.payload());
+    }
+
+    record BroadcastEvent(String eventType, String aggregateId, Map<String, Object> payload) {
+    }
+}
@@ -0,0 +1,169 @@
+package com.relaydocs.documentservice.events;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collapses bursts of {@code document.updated} events for one aggregate into a single event
+ * published when the coalescing window (started by the first update) closes. The published
+ * payload is the latest update's payload plus {@code firstOccurredAt}, {@code lastOccurredAt}
+ * and {@code updateCount}.
+ *
+ * <p>Every other event type is published immediately, after first flushing any pending update
+ * for the same aggregate, so per-aggregate event order is unchanged. Like the Kafka publisher,
+ * events published inside a transaction are taken only once it commits.
+ */
+@Component
+@Primary
+@ConditionalOnExpression("${relaydocs.events.kafka.enabled:false} and ${relaydocs.events.coalescing.enabled:false}")
+public class CoalescingDomainEventPublisher implements DomainEventPublisher {
+
+    static final String COALESCED_EVENT_TYPE = "document.updated";
+    private static final int LOCK_STRIPES = 64;
+
+    private final KafkaDomainEventPublisher delegate;
+    private final Duration window;
+    private final ConcurrentMap<String, PendingUpdate> pending = new ConcurrentHashMap<>();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final Counter coalescedCounter;
+
+    public CoalescingDomainEventPublisher(
+            KafkaDomainEventPublisher delegate,
+            EventCoalescingProperties eventCoalescingProperties,
+            MeterRegistry meterRegistry
+    ) {
+        this.delegate = delegate;
+        this.window = eventCoalescingProperties.getWindow();
+        for (int index = 0; index < LOCK_STRIPES; index++) {
+            locks[index] = new Object();
+        }
+        this.scheduler = new ScheduledThreadPoolExecutor(1, (runnable) -> {
+            Thread thread = new Thread(runnable, "domain-event-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.setRemoveOnCancelPolicy(true);
+        this.scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.coalescedCounter = Counter.builder("relaydocs.events.coalesced").register(meterRegistry);
+    }
+
+    @Override
+    public void publish(String eventType, String aggregateId, Map<String, Object> payload) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accept(eventType, aggregateId, payload);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accept(eventType, aggregateId, payload);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        pending.keySet().forEach(this::flush);
+    }
+
+    private void accept(String eventType, String aggregateId, Map<String, Object> payload) {
+        Instant now = Instant.now();
+        synchronized (lockFor(aggregateId)) {
+            if (!COALESCED_EVENT_TYPE.equals(eventType)) {
+                flushLocked(aggregateId);
+                delegate.send(eventType, aggregateId, payload);
+                return;
+            }
+
+            PendingUpdate existing = pending.get(aggregateId);
+            if (existing != null) {
+                existing.merge(payload, now);
+                coalescedCounter.increment();
+                return;
+            }
+
+            PendingUpdate update = new PendingUpdate(payload, now);
+            pending.put(aggregateId, update);
+            update.scheduledFlush = scheduler.schedule(
+                    () -> flush(aggregateId),
+                    window.toMillis(),
+                    TimeUnit.MILLISECONDS
+            );
+        }
+    }
+
+    private void flush(String aggregateId) {
+        synchronized (lockFor(aggregateId)) {
+            flushLocked(aggregateId);
+        }
+    }
+
+    private void flushLocked(String aggregateId) {
+        PendingUpdate update = pending.remove(aggregateId);
+        if (update == null) {
+            return;
+        }
+        if (update.scheduledFlush != null) {
+            update.scheduledFlush.cancel(false);
+        }
+        delegate.send(COALESCED_EVENT_TYPE, aggregateId, update.toPayload());
+    }
+
+    private Object lockFor(String aggregateId) {
+        return locks[Math.floorMod(aggregateId.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static final class PendingUpdate {
+
+        private final Instant firstOccurredAt;
+        private Instant lastOccurredAt;
+        private Map<String, Object> latestPayload;
+        private boolean blockKeysDiffer;
+        private int updateCount = 1;
+        private ScheduledFuture<?> scheduledFlush;
+
+        private PendingUpdate(Map<String, Object> payload, Instant occurredAt) {
+            this.firstOccurredAt = occurredAt;
+            this.lastOccurredAt = occurredAt;
+            this.latestPayload = payload;
+        }
+
+        private void merge(Map<String, Object> payload, Instant occurredAt) {
+            blockKeysDiffer |= !Objects.equals(latestPayload.get("blockKey"), payload.get("blockKey"));
+            latestPayload = payload;
+            lastOccurredAt = occurredAt;
+            updateCount++;
+        }
+
+        private Map<String, Object> toPayload() {
+            Map<String, Object> payload = new LinkedHashMap<>(latestPayload);
+            if (blockKeysDiffer) {
+                // Several blocks changed; consumers must treat this as a whole-document update.
+                payload.remove("blockKey");
+            }
+            payload.put("firstOccurredAt", firstOccurredAt.toString());
+            payload.put("lastOccurredAt", lastOccurredAt.toString());
+            payload.put("updateCount", updateCount);
+            return payload;
+        }
+    }
+}
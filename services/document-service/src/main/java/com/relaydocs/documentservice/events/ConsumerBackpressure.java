@@ -0,0 +1,332 @@
+package com.relaydocs.documentservice.events;
+
+import com.relaydocs.documentservice.api.RequestCorrelationFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Pauses the domain event consumer while interactive traffic needs the database: when the
+ * busiest connection pool is nearly exhausted, requests are queueing for connections, or the
+ * recent HTTP p99 is too high. It resumes only once all three have fallen below lower resume
+ * thresholds, so it does not flap around a single limit, and never stays paused longer than
+ * {@code max-pause} at a time so the backlog keeps draining under sustained load: after such a
+ * forced resume it runs for at least {@code min-run-after-max-pause} before it may pause again.
+ * Pausing stops fetching on every assigned partition while the consumer keeps polling, so the
+ * group does not rebalance. The broadcast listener is never paused: caches depend on it.
+ *
+ * <p>Consumer group lag is read from the brokers on its own interval, so it stays accurate while
+ * the consumer is paused, and is published with the pause state for autoscaling. A partition the
+ * group has never committed reports -1, and so does the total, rather than a lag of 0.
+ */
+@Component
+@ConditionalOnExpression(
+        "${relaydocs.events.kafka.consumer-enabled:false} and ${relaydocs.events.backpressure.enabled:true}"
+)
+public class ConsumerBackpressure {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConsumerBackpressure.class);
+    private static final long ADMIN_TIMEOUT_SECONDS = 5;
+
+    private final ConsumerBackpressureProperties properties;
+    private final ObjectProvider<KafkaListenerEndpointRegistry> kafkaListenerEndpointRegistry;
+    private final ObjectProvider<KafkaAdmin> kafkaAdmin;
+    private final MeterRegistry meterRegistry;
+    private final String topic;
+    private final String groupId;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final Counter pauseCounter;
+    private Admin admin;
+    private long nextLagRefreshNanos;
+    private long pausedAtNanos;
+    private long runUntilNanos = System.nanoTime();
+
+    private volatile boolean paused;
+    private volatile Instant pausedSince;
+    private volatile String pauseReason;
+    private volatile LoadSample lastLoad = new LoadSample(0.0, 0.0, 0.0);
+    private volatile LagSnapshot lag = new LagSnapshot(null, -1L, Map.of());
+
+    public ConsumerBackpressure(
+            ConsumerBackpressureProperties properties,
+            RelayEventProperties relayEventProperties,
+            ObjectProvider<KafkaListenerEndpointRegistry> kafkaListenerEndpointRegistry,
+            ObjectProvider<KafkaAdmin> kafkaAdmin,
+            MeterRegistry meterRegistry
+    ) {
+        this.properties = properties;
+        this.kafkaListenerEndpointRegistry = kafkaListenerEndpointRegistry;
+        this.kafkaAdmin = kafkaAdmin;
+        this.meterRegistry = meterRegistry;
+        this.topic = relayEventProperties.getKafkaTopic();
+        this.groupId = relayEventProperties.getKafkaConsumerGroupId();
+
+        this.pauseCounter = Counter.builder("relaydocs.kafka.consumer.pauses").register(meterRegistry);
+        Gauge.builder("relaydocs.kafka.consumer.paused", this, (backpressure) -> backpressure.paused ? 1.0 : 0.0)
+                .register(meterRegistry);
+        Gauge.builder("relaydocs.kafka.consumer.lag", this, (backpressure) -> backpressure.lag.totalLag())
+                .register(meterRegistry);
+
+        this.scheduler = new ScheduledThreadPoolExecutor(1, (runnable) -> {
+            Thread thread = new Thread(runnable, "consumer-backpressure");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = properties.getCheckInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::checkSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        synchronized (this) {
+            if (admin != null) {
+                admin.close();
+            }
+        }
+    }
+
+    public Map<String, Object> status() {
+        LoadSample load = lastLoad;
+        LagSnapshot currentLag = lag;
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("paused", paused);
+        status.put("pausedSince", pausedSince);
+        status.put("pauseReason", pauseReason);
+        status.put("pauses", (long) pauseCounter.count());
+        status.put("poolUtilization", load.poolUtilization());
+        status.put("pendingConnections", load.pendingConnections());
+        status.put("httpP99Ms", load.httpP99Millis());
+        status.put("topic", topic);
+        status.put("groupId", groupId);
+        status.put("lag", currentLag.totalLag());
+        status.put("lagByPartition", currentLag.partitions());
+        status.put("lagMeasuredAt", currentLag.measuredAt());
+        return status;
+    }
+
+    boolean isPaused() {
+        return paused;
+    }
+
+    void check() {
+        LoadSample load = sampleLoad();
+        lastLoad = load;
+        long now = System.nanoTime();
+        String reason;
+        if (paused) {
+            reason = holdReason(load, now - pausedAtNanos);
+            if (now - pausedAtNanos >= properties.getMaxPause().toNanos()) {
+                runUntilNanos = now + properties.getMinRunAfterMaxPause().toNanos();
+            }
+        } else {
+            reason = now - runUntilNanos < 0 ? null : pauseReason(load);
+        }
+
+        if (reason != null && !paused) {
+            pausedAtNanos = now;
+            pausedSince = Instant.now();
+            pauseReason = reason;
+            paused = true;
+            pauseCounter.increment();
+            withConsumerContainer(MessageListenerContainer::pause);
+            LOGGER.info("Paused domain event consumer. reason={}, poolUtilization={}, pendingConnections={}, httpP99Ms={}",
+                    reason, load.poolUtilization(), load.pendingConnections(), load.httpP99Millis());
+        } else if (reason == null && paused) {
+            paused = false;
+            pausedSince = null;
+            pauseReason = null;
+            withConsumerContainer(MessageListenerContainer::resume);
+            LOGGER.info("Resumed domain event consumer. pausedMs={}", TimeUnit.NANOSECONDS.toMillis(now - pausedAtNanos));
+        }
+
+        if (now - nextLagRefreshNanos >= 0) {
+            nextLagRefreshNanos = now + properties.getLagRefreshInterval().toNanos();
+            refreshLag();
+        }
+    }
+
+    /**
+     * @return why a running consumer should pause, or null to keep it running
+     */
+    String pauseReason(LoadSample load) {
+        if (load.pendingConnections() > 0) {
+            return "pending_connections";
+        }
+        if (load.poolUtilization() >= properties.getPausePoolUtilization()) {
+            return "pool_utilization";
+        }
+        if (load.httpP99Millis() >= properties.getPauseHttpP99().toMillis()) {
+            return "http_p99";
+        }
+        return null;
+    }
+
+    /**
+     * @return why a paused consumer should stay paused, or null to resume it
+     */
+    String holdReason(LoadSample load, long pausedNanos) {
+        if (pausedNanos >= properties.getMaxPause().toNanos()) {
+            return null;
+        }
+        if (load.pendingConnections() > 0) {
+            return "pending_connections";
+        }
+        if (load.poolUtilization() > properties.getResumePoolUtilization()) {
+            return "pool_utilization";
+        }
+        if (load.httpP99Millis() > properties.getResumeHttpP99().toMillis()) {
+            return "http_p99";
+        }
+        return null;
+    }
+
+    LoadSample sampleLoad() {
+        double utilization = 0.0;
+        double pending = 0.0;
+        for (Gauge max : meterRegistry.find("hikaricp.connections.max").gauges()) {
+            String pool = max.getId().getTag("pool");
+            Gauge active = meterRegistry.find("hikaricp.connections.active").tag("pool", pool).gauge();
+            Gauge waiting = meterRegistry.find("hikaricp.connections.pending").tag("pool", pool).gauge();
+            if (active != null && max.value() > 0) {
+                utilization = Math.max(utilization, active.value() / max.value());
+            }
+            if (waiting != null && !Double.isNaN(waiting.value())) {
+                pending += waiting.value();
+            }
+        }
+
+        double p99 = 0.0;
+        Timer latency = meterRegistry.find(RequestCorrelationFilter.LATENCY_TIMER).timer();
+        if (latency != null) {
+            for (ValueAtPercentile percentile : latency.takeSnapshot().percentileValues()) {
+                if (percentile.percentile() == 0.99) {
+                    p99 = percentile.value(TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+        return new LoadSample(utilization, pending, p99);
+    }
+
+    private void withConsumerContainer(Consumer<MessageListenerContainer> action) {
+        KafkaListenerEndpointRegistry registry = kafkaListenerEndpointRegistry.getIfAvailable();
+        MessageListenerContainer container = registry == null
+                ? null
+                : registry.getListenerContainer(KafkaConsumerConfiguration.DOMAIN_EVENT_LISTENER_ID);
+        if (container != null) {
+            action.accept(container);
+        }
+    }
+
+    private void refreshLag() {
+        Admin client = admin();
+        if (client == null) {
+            return;
+        }
+        try {
+            Map<TopicPartition, OffsetAndMetadata> committed = client.listConsumerGroupOffsets(groupId)
+                    .partitionsToOffsetAndMetadata()
+                    .get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            List<TopicPartition> partitions = client.describeTopics(List.of(topic))
+                    .allTopicNames()
+                    .get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                    .get(topic)
+                    .partitions()
+                    .stream()
+                    .map((partition) -> new TopicPartition(topic, partition.partition()))
+                    .toList();
+            Map<TopicPartition, OffsetSpec> latest = new LinkedHashMap<>();
+            partitions.forEach((partition) -> latest.put(partition, OffsetSpec.latest()));
+            Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> ends = client.listOffsets(latest)
+                    .all()
+                    .get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+            Map<Integer, Long> byPartition = new TreeMap<>();
+            for (TopicPartition partition : partitions) {
+                ListOffsetsResult.ListOffsetsResultInfo end = ends.get(partition);
+                byPartition.put(partition.partition(), partitionLag(committed.get(partition), end == null ? null : end.offset()));
+            }
+            lag = new LagSnapshot(Instant.now(), totalLag(byPartition), byPartition);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException | RuntimeException exception) {
+            LOGGER.warn("Failed to read domain event consumer lag. groupId={}, topic={}", groupId, topic, exception);
+        }
+    }
+
+    /**
+     * @return -1 when the group has committed nothing on the partition: whether it would start
+     * at the beginning of the backlog or at its end depends on the reset policy, so the lag is unknown
+     */
+    static long partitionLag(OffsetAndMetadata committed, Long endOffset) {
+        if (committed == null || endOffset == null) {
+            return -1L;
+        }
+        return Math.max(0L, endOffset - committed.offset());
+    }
+
+    static long totalLag(Map<Integer, Long> byPartition) {
+        long total = 0L;
+        for (long partitionLag : byPartition.values()) {
+            if (partitionLag < 0) {
+                return -1L;
+            }
+            total += partitionLag;
+        }
+        return total;
+    }
+
+    private synchronized Admin admin() {
+        if (admin == null) {
+            KafkaAdmin configuration = kafkaAdmin.getIfAvailable();
+            if (configuration != null) {
+                admin = Admin.create(configuration.getConfigurationProperties());
+            }
+        }
+        return admin;
+    }
+
+    private void checkSafely() {
+        try {
+            check();
+        } catch (RuntimeException exception) {
+            LOGGER.warn("Consumer backpressure check failed", exception);
+        }
+    }
+
+    record LoadSample(double poolUtilization, double pendingConnections, double httpP99Millis) {
+    }
+
+    /**
+     * @param totalLag -1 until lag has been read once, or while any partition's lag is unknown
+     */
+    private record LagSnapshot(Instant measuredAt, long totalLag, Map<Integer, Long> partitions) {
+    }
+}
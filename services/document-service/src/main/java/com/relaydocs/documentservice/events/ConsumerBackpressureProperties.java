@@ -0,0 +1,97 @@
+package com.relaydocs.documentservice.events;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "relaydocs.events.backpressure")
+public class ConsumerBackpressureProperties {
+
+    private boolean enabled = true;
+    private Duration checkInterval = Duration.ofSeconds(1);
+    // Busiest pool's active/max connections at which the consumer pauses, and below which it resumes.
+    private double pausePoolUtilization = 0.8;
+    private double resumePoolUtilization = 0.5;
+    // Recent HTTP p99 at which the consumer pauses, and below which it resumes.
+    private Duration pauseHttpP99 = Duration.ofMillis(500);
+    private Duration resumeHttpP99 = Duration.ofMillis(250);
+    // Longest continuous pause; the consumer then runs for at least min-run-after-max-pause even under load.
+    private Duration maxPause = Duration.ofSeconds(30);
+    private Duration minRunAfterMaxPause = Duration.ofSeconds(10);
+    // How often consumer group lag is read from the brokers.
+    private Duration lagRefreshInterval = Duration.ofSeconds(10);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getCheckInterval() {
+        return checkInterval;
+    }
+
+    public void setCheckInterval(Duration checkInterval) {
+        this.checkInterval = checkInterval;
+    }
+
+    public double getPausePoolUtilization() {
+        return pausePoolUtilization;
+    }
+
+    public void setPausePoolUtilization(double pausePoolUtilization) {
+        this.pausePoolUtilization = pausePoolUtilization;
+    }
+
+    public double getResumePoolUtilization() {
+        return resumePoolUtilization;
+    }
+
+    public void setResumePoolUtilization(double resumePoolUtilization) {
+        this.resumePoolUtilization = resumePoolUtilization;
+    }
+
+    public Duration getPauseHttpP99() {
+        return pauseHttpP99;
+    }
+
+    public void setPauseHttpP99(Duration pauseHttpP99) {
+        this.pauseHttpP99 = pauseHttpP99;
+    }
+
+    public Duration getResumeHttpP99() {
+        return resumeHttpP99;
+    }
+
+    public void setResumeHttpP99(Duration resumeHttpP99) {
+        this.resumeHttpP99 = resumeHttpP99;
+    }
+
+    public Duration getMaxPause() {
+        return maxPause;
+    }
+
+    public void setMaxPause(Duration maxPause) {
+        this.maxPause = maxPause;
+    }
+
+    public Duration getMinRunAfterMaxPause() {
+        return minRunAfterMaxPause;
+    }
+
+    public void setMinRunAfterMaxPause(Duration minRunAfterMaxPause) {
+        this.minRunAfterMaxPause = minRunAfterMaxPause;
+    }
+
+    public Duration getLagRefreshInterval() {
+        return lagRefreshInterval;
+    }
+
+    public void setLagRefreshInterval(Duration lagRefreshInterval) {
+        this.lagRefreshInterval = lagRefreshInterval;
+    }
+}
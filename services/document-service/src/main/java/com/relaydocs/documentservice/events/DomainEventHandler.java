@@ -0,0 +1,176 @@
+package com.relaydocs.documentservice.events;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+
+/**
+ * Envelope parsing and idempotent recording shared by the sequential and parallel consumers.
+ * Records arrive as raw UTF-8 bytes: only the top-level envelope fields are read with a
+ * streaming parser, the payload is skipped without being materialized, and the fallback event
+ * id is hashed straight from the record bytes. Records carrying a schema id header are Avro and
+ * are decoded through {@link AvroEventCodec} instead.
+ */
+public class DomainEventHandler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DomainEventHandler.class);
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final JsonFactory jsonFactory;
+    private final EventConsumptionRecorder eventConsumptionRecorder;
+    private final RelayEventProperties relayEventProperties;
+    private final AvroEventCodec avroEventCodec;
+    private final KafkaTracing kafkaTracing;
+
+    public DomainEventHandler(
+            ObjectMapper objectMapper,
+            EventConsumptionRecorder eventConsumptionRecorder,
+            RelayEventProperties relayEventProperties,
+            AvroEventCodec avroEventCodec,
+            KafkaTracing kafkaTracing
+    ) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.eventConsumptionRecorder = eventConsumptionRecorder;
+        this.relayEventProperties = relayEventProperties;
+        this.avroEventCodec = avroEventCodec;
+        this.kafkaTracing = kafkaTracing;
+    }
+
+    public void handle(String rawEvent) {
+        handle(rawEvent.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void handle(ConsumerRecord<String, byte[]> record) {
+        kafkaTracing.consume(record, "domain-event consume", () ->
+                handle(record.value(), AvroEventCodec.schemaIdFrom(record.headers())));
+    }
+
+    public void handle(byte[] rawEvent) {
+        handle(rawEvent, null);
+    }
+
+    /**
+     * @param schemaId Avro schema id from the record header, or null for a JSON record
+     */
+    public void handle(byte[] rawEvent, Integer schemaId) {
+        Envelope envelope = schemaId == null ? readEnvelope(rawEvent) : decodeEnvelope(rawEvent, schemaId);
+
+        String eventType = requireText(envelope.eventType, "eventType");
+        String aggregateId = requireText(envelope.aggregateId, "aggregateId");
+        String eventId = envelope.eventId;
+        if (eventId == null || eventId.isBlank()) {
+            eventId = sha256(rawEvent);
+        }
+
+        Instant occurredAt = parseInstant(envelope.occurredAt);
+
+        boolean processed = eventConsumptionRecorder.recordIfNew(
+                relayEventProperties.getKafkaConsumerName(),
+                eventId,
+                eventType,
+                aggregateId,
+                occurredAt
+        );
+
+        if (!processed) {
+            LOGGER.debug("Skipping duplicate domain event. consumer={}, eventId={}",
+                    relayEventProperties.getKafkaConsumerName(),
+                    eventId);
+            return;
+        }
+
+        LOGGER.debug("Processed domain event. consumer={}, eventType={}, aggregateId={}, eventId={}",
+                relayEventProperties.getKafkaConsumerName(),
+                eventType,
+                aggregateId,
+                eventId);
+    }
+
+    private Envelope decodeEnvelope(byte[] rawEvent, int schemaId) {
+        AvroEventCodec.DecodedEvent decoded = avroEventCodec.decode(schemaId, rawEvent);
+        Envelope envelope = new Envelope();
+        envelope.eventType = decoded.eventType();
+        envelope.aggregateId = decoded.aggregateId();
+        envelope.eventId = decoded.eventId();
+        envelope.occurredAt = decoded.occurredAt().toString();
+        return envelope;
+    }
+
+    private Envelope readEnvelope(byte[] rawEvent) {
+        Envelope envelope = new Envelope();
+        try (JsonParser parser = jsonFactory.createParser(rawEvent)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                // Not an object: no envelope fields, reported as a missing field below.
+                return envelope;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.currentName();
+                JsonToken value = parser.nextToken();
+                String text = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                if (text == null) {
+                    parser.skipChildren();
+                }
+                switch (fieldName) {
+                    case "eventType" -> envelope.eventType = text;
+                    case "aggregateId" -> envelope.aggregateId = text;
+                    case "eventId" -> envelope.eventId = text;
+                    case "occurredAt" -> envelope.occurredAt = text;
+                    default -> {
+                    }
+                }
+            }
+            return envelope;
+        } catch (IOException exception) {
+            throw new IllegalArgumentException("Invalid event payload", exception);
+        }
+    }
+
+    private String requireText(String value, String fieldName) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing required event field: " + fieldName);
+        }
+        return value;
+    }
+
+    private Instant parseInstant(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return Instant.parse(value);
+    }
+
+    static String sha256(byte[] value) {
+        try {
+            return toHex(MessageDigest.getInstance("SHA-256").digest(value));
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 algorithm unavailable", exception);
+        }
+    }
+
+    static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int index = 0; index < bytes.length; index++) {
+            hex[index * 2] = HEX_DIGITS[(bytes[index] >> 4) & 0x0f];
+            hex[index * 2 + 1] = HEX_DIGITS[bytes[index] & 0x0f];
+        }
+        return new String(hex);
+    }
+
+    private static final class Envelope {
+
+        private String eventType;
+        private String aggregateId;
+        private String eventId;
+        private String occurredAt;
+    }
+}
@@ -0,0 +1,31 @@
+package com.relaydocs.documentservice.events;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "relaydocs.events.coalescing")
+public class EventCoalescingProperties {
+
+    private boolean enabled = false;
+    // How long document.updated events for one document are held and merged.
+    private Duration window = Duration.ofSeconds(2);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public void setWindow(Duration window) {
+        this.window = window;
+    }
+}
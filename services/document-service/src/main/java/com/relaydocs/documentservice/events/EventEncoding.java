@@ -0,0 +1,6 @@
+package com.relaydocs.documentservice.events;
+
+public enum EventEncoding {
+    JSON,
+    AVRO
+}
@@ -0,0 +1,74 @@
+package com.relaydocs.documentservice.events;
+
+import org.apache.avro.Schema;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * File-based schema registry for binary domain events. Schemas are read once at startup from
+ * {@code registry.properties} under the configured location (classpath or filesystem); each
+ * schema names its event type in an {@code eventType} property. Publishers encode with the
+ * highest id registered for an event type, and consumers resolve whatever id a record carries.
+ */
+@Component
+public class EventSchemaRegistry {
+
+    private static final String INDEX_FILE = "registry.properties";
+    private static final String EVENT_TYPE_PROPERTY = "eventType";
+
+    private final Map<Integer, Schema> schemasById = new HashMap<>();
+    private final Map<String, Integer> latestIdByEventType = new HashMap<>();
+
+    public EventSchemaRegistry(RelayEventProperties relayEventProperties, ResourceLoader resourceLoader) {
+        String location = relayEventProperties.getKafkaSchemaRegistryLocation();
+        Resource index = resourceLoader.getResource(location.endsWith("/") ? location + INDEX_FILE : location + "/" + INDEX_FILE);
+
+        Properties entries = new Properties();
+        try (InputStream input = index.getInputStream()) {
+            entries.load(input);
+            for (String key : entries.stringPropertyNames()) {
+                int schemaId = Integer.parseInt(key.trim());
+                Schema schema = parse(index.createRelative(entries.getProperty(key).trim()));
+                String eventType = schema.getProp(EVENT_TYPE_PROPERTY);
+                if (eventType == null) {
+                    throw new IllegalStateException("Event schema " + schemaId + " does not declare an eventType");
+                }
+                schemasById.put(schemaId, schema);
+                latestIdByEventType.merge(eventType, schemaId, Math::max);
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to load event schema registry from " + location, exception);
+        }
+    }
+
+    public Schema schemaFor(int schemaId) {
+        Schema schema = schemasById.get(schemaId);
+        if (schema == null) {
+            throw new IllegalArgumentException("Unknown event schema id: " + schemaId);
+        }
+        return schema;
+    }
+
+    public Optional<Integer> latestSchemaIdFor(String eventType) {
+        return Optional.ofNullable(latestIdByEventType.get(eventType));
+    }
+
+    public String eventTypeOf(int schemaId) {
+        return schemaFor(schemaId).getProp(EVENT_TYPE_PROPERTY);
+    }
+
+    private static Schema parse(Resource resource) throws IOException {
+        try (InputStream input = resource.getInputStream()) {
+            return new Schema.Parser().parse(input);
+        }
+    }
+}
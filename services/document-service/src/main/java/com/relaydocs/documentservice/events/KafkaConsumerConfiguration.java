@@ -1,18 +1,74 @@
 package com.relaydocs.documentservice.events;
 
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.ssl.SslBundles;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.util.backoff.FixedBackOff;
 
+import java.util.Map;
+
 @Configuration
 public class KafkaConsumerConfiguration {
 
+    public static final String DOMAIN_EVENT_CONTAINER_FACTORY = "domainEventListenerContainerFactory";
+    // Listener id of the sequential or parallel domain event consumer, whichever is enabled.
+    public static final String DOMAIN_EVENT_LISTENER_ID = "domainEventConsumer";
+    // Retry transient failures twice after the initial attempt; malformed payloads are not retried.
+    static final long RETRY_INTERVAL_MILLIS = 500L;
+    static final long MAX_RETRIES = 2L;
+    // How often an idle parallel consumer commits offsets its lanes finished since the last poll.
+    static final long PARALLEL_IDLE_COMMIT_INTERVAL_MILLIS = 1000L;
+
     @Bean
     public DefaultErrorHandler kafkaConsumerErrorHandler() {
-        // Retry transient failures twice after the initial attempt; malformed payloads are not retried.
-        DefaultErrorHandler errorHandler = new DefaultErrorHandler(new FixedBackOff(500L, 2L));
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(new FixedBackOff(RETRY_INTERVAL_MILLIS, MAX_RETRIES));
         errorHandler.addNotRetryableExceptions(IllegalArgumentException.class);
         return errorHandler;
     }
+
+    /**
+     * Domain event values are consumed as raw bytes so the handler can parse and hash them without
+     * decoding to a String first. Everything else follows the spring.kafka.consumer settings.
+     * The parallel consumer commits its own offsets, so its container is switched to manual acks
+     * and reports rebalances and idle periods to it.
+     */
+    @Bean(DOMAIN_EVENT_CONTAINER_FACTORY)
+    @ConditionalOnProperty(name = "relaydocs.events.kafka.consumer-enabled", havingValue = "true")
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> domainEventListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            KafkaProperties kafkaProperties,
+            ObjectProvider<SslBundles> sslBundles,
+            RelayEventProperties relayEventProperties,
+            ObjectProvider<ParallelKafkaDomainEventConsumer> parallelConsumer
+    ) {
+        Map<String, Object> consumerProperties = kafkaProperties.buildConsumerProperties(sslBundles.getIfAvailable());
+        consumerProperties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        consumerProperties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, new DefaultKafkaConsumerFactory<>(consumerProperties));
+        parallelConsumer.ifAvailable((consumer) -> factory.setContainerCustomizer((container) -> {
+            if (DOMAIN_EVENT_LISTENER_ID.equals(container.getListenerId())) {
+                ContainerProperties containerProperties = container.getContainerProperties();
+                containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+                containerProperties.setConsumerRebalanceListener(consumer);
+                containerProperties.setIdleEventInterval(PARALLEL_IDLE_COMMIT_INTERVAL_MILLIS);
+            }
+        }));
+        if (relayEventProperties.isKafkaConsumerStartWhenReady()) {
+            factory.setAutoStartup(false);
+        }
+        return factory;
+    }
 }
@@ -2,47 +2,111 @@ package com.relaydocs.documentservice.events;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Instant;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.UUID;
 
+/**
+ * Sends domain events to Kafka keyed by aggregate id. An event published inside a transaction is
+ * sent once that transaction commits, so consumers never read rows older than the event, and an
+ * event of a rolled back transaction is never sent.
+ */
 @Component
 @ConditionalOnProperty(name = "relaydocs.events.kafka.enabled", havingValue = "true")
 public class KafkaDomainEventPublisher implements DomainEventPublisher {
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ProducerFactory<String, byte[]> producerFactory;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
     private final ObjectMapper objectMapper;
+    private final AvroEventCodec avroEventCodec;
+    private final KafkaTracing kafkaTracing;
+    private final EventEncoding encoding;
     private final String topic;
 
     public KafkaDomainEventPublisher(
-            KafkaTemplate<String, String> kafkaTemplate,
+            ProducerFactory<String, byte[]> producerFactory,
             ObjectMapper objectMapper,
+            AvroEventCodec avroEventCodec,
+            KafkaTracing kafkaTracing,
             RelayEventProperties relayEventProperties
     ) {
-        this.kafkaTemplate = kafkaTemplate;
+        // Values are sent as bytes in either encoding; all other producer settings come from spring.kafka.producer.
+        this.producerFactory = producerFactory.copyWithConfigurationOverride(Map.of(
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class
+        ));
+        this.kafkaTemplate = new KafkaTemplate<>(this.producerFactory);
         this.objectMapper = objectMapper;
+        this.avroEventCodec = avroEventCodec;
+        this.kafkaTracing = kafkaTracing;
+        this.encoding = relayEventProperties.getKafkaEncoding();
         this.topic = relayEventProperties.getKafkaTopic();
     }
 
     @Override
     public void publish(String eventType, String aggregateId, Map<String, Object> payload) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            send(eventType, aggregateId, payload);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                send(eventType, aggregateId, payload);
+            }
+        });
+    }
+
+    /**
+     * Sends the event now, regardless of any transaction; for callers that already waited for it.
+     */
+    void send(String eventType, String aggregateId, Map<String, Object> payload) {
+        String eventId = UUID.randomUUID().toString();
+        Instant occurredAt = Instant.now();
+
+        if (encoding == EventEncoding.AVRO) {
+            AvroEventCodec.EncodedEvent encoded = avroEventCodec.encode(eventId, eventType, aggregateId, occurredAt, payload);
+            if (encoded != null) {
+                ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, aggregateId, encoded.bytes());
+                record.headers().add(AvroEventCodec.SCHEMA_ID_HEADER, AvroEventCodec.schemaIdHeaderValue(encoded.schemaId()));
+                kafkaTracing.inject(record.headers());
+                kafkaTemplate.send(record);
+                return;
+            }
+        }
+
         Map<String, Object> envelope = new LinkedHashMap<>();
-        envelope.put("eventId", UUID.randomUUID().toString());
+        envelope.put("eventId", eventId);
         envelope.put("eventType", eventType);
         envelope.put("aggregateId", aggregateId);
-        envelope.put("occurredAt", Instant.now().toString());
+        envelope.put("occurredAt", occurredAt.toString());
         envelope.put("payload", payload);
 
+        ProducerRecord<String, byte[]> record;
         try {
-            String serialized = objectMapper.writeValueAsString(envelope);
-            kafkaTemplate.send(topic, aggregateId, serialized);
+            record = new ProducerRecord<>(topic, aggregateId, objectMapper.writeValueAsBytes(envelope));
         } catch (JsonProcessingException exception) {
             throw new IllegalStateException("Failed to serialize domain event", exception);
         }
+        kafkaTracing.inject(record.headers());
+        kafkaTemplate.send(record);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        producerFactory.reset();
     }
 }
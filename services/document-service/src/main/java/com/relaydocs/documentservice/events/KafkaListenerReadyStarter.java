@@ -0,0 +1,49 @@
+package com.relaydocs.documentservice.events;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Starts domain event listener containers after the application reports ready when
+ * relaydocs.events.kafka-consumer-start-when-ready is set, so partition assignment and the first
+ * polls do not compete with context startup and the first HTTP requests.
+ */
+@Component
+public class KafkaListenerReadyStarter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KafkaListenerReadyStarter.class);
+
+    private final RelayEventProperties relayEventProperties;
+    private final ObjectProvider<KafkaListenerEndpointRegistry> kafkaListenerEndpointRegistry;
+
+    public KafkaListenerReadyStarter(
+            RelayEventProperties relayEventProperties,
+            ObjectProvider<KafkaListenerEndpointRegistry> kafkaListenerEndpointRegistry
+    ) {
+        this.relayEventProperties = relayEventProperties;
+        this.kafkaListenerEndpointRegistry = kafkaListenerEndpointRegistry;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startListeners() {
+        if (!relayEventProperties.isKafkaConsumerStartWhenReady()) {
+            return;
+        }
+        KafkaListenerEndpointRegistry registry = kafkaListenerEndpointRegistry.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+        for (MessageListenerContainer container : registry.getListenerContainers()) {
+            if (!container.isRunning()) {
+                container.start();
+                LOGGER.info("Started Kafka listener container after readiness. listenerId={}", container.getListenerId());
+            }
+        }
+    }
+}
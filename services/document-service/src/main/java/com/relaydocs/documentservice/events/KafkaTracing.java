@@ -0,0 +1,75 @@
+package com.relaydocs.documentservice.events;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.TraceContext;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Carries trace context across the event topic: producers write the current context into record
+ * headers (W3C {@code traceparent} by default), and consumers continue that trace in a consumer
+ * span around handling the record. Without tracing configured both are no-ops.
+ */
+@Component
+public class KafkaTracing {
+
+    private static final Propagator.Setter<Headers> HEADER_SETTER = (headers, key, value) -> {
+        headers.remove(key);
+        headers.add(key, value.getBytes(StandardCharsets.UTF_8));
+    };
+    private static final Propagator.Getter<Headers> HEADER_GETTER = (headers, key) -> {
+        Header header = headers.lastHeader(key);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    };
+
+    private final Tracer tracer;
+    private final Propagator propagator;
+
+    public KafkaTracing(ObjectProvider<Tracer> tracer, ObjectProvider<Propagator> propagator) {
+        this.tracer = tracer.getIfAvailable(() -> Tracer.NOOP);
+        this.propagator = propagator.getIfAvailable(() -> Propagator.NOOP);
+    }
+
+    public static KafkaTracing disabled() {
+        StaticListableBeanFactory noBeans = new StaticListableBeanFactory();
+        return new KafkaTracing(noBeans.getBeanProvider(Tracer.class), noBeans.getBeanProvider(Propagator.class));
+    }
+
+    public void inject(Headers headers) {
+        TraceContext context = tracer.currentTraceContext().context();
+        if (context != null) {
+            propagator.inject(context, headers, HEADER_SETTER);
+        }
+    }
+
+    /**
+     * Runs {@code handler} in a consumer span that continues the producer's trace, or starts a
+     * new trace when the record carries none.
+     */
+    public void consume(ConsumerRecord<?, ?> record, String spanName, Runnable handler) {
+        Span span = propagator.extract(record.headers(), HEADER_GETTER)
+                .name(spanName)
+                .kind(Span.Kind.CONSUMER)
+                .tag("messaging.system", "kafka")
+                .tag("messaging.destination.name", String.valueOf(record.topic()))
+                .tag("messaging.kafka.partition", String.valueOf(record.partition()))
+                .tag("messaging.kafka.offset", String.valueOf(record.offset()))
+                .start();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+            handler.run();
+        } catch (RuntimeException | Error exception) {
+            span.error(exception);
+            throw exception;
+        } finally {
+            span.end();
+        }
+    }
+}
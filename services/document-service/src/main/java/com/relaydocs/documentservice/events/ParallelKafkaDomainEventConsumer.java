@@ -0,0 +1,243 @@
+package com.relaydocs.documentservice.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Batch listener that hands each record to a worker pool, one lane per record key. Records with
+ * the same key (the aggregate id) are handled in offset order, across polls too; different keys
+ * run concurrently, and the listener returns to poll without waiting for its lanes.
+ *
+ * <p>A failed record is retried inside its lane with the same back-off as the container's error
+ * handler, then logged and skipped as that handler would, so a failure holds up only the later
+ * records for its key. The back-off is a delayed resubmission rather than a sleeping worker.
+ *
+ * <p>The container commits nothing for this listener. Each poll, and each idle event while no
+ * records arrive, commits per partition the offsets below its oldest unfinished record, so a
+ * restart or rebalance redelivers only records that had not finished. At most
+ * {@code kafka-consumer-max-in-flight} records are unfinished at once; past that the listener
+ * waits for lanes before taking more.
+ */
+@Component
+@ConditionalOnExpression(
+        "${relaydocs.events.kafka.consumer-enabled:false} and '${relaydocs.events.kafka.consumer-mode:sequential}' == 'parallel'"
+)
+public class ParallelKafkaDomainEventConsumer implements ConsumerAwareRebalanceListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelKafkaDomainEventConsumer.class);
+    // Unkeyed records share one lane so their relative order is still preserved.
+    private static final String UNKEYED_LANE = "";
+
+    private final DomainEventHandler domainEventHandler;
+    private final ExecutorService workers;
+    private final Executor retryExecutor;
+    private final Semaphore inFlight;
+    private final Map<String, CompletableFuture<Void>> laneTails = new ConcurrentHashMap<>();
+    private final Map<TopicPartition, PartitionProgress> progress = new ConcurrentHashMap<>();
+
+    public ParallelKafkaDomainEventConsumer(
+            ObjectMapper objectMapper,
+            EventConsumptionRecorder eventConsumptionRecorder,
+            RelayEventProperties relayEventProperties,
+            AvroEventCodec avroEventCodec,
+            KafkaTracing kafkaTracing
+    ) {
+        this.domainEventHandler = new DomainEventHandler(
+                objectMapper,
+                eventConsumptionRecorder,
+                relayEventProperties,
+                avroEventCodec,
+                kafkaTracing
+        );
+        this.workers = Executors.newFixedThreadPool(
+                Math.max(1, relayEventProperties.getKafkaConsumerWorkerThreads()),
+                new WorkerThreadFactory()
+        );
+        this.retryExecutor = CompletableFuture.delayedExecutor(
+                KafkaConsumerConfiguration.RETRY_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS,
+                workers
+        );
+        this.inFlight = new Semaphore(Math.max(1, relayEventProperties.getKafkaConsumerMaxInFlight()));
+    }
+
+    @KafkaListener(
+            id = KafkaConsumerConfiguration.DOMAIN_EVENT_LISTENER_ID,
+            idIsGroup = false,
+            topics = "#{@relayEventProperties.kafkaTopic}",
+            groupId = "#{@relayEventProperties.kafkaConsumerGroupId}",
+            containerFactory = KafkaConsumerConfiguration.DOMAIN_EVENT_CONTAINER_FACTORY,
+            batch = "true"
+    )
+    public void handleBatch(List<ConsumerRecord<String, byte[]>> records, Consumer<?, ?> consumer) {
+        commitCompleted(consumer);
+        for (ConsumerRecord<String, byte[]> record : records) {
+            acquireInFlight();
+            PartitionProgress partition = progress.computeIfAbsent(
+                    new TopicPartition(record.topic(), record.partition()),
+                    (key) -> new PartitionProgress()
+            );
+            partition.dispatched(record.offset());
+            dispatch(record).whenComplete((ignored, failure) -> {
+                partition.completed(record.offset());
+                inFlight.release();
+            });
+        }
+        commitCompleted(consumer);
+    }
+
+    /**
+     * Commits completed offsets while no records arrive; idle events are published on the
+     * consumer thread, so the consumer may be used here.
+     */
+    @EventListener(condition = "event.listenerId.startsWith('" + KafkaConsumerConfiguration.DOMAIN_EVENT_LISTENER_ID + "')")
+    public void onIdle(ListenerContainerIdleEvent event) {
+        commitCompleted(event.getConsumer());
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        commit(consumer, partitions);
+        // Records still in flight for these partitions are redelivered to their next owner.
+        partitions.forEach(progress::remove);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        partitions.forEach(progress::remove);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    void commitCompleted(Consumer<?, ?> consumer) {
+        commit(consumer, consumer.assignment());
+    }
+
+    private void commit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            PartitionProgress partitionProgress = progress.get(partition);
+            if (partitionProgress == null) {
+                continue;
+            }
+            long committable = partitionProgress.committable();
+            if (committable > partitionProgress.committed) {
+                offsets.put(partition, new OffsetAndMetadata(committable));
+            }
+        }
+        if (offsets.isEmpty()) {
+            return;
+        }
+        consumer.commitSync(offsets);
+        offsets.forEach((partition, offset) -> {
+            PartitionProgress partitionProgress = progress.get(partition);
+            if (partitionProgress != null) {
+                partitionProgress.committed = offset.offset();
+            }
+        });
+    }
+
+    private CompletableFuture<Void> dispatch(ConsumerRecord<String, byte[]> record) {
+        String lane = Objects.requireNonNullElse(record.key(), UNKEYED_LANE);
+        CompletableFuture<Void> tail = laneTails.compute(lane, (key, previous) -> previous == null
+                ? handleWithRetries(record, 0, workers)
+                : previous.thenCompose((ignored) -> handleWithRetries(record, 0, workers)));
+        tail.whenComplete((ignored, failure) -> laneTails.remove(lane, tail));
+        return tail;
+    }
+
+    private CompletableFuture<Void> handleWithRetries(ConsumerRecord<String, byte[]> record, long attempt, Executor executor) {
+        return CompletableFuture.runAsync(() -> domainEventHandler.handle(record), executor)
+                .handle((ignored, failure) -> failure)
+                .thenCompose((failure) -> {
+                    if (failure == null) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+                    if (cause instanceof IllegalArgumentException || attempt >= KafkaConsumerConfiguration.MAX_RETRIES) {
+                        LOGGER.error("Skipping domain event after failed attempts. topic={}, partition={}, offset={}, attempts={}",
+                                record.topic(), record.partition(), record.offset(), attempt + 1, cause);
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    return handleWithRetries(record, attempt + 1, retryExecutor);
+                });
+    }
+
+    private void acquireInFlight() {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for event workers", exception);
+        }
+    }
+
+    /**
+     * Offsets of one partition dispatched but not yet finished. Everything below the oldest of
+     * them, or below the next offset when none is left, has finished and can be committed.
+     */
+    private static final class PartitionProgress {
+
+        private final TreeSet<Long> unfinished = new TreeSet<>();
+        private long nextOffset = -1;
+        // Only read and written on the consumer thread.
+        private long committed = -1;
+
+        synchronized void dispatched(long offset) {
+            unfinished.add(offset);
+            nextOffset = Math.max(nextOffset, offset + 1);
+        }
+
+        synchronized void completed(long offset) {
+            unfinished.remove(offset);
+        }
+
+        synchronized long committable() {
+            return unfinished.isEmpty() ? nextOffset : unfinished.first();
+        }
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "domain-event-worker-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
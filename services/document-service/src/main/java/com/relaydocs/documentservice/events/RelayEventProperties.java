@@ -10,6 +10,17 @@ public class RelayEventProperties {
     private String kafkaTopic = "relaydocs.domain-events";
     private String kafkaConsumerGroupId = "relaydocs-document-service-consumer";
     private String kafkaConsumerName = "document-service";
+    // Worker threads shared by all partitions when the consumer runs in parallel mode.
+    private int kafkaConsumerWorkerThreads = 8;
+    // Records taken from polls but not yet handled in parallel mode; polling waits past this.
+    private int kafkaConsumerMaxInFlight = 1000;
+    // Consumers accept both encodings regardless of this setting.
+    private EventEncoding kafkaEncoding = EventEncoding.JSON;
+    private String kafkaSchemaRegistryLocation = "classpath:event-schemas/";
+    // Leave listener containers stopped during startup and start them once the app reports ready.
+    private boolean kafkaConsumerStartWhenReady = false;
+    // Every node also reads the topic in a group of its own to keep node-local caches in step.
+    private String kafkaBroadcastGroupPrefix = "relaydocs-document-service-broadcast";
 
     public String getKafkaTopic() {
         return kafkaTopic;
@@ -34,4 +45,52 @@ public class RelayEventProperties {
     public void setKafkaConsumerName(String kafkaConsumerName) {
         this.kafkaConsumerName = kafkaConsumerName;
     }
-}
+
+    public int getKafkaConsumerWorkerThreads() {
+        return kafkaConsumerWorkerThreads;
+    }
+
+    public void setKafkaConsumerWorkerThreads(int kafkaConsumerWorkerThreads) {
+        this.kafkaConsumerWorkerThreads = kafkaConsumerWorkerThreads;
+    }
+
+    public int getKafkaConsumerMaxInFlight() {
+        return kafkaConsumerMaxInFlight;
+    }
+
+    public void setKafkaConsumerMaxInFlight(int kafkaConsumerMaxInFlight) {
+        this.kafkaConsumerMaxInFlight = kafkaConsumerMaxInFlight;
+    }
+
+    public EventEncoding getKafkaEncoding() {
+        return kafkaEncoding;
+    }
+
+    public void setKafkaEncoding(EventEncoding kafkaEncoding) {
+        this.kafkaEncoding = kafkaEncoding;
+    }
+
+    public String getKafkaSchemaRegistryLocation() {
+        return kafkaSchemaRegistryLocation;
+    }
+
+    public void setKafkaSchemaRegistryLocation(String kafkaSchemaRegistryLocation) {
+        this.kafkaSchemaRegistryLocation = kafkaSchemaRegistryLocation;
+    }
+
+    public boolean isKafkaConsumerStartWhenReady() {
+        return kafkaConsumerStartWhenReady;
+    }
+
+    public void setKafkaConsumerStartWhenReady(boolean kafkaConsumerStartWhenReady) {
+        this.kafkaConsumerStartWhenReady = kafkaConsumerStartWhenReady;
+    }
+
+    public String getKafkaBroadcastGroupPrefix() {
+        return kafkaBroadcastGroupPrefix;
+    }
+
+    public void setKafkaBroadcastGroupPrefix(String kafkaBroadcastGroupPrefix) {
+        this.kafkaBroadcastGroupPrefix = kafkaBroadcastGroupPrefix;
+    }
+}
\ No newline at end of file
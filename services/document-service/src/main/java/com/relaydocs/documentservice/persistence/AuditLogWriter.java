@@ -0,0 +1,138 @@
+package com.relaydocs.documentservice.persistence;
+
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Appends audit records to {@code audit_log} with multi-row INSERTs and, on PostgreSQL, keeps its
+ * monthly partitions: the current and next month exist ahead of time, and months past the
+ * retention period are dropped.
+ */
+@Component
+public class AuditLogWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuditLogWriter.class);
+    private static final String INSERT_PREFIX = """
+            INSERT INTO audit_log (occurred_at, action, actor_user_id, target_user_id, document_id, group_id, detail, request_id)
+            VALUES\s""";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int COLUMNS = 8;
+    // Keeps each statement well below the driver's bind parameter limit.
+    private static final int ROWS_PER_STATEMENT = 200;
+    private static final String PARTITION_PREFIX = "audit_log_";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AuditLogWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void write(List<AuditRecord> records) {
+        for (int start = 0; start < records.size(); start += ROWS_PER_STATEMENT) {
+            List<AuditRecord> chunk = records.subList(start, Math.min(records.size(), start + ROWS_PER_STATEMENT));
+            StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + chunk.size() * (ROW_PLACEHOLDERS.length() + 2))
+                    .append(INSERT_PREFIX);
+            Object[] arguments = new Object[chunk.size() * COLUMNS];
+            int argument = 0;
+            for (int row = 0; row < chunk.size(); row++) {
+                AuditRecord record = chunk.get(row);
+                sql.append(row == 0 ? "" : ", ").append(ROW_PLACEHOLDERS);
+                arguments[argument++] = record.occurredAt().atOffset(ZoneOffset.UTC);
+                arguments[argument++] = record.action().name();
+                arguments[argument++] = record.actorUserId();
+                arguments[argument++] = record.targetUserId();
+                arguments[argument++] = record.documentId();
+                arguments[argument++] = record.groupId();
+                arguments[argument++] = record.detail();
+                arguments[argument++] = record.requestId();
+            }
+            jdbcTemplate.update(sql.toString(), arguments);
+        }
+    }
+
+    /**
+     * Creates the partitions for {@code month} and the month after it, and drops partitions that
+     * ended more than {@code retentionMonths} months before {@code month}. Does nothing on
+     * databases other than PostgreSQL, where {@code audit_log} is a plain table.
+     *
+     * @param retentionMonths zero or less keeps every partition
+     */
+    public void maintainPartitions(YearMonth month, int retentionMonths) {
+        if (!isPostgres()) {
+            return;
+        }
+        createPartition(month);
+        createPartition(month.plusMonths(1));
+        if (retentionMonths > 0) {
+            YearMonth oldestKept = month.minusMonths(retentionMonths);
+            for (String partition : partitionsBefore(oldestKept)) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+                LOGGER.info("Dropped expired audit log partition. partition={}", partition);
+            }
+        }
+    }
+
+    static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+
+    private void createPartition(YearMonth month) {
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month)
+                    + " PARTITION OF audit_log FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        } catch (DataAccessException exception) {
+            // Rows for the month already sit in the default partition; they stay there.
+            LOGGER.warn("Could not create audit log partition. partition={}", partitionName(month), exception);
+        }
+    }
+
+    private List<String> partitionsBefore(YearMonth oldestKept) {
+        List<String> children = jdbcTemplate.queryForList("""
+                SELECT child.relname
+                FROM pg_inherits
+                JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+                JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+                WHERE parent.relname = 'audit_log'
+                """, String.class);
+        List<String> expired = new ArrayList<>();
+        for (String child : children) {
+            YearMonth month = parseMonth(child);
+            if (month != null && month.isBefore(oldestKept)) {
+                expired.add(child);
+            }
+        }
+        return expired;
+    }
+
+    static YearMonth parseMonth(String partition) {
+        if (!partition.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+        } catch (RuntimeException exception) {
+            return null;
+        }
+    }
+
+    private boolean isPostgres() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute(
+                (ConnectionCallback<Boolean>) (connection) -> connection.isWrapperFor(PGConnection.class)
+        ));
+    }
+}
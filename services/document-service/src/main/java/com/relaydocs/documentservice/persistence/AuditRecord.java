@@ -0,0 +1,20 @@
+package com.relaydocs.documentservice.persistence;
+
+import com.relaydocs.documentservice.domain.AuditAction;
+
+import java.time.Instant;
+
+/**
+ * One row of {@code audit_log}. Fields that do not apply to the action are null.
+ */
+public record AuditRecord(
+        Instant occurredAt,
+        AuditAction action,
+        String actorUserId,
+        String targetUserId,
+        Long documentId,
+        Long groupId,
+        String detail,
+        String requestId
+) {
+}
@@ -53,4 +53,8 @@ public class AuthCredentialEntity {
     public String getPasswordHash() {
         return passwordHash;
     }
+
+    public void setPasswordHash(String passwordHash) {
+        this.passwordHash = passwordHash;
+    }
 }
@@ -0,0 +1,4 @@
+package com.relaydocs.documentservice.persistence;
+
+public record ColdContentPointer(Long documentId, Long segment, Long offset, Integer length) {
+}
@@ -0,0 +1,4 @@
+package com.relaydocs.documentservice.persistence;
+
+public record ColdSegmentUsage(Long segment, Long entries, Long payloadBytes) {
+}
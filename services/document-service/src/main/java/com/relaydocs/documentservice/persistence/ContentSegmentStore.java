@@ -0,0 +1,297 @@
+package com.relaydocs.documentservice.persistence;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only segment files holding cold document content, read through memory-mapped
+ * {@link FileChannel}s. Each entry is a 16-byte header (payload length, document id, CRC32 of the
+ * payload) followed by the UTF-8 payload; the row keeps the segment, entry offset and payload length.
+ * A process appends only to a segment it created, so a torn tail left by a crash is never reused.
+ */
+@Component
+public class ContentSegmentStore {
+
+    public static final int HEADER_BYTES = Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String RETIRED_SUFFIX = ".retired";
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final ConcurrentMap<Long, MappedSegment> mappedSegments = new ConcurrentHashMap<>();
+    private final Object appendLock = new Object();
+    private FileChannel activeChannel;
+    private long activeSegment = -1L;
+    private long activeSize;
+
+    public ContentSegmentStore(ContentTieringProperties properties) {
+        if (properties.getMaxSegmentBytes() <= HEADER_BYTES || properties.getMaxSegmentBytes() > Integer.MAX_VALUE) {
+            throw new IllegalStateException("relaydocs.tiering.max-segment-bytes must be between "
+                    + (HEADER_BYTES + 1) + " and " + Integer.MAX_VALUE);
+        }
+        this.directory = Path.of(properties.getDirectory());
+        this.maxSegmentBytes = properties.getMaxSegmentBytes();
+    }
+
+    public ColdContentPointer append(long documentId, String content) {
+        byte[] payload = content.getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer entry = ByteBuffer.allocate(HEADER_BYTES + payload.length)
+                .putInt(payload.length)
+                .putLong(documentId)
+                .putInt((int) crc.getValue())
+                .put(payload)
+                .flip();
+
+        synchronized (appendLock) {
+            try {
+                if (activeChannel == null || (activeSize > 0 && activeSize + entry.remaining() > maxSegmentBytes)) {
+                    rollSegment();
+                }
+                long offset = activeSize;
+                while (entry.hasRemaining()) {
+                    activeSize += activeChannel.write(entry, activeSize);
+                }
+                return new ColdContentPointer(documentId, activeSegment, offset, payload.length);
+            } catch (IOException exception) {
+                throw new UncheckedIOException("Failed to append to content segment " + activeSegment, exception);
+            }
+        }
+    }
+
+    /**
+     * Makes every appended entry durable. Callers must force before publishing pointers to them.
+     */
+    public void force() {
+        synchronized (appendLock) {
+            if (activeChannel == null) {
+                return;
+            }
+            try {
+                activeChannel.force(false);
+            } catch (IOException exception) {
+                throw new UncheckedIOException("Failed to sync content segment " + activeSegment, exception);
+            }
+        }
+    }
+
+    public String read(ColdContentPointer pointer) {
+        return StandardCharsets.UTF_8.decode(readBytes(pointer)).toString();
+    }
+
+    /**
+     * Read-only view of the entry's UTF-8 payload inside the mapping; no copy is made.
+     */
+    public ByteBuffer readBytes(ColdContentPointer pointer) {
+        int offset = Math.toIntExact(pointer.offset());
+        int length = pointer.length();
+        MappedByteBuffer mapping = mappedSegment(pointer.segment()).covering((long) offset + HEADER_BYTES + length);
+
+        ByteBuffer header = mapping.duplicate().position(offset);
+        int storedLength = header.getInt();
+        long storedDocumentId = header.getLong();
+        int storedCrc = header.getInt();
+        if (storedLength != length || storedDocumentId != pointer.documentId()) {
+            throw new IllegalStateException("Content segment entry does not match pointer " + pointer);
+        }
+
+        ByteBuffer payload = mapping.slice(offset + HEADER_BYTES, length).asReadOnlyBuffer();
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != storedCrc) {
+            throw new IllegalStateException("Content segment entry failed its checksum: " + pointer);
+        }
+        return payload;
+    }
+
+    public long activeSegment() {
+        synchronized (appendLock) {
+            return activeSegment;
+        }
+    }
+
+    /**
+     * Segments this process is not appending to, oldest first.
+     */
+    public List<Long> sealedSegments() {
+        long active = activeSegment();
+        return listSegments(SEGMENT_SUFFIX).stream()
+                .filter((segment) -> segment != active)
+                .toList();
+    }
+
+    public long segmentBytes(long segment) {
+        try {
+            return Files.size(segmentPath(segment, SEGMENT_SUFFIX));
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    public long totalBytes() {
+        return listSegments(SEGMENT_SUFFIX).stream().mapToLong(this::segmentBytes).sum();
+    }
+
+    /**
+     * Takes a segment out of service once no row points into it. The file is kept under another
+     * name until the next {@link #purgeRetired()} so that reads which resolved their pointer just
+     * before the rewrite still succeed.
+     */
+    public void retire(long segment) {
+        MappedSegment mapped = mappedSegments.remove(segment);
+        if (mapped != null) {
+            mapped.close();
+        }
+        try {
+            Files.move(segmentPath(segment, SEGMENT_SUFFIX), segmentPath(segment, RETIRED_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException exception) {
+            // Already retired.
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    public void purgeRetired() {
+        for (long segment : listSegments(RETIRED_SUFFIX)) {
+            try {
+                Files.deleteIfExists(segmentPath(segment, RETIRED_SUFFIX));
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        synchronized (appendLock) {
+            if (activeChannel != null) {
+                try {
+                    activeChannel.close();
+                } catch (IOException ignored) {
+                    // Closing on shutdown; entries were forced when their pointers were published.
+                }
+                activeChannel = null;
+            }
+        }
+        mappedSegments.values().forEach(MappedSegment::close);
+        mappedSegments.clear();
+    }
+
+    private void rollSegment() throws IOException {
+        if (activeChannel != null) {
+            activeChannel.force(false);
+            activeChannel.close();
+        }
+        Files.createDirectories(directory);
+        long next = Stream.concat(listSegments(SEGMENT_SUFFIX).stream(), listSegments(RETIRED_SUFFIX).stream())
+                .mapToLong(Long::longValue)
+                .max()
+                .orElse(0L) + 1;
+        activeChannel = FileChannel.open(
+                segmentPath(next, SEGMENT_SUFFIX),
+                StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE
+        );
+        activeSegment = next;
+        activeSize = 0L;
+    }
+
+    private MappedSegment mappedSegment(long segment) {
+        return mappedSegments.computeIfAbsent(segment, (id) -> {
+            Path path = segmentPath(id, SEGMENT_SUFFIX);
+            if (!Files.exists(path)) {
+                path = segmentPath(id, RETIRED_SUFFIX);
+            }
+            try {
+                return new MappedSegment(FileChannel.open(path, StandardOpenOption.READ));
+            } catch (IOException exception) {
+                throw new UncheckedIOException("Content segment " + id + " is not readable", exception);
+            }
+        });
+    }
+
+    private List<Long> listSegments(String suffix) {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        List<Long> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map((path) -> path.getFileName().toString())
+                    .filter((name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(suffix))
+                    .forEach((name) -> segments.add(Long.parseLong(
+                            name.substring(SEGMENT_PREFIX.length(), name.length() - suffix.length())
+                    )));
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        segments.sort(Long::compare);
+        return segments;
+    }
+
+    private Path segmentPath(long segment, String suffix) {
+        return directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, segment, suffix));
+    }
+
+    /**
+     * The active segment keeps growing, so its mapping is widened whenever a pointer reaches past it.
+     */
+    private static final class MappedSegment {
+
+        private final FileChannel channel;
+        private volatile MappedByteBuffer mapping;
+
+        private MappedSegment(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private MappedByteBuffer covering(long end) {
+            MappedByteBuffer current = mapping;
+            if (current != null && current.capacity() >= end) {
+                return current;
+            }
+            synchronized (this) {
+                if (mapping == null || mapping.capacity() < end) {
+                    try {
+                        long size = channel.size();
+                        if (size < end) {
+                            throw new IllegalStateException("Content segment is shorter than a pointer into it");
+                        }
+                        mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                    } catch (IOException exception) {
+                        throw new UncheckedIOException(exception);
+                    }
+                }
+                return mapping;
+            }
+        }
+
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Existing mappings stay valid after the channel is closed.
+            }
+        }
+    }
+}
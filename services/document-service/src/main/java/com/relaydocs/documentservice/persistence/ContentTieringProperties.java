@@ -0,0 +1,88 @@
+package com.relaydocs.documentservice.persistence;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "relaydocs.tiering")
+public class ContentTieringProperties {
+
+    // Enables the tiering job only; documents already tiered are always readable.
+    private boolean enabled = false;
+    private String directory = "data/content-segments";
+    // Documents not modified for this long are moved out of the table.
+    private Duration idleThreshold = Duration.ofDays(7);
+    // Short contents cost little in the table and are not worth a file read.
+    private int minContentLength = 4096;
+    private int batchSize = 100;
+    private Duration interval = Duration.ofMinutes(10);
+    private long maxSegmentBytes = 64L * 1024 * 1024;
+    // Sealed segments whose live entries fill less than this share of the file are rewritten.
+    private double compactionLiveRatio = 0.5;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public Duration getIdleThreshold() {
+        return idleThreshold;
+    }
+
+    public void setIdleThreshold(Duration idleThreshold) {
+        this.idleThreshold = idleThreshold;
+    }
+
+    public int getMinContentLength() {
+        return minContentLength;
+    }
+
+    public void setMinContentLength(int minContentLength) {
+        this.minContentLength = minContentLength;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getInterval() {
+        return interval;
+    }
+
+    public void setInterval(Duration interval) {
+        this.interval = interval;
+    }
+
+    public long getMaxSegmentBytes() {
+        return maxSegmentBytes;
+    }
+
+    public void setMaxSegmentBytes(long maxSegmentBytes) {
+        this.maxSegmentBytes = maxSegmentBytes;
+    }
+
+    public double getCompactionLiveRatio() {
+        return compactionLiveRatio;
+    }
+
+    public void setCompactionLiveRatio(double compactionLiveRatio) {
+        this.compactionLiveRatio = compactionLiveRatio;
+    }
+}
@@ -0,0 +1,88 @@
+package com.relaydocs.documentservice.persistence;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+import java.time.Instant;
+
+@Entity
+@Table(
+        name = "document_blocks",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uq_document_blocks_doc_key", columnNames = {"document_id", "block_key"})
+        }
+)
+public class DocumentBlockEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false, updatable = false)
+    private Long id;
+
+    @Column(name = "document_id", nullable = false, updatable = false)
+    private Long documentId;
+
+    @Column(name = "block_key", nullable = false, updatable = false, length = 255)
+    private String blockKey;
+
+    @Column(name = "content", nullable = false, columnDefinition = "TEXT")
+    private String content;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    protected DocumentBlockEntity() {
+    }
+
+    public DocumentBlockEntity(Long documentId, String blockKey, String content) {
+        this.documentId = documentId;
+        this.blockKey = blockKey;
+        this.content = content;
+    }
+
+    @PrePersist
+    public void onCreate() {
+        Instant now = Instant.now();
+        this.createdAt = now;
+        this.updatedAt = now;
+    }
+
+    @PreUpdate
+    public void onUpdate() {
+        this.updatedAt = Instant.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getDocumentId() {
+        return documentId;
+    }
+
+    public String getBlockKey() {
+        return blockKey;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+}
@@ -0,0 +1,30 @@
+package com.relaydocs.documentservice.persistence;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface DocumentBlockRepository extends JpaRepository<DocumentBlockEntity, Long> {
+
+    List<DocumentBlockEntity> findByDocumentIdAndBlockKeyGreaterThanOrderByBlockKeyAsc(
+            Long documentId,
+            String afterKey,
+            Pageable pageable
+    );
+
+    Optional<DocumentBlockEntity> findByDocumentIdAndBlockKey(Long documentId, String blockKey);
+
+    Optional<DocumentBlockEntity> findFirstByDocumentIdAndBlockKeyGreaterThanOrderByBlockKeyAsc(
+            Long documentId,
+            String afterKey
+    );
+
+    Optional<DocumentBlockEntity> findFirstByDocumentIdAndBlockKeyLessThanOrderByBlockKeyDesc(
+            Long documentId,
+            String beforeKey
+    );
+
+    Optional<DocumentBlockEntity> findFirstByDocumentIdOrderByBlockKeyDesc(Long documentId);
+}
@@ -0,0 +1,95 @@
+package com.relaydocs.documentservice.persistence;
+
+import com.relaydocs.documentservice.domain.DocumentChangeType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+/**
+ * One entry per (user, document) or (group, document) visibility change; exactly one of
+ * {@code userId} and {@code groupId} is set. A member's feed is their own entries merged with
+ * their groups' entries. The identity column is the monotonic sync cursor handed to clients;
+ * each feed's entries commit in its order because they are written under
+ * {@link DocumentChangeLocks}. Timestamps are informational only.
+ */
+@Entity
+@Table(
+        name = "document_changes",
+        indexes = {
+                @Index(name = "idx_document_changes_user_seq", columnList = "user_id, seq"),
+                @Index(name = "idx_document_changes_user_document_seq", columnList = "user_id, document_id, seq"),
+                @Index(name = "idx_document_changes_group_seq", columnList = "group_id, seq"),
+                @Index(name = "idx_document_changes_group_document_seq", columnList = "group_id, document_id, seq")
+        }
+)
+public class DocumentChangeEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "seq", nullable = false, updatable = false)
+    private Long seq;
+
+    @Column(name = "user_id", updatable = false, length = 100)
+    private String userId;
+
+    @Column(name = "group_id", updatable = false)
+    private Long groupId;
+
+    @Column(name = "document_id", nullable = false, updatable = false)
+    private Long documentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, updatable = false, length = 20)
+    private DocumentChangeType changeType;
+
+    @Column(name = "changed_at", nullable = false, updatable = false)
+    private Instant changedAt;
+
+    protected DocumentChangeEntity() {
+    }
+
+    public DocumentChangeEntity(String userId, Long groupId, Long documentId, DocumentChangeType changeType) {
+        this.userId = userId;
+        this.groupId = groupId;
+        this.documentId = documentId;
+        this.changeType = changeType;
+    }
+
+    @PrePersist
+    public void onCreate() {
+        this.changedAt = Instant.now();
+    }
+
+    public Long getSeq() {
+        return seq;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public Long getGroupId() {
+        return groupId;
+    }
+
+    public Long getDocumentId() {
+        return documentId;
+    }
+
+    public DocumentChangeType getChangeType() {
+        return changeType;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+}
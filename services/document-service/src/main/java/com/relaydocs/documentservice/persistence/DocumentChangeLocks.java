@@ -0,0 +1,88 @@
+package com.relaydocs.documentservice.persistence;
+
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Per-user row locks in {@code document_change_locks} and per-group ones in
+ * {@code group_change_locks}. A transaction takes the locks of every user and group it writes
+ * change feed entries for before drawing their {@code seq}s and keeps them until it commits, so
+ * each feed's entries become visible in {@code seq} order. A member reads their own feed merged
+ * with their groups' feeds, whose writers do not exclude each other, so a reader first takes the
+ * same locks in share mode: entries still being written to any of those feeds commit before it
+ * reads, and a client resuming after the highest {@code seq} it has read never skips one. Locks
+ * are taken users first, each kind in id order, so no two transactions can deadlock on them.
+ */
+@Component
+public class DocumentChangeLocks {
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean postgres;
+
+    public DocumentChangeLocks(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Must run inside the transaction that writes the entries.
+     */
+    public void lock(Collection<String> userIds) {
+        lock(userIds, List.of());
+    }
+
+    /**
+     * Must run inside the transaction that writes the entries.
+     */
+    public void lock(Collection<String> userIds, Collection<Long> groupIds) {
+        for (String userId : new TreeSet<>(userIds)) {
+            // A concurrent first insert for the same user is waited for, then this does nothing.
+            jdbcTemplate.update("INSERT INTO document_change_locks (user_id) VALUES (?) ON CONFLICT DO NOTHING", userId);
+            jdbcTemplate.queryForList("SELECT user_id FROM document_change_locks WHERE user_id = ? FOR UPDATE", String.class, userId);
+        }
+        for (Long groupId : new TreeSet<>(groupIds)) {
+            jdbcTemplate.update("INSERT INTO group_change_locks (group_id) VALUES (?) ON CONFLICT DO NOTHING", groupId);
+            jdbcTemplate.queryForList("SELECT group_id FROM group_change_locks WHERE group_id = ? FOR UPDATE", Long.class, groupId);
+        }
+    }
+
+    /**
+     * Waits for transactions writing to the user's or the groups' feeds to commit; must run inside
+     * the transaction that then reads those feeds. Readers do not block each other on PostgreSQL;
+     * other databases lack shared row locks and serialize them.
+     */
+    public void awaitWriters(String userId, Collection<Long> groupIds) {
+        String mode = isPostgres() ? "FOR SHARE" : "FOR UPDATE";
+        List<String> users = jdbcTemplate.queryForList(
+                "SELECT user_id FROM document_change_locks WHERE user_id = ? " + mode, String.class, userId);
+        if (users.isEmpty()) {
+            // The user's first writer may still be inserting the row; the insert waits for it.
+            jdbcTemplate.update("INSERT INTO document_change_locks (user_id) VALUES (?) ON CONFLICT DO NOTHING", userId);
+            jdbcTemplate.queryForList("SELECT user_id FROM document_change_locks WHERE user_id = ? " + mode, String.class, userId);
+        }
+        for (Long groupId : new TreeSet<>(groupIds)) {
+            List<Long> groups = jdbcTemplate.queryForList(
+                    "SELECT group_id FROM group_change_locks WHERE group_id = ? " + mode, Long.class, groupId);
+            if (groups.isEmpty()) {
+                jdbcTemplate.update("INSERT INTO group_change_locks (group_id) VALUES (?) ON CONFLICT DO NOTHING", groupId);
+                jdbcTemplate.queryForList("SELECT group_id FROM group_change_locks WHERE group_id = ? " + mode, Long.class, groupId);
+            }
+        }
+    }
+
+    private boolean isPostgres() {
+        Boolean value = postgres;
+        if (value == null) {
+            value = Boolean.TRUE.equals(jdbcTemplate.execute(
+                    (ConnectionCallback<Boolean>) (connection) -> connection.isWrapperFor(PGConnection.class)
+            ));
+            postgres = value;
+        }
+        return value;
+    }
+}
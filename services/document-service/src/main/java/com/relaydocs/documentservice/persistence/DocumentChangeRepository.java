@@ -0,0 +1,46 @@
+package com.relaydocs.documentservice.persistence;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface DocumentChangeRepository extends JpaRepository<DocumentChangeEntity, Long> {
+
+    List<DocumentChangeEntity> findByUserIdAndSeqGreaterThanOrderBySeqAsc(String userId, Long seq, Pageable pageable);
+
+    /**
+     * The user's entries merged with the entries of the given groups, in {@code seq} order.
+     */
+    @Query("""
+            SELECT c FROM DocumentChangeEntity c
+            WHERE c.seq > :seq AND (c.userId = :userId OR c.groupId IN :groupIds)
+            ORDER BY c.seq ASC
+            """)
+    List<DocumentChangeEntity> findMergedFeed(String userId, Collection<Long> groupIds, Long seq, Pageable pageable);
+
+    @Query("SELECT MIN(c.seq) FROM DocumentChangeEntity c")
+    Long findMinSeq();
+
+    @Query("SELECT MAX(c.seq) FROM DocumentChangeEntity c")
+    Long findMaxSeq();
+
+    /**
+     * Deletes the entries in {@code (fromSeq, toSeq]} that a later entry for the same user, or the
+     * same group, and document supersedes.
+     */
+    @Modifying
+    @Query(value = """
+            DELETE FROM document_changes c
+            WHERE c.seq > :fromSeq AND c.seq <= :toSeq
+              AND EXISTS (
+                  SELECT 1 FROM document_changes later
+                  WHERE (later.user_id = c.user_id OR later.group_id = c.group_id)
+                    AND later.document_id = c.document_id AND later.seq > c.seq
+              )
+            """, nativeQuery = true)
+    int deleteSuperseded(long fromSeq, long toSeq);
+}
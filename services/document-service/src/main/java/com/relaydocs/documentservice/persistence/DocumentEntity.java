@@ -43,6 +43,20 @@ public class DocumentEntity {
     @Column(name = "updated_at", nullable = false)
     private Instant updatedAt;
 
+    // Bumped on every change visible in a response (content, title or sharing); keys response caches.
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    // Location of the content in the cold segment store; null while the content is in the row.
+    @Column(name = "content_segment")
+    private Long contentSegment;
+
+    @Column(name = "content_offset")
+    private Long contentOffset;
+
+    @Column(name = "content_length")
+    private Integer contentLength;
+
     @OneToMany(mappedBy = "document", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<DocumentPermissionEntity> permissions = new HashSet<>();
 
@@ -91,6 +105,26 @@ public class DocumentEntity {
         return updatedAt;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isContentTiered() {
+        return contentSegment != null;
+    }
+
+    public Long getContentSegment() {
+        return contentSegment;
+    }
+
+    public Long getContentOffset() {
+        return contentOffset;
+    }
+
+    public Integer getContentLength() {
+        return contentLength;
+    }
+
     public Set<DocumentPermissionEntity> getPermissions() {
         return permissions;
     }
@@ -101,5 +135,12 @@ public class DocumentEntity {
 
     public void setContent(String content) {
         this.content = content;
+        this.contentSegment = null;
+        this.contentOffset = null;
+        this.contentLength = null;
+    }
+
+    public void incrementVersion() {
+        this.version++;
     }
 }
\ No newline at end of file
@@ -0,0 +1,75 @@
+package com.relaydocs.documentservice.persistence;
+
+import com.relaydocs.documentservice.domain.PermissionRole;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * A document shared with every member of a group. Unlike {@link DocumentPermissionEntity} this is
+ * not fanned out into {@code user_document_access}; member visibility comes from the in-memory
+ * group visibility index.
+ */
+@Entity
+@Table(
+        name = "document_group_permissions",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uq_document_group_permissions_doc_group", columnNames = {"document_id", "group_id"})
+        },
+        indexes = {
+                @Index(name = "idx_document_group_permissions_group_id", columnList = "group_id")
+        }
+)
+public class DocumentGroupPermissionEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false, updatable = false)
+    private Long id;
+
+    @Column(name = "document_id", nullable = false, updatable = false)
+    private Long documentId;
+
+    @Column(name = "group_id", nullable = false, updatable = false)
+    private Long groupId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "role", nullable = false, length = 50)
+    private PermissionRole role;
+
+    protected DocumentGroupPermissionEntity() {
+    }
+
+    public DocumentGroupPermissionEntity(Long documentId, Long groupId, PermissionRole role) {
+        this.documentId = documentId;
+        this.groupId = groupId;
+        this.role = role;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getDocumentId() {
+        return documentId;
+    }
+
+    public Long getGroupId() {
+        return groupId;
+    }
+
+    public PermissionRole getRole() {
+        return role;
+    }
+
+    public void setRole(PermissionRole role) {
+        this.role = role;
+    }
+}
@@ -0,0 +1,28 @@
+package com.relaydocs.documentservice.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface DocumentGroupPermissionRepository extends JpaRepository<DocumentGroupPermissionEntity, Long> {
+
+    Optional<DocumentGroupPermissionEntity> findByDocumentIdAndGroupId(Long documentId, Long groupId);
+
+    @Query("""
+            select new com.relaydocs.documentservice.persistence.GroupGrant(p.groupId, p.documentId, p.role)
+            from DocumentGroupPermissionEntity p
+            """)
+    List<GroupGrant> findAllGrants();
+
+    @Query("select p.groupId from DocumentGroupPermissionEntity p where p.documentId = :documentId")
+    List<Long> findGroupIdsByDocumentId(Long documentId);
+
+    @Query("""
+            select distinct p.documentId from DocumentGroupPermissionEntity p
+            where p.groupId in :groupIds and p.documentId in :documentIds
+            """)
+    List<Long> findDocumentIdsSharedWithGroups(Collection<Long> groupIds, Collection<Long> documentIds);
+}
@@ -0,0 +1,22 @@
+package com.relaydocs.documentservice.persistence;
+
+import com.relaydocs.documentservice.domain.PermissionRole;
+
+import java.time.Instant;
+
+/**
+ * A document row without its content, for reads that take the content from a cache. The query
+ * returns one row per permission; {@code sharedUserId} and {@code sharedRole} are null when the
+ * document is not shared.
+ */
+public record DocumentHead(
+        Long id,
+        String ownerUserId,
+        String title,
+        long version,
+        Instant createdAt,
+        Instant updatedAt,
+        String sharedUserId,
+        PermissionRole sharedRole
+) {
+}
@@ -0,0 +1,200 @@
+package com.relaydocs.documentservice.persistence;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Loads imported documents through {@code COPY ... FROM STDIN} into
+ * {@code document_import_staging} and merges a batch into the document tables with a handful of
+ * set-based statements. Everything runs on the connection of the caller's transaction, which must
+ * also delete the batch before it commits.
+ */
+@Component
+public class DocumentImportStaging {
+
+    private static final String COPY_SQL = """
+            COPY document_import_staging (batch_id, line_number, title, content, shared_with) FROM STDIN
+            """;
+    private static final int FLUSH_BYTES = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DocumentChangeLocks documentChangeLocks;
+
+    public DocumentImportStaging(JdbcTemplate jdbcTemplate, DocumentChangeLocks documentChangeLocks) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.documentChangeLocks = documentChangeLocks;
+    }
+
+    public boolean supportsCopy() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute(
+                (ConnectionCallback<Boolean>) (connection) -> connection.isWrapperFor(PGConnection.class)
+        ));
+    }
+
+    /**
+     * Starts a COPY for the batch. Close the writer before running anything else on the
+     * transaction: closing completes the COPY, or cancels it if {@link Writer#finish()} was not
+     * reached.
+     */
+    public Writer open(UUID batchId) {
+        CopyIn copyIn = jdbcTemplate.execute((ConnectionCallback<CopyIn>) (connection) ->
+                connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL));
+        return new Writer(batchId, copyIn);
+    }
+
+    /**
+     * Creates the owner's documents, the shared users' permissions and access rows, and their
+     * change feed entries.
+     *
+     * @return ids of the new documents in line order, and the users they were shared with
+     */
+    public MergedBatch merge(UUID batchId, String ownerUserId) {
+        jdbcTemplate.update(
+                "UPDATE document_import_staging SET document_id = nextval(pg_get_serial_sequence('documents', 'id')) WHERE batch_id = ?",
+                batchId
+        );
+        jdbcTemplate.update("""
+                INSERT INTO users (id, email)
+                SELECT ?, ?
+                UNION
+                SELECT share.key, share.key || '@relaydocs.local'
+                FROM document_import_staging s, jsonb_each_text(s.shared_with) share
+                WHERE s.batch_id = ?
+                ON CONFLICT DO NOTHING
+                """, ownerUserId, ownerUserId + "@relaydocs.local", batchId);
+        jdbcTemplate.update("""
+                INSERT INTO documents (id, owner_id, title, content)
+                SELECT document_id, ?, title, content
+                FROM document_import_staging
+                WHERE batch_id = ?
+                ORDER BY line_number
+                """, ownerUserId, batchId);
+        jdbcTemplate.update("""
+                INSERT INTO document_permissions (document_id, user_id, role)
+                SELECT s.document_id, share.key, share.value
+                FROM document_import_staging s, jsonb_each_text(s.shared_with) share
+                WHERE s.batch_id = ?
+                """, batchId);
+        jdbcTemplate.update("""
+                INSERT INTO user_document_access (user_id, document_id, role)
+                SELECT ?, document_id, 'OWNER'
+                FROM document_import_staging
+                WHERE batch_id = ?
+                UNION ALL
+                SELECT share.key, s.document_id, share.value
+                FROM document_import_staging s, jsonb_each_text(s.shared_with) share
+                WHERE s.batch_id = ?
+                """, ownerUserId, batchId, batchId);
+        List<String> sharedWith = jdbcTemplate.queryForList("""
+                SELECT DISTINCT share.key
+                FROM document_import_staging s, jsonb_each_text(s.shared_with) share
+                WHERE s.batch_id = ?
+                ORDER BY share.key
+                """, String.class, batchId);
+        List<String> changedUsers = new ArrayList<>(sharedWith);
+        changedUsers.add(ownerUserId);
+        documentChangeLocks.lock(changedUsers);
+        jdbcTemplate.update("""
+                INSERT INTO document_changes (user_id, document_id, change_type)
+                SELECT a.user_id, a.document_id, 'UPSERT'
+                FROM user_document_access a
+                JOIN document_import_staging s ON s.document_id = a.document_id
+                WHERE s.batch_id = ?
+                ORDER BY a.document_id, a.user_id
+                """, batchId);
+
+        List<Long> documentIds = jdbcTemplate.queryForList(
+                "SELECT document_id FROM document_import_staging WHERE batch_id = ? ORDER BY line_number",
+                Long.class,
+                batchId
+        );
+        jdbcTemplate.update("DELETE FROM document_import_staging WHERE batch_id = ?", batchId);
+        return new MergedBatch(documentIds, sharedWith);
+    }
+
+    /**
+     * Appends one column in COPY text format: backslash, tab, newline and carriage return are
+     * escaped, and null is {@code \N}.
+     */
+    static void appendField(StringBuilder row, String value) {
+        if (value == null) {
+            row.append("\\N");
+            return;
+        }
+        for (int index = 0; index < value.length(); index++) {
+            char character = value.charAt(index);
+            switch (character) {
+                case '\\' -> row.append("\\\\");
+                case '\t' -> row.append("\\t");
+                case '\n' -> row.append("\\n");
+                case '\r' -> row.append("\\r");
+                default -> row.append(character);
+            }
+        }
+    }
+
+    public record MergedBatch(List<Long> documentIds, List<String> sharedWithUserIds) {
+    }
+
+    public static final class Writer implements AutoCloseable {
+
+        private final String batchId;
+        private final CopyIn copyIn;
+        private final StringBuilder row = new StringBuilder();
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(FLUSH_BYTES * 2);
+        private boolean finished;
+
+        private Writer(UUID batchId, CopyIn copyIn) {
+            this.batchId = batchId.toString();
+            this.copyIn = copyIn;
+        }
+
+        /**
+         * @param sharedWith JSON object of user id to role name, or null
+         */
+        public void add(int lineNumber, String title, String content, String sharedWith) throws SQLException {
+            row.setLength(0);
+            row.append(batchId).append('\t').append(lineNumber).append('\t');
+            appendField(row, title);
+            row.append('\t');
+            appendField(row, content);
+            row.append('\t');
+            appendField(row, sharedWith);
+            row.append('\n');
+            buffer.writeBytes(row.toString().getBytes(StandardCharsets.UTF_8));
+            if (buffer.size() >= FLUSH_BYTES) {
+                flush();
+            }
+        }
+
+        public void finish() throws SQLException {
+            flush();
+            copyIn.endCopy();
+            finished = true;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (!finished && copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+
+        private void flush() throws SQLException {
+            if (buffer.size() > 0) {
+                copyIn.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+                buffer.reset();
+            }
+        }
+    }
+}
@@ -1,10 +1,21 @@
 package com.relaydocs.documentservice.persistence;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface DocumentPermissionRepository extends JpaRepository<DocumentPermissionEntity, Long> {
 
     Optional<DocumentPermissionEntity> findByDocumentIdAndUserId(Long documentId, String userId);
-}
\ No newline at end of file
+
+    @Query("""
+            select new com.relaydocs.documentservice.persistence.DocumentShare(p.document.id, p.user.id, p.role)
+            from DocumentPermissionEntity p
+            where p.document.id in :documentIds
+            order by p.document.id asc, p.user.id asc
+            """)
+    List<DocumentShare> findSharesByDocumentIds(Collection<Long> documentIds);
+}
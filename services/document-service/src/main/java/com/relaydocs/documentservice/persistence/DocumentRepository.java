@@ -1,18 +1,115 @@
 package com.relaydocs.documentservice.persistence;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface DocumentRepository extends JpaRepository<DocumentEntity, Long> {
 
     @Query("""
-            select distinct d
+            select d
+            from UserDocumentAccessEntity a
+            join DocumentEntity d on d.id = a.id.documentId
+            where a.id.userId = :userId
+            order by a.id.documentId asc
+            """)
+    List<DocumentEntity> findVisibleDocuments(String userId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select d
+            from UserDocumentAccessEntity a
+            join DocumentEntity d on d.id = a.id.documentId
+            where a.id.userId = :userId
+            order by a.id.documentId asc
+            """)
+    Stream<DocumentEntity> streamVisibleDocuments(String userId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select d from DocumentEntity d where d.owner.id = :ownerUserId order by d.id asc")
+    Stream<DocumentEntity> streamOwnedDocuments(String ownerUserId);
+
+    @Modifying
+    @Query("update DocumentEntity d set d.updatedAt = :updatedAt, d.version = d.version + 1 where d.id = :id")
+    int touchUpdatedAt(Long id, Instant updatedAt);
+
+    // Sharing changes the response but not the document row, so it bumps the version without touching updated_at.
+    @Modifying
+    @Query("update DocumentEntity d set d.version = d.version + 1 where d.id = :id")
+    int incrementVersion(Long id);
+
+    @Query("""
+            select d
             from DocumentEntity d
-            left join d.permissions p
-            where d.owner.id = :userId or p.user.id = :userId
+            where d.contentSegment is null and d.updatedAt < :idleBefore and length(d.content) >= :minContentLength
             order by d.id asc
             """)
-    List<DocumentEntity> findVisibleDocuments(String userId);
+    List<DocumentEntity> findTieringCandidates(Instant idleBefore, int minContentLength, Pageable page);
+
+    // Guarded by version so an edit that lands while the content is being written out wins.
+    @Modifying
+    @Query("""
+            update DocumentEntity d
+            set d.content = '', d.contentSegment = :segment, d.contentOffset = :offset, d.contentLength = :length
+            where d.id = :id and d.version = :version and d.contentSegment is null
+            """)
+    int moveContentToSegment(Long id, long version, long segment, long offset, int length);
+
+    @Query("""
+            select new com.relaydocs.documentservice.persistence.ColdContentPointer(
+                d.id, d.contentSegment, d.contentOffset, d.contentLength)
+            from DocumentEntity d
+            where d.contentSegment = :segment
+            """)
+    List<ColdContentPointer> findColdContentIn(long segment);
+
+    @Query("""
+            select new com.relaydocs.documentservice.persistence.ColdSegmentUsage(
+                d.contentSegment, count(d), sum(d.contentLength))
+            from DocumentEntity d
+            where d.contentSegment is not null
+            group by d.contentSegment
+            """)
+    List<ColdSegmentUsage> summarizeColdContent();
+
+    @Modifying
+    @Query("""
+            update DocumentEntity d
+            set d.contentSegment = :newSegment, d.contentOffset = :newOffset
+            where d.id = :id and d.contentSegment = :segment and d.contentOffset = :offset
+            """)
+    int relocateColdContent(Long id, long segment, long offset, long newSegment, long newOffset);
+
+    @Query("""
+            select new com.relaydocs.documentservice.persistence.DocumentHead(
+                d.id, d.owner.id, d.title, d.version, d.createdAt, d.updatedAt, p.user.id, p.role)
+            from DocumentEntity d
+            left join d.permissions p
+            where d.id = :id
+            order by p.user.id asc
+            """)
+    List<DocumentHead> findHeadById(Long id);
+
+    @Query("""
+            select new com.relaydocs.documentservice.persistence.StoredContent(
+                d.id, d.version, d.content, d.contentSegment, d.contentOffset, d.contentLength)
+            from DocumentEntity d
+            where d.id = :id
+            """)
+    Optional<StoredContent> findStoredContentById(Long id);
 }
\ No newline at end of file
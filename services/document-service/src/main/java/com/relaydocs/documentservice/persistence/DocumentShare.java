@@ -0,0 +1,6 @@
+package com.relaydocs.documentservice.persistence;
+
+import com.relaydocs.documentservice.domain.PermissionRole;
+
+public record DocumentShare(Long documentId, String userId, PermissionRole role) {
+}
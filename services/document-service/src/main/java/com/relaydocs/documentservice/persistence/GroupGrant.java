@@ -0,0 +1,6 @@
+package com.relaydocs.documentservice.persistence;
+
+import com.relaydocs.documentservice.domain.PermissionRole;
+
+public record GroupGrant(Long groupId, Long documentId, PermissionRole role) {
+}
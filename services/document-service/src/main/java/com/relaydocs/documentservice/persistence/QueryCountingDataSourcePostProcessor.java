@@ -0,0 +1,163 @@
+package com.relaydocs.documentservice.persistence;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.function.SingletonSupplier;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.function.Supplier;
+
+/**
+ * Wraps the application DataSource in JDK proxies that feed {@link QueryStats}. Only the JDBC
+ * interfaces are proxied, so {@code unwrap} still reaches the pool for metrics and tooling.
+ * Inside a traced request the same proxies add spans for connection checkout (pool wait),
+ * each statement, and commit or rollback.
+ */
+@Component
+@ConditionalOnProperty(name = "relaydocs.query-stats.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryCountingDataSourcePostProcessor implements BeanPostProcessor {
+
+    private static final int MAX_TRACED_SQL_LENGTH = 500;
+
+    // Resolved on first use: post-processors are created before the tracer.
+    private final Supplier<Tracer> tracer;
+
+    public QueryCountingDataSourcePostProcessor(ObjectProvider<Tracer> tracer) {
+        this.tracer = SingletonSupplier.of(() -> tracer.getIfAvailable(() -> Tracer.NOOP));
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !Proxy.isProxyClass(bean.getClass())) {
+            return proxy(DataSource.class, new DataSourceHandler(dataSource, tracer));
+        }
+        return bean;
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(
+                QueryCountingDataSourcePostProcessor.class.getClassLoader(),
+                new Class<?>[]{type},
+                handler
+        ));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException exception) {
+            throw exception.getCause();
+        }
+    }
+
+    /**
+     * Invokes the method inside a span when a trace is in progress on this thread.
+     */
+    private static Object invokeTraced(Object target, Method method, Object[] args, Tracer tracer, String spanName, String sql)
+            throws Throwable {
+        if (tracer.currentSpan() == null) {
+            return invoke(target, method, args);
+        }
+        Span.Builder builder = tracer.spanBuilder().name(spanName).kind(Span.Kind.CLIENT);
+        if (sql != null) {
+            builder.tag("db.statement", sql.length() > MAX_TRACED_SQL_LENGTH ? sql.substring(0, MAX_TRACED_SQL_LENGTH) : sql);
+        }
+        Span span = builder.start();
+        try {
+            return invoke(target, method, args);
+        } catch (Throwable exception) {
+            span.error(exception);
+            throw exception;
+        } finally {
+            span.end();
+        }
+    }
+
+    private record DataSourceHandler(DataSource target, Supplier<Tracer> tracer) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = "getConnection".equals(method.getName())
+                    ? invokeTraced(target, method, args, tracer.get(), "db.connection.acquire", null)
+                    : QueryCountingDataSourcePostProcessor.invoke(target, method, args);
+            if (result instanceof Connection connection) {
+                return proxy(Connection.class, new ConnectionHandler(connection, tracer));
+            }
+            return result;
+        }
+    }
+
+    private record ConnectionHandler(Connection target, Supplier<Tracer> tracer) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("commit".equals(name) || "rollback".equals(name)) {
+                return invokeTraced(target, method, args, tracer.get(), "db." + name, null);
+            }
+            Object result = QueryCountingDataSourcePostProcessor.invoke(target, method, args);
+            if (result instanceof Statement statement) {
+                // prepareStatement/prepareCall carry their SQL up front; plain statements pass it on execute.
+                String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                Class<? extends Statement> type = statementInterface(method.getReturnType());
+                return proxy(type, new StatementHandler(statement, sql, tracer));
+            }
+            return result;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Class<? extends Statement> statementInterface(Class<?> declaredType) {
+            return Statement.class.isAssignableFrom(declaredType)
+                    ? (Class<? extends Statement>) declaredType
+                    : Statement.class;
+        }
+    }
+
+    private record StatementHandler(Statement target, String preparedSql, Supplier<Tracer> tracer) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (!method.getName().startsWith("execute")) {
+                return wrapResultSet(QueryCountingDataSourcePostProcessor.invoke(target, method, args));
+            }
+
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+            long startTime = System.nanoTime();
+            try {
+                return wrapResultSet(invokeTraced(target, method, args, tracer.get(), "db.query", sql));
+            } finally {
+                QueryStats.recordStatement(sql, System.nanoTime() - startTime);
+            }
+        }
+
+        private static Object wrapResultSet(Object result) {
+            if (result instanceof ResultSet resultSet) {
+                return proxy(ResultSet.class, new ResultSetHandler(resultSet));
+            }
+            return result;
+        }
+    }
+
+    private record ResultSetHandler(ResultSet target) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = QueryCountingDataSourcePostProcessor.invoke(target, method, args);
+            if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+                QueryStats.recordRow();
+            }
+            return result;
+        }
+    }
+}
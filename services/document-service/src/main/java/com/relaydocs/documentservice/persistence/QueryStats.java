@@ -0,0 +1,77 @@
+package com.relaydocs.documentservice.persistence;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-thread JDBC counters for the request currently being served. Statements executed outside
+ * a {@link #begin()}/{@link #end()} pair (schedulers, consumers, async dispatches) are not
+ * recorded.
+ */
+public final class QueryStats {
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Integer> executionsBySql = new HashMap<>();
+    private int statements;
+    private long rows;
+    private long jdbcNanos;
+
+    private QueryStats() {
+    }
+
+    public static void begin() {
+        CURRENT.set(new QueryStats());
+    }
+
+    public static QueryStats end() {
+        QueryStats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats == null ? new QueryStats() : stats;
+    }
+
+    static void recordStatement(String sql, long elapsedNanos) {
+        QueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements++;
+            stats.jdbcNanos += elapsedNanos;
+            if (sql != null) {
+                stats.executionsBySql.merge(sql, 1, Integer::sum);
+            }
+        }
+    }
+
+    static void recordRow() {
+        QueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.rows++;
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    public long getJdbcMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(jdbcNanos);
+    }
+
+    /**
+     * The statement text executed most often in this request with its execution count, or null
+     * when nothing ran. The same SELECT repeated many times is the usual N+1 signature.
+     */
+    public Map.Entry<String, Integer> mostRepeatedStatement() {
+        return executionsBySql.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .orElse(null);
+    }
+}
@@ -0,0 +1,29 @@
+package com.relaydocs.documentservice.persistence;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "relaydocs.query-stats")
+public class QueryStatsProperties {
+
+    private boolean enabled = true;
+    // Requests that run the same statement at least this many times are logged as likely N+1.
+    private int repeatedStatementWarnThreshold = 10;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getRepeatedStatementWarnThreshold() {
+        return repeatedStatementWarnThreshold;
+    }
+
+    public void setRepeatedStatementWarnThreshold(int repeatedStatementWarnThreshold) {
+        this.repeatedStatementWarnThreshold = repeatedStatementWarnThreshold;
+    }
+}
@@ -0,0 +1,36 @@
+package com.relaydocs.documentservice.persistence;
+
+/**
+ * Shard the current thread's JPA and JDBC work is routed to. Unbound threads use shard 0.
+ * The routing data source resolves the shard when a transaction first touches the database,
+ * so the shard must be bound before the transaction starts and stay bound until it ends.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    public static Scope bind(int shardIndex) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shardIndex);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    public interface Scope extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
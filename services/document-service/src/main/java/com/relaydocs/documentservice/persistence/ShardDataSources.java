@@ -0,0 +1,72 @@
+package com.relaydocs.documentservice.persistence;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One connection pool per configured shard. JPA reaches them through the routing data source;
+ * migrations, the placement directory and the rebalancer use them directly.
+ */
+public class ShardDataSources implements AutoCloseable {
+
+    private final List<HikariDataSource> dataSources = new ArrayList<>();
+    private final List<JdbcTemplate> jdbcTemplates = new ArrayList<>();
+    private final List<TransactionTemplate> transactionTemplates = new ArrayList<>();
+
+    public ShardDataSources(ShardingProperties properties, MeterRegistry meterRegistry) {
+        List<ShardingProperties.Shard> shards = properties.getShards();
+        if (shards.isEmpty()) {
+            throw new IllegalStateException("relaydocs.sharding.enabled requires at least one relaydocs.sharding.shards entry");
+        }
+        if (shards.size() > ShardKeys.ID_SPACE) {
+            throw new IllegalStateException("At most " + ShardKeys.ID_SPACE + " shards are supported");
+        }
+
+        MicrometerMetricsTrackerFactory metricsTrackerFactory = new MicrometerMetricsTrackerFactory(meterRegistry);
+        for (int index = 0; index < shards.size(); index++) {
+            ShardingProperties.Shard shard = shards.get(index);
+            if (shard.getUrl() == null || shard.getUrl().isBlank()) {
+                throw new IllegalStateException("relaydocs.sharding.shards[" + index + "].url is required");
+            }
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("relaydocs-shard-" + index);
+            dataSource.setJdbcUrl(shard.getUrl());
+            dataSource.setUsername(shard.getUsername());
+            dataSource.setPassword(shard.getPassword());
+            dataSource.setMaximumPoolSize(shard.getMaximumPoolSize());
+            dataSource.setMetricsTrackerFactory(metricsTrackerFactory);
+            dataSources.add(dataSource);
+            jdbcTemplates.add(new JdbcTemplate(dataSource));
+            transactionTemplates.add(new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        }
+    }
+
+    public int size() {
+        return dataSources.size();
+    }
+
+    public DataSource dataSource(int shardIndex) {
+        return dataSources.get(shardIndex);
+    }
+
+    public JdbcTemplate jdbcTemplate(int shardIndex) {
+        return jdbcTemplates.get(shardIndex);
+    }
+
+    public TransactionTemplate transactionTemplate(int shardIndex) {
+        return transactionTemplates.get(shardIndex);
+    }
+
+    @Override
+    public void close() {
+        dataSources.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,42 @@
+package com.relaydocs.documentservice.persistence;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Shard arithmetic shared by routing, id allocation and the rebalancer. Document ids carry their
+ * home shard in {@code id % ID_SPACE}: every shard's id sequence steps by {@code ID_SPACE} from a
+ * start congruent to its index, so ids stay unique across shards and below 2^53 for JavaScript
+ * clients. Ids at or below the legacy ceiling predate sharding and live on shard 0.
+ */
+public final class ShardKeys {
+
+    public static final int ID_SPACE = 1024;
+
+    private ShardKeys() {
+    }
+
+    /**
+     * CRC32 rather than {@link String#hashCode()} so that owners whose ids differ only in a trailing
+     * counter still spread across shards.
+     */
+    public static int shardForOwner(String ownerUserId, int shardCount) {
+        CRC32 crc = new CRC32();
+        crc.update(ownerUserId.getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() % shardCount);
+    }
+
+    public static int homeShardOf(long documentId, long legacyMaxDocumentId) {
+        if (documentId <= legacyMaxDocumentId) {
+            return 0;
+        }
+        return (int) (documentId % ID_SPACE);
+    }
+
+    /**
+     * First id a shard may hand out once every existing id (on any shard) is at or below {@code floor}.
+     */
+    public static long firstIdAbove(long floor, int shardIndex) {
+        return (Math.max(0L, floor) / ID_SPACE + 1) * ID_SPACE + shardIndex;
+    }
+}
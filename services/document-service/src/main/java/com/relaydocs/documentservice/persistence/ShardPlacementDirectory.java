@@ -0,0 +1,82 @@
+package com.relaydocs.documentservice.persistence;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Placement overrides kept on shard 0: owners pinned to a shard other than their hash, and
+ * documents the rebalancer moved away from the shard encoded in their id.
+ */
+public class ShardPlacementDirectory {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ShardPlacementDirectory(ShardDataSources shardDataSources) {
+        this.jdbcTemplate = shardDataSources.jdbcTemplate(0);
+    }
+
+    public long legacyMaxDocumentId() {
+        List<String> values = jdbcTemplate.queryForList(
+                "SELECT value FROM shard_settings WHERE name = 'legacy_max_document_id'",
+                String.class
+        );
+        return values.isEmpty() ? 0L : Long.parseLong(values.get(0));
+    }
+
+    public Optional<Integer> ownerShard(String ownerUserId) {
+        return jdbcTemplate.queryForList(
+                "SELECT shard_index FROM shard_owner_placements WHERE owner_id = ?",
+                Integer.class,
+                ownerUserId
+        ).stream().findFirst();
+    }
+
+    public Optional<Integer> documentShard(long documentId) {
+        return jdbcTemplate.queryForList(
+                "SELECT shard_index FROM shard_document_placements WHERE document_id = ?",
+                Integer.class,
+                documentId
+        ).stream().findFirst();
+    }
+
+    /**
+     * Placements moved after {@code since}, newest first, at most {@code limit} of them.
+     */
+    public List<DocumentPlacement> documentPlacementsMovedSince(Instant since, int limit) {
+        return jdbcTemplate.query(
+                """
+                        SELECT document_id, shard_index, moved_at FROM shard_document_placements
+                        WHERE moved_at > ? ORDER BY moved_at DESC LIMIT ?
+                        """,
+                (resultSet, rowNumber) -> new DocumentPlacement(
+                        resultSet.getLong(1),
+                        resultSet.getInt(2),
+                        resultSet.getTimestamp(3).toInstant()
+                ),
+                Timestamp.from(since),
+                limit
+        );
+    }
+
+    public void placeOwner(String ownerUserId, int shardIndex) {
+        jdbcTemplate.update("""
+                INSERT INTO shard_owner_placements (owner_id, shard_index, updated_at) VALUES (?, ?, NOW())
+                ON CONFLICT (owner_id) DO UPDATE SET shard_index = EXCLUDED.shard_index, updated_at = EXCLUDED.updated_at
+                """, ownerUserId, shardIndex);
+    }
+
+    public void placeDocuments(Collection<Long> documentIds, int shardIndex) {
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO shard_document_placements (document_id, shard_index, moved_at) VALUES (?, ?, NOW())
+                ON CONFLICT (document_id) DO UPDATE SET shard_index = EXCLUDED.shard_index, moved_at = EXCLUDED.moved_at
+                """, documentIds.stream().map((id) -> new Object[]{id, shardIndex}).toList());
+    }
+
+    public record DocumentPlacement(long documentId, int shardIndex, Instant movedAt) {
+    }
+}
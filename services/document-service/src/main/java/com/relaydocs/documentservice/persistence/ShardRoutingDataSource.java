@@ -0,0 +1,11 @@
+package com.relaydocs.documentservice.persistence;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+}
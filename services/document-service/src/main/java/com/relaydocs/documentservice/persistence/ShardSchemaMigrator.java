@@ -0,0 +1,84 @@
+package com.relaydocs.documentservice.persistence;
+
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Runs the Flyway migrations on every shard, then switches each shard's document id sequence to
+ * the sharded layout (see {@link ShardKeys}). The switch happens once per shard: the first time,
+ * every id already issued anywhere becomes the legacy ceiling recorded on shard 0.
+ */
+public class ShardSchemaMigrator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShardSchemaMigrator.class);
+    private static final String DOCUMENT_ID_SEQUENCE = "documents_id_seq";
+
+    private final ShardDataSources shardDataSources;
+
+    public ShardSchemaMigrator(ShardDataSources shardDataSources) {
+        this.shardDataSources = shardDataSources;
+    }
+
+    public void migrate(Flyway template) {
+        for (int index = 0; index < shardDataSources.size(); index++) {
+            Flyway.configure()
+                    .configuration(template.getConfiguration())
+                    .dataSource(shardDataSources.dataSource(index))
+                    .load()
+                    .migrate();
+        }
+
+        long floor = highestIssuedDocumentId();
+        for (int index = 0; index < shardDataSources.size(); index++) {
+            alignDocumentIds(index, floor);
+        }
+    }
+
+    private long highestIssuedDocumentId() {
+        long highest = 0L;
+        for (int index = 0; index < shardDataSources.size(); index++) {
+            JdbcTemplate jdbcTemplate = shardDataSources.jdbcTemplate(index);
+            Long shardMax = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM documents", Long.class);
+            Long sequenceValue = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(last_value, 0) FROM pg_sequences WHERE schemaname = current_schema() AND sequencename = ?",
+                    Long.class,
+                    DOCUMENT_ID_SEQUENCE
+            );
+            highest = Math.max(highest, Math.max(shardMax, sequenceValue));
+        }
+        return highest;
+    }
+
+    private void alignDocumentIds(int shardIndex, long floor) {
+        JdbcTemplate jdbcTemplate = shardDataSources.jdbcTemplate(shardIndex);
+        Long increment = jdbcTemplate.queryForObject(
+                "SELECT increment_by FROM pg_sequences WHERE schemaname = current_schema() AND sequencename = ?",
+                Long.class,
+                DOCUMENT_ID_SEQUENCE
+        );
+        if (increment != null && increment == ShardKeys.ID_SPACE) {
+            return;
+        }
+
+        if (shardIndex == 0) {
+            shardDataSources.jdbcTemplate(0).update("""
+                    INSERT INTO shard_settings (name, value) VALUES ('legacy_max_document_id', ?)
+                    ON CONFLICT (name) DO NOTHING
+                    """, String.valueOf(floor));
+        } else {
+            Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM documents", Long.class);
+            if (existing != null && existing > 0) {
+                throw new IllegalStateException(
+                        "Shard " + shardIndex + " already holds documents with unsharded ids; only shard 0 may have legacy data"
+                );
+            }
+        }
+
+        long start = ShardKeys.firstIdAbove(floor, shardIndex);
+        jdbcTemplate.execute("ALTER SEQUENCE " + DOCUMENT_ID_SEQUENCE
+                + " INCREMENT BY " + ShardKeys.ID_SPACE + " RESTART WITH " + start);
+        LOGGER.info("Switched shard to sharded document ids. shard={}, firstId={}", shardIndex, start);
+    }
+}
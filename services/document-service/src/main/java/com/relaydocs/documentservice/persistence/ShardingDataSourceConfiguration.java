@@ -0,0 +1,52 @@
+package com.relaydocs.documentservice.persistence;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Replaces the single spring.datasource pool when sharding is enabled. JPA sees one data source
+ * that routes on {@link ShardContext}; the lazy proxy defers picking the physical connection
+ * until the first statement, by which time the caller has bound the shard.
+ */
+@Configuration
+@ConditionalOnProperty(name = "relaydocs.sharding.enabled", havingValue = "true")
+public class ShardingDataSourceConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public ShardDataSources shardDataSources(ShardingProperties properties, MeterRegistry meterRegistry) {
+        return new ShardDataSources(properties, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardDataSources shardDataSources) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int index = 0; index < shardDataSources.size(); index++) {
+            targets.put(index, shardDataSources.dataSource(index));
+        }
+        ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource();
+        routingDataSource.setTargetDataSources(targets);
+        routingDataSource.setDefaultTargetDataSource(shardDataSources.dataSource(0));
+        routingDataSource.setLenientFallback(false);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public ShardSchemaMigrator shardSchemaMigrator(ShardDataSources shardDataSources) {
+        return new ShardSchemaMigrator(shardDataSources);
+    }
+
+    @Bean
+    public ShardPlacementDirectory shardPlacementDirectory(ShardDataSources shardDataSources) {
+        return new ShardPlacementDirectory(shardDataSources);
+    }
+}
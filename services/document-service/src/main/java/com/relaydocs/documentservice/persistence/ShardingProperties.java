@@ -0,0 +1,107 @@
+package com.relaydocs.documentservice.persistence;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "relaydocs.sharding")
+public class ShardingProperties {
+
+    private boolean enabled = false;
+    // Shard 0 must be the existing database: it keeps auth data, pre-sharding documents and the placement directory.
+    private List<Shard> shards = new ArrayList<>();
+    // How long a node may route a moved document by its cached placement before re-reading the directory.
+    private Duration placementRefreshInterval = Duration.ofSeconds(30);
+    // Moved-document placements cached per node; older ones are looked up in the directory on a miss.
+    private int placementCacheSize = 100_000;
+    // Documents copied per source transaction by the rebalancer; their rows stay locked until the batch commits.
+    private int rebalanceBatchSize = 200;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    public void setShards(List<Shard> shards) {
+        this.shards = shards;
+    }
+
+    public Duration getPlacementRefreshInterval() {
+        return placementRefreshInterval;
+    }
+
+    public void setPlacementRefreshInterval(Duration placementRefreshInterval) {
+        this.placementRefreshInterval = placementRefreshInterval;
+    }
+
+    public int getPlacementCacheSize() {
+        return placementCacheSize;
+    }
+
+    public void setPlacementCacheSize(int placementCacheSize) {
+        this.placementCacheSize = placementCacheSize;
+    }
+
+    public int getRebalanceBatchSize() {
+        return rebalanceBatchSize;
+    }
+
+    public void setRebalanceBatchSize(int rebalanceBatchSize) {
+        this.rebalanceBatchSize = rebalanceBatchSize;
+    }
+
+    public int shardCount() {
+        return enabled ? shards.size() : 1;
+    }
+
+    public static class Shard {
+
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+    }
+}
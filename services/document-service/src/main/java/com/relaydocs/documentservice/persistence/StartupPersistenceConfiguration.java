@@ -0,0 +1,53 @@
+package com.relaydocs.documentservice.persistence;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class StartupPersistenceConfiguration {
+
+    /**
+     * Under spring.main.lazy-initialization the pool, migrations and the entity manager factory
+     * still start eagerly, so /ready keeps meaning "the database is usable" and the first request
+     * does not pay for Hibernate bootstrap.
+     */
+    @Bean
+    static LazyInitializationExcludeFilter eagerPersistenceBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                DataSource.class,
+                FlywayMigrationInitializer.class,
+                AbstractEntityManagerFactoryBean.class
+        );
+    }
+
+    /**
+     * The AppCDS training run only needs the context to refresh; it sets
+     * relaydocs.startup.run-migrations=false so no database has to be reachable at image build time.
+     * With sharding enabled every shard is migrated, not just the one the routing data source defaults to.
+     */
+    @Bean
+    FlywayMigrationStrategy flywayMigrationStrategy(
+            @Value("${relaydocs.startup.run-migrations:true}") boolean runMigrations,
+            ObjectProvider<ShardSchemaMigrator> shardSchemaMigrator
+    ) {
+        return (flyway) -> {
+            if (!runMigrations) {
+                return;
+            }
+            ShardSchemaMigrator migrator = shardSchemaMigrator.getIfAvailable();
+            if (migrator != null) {
+                migrator.migrate(flyway);
+            } else {
+                flyway.migrate();
+            }
+        };
+    }
+}
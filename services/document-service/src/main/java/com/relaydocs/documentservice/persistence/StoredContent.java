@@ -0,0 +1,15 @@
+package com.relaydocs.documentservice.persistence;
+
+/**
+ * A document's content column and tiering pointer at a given version.
+ */
+public record StoredContent(Long documentId, long version, String content, Long segment, Long offset, Integer length) {
+
+    public boolean isTiered() {
+        return segment != null;
+    }
+
+    public ColdContentPointer pointer() {
+        return new ColdContentPointer(documentId, segment, offset, length);
+    }
+}
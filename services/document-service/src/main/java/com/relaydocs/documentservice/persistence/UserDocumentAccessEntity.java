@@ -0,0 +1,68 @@
+package com.relaydocs.documentservice.persistence;
+
+import com.relaydocs.documentservice.domain.AccessRole;
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+/**
+ * Materialized (user, document) visibility row kept in sync with ownership and sharing, so
+ * per-user listing is a primary-key range scan instead of an OR across documents and permissions.
+ */
+@Entity
+@Table(
+        name = "user_document_access",
+        indexes = {
+                @Index(name = "idx_user_document_access_document_id", columnList = "document_id")
+        }
+)
+public class UserDocumentAccessEntity {
+
+    @EmbeddedId
+    private UserDocumentAccessId id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "role", nullable = false, length = 50)
+    private AccessRole role;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    protected UserDocumentAccessEntity() {
+    }
+
+    public UserDocumentAccessEntity(String userId, Long documentId, AccessRole role) {
+        this.id = new UserDocumentAccessId(userId, documentId);
+        this.role = role;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void touch() {
+        this.updatedAt = Instant.now();
+    }
+
+    public UserDocumentAccessId getId() {
+        return id;
+    }
+
+    public AccessRole getRole() {
+        return role;
+    }
+
+    public void setRole(AccessRole role) {
+        this.role = role;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,49 @@
+package com.relaydocs.documentservice.persistence;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+@Embeddable
+public class UserDocumentAccessId implements Serializable {
+
+    @Column(name = "user_id", nullable = false, length = 100)
+    private String userId;
+
+    @Column(name = "document_id", nullable = false)
+    private Long documentId;
+
+    protected UserDocumentAccessId() {
+    }
+
+    public UserDocumentAccessId(String userId, Long documentId) {
+        this.userId = userId;
+        this.documentId = documentId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public Long getDocumentId() {
+        return documentId;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof UserDocumentAccessId that)) {
+            return false;
+        }
+        return Objects.equals(userId, that.userId) && Objects.equals(documentId, that.documentId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, documentId);
+    }
+}
@@ -0,0 +1,10 @@
+package com.relaydocs.documentservice.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface UserDocumentAccessRepository extends JpaRepository<UserDocumentAccessEntity, UserDocumentAccessId> {
+
+    List<UserDocumentAccessEntity> findByIdDocumentId(Long documentId);
+}
@@ -0,0 +1,46 @@
+package com.relaydocs.documentservice.persistence;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+@Entity
+@Table(
+        name = "user_group_members",
+        indexes = {
+                @Index(name = "idx_user_group_members_user_id", columnList = "user_id")
+        }
+)
+public class UserGroupMemberEntity {
+
+    @EmbeddedId
+    private UserGroupMemberId id;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    protected UserGroupMemberEntity() {
+    }
+
+    public UserGroupMemberEntity(Long groupId, String userId) {
+        this.id = new UserGroupMemberId(groupId, userId);
+    }
+
+    @PrePersist
+    public void onCreate() {
+        this.createdAt = Instant.now();
+    }
+
+    public UserGroupMemberId getId() {
+        return id;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,49 @@
+package com.relaydocs.documentservice.persistence;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+@Embeddable
+public class UserGroupMemberId implements Serializable {
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    @Column(name = "user_id", nullable = false, length = 100)
+    private String userId;
+
+    protected UserGroupMemberId() {
+    }
+
+    public UserGroupMemberId(Long groupId, String userId) {
+        this.groupId = groupId;
+        this.userId = userId;
+    }
+
+    public Long getGroupId() {
+        return groupId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof UserGroupMemberId that)) {
+            return false;
+        }
+        return Objects.equals(groupId, that.groupId) && Objects.equals(userId, that.userId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(groupId, userId);
+    }
+}
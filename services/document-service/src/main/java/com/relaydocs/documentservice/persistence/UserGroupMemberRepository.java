@@ -0,0 +1,15 @@
+package com.relaydocs.documentservice.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface UserGroupMemberRepository extends JpaRepository<UserGroupMemberEntity, UserGroupMemberId> {
+
+    @Query("select m.id from UserGroupMemberEntity m")
+    List<UserGroupMemberId> findAllIds();
+
+    @Query("select m.id.groupId from UserGroupMemberEntity m where m.id.userId = :userId")
+    List<Long> findGroupIdsByUserId(String userId);
+}
@@ -0,0 +1,18 @@
+package com.relaydocs.documentservice.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface UserGroupRepository extends JpaRepository<UserGroupEntity, Long> {
+
+    @Query("""
+            select g
+            from UserGroupEntity g
+            where g.ownerUserId = :userId
+               or g.id in (select m.id.groupId from UserGroupMemberEntity m where m.id.userId = :userId)
+            order by g.id asc
+            """)
+    List<UserGroupEntity> findOwnedOrJoined(String userId);
+}
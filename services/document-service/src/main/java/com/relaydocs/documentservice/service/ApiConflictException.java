@@ -0,0 +1,7 @@
+package com.relaydocs.documentservice.service;
+
+public class ApiConflictException extends RuntimeException {
+    public ApiConflictException(String message) {
+        super(message);
+    }
+}
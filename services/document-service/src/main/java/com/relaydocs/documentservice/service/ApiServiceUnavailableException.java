@@ -0,0 +1,14 @@
+package com.relaydocs.documentservice.service;
+
+public class ApiServiceUnavailableException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public ApiServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,210 @@
+package com.relaydocs.documentservice.service;
+
+import com.relaydocs.documentservice.domain.AuditAction;
+import com.relaydocs.documentservice.persistence.AuditLogWriter;
+import com.relaydocs.documentservice.persistence.AuditRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records security-relevant actions without putting a database write on the request path.
+ * Callers append to a bounded lock-free buffer; one writer thread drains it every flush interval,
+ * or as soon as a full batch is waiting, and inserts the batch in one statement. When the buffer
+ * is full the overflow policy decides between dropping the record and briefly blocking the
+ * caller; either way a record that cannot be buffered or written is counted, never thrown.
+ */
+@Component
+public class AuditLog {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuditLog.class);
+    private static final long PARTITION_MAINTENANCE_HOURS = 12;
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private final AuditLogWriter writer;
+    private final AuditLogProperties properties;
+    private final MpscRingBuffer<AuditRecord> buffer;
+    private final int batchSize;
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final Counter writtenCounter;
+    private final Counter overflowCounter;
+    private final Counter writeFailedCounter;
+
+    public AuditLog(AuditLogWriter writer, AuditLogProperties properties, MeterRegistry meterRegistry) {
+        this.writer = writer;
+        this.properties = properties;
+        this.buffer = new MpscRingBuffer<>(powerOfTwoAtLeast(properties.getBufferCapacity()));
+        this.batchSize = Math.max(1, properties.getBatchSize());
+
+        this.writtenCounter = Counter.builder("relaydocs.audit.records").tag("result", "written").register(meterRegistry);
+        this.overflowCounter = Counter.builder("relaydocs.audit.dropped").tag("reason", "overflow").register(meterRegistry);
+        this.writeFailedCounter = Counter.builder("relaydocs.audit.dropped").tag("reason", "write_failed").register(meterRegistry);
+        Gauge.builder("relaydocs.audit.queue.depth", buffer, MpscRingBuffer::size).register(meterRegistry);
+
+        this.scheduler = new ScheduledThreadPoolExecutor(1, (runnable) -> {
+            Thread thread = new Thread(runnable, "audit-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        if (properties.isEnabled()) {
+            long intervalMillis = properties.getFlushInterval().toMillis();
+            scheduler.scheduleWithFixedDelay(this::drainSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+            scheduler.scheduleWithFixedDelay(this::maintainPartitionsSafely, 0, PARTITION_MAINTENANCE_HOURS, TimeUnit.HOURS);
+        }
+    }
+
+    public void record(AuditAction action, String actorUserId, String targetUserId, Long documentId, Long groupId, String detail) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        AuditRecord record = new AuditRecord(
+                Instant.now(),
+                action,
+                actorUserId,
+                targetUserId,
+                documentId,
+                groupId,
+                detail,
+                MDC.get("requestId")
+        );
+        if (!buffer.offer(record) && !offerBlocking(record)) {
+            overflowCounter.increment();
+            return;
+        }
+        if (buffer.size() >= batchSize) {
+            requestFlush();
+        }
+    }
+
+    /**
+     * Like {@link #record}, but only once the caller's transaction commits, so a rolled back
+     * change leaves no audit entry. Records immediately when no transaction is active.
+     */
+    public void recordOnCommit(AuditAction action, String actorUserId, String targetUserId, Long documentId, Long groupId, String detail) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(action, actorUserId, targetUserId, documentId, groupId, detail);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(action, actorUserId, targetUserId, documentId, groupId, detail);
+            }
+        });
+    }
+
+    /**
+     * Writes everything buffered so far and waits for it.
+     */
+    public void flush() {
+        try {
+            scheduler.submit(this::drainSafely).get(10, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException | RejectedExecutionException exception) {
+            LOGGER.warn("Audit log flush did not complete", exception);
+        }
+    }
+
+    int bufferedRecords() {
+        return buffer.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+                scheduler.shutdownNow();
+                return;
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        // The writer thread is gone, so this thread is now the buffer's only consumer.
+        drainSafely();
+    }
+
+    private boolean offerBlocking(AuditRecord record) {
+        if (properties.getOverflowPolicy() != AuditLogProperties.OverflowPolicy.BLOCK) {
+            return false;
+        }
+        long deadline = System.nanoTime() + properties.getBlockTimeout().toNanos();
+        requestFlush();
+        while (System.nanoTime() < deadline) {
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            if (buffer.offer(record)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(this::drainSafely);
+            } catch (RejectedExecutionException exception) {
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    private void drainSafely() {
+        flushRequested.set(false);
+        List<AuditRecord> batch = new ArrayList<>(batchSize);
+        while (true) {
+            batch.clear();
+            int drained = buffer.drainTo(batch, batchSize);
+            if (drained == 0) {
+                return;
+            }
+            try {
+                writer.write(batch);
+                writtenCounter.increment(drained);
+            } catch (RuntimeException exception) {
+                writeFailedCounter.increment(drained);
+                LOGGER.warn("Dropped audit records after a failed write. records={}", drained, exception);
+            }
+            if (drained < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private void maintainPartitionsSafely() {
+        try {
+            writer.maintainPartitions(YearMonth.now(ZoneOffset.UTC), properties.getRetentionMonths());
+        } catch (RuntimeException exception) {
+            LOGGER.warn("Audit log partition maintenance failed", exception);
+        }
+    }
+
+    private static int powerOfTwoAtLeast(int capacity) {
+        int bounded = Math.max(2, Math.min(capacity, 1 << 30));
+        return Integer.bitCount(bounded) == 1 ? bounded : Integer.highestOneBit(bounded) << 1;
+    }
+}
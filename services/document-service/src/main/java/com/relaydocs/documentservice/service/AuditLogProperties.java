@@ -0,0 +1,84 @@
+package com.relaydocs.documentservice.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "relaydocs.audit")
+public class AuditLogProperties {
+
+    private boolean enabled = true;
+    // Records waiting for the writer; rounded up to a power of two.
+    private int bufferCapacity = 8192;
+    // Rows per multi-row INSERT.
+    private int batchSize = 500;
+    private Duration flushInterval = Duration.ofMillis(200);
+    // DROP discards a record when the buffer is full; BLOCK makes the caller wait up to blockTimeout first.
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+    private Duration blockTimeout = Duration.ofMillis(50);
+    // Monthly partitions older than this many months are dropped; 0 keeps everything.
+    private int retentionMonths = 0;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getBufferCapacity() {
+        return bufferCapacity;
+    }
+
+    public void setBufferCapacity(int bufferCapacity) {
+        this.bufferCapacity = bufferCapacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public Duration getBlockTimeout() {
+        return blockTimeout;
+    }
+
+    public void setBlockTimeout(Duration blockTimeout) {
+        this.blockTimeout = blockTimeout;
+    }
+
+    public int getRetentionMonths() {
+        return retentionMonths;
+    }
+
+    public void setRetentionMonths(int retentionMonths) {
+        this.retentionMonths = retentionMonths;
+    }
+
+    public enum OverflowPolicy {
+        DROP,
+        BLOCK
+    }
+}
@@ -2,28 +2,46 @@ package com.relaydocs.documentservice.service;
 
 import com.relaydocs.documentservice.api.dto.LoginRequest;
 import com.relaydocs.documentservice.api.dto.SignupRequest;
+import com.relaydocs.documentservice.domain.AuditAction;
 import com.relaydocs.documentservice.persistence.AuthCredentialEntity;
 import com.relaydocs.documentservice.persistence.AuthCredentialRepository;
 import com.relaydocs.documentservice.persistence.UserEntity;
 import com.relaydocs.documentservice.persistence.UserRepository;
-import jakarta.transaction.Transactional;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+/**
+ * Password hashing waits for a thread of the hashing pool and then runs bcrypt, so it happens
+ * outside any transaction: a burst of sign-ins or sign-ups queues on the hashing pool without
+ * holding database connections. Reads and writes around it are short transactions of their own.
+ */
 @Service
 public class AuthService {
 
     private final UserRepository userRepository;
     private final AuthCredentialRepository authCredentialRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
+    private final boolean rehashOnLogin;
+    private final AuditLog auditLog;
+    private final TransactionTemplate transactionTemplate;
 
-    public AuthService(UserRepository userRepository, AuthCredentialRepository authCredentialRepository) {
+    public AuthService(
+            UserRepository userRepository,
+            AuthCredentialRepository authCredentialRepository,
+            PasswordHasher passwordHasher,
+            PasswordHashingProperties passwordHashingProperties,
+            AuditLog auditLog,
+            PlatformTransactionManager transactionManager
+    ) {
         this.userRepository = userRepository;
         this.authCredentialRepository = authCredentialRepository;
-        this.passwordEncoder = new BCryptPasswordEncoder();
+        this.passwordHasher = passwordHasher;
+        this.rehashOnLogin = passwordHashingProperties.isRehashOnLogin();
+        this.auditLog = auditLog;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    @Transactional
     public String signup(SignupRequest request) {
         String username = request.username().trim();
         String password = request.password().trim();
@@ -36,27 +54,50 @@ public class AuthService {
             throw new ApiBadRequestException("Username already exists");
         }
 
-        userRepository.findById(username)
-                .orElseGet(() -> userRepository.save(new UserEntity(username, username + "@relaydocs.local")));
-
-        String passwordHash = passwordEncoder.encode(password);
-        authCredentialRepository.save(new AuthCredentialEntity(username, passwordHash));
+        String passwordHash = passwordHasher.encode(password);
+        transactionTemplate.executeWithoutResult((status) -> {
+            // Checked again: another sign-up for the same name may have finished while hashing.
+            if (authCredentialRepository.existsById(username)) {
+                throw new ApiBadRequestException("Username already exists");
+            }
+            userRepository.findById(username)
+                    .orElseGet(() -> userRepository.save(new UserEntity(username, username + "@relaydocs.local")));
+            authCredentialRepository.save(new AuthCredentialEntity(username, passwordHash));
+        });
 
         return username;
     }
 
-    @Transactional
     public String login(LoginRequest request) {
         String username = request.username().trim();
         String password = request.password();
 
-        AuthCredentialEntity credential = authCredentialRepository.findById(username)
-                .orElseThrow(() -> new ApiUnauthorizedException("Invalid credentials"));
+        AuthCredentialEntity credential = authCredentialRepository.findById(username).orElse(null);
+        if (credential == null) {
+            auditLog.record(AuditAction.LOGIN_FAILED, username, null, null, null, "unknown_user");
+            throw new ApiUnauthorizedException("Invalid credentials");
+        }
 
-        if (!passwordEncoder.matches(password, credential.getPasswordHash())) {
+        if (!passwordHasher.matches(password, credential.getPasswordHash())) {
+            auditLog.record(AuditAction.LOGIN_FAILED, username, null, null, null, "wrong_password");
             throw new ApiUnauthorizedException("Invalid credentials");
         }
 
+        if (rehashOnLogin && passwordHasher.needsRehash(credential.getPasswordHash())) {
+            String upgradedHash = passwordHasher.encodeIfIdle(password);
+            if (upgradedHash != null) {
+                upgradePasswordHash(username, credential.getPasswordHash(), upgradedHash);
+            }
+        }
+
+        auditLog.record(AuditAction.LOGIN_SUCCEEDED, username, null, null, null, null);
         return username;
     }
+
+    private void upgradePasswordHash(String username, String verifiedHash, String upgradedHash) {
+        transactionTemplate.executeWithoutResult((status) -> authCredentialRepository.findById(username)
+                // Leave a password changed since it was verified alone.
+                .filter((current) -> current.getPasswordHash().equals(verifiedHash))
+                .ifPresent((current) -> current.setPasswordHash(upgradedHash)));
+    }
 }
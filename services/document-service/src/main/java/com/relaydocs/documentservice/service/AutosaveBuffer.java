@@ -0,0 +1,310 @@
+package com.relaydocs.documentservice.service;
+
+import com.relaydocs.documentservice.api.dto.AutosaveAcknowledgementResponse;
+import com.relaydocs.documentservice.api.dto.UpdateDocumentRequest;
+import com.relaydocs.documentservice.domain.AccessRole;
+import com.relaydocs.documentservice.persistence.DocumentRepository;
+import com.relaydocs.documentservice.persistence.UserDocumentAccessEntity;
+import com.relaydocs.documentservice.persistence.UserDocumentAccessId;
+import com.relaydocs.documentservice.persistence.UserDocumentAccessRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Buffers editor autosaves per document and writes only the latest merged state, once the
+ * document has been quiet for the configured window or the max delay since the first buffered
+ * save has passed. Flushes for one document always run on the same thread, so they apply in
+ * order. Pending saves are flushed on shutdown.
+ *
+ * <p>Saves are merged only while they come from the same editor: a save from someone else first
+ * queues the buffered one for writing under its own author. At most {@code max-pending-documents}
+ * documents are buffered; beyond that new documents get a 503 instead of growing the buffer. A
+ * flush that fails is kept, and the same editor's next autosave for the document is written
+ * synchronously on top of it, so the client sees the outcome instead of another 202. Reads are
+ * not served from the buffer and lag autosaves by up to {@code max-delay}.
+ */
+@Service
+@ConditionalOnProperty(name = "relaydocs.autosave.enabled", havingValue = "true")
+public class AutosaveBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AutosaveBuffer.class);
+    private static final long SHUTDOWN_WAIT_SECONDS = 10;
+
+    private final DocumentService documentService;
+    private final ShardRouter shardRouter;
+    private final DocumentRepository documentRepository;
+    private final UserDocumentAccessRepository userDocumentAccessRepository;
+    private final GroupVisibilityIndex groupVisibilityIndex;
+    private final Duration quietWindow;
+    private final Duration maxDelay;
+    private final int maxPendingDocuments;
+    private final long retryAfterSeconds;
+    private final List<ScheduledThreadPoolExecutor> flushExecutors;
+    private final ConcurrentMap<Long, PendingSave> pending = new ConcurrentHashMap<>();
+    private final Map<Long, PendingSave> failedSaves;
+    private final AtomicLong sequenceCounter = new AtomicLong();
+    private final Counter receivedCounter;
+    private final Counter flushedCounter;
+    private final Counter failedCounter;
+    private final Counter rejectedCounter;
+
+    public AutosaveBuffer(
+            DocumentService documentService,
+            DocumentRepository documentRepository,
+            UserDocumentAccessRepository userDocumentAccessRepository,
+            GroupVisibilityIndex groupVisibilityIndex,
+            ShardRouter shardRouter,
+            AutosaveProperties properties,
+            MeterRegistry meterRegistry
+    ) {
+        this.documentService = documentService;
+        this.shardRouter = shardRouter;
+        this.documentRepository = documentRepository;
+        this.userDocumentAccessRepository = userDocumentAccessRepository;
+        this.groupVisibilityIndex = groupVisibilityIndex;
+        this.quietWindow = properties.getQuietWindow();
+        this.maxDelay = properties.getMaxDelay();
+        this.maxPendingDocuments = Math.max(1, properties.getMaxPendingDocuments());
+        this.retryAfterSeconds = Math.max(1L, (quietWindow.toMillis() + 999L) / 1000L);
+        this.failedSaves = Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, PendingSave> eldest) {
+                if (size() <= maxPendingDocuments) {
+                    return false;
+                }
+                logger.warn("autosave_failed_save_dropped documentId={} sequence={}", eldest.getKey(), eldest.getValue().sequence);
+                return true;
+            }
+        });
+
+        AtomicInteger threadSequence = new AtomicInteger();
+        this.flushExecutors = IntStream.range(0, Math.max(1, properties.getFlushThreads()))
+                .mapToObj((index) -> {
+                    ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, (runnable) -> {
+                        Thread thread = new Thread(runnable, "autosave-flush-" + threadSequence.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    executor.setRemoveOnCancelPolicy(true);
+                    executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+                    return executor;
+                })
+                .toList();
+
+        this.receivedCounter = Counter.builder("relaydocs.autosave.received").register(meterRegistry);
+        this.flushedCounter = Counter.builder("relaydocs.autosave.flushes").tag("result", "success").register(meterRegistry);
+        this.failedCounter = Counter.builder("relaydocs.autosave.flushes").tag("result", "failure").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("relaydocs.autosave.rejected").register(meterRegistry);
+        Gauge.builder("relaydocs.autosave.pending", pending, ConcurrentMap::size).register(meterRegistry);
+    }
+
+    public AutosaveAcknowledgementResponse submit(Long documentId, String actorUserId, UpdateDocumentRequest request) {
+        if (!request.hasAtLeastOneField()) {
+            throw new ApiBadRequestException("At least one field must be provided");
+        }
+        requireEditAccess(documentId, actorUserId);
+
+        PendingSave failed = takeFailedSave(documentId, actorUserId);
+        if (failed != null) {
+            return writeThrough(documentId, actorUserId, failed, request);
+        }
+
+        Instant now = Instant.now();
+        long sequence = sequenceCounter.incrementAndGet();
+        PendingSave merged = pending.compute(documentId, (id, existing) -> {
+            if (existing == null && pending.size() >= maxPendingDocuments) {
+                rejectedCounter.increment();
+                throw new ApiServiceUnavailableException("Autosave buffer is full", retryAfterSeconds);
+            }
+            if (existing != null && existing.scheduledFlush != null) {
+                existing.scheduledFlush.cancel(false);
+            }
+            PendingSave next;
+            if (existing == null) {
+                next = new PendingSave(actorUserId, request.title(), request.content(), now, sequence);
+            } else if (!existing.actorUserId.equals(actorUserId)) {
+                // Queued ahead of the new save's flush on the same thread, so the two apply in order.
+                executorFor(id).execute(() -> write(id, existing));
+                next = new PendingSave(actorUserId, request.title(), request.content(), now, sequence);
+            } else {
+                next = existing.merge(actorUserId, request, sequence);
+            }
+            next.flushBy = earliest(now.plus(quietWindow), next.firstReceivedAt.plus(maxDelay));
+            next.scheduledFlush = executorFor(id).schedule(
+                    () -> flush(id),
+                    Math.max(0L, Duration.between(now, next.flushBy).toMillis()),
+                    TimeUnit.MILLISECONDS
+            );
+            return next;
+        });
+        receivedCounter.increment();
+
+        return new AutosaveAcknowledgementResponse(documentId, sequence, merged.flushBy, true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushExecutors.forEach(ScheduledThreadPoolExecutor::shutdown);
+        try {
+            for (ScheduledThreadPoolExecutor executor : flushExecutors) {
+                executor.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        pending.keySet().forEach(this::flush);
+    }
+
+    /**
+     * Writes the editor's last failed save, anything they have buffered since and this request
+     * on the caller's thread, so the response reports whether it was stored.
+     */
+    private AutosaveAcknowledgementResponse writeThrough(
+            Long documentId,
+            String actorUserId,
+            PendingSave failed,
+            UpdateDocumentRequest request
+    ) {
+        PendingSave[] base = {failed};
+        pending.computeIfPresent(documentId, (id, existing) -> {
+            if (!existing.actorUserId.equals(actorUserId)) {
+                return existing;
+            }
+            if (existing.scheduledFlush != null) {
+                existing.scheduledFlush.cancel(false);
+            }
+            base[0] = failed.merge(actorUserId, existing.asRequest(), existing.sequence);
+            return null;
+        });
+
+        long sequence = sequenceCounter.incrementAndGet();
+        PendingSave save = base[0].merge(actorUserId, request, sequence);
+        receivedCounter.increment();
+        documentService.updateDocument(documentId, actorUserId, save.asRequest());
+        flushedCounter.increment();
+        return new AutosaveAcknowledgementResponse(documentId, sequence, null, false);
+    }
+
+    private PendingSave takeFailedSave(Long documentId, String actorUserId) {
+        synchronized (failedSaves) {
+            PendingSave failed = failedSaves.get(documentId);
+            if (failed == null || !failed.actorUserId.equals(actorUserId)) {
+                return null;
+            }
+            return failedSaves.remove(documentId);
+        }
+    }
+
+    private void flush(Long documentId) {
+        PendingSave save = pending.remove(documentId);
+        if (save != null) {
+            write(documentId, save);
+        }
+    }
+
+    private void write(Long documentId, PendingSave save) {
+        try {
+            shardRouter.runOnDocumentShard(documentId, () -> documentService.updateDocument(
+                    documentId,
+                    save.actorUserId,
+                    save.asRequest()
+            ));
+            flushedCounter.increment();
+        } catch (RuntimeException exception) {
+            failedCounter.increment();
+            failedSaves.put(documentId, save);
+            logger.warn(
+                    "autosave_flush_failed documentId={} sequence={} actorUserId={}",
+                    documentId,
+                    save.sequence,
+                    save.actorUserId,
+                    exception
+            );
+        }
+    }
+
+    private void requireEditAccess(Long documentId, String actorUserId) {
+        AccessRole role = userDocumentAccessRepository.findById(new UserDocumentAccessId(actorUserId, documentId))
+                .map(UserDocumentAccessEntity::getRole)
+                .orElse(null);
+        if (role == null || !role.canEdit()) {
+            // A group grant can give more than the direct permission.
+            AccessRole groupRole = groupVisibilityIndex.roleFor(actorUserId, documentId);
+            if (groupRole != null && (role == null || groupRole.canEdit())) {
+                role = groupRole;
+            }
+        }
+
+        if (role == null) {
+            if (!documentRepository.existsById(documentId)) {
+                throw new ApiNotFoundException("Document not found");
+            }
+            throw new ApiForbiddenException("Forbidden");
+        }
+        if (!role.canEdit()) {
+            throw new ApiForbiddenException("Forbidden");
+        }
+    }
+
+    private ScheduledThreadPoolExecutor executorFor(Long documentId) {
+        return flushExecutors.get(Math.floorMod(documentId.hashCode(), flushExecutors.size()));
+    }
+
+    private static Instant earliest(Instant left, Instant right) {
+        return left.isBefore(right) ? left : right;
+    }
+
+    private static final class PendingSave {
+
+        private final String actorUserId;
+        private final String title;
+        private final String content;
+        private final Instant firstReceivedAt;
+        private final long sequence;
+        private Instant flushBy;
+        private ScheduledFuture<?> scheduledFlush;
+
+        private PendingSave(String actorUserId, String title, String content, Instant firstReceivedAt, long sequence) {
+            this.actorUserId = actorUserId;
+            this.title = title;
+            this.content = content;
+            this.firstReceivedAt = firstReceivedAt;
+            this.sequence = sequence;
+        }
+
+        private PendingSave merge(String nextActorUserId, UpdateDocumentRequest request, long nextSequence) {
+            return new PendingSave(
+                    nextActorUserId,
+                    request.title() != null ? request.title() : title,
+                    request.content() != null ? request.content() : content,
+                    firstReceivedAt,
+                    nextSequence
+            );
+        }
+
+        private UpdateDocumentRequest asRequest() {
+            return new UpdateDocumentRequest(title, content);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.relaydocs.documentservice.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "relaydocs.autosave")
+public class AutosaveProperties {
+
+    private boolean enabled = false;
+    // A document is flushed once no autosave has arrived for this long...
+    private Duration quietWindow = Duration.ofSeconds(3);
+    // ...or this long after the first buffered autosave, whichever comes first.
+    private Duration maxDelay = Duration.ofSeconds(15);
+    private int flushThreads = 2;
+    // Documents with buffered saves; autosaves for further documents get a 503 until some flush.
+    private int maxPendingDocuments = 10000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getQuietWindow() {
+        return quietWindow;
+    }
+
+    public void setQuietWindow(Duration quietWindow) {
+        this.quietWindow = quietWindow;
+    }
+
+    public Duration getMaxDelay() {
+        return maxDelay;
+    }
+
+    public void setMaxDelay(Duration maxDelay) {
+        this.maxDelay = maxDelay;
+    }
+
+    public int getFlushThreads() {
+        return flushThreads;
+    }
+
+    public void setFlushThreads(int flushThreads) {
+        this.flushThreads = flushThreads;
+    }
+
+    public int getMaxPendingDocuments() {
+        return maxPendingDocuments;
+    }
+
+    public void setMaxPendingDocuments(int maxPendingDocuments) {
+        this.maxPendingDocuments = maxPendingDocuments;
+    }
+}
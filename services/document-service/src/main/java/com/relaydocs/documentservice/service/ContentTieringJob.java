@@ -0,0 +1,207 @@
+package com.relaydocs.documentservice.service;
+
+import com.relaydocs.documentservice.persistence.ColdContentPointer;
+import com.relaydocs.documentservice.persistence.ColdSegmentUsage;
+import com.relaydocs.documentservice.persistence.ContentSegmentStore;
+import com.relaydocs.documentservice.persistence.ContentTieringProperties;
+import com.relaydocs.documentservice.persistence.DocumentEntity;
+import com.relaydocs.documentservice.persistence.DocumentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves the content of documents idle past the threshold into the segment store and compacts
+ * sealed segments whose entries are mostly dead (rewritten or removed documents). Entries are
+ * forced to disk before any row points at them, and every row update is conditional, so an edit
+ * racing the job always wins and only leaves a dead entry behind. Run it on one instance: segment
+ * files are written by a single process.
+ */
+@Component
+@ConditionalOnProperty(name = "relaydocs.tiering.enabled", havingValue = "true")
+public class ContentTieringJob {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ContentTieringJob.class);
+
+    private final DocumentRepository documentRepository;
+    private final ContentSegmentStore contentSegmentStore;
+    private final ShardRouter shardRouter;
+    private final ContentTieringProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledExecutorService scheduler;
+    private final Counter tieredCounter;
+    private final Counter skippedCounter;
+    private final Counter compactedCounter;
+
+    public ContentTieringJob(
+            DocumentRepository documentRepository,
+            ContentSegmentStore contentSegmentStore,
+            ShardRouter shardRouter,
+            ContentTieringProperties properties,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry
+    ) {
+        this.documentRepository = documentRepository;
+        this.contentSegmentStore = contentSegmentStore;
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        this.tieredCounter = Counter.builder("relaydocs.tiering.documents").tag("result", "tiered").register(meterRegistry);
+        this.skippedCounter = Counter.builder("relaydocs.tiering.documents").tag("result", "skipped").register(meterRegistry);
+        this.compactedCounter = Counter.builder("relaydocs.tiering.segments.compacted").register(meterRegistry);
+        Gauge.builder("relaydocs.tiering.segment.bytes", contentSegmentStore, ContentSegmentStore::totalBytes)
+                .register(meterRegistry);
+
+        this.scheduler = new ScheduledThreadPoolExecutor(1, (runnable) -> {
+            Thread thread = new Thread(runnable, "content-tiering");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = properties.getInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::runSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void runOnce() {
+        shardRouter.forEachShard(this::tierIdleDocuments);
+        compact();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void runSafely() {
+        try {
+            runOnce();
+        } catch (RuntimeException exception) {
+            LOGGER.warn("Content tiering run failed", exception);
+        }
+    }
+
+    private void tierIdleDocuments() {
+        Instant idleBefore = Instant.now().minus(properties.getIdleThreshold());
+        while (true) {
+            List<DocumentEntity> candidates = transactionTemplate.execute((status) -> {
+                status.setRollbackOnly();
+                return documentRepository.findTieringCandidates(
+                        idleBefore,
+                        properties.getMinContentLength(),
+                        PageRequest.of(0, properties.getBatchSize())
+                );
+            });
+            if (candidates == null || candidates.isEmpty()) {
+                return;
+            }
+
+            List<Appended> appended = new ArrayList<>(candidates.size());
+            for (DocumentEntity document : candidates) {
+                appended.add(new Appended(
+                        document.getVersion(),
+                        contentSegmentStore.append(document.getId(), document.getContent())
+                ));
+            }
+            contentSegmentStore.force();
+
+            int tiered = transactionTemplate.execute((status) -> {
+                int updated = 0;
+                for (Appended entry : appended) {
+                    ColdContentPointer pointer = entry.pointer();
+                    updated += documentRepository.moveContentToSegment(
+                            pointer.documentId(),
+                            entry.version(),
+                            pointer.segment(),
+                            pointer.offset(),
+                            pointer.length()
+                    );
+                }
+                return updated;
+            });
+            tieredCounter.increment(tiered);
+            skippedCounter.increment(appended.size() - tiered);
+            if (tiered == 0) {
+                // Every candidate changed underneath us; try again on the next run instead of spinning.
+                return;
+            }
+        }
+    }
+
+    private void compact() {
+        contentSegmentStore.purgeRetired();
+
+        Map<Long, Long> liveBytes = new HashMap<>();
+        shardRouter.onEveryShard(documentRepository::summarizeColdContent, Comparator.comparing(ColdSegmentUsage::segment))
+                .forEach((usage) -> liveBytes.merge(
+                        usage.segment(),
+                        usage.payloadBytes() + usage.entries() * ContentSegmentStore.HEADER_BYTES,
+                        Long::sum
+                ));
+
+        for (long segment : contentSegmentStore.sealedSegments()) {
+            long live = liveBytes.getOrDefault(segment, 0L);
+            long size = contentSegmentStore.segmentBytes(segment);
+            if (live > 0 && live >= size * properties.getCompactionLiveRatio()) {
+                continue;
+            }
+            if (live > 0) {
+                shardRouter.forEachShard(() -> relocate(segment));
+            }
+            boolean stillReferenced = !shardRouter.onEveryShard(
+                    () -> documentRepository.findColdContentIn(segment),
+                    Comparator.comparing(ColdContentPointer::documentId)
+            ).isEmpty();
+            if (stillReferenced) {
+                continue;
+            }
+            contentSegmentStore.retire(segment);
+            compactedCounter.increment();
+            LOGGER.info("Compacted content segment. segment={}, bytes={}, liveBytes={}", segment, size, live);
+        }
+    }
+
+    private void relocate(long segment) {
+        List<ColdContentPointer> pointers = transactionTemplate.execute((status) -> {
+            status.setRollbackOnly();
+            return documentRepository.findColdContentIn(segment);
+        });
+        if (pointers == null || pointers.isEmpty()) {
+            return;
+        }
+
+        List<ColdContentPointer> copies = new ArrayList<>(pointers.size());
+        for (ColdContentPointer pointer : pointers) {
+            copies.add(contentSegmentStore.append(pointer.documentId(), contentSegmentStore.read(pointer)));
+        }
+        contentSegmentStore.force();
+
+        transactionTemplate.executeWithoutResult((status) -> {
+            for (int index = 0; index < pointers.size(); index++) {
+                ColdContentPointer from = pointers.get(index);
+                ColdContentPointer to = copies.get(index);
+                documentRepository.relocateColdContent(from.documentId(), from.segment(), from.offset(), to.segment(), to.offset());
+            }
+        });
+    }
+
+    private record Appended(long version, ColdContentPointer pointer) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,193 @@
+package com.relaydocs.documentservice.service;
+
+import com.relaydocs.documentservice.api.dto.DocumentBlockResponse;
+import com.relaydocs.documentservice.api.dto.InsertDocumentBlockRequest;
+import com.relaydocs.documentservice.api.dto.ListDocumentBlocksApiResponse;
+import com.relaydocs.documentservice.api.dto.UpdateDocumentBlockRequest;
+import com.relaydocs.documentservice.domain.AccessRole;
+import com.relaydocs.documentservice.domain.FractionalIndex;
+import com.relaydocs.documentservice.events.DomainEventPublisher;
+import com.relaydocs.documentservice.persistence.DocumentBlockEntity;
+import com.relaydocs.documentservice.persistence.DocumentBlockRepository;
+import com.relaydocs.documentservice.persistence.DocumentRepository;
+import com.relaydocs.documentservice.persistence.UserDocumentAccessEntity;
+import com.relaydocs.documentservice.persistence.UserDocumentAccessId;
+import com.relaydocs.documentservice.persistence.UserDocumentAccessRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Block-structured storage: documents can hold ordered blocks alongside the legacy content
+ * column. Reads and writes touch only the requested blocks and never load the document body.
+ */
+@Service
+public class DocumentBlockService {
+
+    private static final int MAX_BLOCK_PAGE_SIZE = 500;
+
+    private final DocumentBlockRepository documentBlockRepository;
+    private final DocumentRepository documentRepository;
+    private final UserDocumentAccessRepository userDocumentAccessRepository;
+    private final GroupVisibilityIndex groupVisibilityIndex;
+    private final DocumentChangeLog documentChangeLog;
+    private final DocumentLoadCoalescer documentLoadCoalescer;
+    private final DomainEventPublisher domainEventPublisher;
+    private final DocumentListCache documentListCache;
+
+    public DocumentBlockService(
+            DocumentBlockRepository documentBlockRepository,
+            DocumentRepository documentRepository,
+            UserDocumentAccessRepository userDocumentAccessRepository,
+            GroupVisibilityIndex groupVisibilityIndex,
+            DocumentChangeLog documentChangeLog,
+            DocumentLoadCoalescer documentLoadCoalescer,
+            DomainEventPublisher domainEventPublisher,
+            DocumentListCache documentListCache
+    ) {
+        this.documentBlockRepository = documentBlockRepository;
+        this.documentRepository = documentRepository;
+        this.userDocumentAccessRepository = userDocumentAccessRepository;
+        this.groupVisibilityIndex = groupVisibilityIndex;
+        this.documentChangeLog = documentChangeLog;
+        this.documentLoadCoalescer = documentLoadCoalescer;
+        this.domainEventPublisher = domainEventPublisher;
+        this.documentListCache = documentListCache;
+    }
+
+    @Transactional
+    public ListDocumentBlocksApiResponse listBlocks(Long documentId, String actorUserId, String afterKey, int limit) {
+        if (limit < 1 || limit > MAX_BLOCK_PAGE_SIZE) {
+            throw new ApiBadRequestException("Invalid block limit");
+        }
+        requireAccess(documentId, actorUserId, false);
+
+        List<DocumentBlockEntity> blocks = documentBlockRepository.findByDocumentIdAndBlockKeyGreaterThanOrderByBlockKeyAsc(
+                documentId,
+                afterKey == null ? "" : afterKey,
+                PageRequest.of(0, limit + 1)
+        );
+        boolean hasMore = blocks.size() > limit;
+        List<DocumentBlockResponse> page = (hasMore ? blocks.subList(0, limit) : blocks).stream()
+                .map(this::toResponse)
+                .toList();
+
+        return new ListDocumentBlocksApiResponse(page, hasMore ? page.get(page.size() - 1).key() : null);
+    }
+
+    @Transactional
+    public DocumentBlockResponse insertBlock(Long documentId, String actorUserId, InsertDocumentBlockRequest request) {
+        requireAccess(documentId, actorUserId, true);
+
+        String lowerKey;
+        String upperKey;
+        if (request.afterKey() != null && request.beforeKey() != null) {
+            throw new ApiBadRequestException("Specify afterKey or beforeKey, not both");
+        } else if (request.afterKey() != null) {
+            lowerKey = requireBlock(documentId, request.afterKey()).getBlockKey();
+            upperKey = documentBlockRepository.findFirstByDocumentIdAndBlockKeyGreaterThanOrderByBlockKeyAsc(documentId, lowerKey)
+                    .map(DocumentBlockEntity::getBlockKey)
+                    .orElse(null);
+        } else if (request.beforeKey() != null) {
+            upperKey = requireBlock(documentId, request.beforeKey()).getBlockKey();
+            lowerKey = documentBlockRepository.findFirstByDocumentIdAndBlockKeyLessThanOrderByBlockKeyDesc(documentId, upperKey)
+                    .map(DocumentBlockEntity::getBlockKey)
+                    .orElse(null);
+        } else {
+            lowerKey = documentBlockRepository.findFirstByDocumentIdOrderByBlockKeyDesc(documentId)
+                    .map(DocumentBlockEntity::getBlockKey)
+                    .orElse(null);
+            upperKey = null;
+        }
+
+        DocumentBlockEntity created;
+        try {
+            created = documentBlockRepository.save(new DocumentBlockEntity(
+                    documentId,
+                    FractionalIndex.between(lowerKey, upperKey),
+                    request.content()
+            ));
+        } catch (DataIntegrityViolationException exception) {
+            // Another insert into the same gap drew the same key first; the client re-reads its neighbours and retries.
+            throw new ApiConflictException("Block position changed concurrently");
+        }
+        markDocumentUpdated(documentId, actorUserId, created.getBlockKey());
+
+        return toResponse(created);
+    }
+
+    @Transactional
+    public DocumentBlockResponse updateBlock(
+            Long documentId,
+            String actorUserId,
+            String blockKey,
+            UpdateDocumentBlockRequest request
+    ) {
+        requireAccess(documentId, actorUserId, true);
+
+        DocumentBlockEntity block = requireBlock(documentId, blockKey);
+        block.setContent(request.content());
+        DocumentBlockEntity saved = documentBlockRepository.saveAndFlush(block);
+        markDocumentUpdated(documentId, actorUserId, blockKey);
+
+        return toResponse(saved);
+    }
+
+    private DocumentBlockEntity requireBlock(Long documentId, String blockKey) {
+        return documentBlockRepository.findByDocumentIdAndBlockKey(documentId, blockKey)
+                .orElseThrow(() -> new ApiNotFoundException("Block not found"));
+    }
+
+    private void requireAccess(Long documentId, String actorUserId, boolean edit) {
+        AccessRole role = userDocumentAccessRepository.findById(new UserDocumentAccessId(actorUserId, documentId))
+                .map(UserDocumentAccessEntity::getRole)
+                .orElse(null);
+        if (role == null || !role.canEdit()) {
+            // A group grant can give more than the direct permission.
+            AccessRole groupRole = groupVisibilityIndex.roleFor(actorUserId, documentId);
+            if (groupRole != null && (role == null || groupRole.canEdit())) {
+                role = groupRole;
+            }
+        }
+
+        if (role == null) {
+            if (!documentRepository.existsById(documentId)) {
+                throw new ApiNotFoundException("Document not found");
+            }
+            throw new ApiForbiddenException("Forbidden");
+        }
+        if (edit && !role.canEdit()) {
+            throw new ApiForbiddenException("Forbidden");
+        }
+    }
+
+    private void markDocumentUpdated(Long documentId, String actorUserId, String blockKey) {
+        documentRepository.touchUpdatedAt(documentId, Instant.now());
+        documentLoadCoalescer.invalidateAfterCommit(documentId);
+        documentChangeLog.recordForReaders(documentId);
+
+        publish(
+                "document.updated",
+                String.valueOf(documentId),
+                Map.of(
+                        "documentId", documentId,
+                        "actorUserId", actorUserId,
+                        "blockKey", blockKey
+                )
+        );
+    }
+
+    private void publish(String eventType, String aggregateId, Map<String, Object> payload) {
+        domainEventPublisher.publish(eventType, aggregateId, payload);
+        documentListCache.evict(aggregateId, payload);
+    }
+
+    private DocumentBlockResponse toResponse(DocumentBlockEntity block) {
+        return new DocumentBlockResponse(block.getBlockKey(), block.getContent(), block.getUpdatedAt());
+    }
+}
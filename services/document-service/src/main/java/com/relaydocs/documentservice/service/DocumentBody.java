@@ -0,0 +1,17 @@
+package com.relaydocs.documentservice.service;
+
+import com.relaydocs.documentservice.api.dto.DocumentResponse;
+
+/**
+ * A readable document whose content is kept as UTF-8 bytes rather than a {@code String}:
+ * {@code document().content()} is {@code null} and the content is in {@code content()}. Close it
+ * once the response has been written so the cached content can be evicted.
+ */
+public record DocumentBody(long version, DocumentResponse document, DocumentContentCache.Lease content)
+        implements AutoCloseable {
+
+    @Override
+    public void close() {
+        content.close();
+    }
+}
@@ -0,0 +1,276 @@
+package com.relaydocs.documentservice.service;
+
+import com.relaydocs.documentservice.domain.DocumentChangeType;
+import com.relaydocs.documentservice.persistence.DocumentChangeEntity;
+import com.relaydocs.documentservice.persistence.DocumentChangeLocks;
+import com.relaydocs.documentservice.persistence.DocumentChangeRepository;
+import com.relaydocs.documentservice.persistence.DocumentGroupPermissionRepository;
+import com.relaydocs.documentservice.persistence.UserDocumentAccessRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes the change feed behind {@code GET /api/v1/documents/changes}. A change visible through a
+ * group share is one entry for the group rather than one per member; a member's feed is their own
+ * entries merged with their current groups' entries when read. Entries recorded in a transaction
+ * are merged per user or group and document and written just before it commits, under
+ * {@link DocumentChangeLocks}, so those locks are held only for the end of the transaction.
+ * A background job deletes entries that a later entry for the same user or group and document
+ * supersedes: the feed only reports each document's latest change, so this never alters what a
+ * client at any cursor receives, and the table stays bounded by the (user or group, document)
+ * pairs ever visible.
+ */
+@Component
+public class DocumentChangeLog {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DocumentChangeLog.class);
+
+    private final DocumentChangeRepository documentChangeRepository;
+    private final UserDocumentAccessRepository userDocumentAccessRepository;
+    private final DocumentGroupPermissionRepository documentGroupPermissionRepository;
+    private final GroupVisibilityIndex groupVisibilityIndex;
+    private final DocumentChangeLocks documentChangeLocks;
+    private final ShardRouter shardRouter;
+    private final DocumentChangeLogProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final Counter compactedCounter;
+
+    public DocumentChangeLog(
+            DocumentChangeRepository documentChangeRepository,
+            UserDocumentAccessRepository userDocumentAccessRepository,
+            DocumentGroupPermissionRepository documentGroupPermissionRepository,
+            GroupVisibilityIndex groupVisibilityIndex,
+            DocumentChangeLocks documentChangeLocks,
+            ShardRouter shardRouter,
+            DocumentChangeLogProperties properties,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry
+    ) {
+        this.documentChangeRepository = documentChangeRepository;
+        this.userDocumentAccessRepository = userDocumentAccessRepository;
+        this.documentGroupPermissionRepository = documentGroupPermissionRepository;
+        this.groupVisibilityIndex = groupVisibilityIndex;
+        this.documentChangeLocks = documentChangeLocks;
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.compactedCounter = Counter.builder("relaydocs.changes.compacted").register(meterRegistry);
+
+        this.scheduler = new ScheduledThreadPoolExecutor(1, (runnable) -> {
+            Thread thread = new Thread(runnable, "change-log-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = properties.getCompactionInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::compactSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    public void record(String userId, Long documentId, DocumentChangeType changeType) {
+        record(List.of(userId), documentId, changeType);
+    }
+
+    public void record(Collection<String> userIds, Long documentId, DocumentChangeType changeType) {
+        List<ChangeKey> keys = new ArrayList<>();
+        userIds.forEach((userId) -> keys.add(new ChangeKey(userId, null, documentId)));
+        record(keys, changeType);
+    }
+
+    /**
+     * Records a change for every member of the group, present or future, as one entry.
+     */
+    public void recordForGroup(long groupId, Long documentId, DocumentChangeType changeType) {
+        record(List.of(new ChangeKey(null, groupId, documentId)), changeType);
+    }
+
+    /**
+     * Records an {@code UPSERT} for every user with direct access to the document and for every
+     * group it is shared with.
+     */
+    public void recordForReaders(Long documentId) {
+        record(directReaders(documentId), documentId, DocumentChangeType.UPSERT);
+        new LinkedHashSet<>(documentGroupPermissionRepository.findGroupIdsByDocumentId(documentId))
+                .forEach((groupId) -> recordForGroup(groupId, documentId, DocumentChangeType.UPSERT));
+    }
+
+    /**
+     * Reads the user's entries merged with those of the given groups, after waiting for
+     * transactions still writing to any of them. Must run inside a transaction.
+     */
+    public List<DocumentChangeEntity> changesSince(String userId, Collection<Long> groupIds, long since, int limit) {
+        documentChangeLocks.awaitWriters(userId, groupIds);
+        PageRequest page = PageRequest.of(0, limit);
+        return groupIds.isEmpty()
+                ? documentChangeRepository.findByUserIdAndSeqGreaterThanOrderBySeqAsc(userId, since, page)
+                : documentChangeRepository.findMergedFeed(userId, groupIds, since, page);
+    }
+
+    /**
+     * Records the end of a group's access to the document for some of its members: a
+     * {@code REVOKE} for each one left without any access, an {@code UPSERT} for the rest, whose
+     * role may have changed. Access through the group itself is ignored, since the group index
+     * still lists it until the transaction commits.
+     */
+    public void recordGroupAccessEnded(Collection<String> userIds, long groupId, Long documentId) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        Set<String> directReaders = directReaders(documentId);
+        List<String> stillReading = new ArrayList<>();
+        List<String> revoked = new ArrayList<>();
+        for (String userId : userIds) {
+            boolean readable = directReaders.contains(userId)
+                    || groupVisibilityIndex.readableOutsideGroup(userId, groupId, documentId);
+            (readable ? stillReading : revoked).add(userId);
+        }
+        record(stillReading, documentId, DocumentChangeType.UPSERT);
+        record(revoked, documentId, DocumentChangeType.REVOKE);
+    }
+
+    private void record(List<ChangeKey> keys, DocumentChangeType changeType) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        Map<ChangeKey, DocumentChangeType> pending = pendingChanges();
+        if (pending == null) {
+            // No transaction to defer to; the entries still commit in order, just not atomically with the caller.
+            Map<ChangeKey, DocumentChangeType> immediate = new LinkedHashMap<>();
+            keys.forEach((key) -> immediate.put(key, changeType));
+            transactionTemplate.executeWithoutResult((status) -> write(immediate));
+            return;
+        }
+        for (ChangeKey key : keys) {
+            // Only the latest change per document matters; move it to the end so seq order follows call order.
+            pending.remove(key);
+            pending.put(key, changeType);
+        }
+    }
+
+    /**
+     * Deletes superseded entries on every shard.
+     *
+     * @return the number of entries deleted
+     */
+    public long compact() {
+        AtomicLong deleted = new AtomicLong();
+        shardRouter.forEachShard(() -> deleted.addAndGet(compactCurrentShard()));
+        compactedCounter.increment(deleted.get());
+        return deleted.get();
+    }
+
+    private Set<String> directReaders(Long documentId) {
+        Set<String> readers = new LinkedHashSet<>();
+        userDocumentAccessRepository.findByIdDocumentId(documentId)
+                .forEach((access) -> readers.add(access.getId().getUserId()));
+        return readers;
+    }
+
+    private long compactCurrentShard() {
+        Long minSeq = documentChangeRepository.findMinSeq();
+        Long maxSeq = documentChangeRepository.findMaxSeq();
+        if (minSeq == null || maxSeq == null) {
+            return 0L;
+        }
+        long batchSize = Math.max(1, properties.getCompactionBatchSize());
+        long deleted = 0L;
+        for (long fromSeq = minSeq - 1; fromSeq < maxSeq; fromSeq += batchSize) {
+            long rangeStart = fromSeq;
+            Integer rows = transactionTemplate.execute(
+                    (status) -> documentChangeRepository.deleteSuperseded(rangeStart, rangeStart + batchSize)
+            );
+            deleted += rows == null ? 0 : rows;
+        }
+        return deleted;
+    }
+
+    private void compactSafely() {
+        try {
+            long deleted = compact();
+            LOGGER.info("Compacted document change feed. deleted={}", deleted);
+        } catch (RuntimeException exception) {
+            LOGGER.warn("Document change feed compaction failed", exception);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<ChangeKey, DocumentChangeType> pendingChanges() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Map<ChangeKey, DocumentChangeType> pending =
+                (Map<ChangeKey, DocumentChangeType>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+        Map<ChangeKey, DocumentChangeType> created = new LinkedHashMap<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                write(created);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(DocumentChangeLog.this);
+            }
+        });
+        return created;
+    }
+
+    private void write(Map<ChangeKey, DocumentChangeType> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        Set<String> userIds = new HashSet<>();
+        Set<Long> groupIds = new HashSet<>();
+        changes.keySet().forEach((key) -> {
+            if (key.userId() != null) {
+                userIds.add(key.userId());
+            } else {
+                groupIds.add(key.groupId());
+            }
+        });
+        // Every seq is drawn only once the user's or group's lock is held.
+        documentChangeLocks.lock(userIds, groupIds);
+        documentChangeRepository.saveAll(changes.entrySet()
+                .stream()
+                .map((entry) -> new DocumentChangeEntity(
+                        entry.getKey().userId(),
+                        entry.getKey().groupId(),
+                        entry.getKey().documentId(),
+                        entry.getValue()
+                ))
+                .toList());
+    }
+
+    // Exactly one of userId and groupId is set.
+    private record ChangeKey(String userId, Long groupId, Long documentId) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.relaydocs.documentservice.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "relaydocs.changes")
+public class DocumentChangeLogProperties {
+
+    // How often superseded change feed entries are deleted.
+    private Duration compactionInterval = Duration.ofHours(1);
+    // Width of the seq range each compaction DELETE covers.
+    private int compactionBatchSize = 10_000;
+
+    public Duration getCompactionInterval() {
+        return compactionInterval;
+    }
+
+    public void setCompactionInterval(Duration compactionInterval) {
+        this.compactionInterval = compactionInterval;
+    }
+
+    public int getCompactionBatchSize() {
+        return compactionBatchSize;
+    }
+
+    public void setCompactionBatchSize(int compactionBatchSize) {
+        this.compactionBatchSize = compactionBatchSize;
+    }
+}
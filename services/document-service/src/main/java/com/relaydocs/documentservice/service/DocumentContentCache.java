@@ -0,0 +1,342 @@
+package com.relaydocs.documentservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LRU cache of UTF-8 document content keyed by document id and version, held in direct
+ * {@link ByteBuffer} slabs so large bodies stay off the Java heap. Slabs are carved into
+ * fixed-size chunks and an entry occupies as many chunks as its content needs. Readers pin an
+ * entry through a {@link Lease}; an entry evicted while pinned keeps its chunks until the last
+ * lease is closed. As with {@code CompressedDocumentCache}, a changed document has a new version,
+ * so entries are never invalidated and stale versions age out.
+ */
+@Component
+public class DocumentContentCache {
+
+    private final int chunkBytes;
+    private final int chunksPerSlab;
+    private final int maxSlabs;
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter evictionCounter;
+    private int[] freeChunks = new int[0];
+    private int freeCount;
+    private long contentBytes;
+
+    public DocumentContentCache(DocumentContentCacheProperties properties, MeterRegistry meterRegistry) {
+        if (properties.getChunkBytes() <= 0 || properties.getSlabBytes() < properties.getChunkBytes()) {
+            throw new IllegalStateException("relaydocs.content-cache.slab-bytes must be at least chunk-bytes");
+        }
+        this.chunkBytes = properties.getChunkBytes();
+        this.chunksPerSlab = properties.getSlabBytes() / chunkBytes;
+        this.maxSlabs = (int) Math.min(Integer.MAX_VALUE / chunksPerSlab, properties.getMaxBytes() / properties.getSlabBytes());
+
+        this.hitCounter = Counter.builder("relaydocs.content.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.missCounter = Counter.builder("relaydocs.content.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.evictionCounter = Counter.builder("relaydocs.content.cache.evictions").register(meterRegistry);
+        Gauge.builder("relaydocs.content.cache.bytes", this, DocumentContentCache::contentBytes)
+                .description("UTF-8 content bytes held by cached entries")
+                .register(meterRegistry);
+        Gauge.builder("relaydocs.content.cache.reserved.bytes", this, DocumentContentCache::reservedBytes)
+                .description("Direct memory reserved for slabs")
+                .register(meterRegistry);
+        Gauge.builder("relaydocs.content.cache.entries", this, DocumentContentCache::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether this version is cached, counted as a cache request. Callers that then fail to
+     * {@link #acquire} the entry (it was evicted in between) read the content again themselves.
+     */
+    public synchronized boolean lookup(long documentId, long version) {
+        boolean cached = entries.get(new Key(documentId, version)) != null;
+        (cached ? hitCounter : missCounter).increment();
+        return cached;
+    }
+
+    /**
+     * Pins the cached content for this version, or returns {@code null} if it is not cached.
+     */
+    public synchronized Lease acquire(long documentId, long version) {
+        Entry entry = entries.get(new Key(documentId, version));
+        if (entry == null) {
+            return null;
+        }
+        entry.pins++;
+        return new Lease(this, entry);
+    }
+
+    /**
+     * Caches {@code content} encoded as UTF-8. Returns {@code false} if it does not fit even after
+     * evicting every unpinned entry.
+     */
+    public boolean put(long documentId, long version, String content) {
+        int length = utf8Length(content);
+        Entry entry = reserve(new Key(documentId, version), length);
+        if (entry == null) {
+            return false;
+        }
+        ChunkWriter writer = new ChunkWriter(entry.views);
+        for (int index = 0; index < content.length(); index++) {
+            char current = content.charAt(index);
+            if (current < 0x80) {
+                writer.put(current);
+            } else if (current < 0x800) {
+                writer.put(0xC0 | (current >> 6));
+                writer.put(0x80 | (current & 0x3F));
+            } else if (Character.isHighSurrogate(current)
+                    && index + 1 < content.length()
+                    && Character.isLowSurrogate(content.charAt(index + 1))) {
+                int codePoint = Character.toCodePoint(current, content.charAt(++index));
+                writer.put(0xF0 | (codePoint >> 18));
+                writer.put(0x80 | ((codePoint >> 12) & 0x3F));
+                writer.put(0x80 | ((codePoint >> 6) & 0x3F));
+                writer.put(0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(current)) {
+                // Unpaired surrogate: replaced the same way String.getBytes(UTF_8) does.
+                writer.put('?');
+            } else {
+                writer.put(0xE0 | (current >> 12));
+                writer.put(0x80 | ((current >> 6) & 0x3F));
+                writer.put(0x80 | (current & 0x3F));
+            }
+        }
+        return publish(entry);
+    }
+
+    /**
+     * Caches content that is already UTF-8, such as a tiered document's segment entry.
+     */
+    public boolean put(long documentId, long version, ByteBuffer utf8) {
+        ByteBuffer source = utf8.duplicate();
+        Entry entry = reserve(new Key(documentId, version), source.remaining());
+        if (entry == null) {
+            return false;
+        }
+        for (ByteBuffer view : entry.views) {
+            int end = source.position() + view.remaining();
+            view.duplicate().put(source.duplicate().limit(end));
+            source.position(end);
+        }
+        return publish(entry);
+    }
+
+    public synchronized long contentBytes() {
+        return contentBytes;
+    }
+
+    public synchronized long reservedBytes() {
+        return (long) slabs.size() * chunksPerSlab * chunkBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized Entry reserve(Key key, int length) {
+        int needed = (length + chunkBytes - 1) / chunkBytes;
+        if (entries.containsKey(key) || needed > maxSlabs * chunksPerSlab) {
+            return null;
+        }
+        while (freeCount < needed) {
+            if (slabs.size() < maxSlabs) {
+                addSlab();
+                continue;
+            }
+            Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+            if (!eldest.hasNext()) {
+                // Everything left is pinned by in-flight responses.
+                return null;
+            }
+            Entry evicted = eldest.next().getValue();
+            eldest.remove();
+            contentBytes -= evicted.length;
+            evicted.evicted = true;
+            evictionCounter.increment();
+            if (evicted.pins == 0) {
+                free(evicted);
+            }
+        }
+
+        int[] chunks = Arrays.copyOfRange(freeChunks, freeCount - needed, freeCount);
+        freeCount -= needed;
+        return new Entry(key, chunks, views(chunks, length), length);
+    }
+
+    private synchronized boolean publish(Entry entry) {
+        if (entries.putIfAbsent(entry.key, entry) != null) {
+            free(entry);
+            return false;
+        }
+        contentBytes += entry.length;
+        return true;
+    }
+
+    private synchronized void release(Entry entry) {
+        entry.pins--;
+        if (entry.pins == 0 && entry.evicted) {
+            free(entry);
+        }
+    }
+
+    private void addSlab() {
+        int slab = slabs.size();
+        slabs.add(ByteBuffer.allocateDirect(chunksPerSlab * chunkBytes));
+        freeChunks = Arrays.copyOf(freeChunks, (slab + 1) * chunksPerSlab);
+        for (int chunk = chunksPerSlab - 1; chunk >= 0; chunk--) {
+            freeChunks[freeCount++] = slab * chunksPerSlab + chunk;
+        }
+    }
+
+    private void free(Entry entry) {
+        for (int chunk : entry.chunks) {
+            freeChunks[freeCount++] = chunk;
+        }
+    }
+
+    private List<ByteBuffer> views(int[] chunks, int length) {
+        List<ByteBuffer> views = new ArrayList<>(chunks.length);
+        int remaining = length;
+        for (int chunk : chunks) {
+            int offset = (chunk % chunksPerSlab) * chunkBytes;
+            int size = Math.min(chunkBytes, remaining);
+            views.add(slabs.get(chunk / chunksPerSlab).slice(offset, size));
+            remaining -= size;
+        }
+        return views;
+    }
+
+    private static int utf8Length(String content) {
+        int length = 0;
+        for (int index = 0; index < content.length(); index++) {
+            char current = content.charAt(index);
+            if (current < 0x80) {
+                length++;
+            } else if (current < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(current)
+                    && index + 1 < content.length()
+                    && Character.isLowSurrogate(content.charAt(index + 1))) {
+                length += 4;
+                index++;
+            } else if (Character.isSurrogate(current)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Pinned, read-only view of one cached entry. Close it once the content has been written out.
+     */
+    public static final class Lease implements AutoCloseable {
+
+        private final DocumentContentCache cache;
+        private final Entry entry;
+        private final List<ByteBuffer> chunks;
+        private final long length;
+        private boolean closed;
+
+        private Lease(DocumentContentCache cache, Entry entry) {
+            this(cache, entry, entry.views, entry.length);
+        }
+
+        private Lease(DocumentContentCache cache, Entry entry, List<ByteBuffer> chunks, long length) {
+            this.cache = cache;
+            this.entry = entry;
+            this.chunks = chunks;
+            this.length = length;
+        }
+
+        /**
+         * Wraps content that could not be cached so callers can treat both cases alike.
+         */
+        public static Lease onHeap(String content) {
+            byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+            return new Lease(null, null, List.of(ByteBuffer.wrap(bytes)), bytes.length);
+        }
+
+        public long length() {
+            return length;
+        }
+
+        /**
+         * The content in order, as fresh read-only buffers the caller may consume.
+         */
+        public List<ByteBuffer> chunks() {
+            return chunks.stream().map(ByteBuffer::asReadOnlyBuffer).toList();
+        }
+
+        public String decode() {
+            ByteBuffer joined = ByteBuffer.allocate(Math.toIntExact(length));
+            chunks().forEach(joined::put);
+            return new String(joined.array(), StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (cache != null) {
+                cache.release(entry);
+            }
+        }
+    }
+
+    private static final class ChunkWriter {
+
+        private final List<ByteBuffer> chunks;
+        private int index;
+
+        private ChunkWriter(List<ByteBuffer> views) {
+            this.chunks = views.stream().map(ByteBuffer::duplicate).toList();
+        }
+
+        private void put(int value) {
+            ByteBuffer chunk = chunks.get(index);
+            if (!chunk.hasRemaining()) {
+                chunk = chunks.get(++index);
+            }
+            chunk.put((byte) value);
+        }
+    }
+
+    private static final class Entry {
+
+        private final Key key;
+        private final int[] chunks;
+        // Writable slices over the chunks, positioned at zero; never consumed directly.
+        private final List<ByteBuffer> views;
+        private final int length;
+        private int pins;
+        private boolean evicted;
+
+        private Entry(Key key, int[] chunks, List<ByteBuffer> views, int length) {
+            this.key = key;
+            this.chunks = chunks;
+            this.views = views;
+            this.length = length;
+        }
+    }
+
+    private record Key(long documentId, long version) {
+    }
+}
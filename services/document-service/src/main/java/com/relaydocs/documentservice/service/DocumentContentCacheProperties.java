@@ -0,0 +1,40 @@
+package com.relaydocs.documentservice.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "relaydocs.content-cache")
+public class DocumentContentCacheProperties {
+
+    // Upper bound on direct memory reserved for cached content; 0 disables the cache.
+    private long maxBytes = 64L * 1024 * 1024;
+    // Direct memory is reserved in slabs of this size as the cache fills up.
+    private int slabBytes = 4 * 1024 * 1024;
+    // Allocation unit inside a slab; an entry wastes less than one chunk.
+    private int chunkBytes = 8 * 1024;
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public int getSlabBytes() {
+        return slabBytes;
+    }
+
+    public void setSlabBytes(int slabBytes) {
+        this.slabBytes = slabBytes;
+    }
+
+    public int getChunkBytes() {
+        return chunkBytes;
+    }
+
+    public void setChunkBytes(int chunkBytes) {
+        this.chunkBytes = chunkBytes;
+    }
+}
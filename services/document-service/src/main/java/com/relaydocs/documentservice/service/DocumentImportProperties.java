@@ -0,0 +1,20 @@
+package com.relaydocs.documentservice.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "relaydocs.bulk-import")
+public class DocumentImportProperties {
+
+    // One import is one transaction and one event listing every new id; keep both bounded.
+    private int maxDocuments = 10000;
+
+    public int getMaxDocuments() {
+        return maxDocuments;
+    }
+
+    public void setMaxDocuments(int maxDocuments) {
+        this.maxDocuments = maxDocuments;
+    }
+}
@@ -0,0 +1,155 @@
+package com.relaydocs.documentservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.relaydocs.documentservice.api.dto.ImportDocumentRequest;
+import com.relaydocs.documentservice.api.dto.ImportDocumentsApiResponse;
+import com.relaydocs.documentservice.domain.AuditAction;
+import com.relaydocs.documentservice.domain.PermissionRole;
+import com.relaydocs.documentservice.events.DomainEventPublisher;
+import com.relaydocs.documentservice.persistence.DocumentImportStaging;
+import jakarta.transaction.Transactional;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Imports newline-delimited JSON documents for one owner in a single transaction: lines are
+ * validated as they are read and streamed through COPY, then merged with set-based statements.
+ * The whole import produces one {@code documents.imported} event instead of one per document.
+ */
+@Service
+public class DocumentImportService {
+
+    public static final String IMPORT_AGGREGATE_PREFIX = "import:";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DocumentImportService.class);
+
+    private final DocumentImportStaging documentImportStaging;
+    private final DomainEventPublisher domainEventPublisher;
+    private final DocumentListCache documentListCache;
+    private final AuditLog auditLog;
+    private final Validator validator;
+    private final ObjectReader lineReader;
+    private final ObjectWriter sharedWithWriter;
+    private final int maxDocuments;
+
+    public DocumentImportService(
+            DocumentImportStaging documentImportStaging,
+            DomainEventPublisher domainEventPublisher,
+            DocumentListCache documentListCache,
+            AuditLog auditLog,
+            Validator validator,
+            ObjectMapper objectMapper,
+            DocumentImportProperties properties
+    ) {
+        this.documentImportStaging = documentImportStaging;
+        this.domainEventPublisher = domainEventPublisher;
+        this.documentListCache = documentListCache;
+        this.auditLog = auditLog;
+        this.validator = validator;
+        this.lineReader = objectMapper.readerFor(ImportDocumentRequest.class);
+        this.sharedWithWriter = objectMapper.writer();
+        this.maxDocuments = properties.getMaxDocuments();
+    }
+
+    @Transactional
+    public ImportDocumentsApiResponse importDocuments(String actorUserId, InputStream ndjson) {
+        if (!documentImportStaging.supportsCopy()) {
+            throw new ApiBadRequestException("Bulk import is only available on PostgreSQL");
+        }
+
+        UUID batchId = UUID.randomUUID();
+        int lineNumber = 0;
+        try (DocumentImportStaging.Writer writer = documentImportStaging.open(batchId);
+             MappingIterator<ImportDocumentRequest> lines = lineReader.readValues(ndjson)) {
+            while (true) {
+                ImportDocumentRequest document;
+                try {
+                    if (!lines.hasNextValue()) {
+                        break;
+                    }
+                    document = lines.nextValue();
+                } catch (JsonProcessingException exception) {
+                    throw invalidLine(lineNumber + 1);
+                }
+                lineNumber++;
+                if (lineNumber > maxDocuments) {
+                    throw new ApiBadRequestException("Import exceeds " + maxDocuments + " documents");
+                }
+                if (document == null || !validator.validate(document).isEmpty()
+                        || containsNul(document.title()) || containsNul(document.content())) {
+                    throw invalidLine(lineNumber);
+                }
+                writer.add(lineNumber, document.title(), document.content(), sharedWith(document, actorUserId, lineNumber));
+            }
+            writer.finish();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        } catch (SQLException exception) {
+            throw new IllegalStateException("COPY into document_import_staging failed", exception);
+        }
+        if (lineNumber == 0) {
+            throw new ApiBadRequestException("Import contains no documents");
+        }
+
+        DocumentImportStaging.MergedBatch merged = documentImportStaging.merge(batchId, actorUserId);
+        String aggregateId = IMPORT_AGGREGATE_PREFIX + batchId;
+        Map<String, Object> payload = Map.of(
+                "ownerUserId", actorUserId,
+                "actorUserId", actorUserId,
+                "documentIds", merged.documentIds(),
+                "targetUserIds", merged.sharedWithUserIds()
+        );
+        domainEventPublisher.publish("documents.imported", aggregateId, payload);
+        documentListCache.evict(aggregateId, payload);
+        auditLog.recordOnCommit(AuditAction.DOCUMENTS_IMPORTED, actorUserId, null, null, null,
+                "documents=" + merged.documentIds().size() + ", sharedWith=" + merged.sharedWithUserIds().size());
+
+        LOGGER.info("Imported documents. owner={}, documents={}, sharedWith={}",
+                actorUserId, merged.documentIds().size(), merged.sharedWithUserIds().size());
+        return new ImportDocumentsApiResponse(merged.documentIds().size(), merged.documentIds());
+    }
+
+    /**
+     * @return the line's shares as a JSON object of user id to role name, without the owner, or
+     * null when there are none
+     */
+    private String sharedWith(ImportDocumentRequest document, String ownerUserId, int lineNumber) throws IOException {
+        if (document.sharedWith() == null || document.sharedWith().isEmpty()) {
+            return null;
+        }
+        Map<String, String> roles = new TreeMap<>();
+        for (Map.Entry<String, PermissionRole> share : document.sharedWith().entrySet()) {
+            if (share.getKey().isBlank() || share.getValue() == null || share.getKey().length() > 100) {
+                throw invalidLine(lineNumber);
+            }
+            // A grantee importing someone else's export finds itself listed; owners need no permission row.
+            if (!share.getKey().equals(ownerUserId)) {
+                roles.put(share.getKey(), share.getValue().name());
+            }
+        }
+        return roles.isEmpty() ? null : sharedWithWriter.writeValueAsString(roles);
+    }
+
+    private static boolean containsNul(String value) {
+        // PostgreSQL text columns cannot hold U+0000.
+        return value.indexOf('\0') >= 0;
+    }
+
+    private static ApiBadRequestException invalidLine(int lineNumber) {
+        return new ApiBadRequestException("Invalid document on line " + lineNumber);
+    }
+}
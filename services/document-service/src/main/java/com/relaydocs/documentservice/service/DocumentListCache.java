@@ -0,0 +1,246 @@
+package com.relaydocs.documentservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-user cache of serialized {@code GET /api/v1/documents} bodies, LRU-bounded by total bytes.
+ * A reverse index from document id to the users whose cached list contains it lets a domain event
+ * evict exactly the affected entries. Lists are built outside any lock, so each fill carries the
+ * invalidation sequence observed before its reads and is dropped if an overlapping invalidation
+ * has happened since. Entries also expire after {@code relaydocs.list-cache.ttl}, which bounds
+ * how stale a list can get when an eviction from another node is lost.
+ */
+@Component
+public class DocumentListCache {
+
+    private static final int INVALIDATION_LOG_SIZE = 4096;
+
+    private final GroupVisibilityIndex groupVisibilityIndex;
+    private final boolean enabled;
+    private final long maxBytes;
+    private final long ttlNanos;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<Long, Set<String>> readersByDocument = new HashMap<>();
+    private final ArrayDeque<Invalidation> recentInvalidations = new ArrayDeque<>();
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter invalidationCounter;
+    private final Counter rejectedFillCounter;
+    private long sequence;
+    private long currentBytes;
+
+    public DocumentListCache(
+            DocumentListCacheProperties properties,
+            GroupVisibilityIndex groupVisibilityIndex,
+            MeterRegistry meterRegistry
+    ) {
+        this.groupVisibilityIndex = groupVisibilityIndex;
+        this.enabled = properties.isEnabled();
+        this.maxBytes = properties.getMaxBytes();
+        this.ttlNanos = properties.getTtl().toNanos();
+        this.hitCounter = Counter.builder("relaydocs.list.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.missCounter = Counter.builder("relaydocs.list.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.invalidationCounter = Counter.builder("relaydocs.list.cache.invalidations").register(meterRegistry);
+        this.rejectedFillCounter = Counter.builder("relaydocs.list.cache.fills").tag("result", "stale").register(meterRegistry);
+        Gauge.builder("relaydocs.list.cache.bytes", this, DocumentListCache::currentBytes).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized byte[] get(String userId) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry = entries.get(userId);
+        if (entry != null && System.nanoTime() - entry.cachedAtNanos >= ttlNanos) {
+            remove(userId);
+            entry = null;
+        }
+        (entry != null ? hitCounter : missCounter).increment();
+        return entry == null ? null : entry.body;
+    }
+
+    /**
+     * Marks the start of a list read; pass the result to {@link #put}.
+     */
+    public synchronized long beginRead() {
+        return sequence;
+    }
+
+    /**
+     * Caches {@code body} for the user unless something it depends on was invalidated after
+     * {@code readSequence}.
+     *
+     * @param documentIds ids of the documents in the list, ascending
+     */
+    public synchronized void put(String userId, long readSequence, long[] documentIds, byte[] body) {
+        if (!enabled || body.length > maxBytes) {
+            return;
+        }
+        if (invalidatedSince(readSequence, userId, documentIds)) {
+            rejectedFillCounter.increment();
+            return;
+        }
+
+        remove(userId);
+        entries.put(userId, new Entry(documentIds, body, System.nanoTime()));
+        currentBytes += body.length;
+        for (long documentId : documentIds) {
+            readersByDocument.computeIfAbsent(documentId, (ignored) -> new HashSet<>()).add(userId);
+        }
+
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Entry> evicted = eldest.next();
+            eldest.remove();
+            unindex(evicted.getKey(), evicted.getValue());
+        }
+    }
+
+    /**
+     * Applies a domain event: document events are about one document (their aggregate id), and
+     * events that grant or create access name the users or group whose lists gain documents.
+     * Inside a transaction the eviction waits for the commit, so a concurrent read cannot cache the
+     * old state after it.
+     */
+    public void evict(String aggregateId, Map<String, ?> payload) {
+        if (!enabled) {
+            return;
+        }
+        Long documentId = parseDocumentId(aggregateId);
+        Object ownerUserId = payload.get("ownerUserId");
+        Object targetUserId = payload.get("targetUserId");
+        Object targetUserIds = payload.get("targetUserIds");
+        Object targetGroupId = payload.get("targetGroupId");
+        Runnable eviction = () -> {
+            if (documentId != null) {
+                invalidateDocument(documentId);
+            }
+            if (ownerUserId != null) {
+                invalidateUser(ownerUserId.toString());
+            }
+            if (targetUserId != null) {
+                invalidateUser(targetUserId.toString());
+            }
+            if (targetUserIds instanceof Collection<?> userIds) {
+                userIds.forEach((userId) -> invalidateUser(userId.toString()));
+            }
+            if (targetGroupId != null) {
+                groupVisibilityIndex.membersOf(Long.parseLong(targetGroupId.toString())).forEach(this::invalidateUser);
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        } else {
+            eviction.run();
+        }
+    }
+
+    public synchronized void invalidateDocument(long documentId) {
+        logInvalidation(new Invalidation(++sequence, documentId, null));
+        Set<String> readers = readersByDocument.get(documentId);
+        if (readers == null) {
+            return;
+        }
+        for (String userId : Set.copyOf(readers)) {
+            remove(userId);
+            invalidationCounter.increment();
+        }
+    }
+
+    public synchronized void invalidateUser(String userId) {
+        logInvalidation(new Invalidation(++sequence, null, userId));
+        if (remove(userId)) {
+            invalidationCounter.increment();
+        }
+    }
+
+    public synchronized long currentBytes() {
+        return currentBytes;
+    }
+
+    private boolean invalidatedSince(long readSequence, String userId, long[] documentIds) {
+        if (readSequence == sequence) {
+            return false;
+        }
+        Invalidation oldest = recentInvalidations.peekFirst();
+        if (oldest == null || oldest.sequence() > readSequence + 1) {
+            // The log no longer covers the whole window; assume the worst.
+            return true;
+        }
+        for (Iterator<Invalidation> newest = recentInvalidations.descendingIterator(); newest.hasNext(); ) {
+            Invalidation invalidation = newest.next();
+            if (invalidation.sequence() <= readSequence) {
+                break;
+            }
+            if (userId.equals(invalidation.userId())
+                    || (invalidation.documentId() != null && Arrays.binarySearch(documentIds, invalidation.documentId()) >= 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void logInvalidation(Invalidation invalidation) {
+        recentInvalidations.addLast(invalidation);
+        if (recentInvalidations.size() > INVALIDATION_LOG_SIZE) {
+            recentInvalidations.removeFirst();
+        }
+    }
+
+    private boolean remove(String userId) {
+        Entry removed = entries.remove(userId);
+        if (removed == null) {
+            return false;
+        }
+        unindex(userId, removed);
+        return true;
+    }
+
+    private void unindex(String userId, Entry entry) {
+        currentBytes -= entry.body.length;
+        for (long documentId : entry.documentIds) {
+            Set<String> readers = readersByDocument.get(documentId);
+            if (readers != null && readers.remove(userId) && readers.isEmpty()) {
+                readersByDocument.remove(documentId);
+            }
+        }
+    }
+
+    private static Long parseDocumentId(String aggregateId) {
+        try {
+            return Long.valueOf(aggregateId);
+        } catch (NumberFormatException exception) {
+            return null;
+        }
+    }
+
+    private record Entry(long[] documentIds, byte[] body, long cachedAtNanos) {
+    }
+
+    private record Invalidation(long sequence, Long documentId, String userId) {
+    }
+}
@@ -0,0 +1,88 @@
+package com.relaydocs.documentservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight document loads: while one caller is fetching a document, concurrent callers for
+ * the same id wait for that fetch instead of issuing their own. Nothing is cached once the load
+ * finishes, and every write detaches the document's in-flight load when it commits, so a request
+ * that starts after a write (or a revoked share) has committed never joins a load that may have
+ * read the row before it. Writes made on another instance are not seen here until that load
+ * finishes, so a read can lag them by at most one load.
+ */
+@Component
+public class DocumentLoadCoalescer {
+
+    private final ConcurrentMap<Long, CompletableFuture<DocumentSnapshot>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executedCounter;
+    private final Counter coalescedCounter;
+
+    public DocumentLoadCoalescer(MeterRegistry meterRegistry) {
+        this.executedCounter = Counter.builder("relaydocs.documents.loads")
+                .tag("result", "executed")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("relaydocs.documents.loads")
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+    }
+
+    public DocumentSnapshot load(Long documentId, Supplier<DocumentSnapshot> loader) {
+        CompletableFuture<DocumentSnapshot> flight = new CompletableFuture<>();
+        CompletableFuture<DocumentSnapshot> existing = inFlight.putIfAbsent(documentId, flight);
+
+        if (existing != null) {
+            coalescedCounter.increment();
+            return await(existing);
+        }
+
+        executedCounter.increment();
+        try {
+            DocumentSnapshot snapshot = loader.get();
+            flight.complete(snapshot);
+            return snapshot;
+        } catch (RuntimeException exception) {
+            flight.completeExceptionally(exception);
+            throw exception;
+        } finally {
+            inFlight.remove(documentId, flight);
+        }
+    }
+
+    /**
+     * Once the current transaction commits, starts a fresh load for the next caller instead of
+     * letting it join one already in flight. Callers already waiting keep the older result.
+     */
+    public void invalidateAfterCommit(Long documentId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    inFlight.remove(documentId);
+                }
+            });
+        } else {
+            inFlight.remove(documentId);
+        }
+    }
+
+    private DocumentSnapshot await(CompletableFuture<DocumentSnapshot> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw exception;
+        }
+    }
+}
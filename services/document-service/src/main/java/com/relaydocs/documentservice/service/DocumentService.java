@@ -1,61 +1,239 @@
 package com.relaydocs.documentservice.service;
 
 import com.relaydocs.documentservice.api.dto.CreateDocumentRequest;
+import com.relaydocs.documentservice.api.dto.DocumentChangesApiResponse;
 import com.relaydocs.documentservice.api.dto.DocumentResponse;
 import com.relaydocs.documentservice.api.dto.ShareDocumentRequest;
+import com.relaydocs.documentservice.api.dto.ShareDocumentWithGroupRequest;
 import com.relaydocs.documentservice.api.dto.UpdateDocumentRequest;
+import com.relaydocs.documentservice.domain.AccessRole;
+import com.relaydocs.documentservice.domain.AuditAction;
+import com.relaydocs.documentservice.domain.DocumentChangeType;
 import com.relaydocs.documentservice.domain.PermissionRole;
 import com.relaydocs.documentservice.events.DomainEventPublisher;
+import com.relaydocs.documentservice.persistence.ColdContentPointer;
+import com.relaydocs.documentservice.persistence.ContentSegmentStore;
+import com.relaydocs.documentservice.persistence.DocumentChangeEntity;
 import com.relaydocs.documentservice.persistence.DocumentEntity;
+import com.relaydocs.documentservice.persistence.DocumentGroupPermissionEntity;
+import com.relaydocs.documentservice.persistence.DocumentGroupPermissionRepository;
+import com.relaydocs.documentservice.persistence.DocumentHead;
 import com.relaydocs.documentservice.persistence.DocumentPermissionEntity;
 import com.relaydocs.documentservice.persistence.DocumentPermissionRepository;
 import com.relaydocs.documentservice.persistence.DocumentRepository;
+import com.relaydocs.documentservice.persistence.DocumentShare;
+import com.relaydocs.documentservice.persistence.StoredContent;
+import com.relaydocs.documentservice.persistence.UserDocumentAccessEntity;
+import com.relaydocs.documentservice.persistence.UserDocumentAccessId;
+import com.relaydocs.documentservice.persistence.UserDocumentAccessRepository;
 import com.relaydocs.documentservice.persistence.UserEntity;
+import com.relaydocs.documentservice.persistence.UserGroupMemberRepository;
+import com.relaydocs.documentservice.persistence.UserGroupRepository;
 import com.relaydocs.documentservice.persistence.UserRepository;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class DocumentService {
 
+    private static final int MAX_CHANGES_PAGE_SIZE = 500;
+    private static final int GROUP_DOCUMENT_BATCH_SIZE = 100;
+    // Streamed documents whose shares are loaded with one query; matches the cursor fetch size.
+    private static final int STREAM_BATCH_SIZE = 100;
+
     private final DocumentRepository documentRepository;
     private final DocumentPermissionRepository documentPermissionRepository;
+    private final UserDocumentAccessRepository userDocumentAccessRepository;
+    private final DocumentChangeLog documentChangeLog;
     private final UserRepository userRepository;
     private final DomainEventPublisher domainEventPublisher;
+    private final EntityManager entityManager;
+    private final DocumentLoadCoalescer documentLoadCoalescer;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ContentSegmentStore contentSegmentStore;
+    private final DocumentContentCache documentContentCache;
+    private final DocumentListCache documentListCache;
+    private final DocumentGroupPermissionRepository documentGroupPermissionRepository;
+    private final UserGroupRepository userGroupRepository;
+    private final UserGroupMemberRepository userGroupMemberRepository;
+    private final GroupVisibilityIndex groupVisibilityIndex;
+    private final AuditLog auditLog;
 
     public DocumentService(
             DocumentRepository documentRepository,
             DocumentPermissionRepository documentPermissionRepository,
+            UserDocumentAccessRepository userDocumentAccessRepository,
+            DocumentChangeLog documentChangeLog,
             UserRepository userRepository,
-            DomainEventPublisher domainEventPublisher
+            DomainEventPublisher domainEventPublisher,
+            EntityManager entityManager,
+            DocumentLoadCoalescer documentLoadCoalescer,
+            PlatformTransactionManager transactionManager,
+            ContentSegmentStore contentSegmentStore,
+            DocumentContentCache documentContentCache,
+            DocumentListCache documentListCache,
+            DocumentGroupPermissionRepository documentGroupPermissionRepository,
+            UserGroupRepository userGroupRepository,
+            UserGroupMemberRepository userGroupMemberRepository,
+            GroupVisibilityIndex groupVisibilityIndex,
+            AuditLog auditLog
     ) {
         this.documentRepository = documentRepository;
         this.documentPermissionRepository = documentPermissionRepository;
+        this.userDocumentAccessRepository = userDocumentAccessRepository;
+        this.documentChangeLog = documentChangeLog;
         this.userRepository = userRepository;
         this.domainEventPublisher = domainEventPublisher;
+        this.entityManager = entityManager;
+        this.documentLoadCoalescer = documentLoadCoalescer;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.contentSegmentStore = contentSegmentStore;
+        this.documentContentCache = documentContentCache;
+        this.documentListCache = documentListCache;
+        this.documentGroupPermissionRepository = documentGroupPermissionRepository;
+        this.userGroupRepository = userGroupRepository;
+        this.userGroupMemberRepository = userGroupMemberRepository;
+        this.groupVisibilityIndex = groupVisibilityIndex;
+        this.auditLog = auditLog;
     }
 
     @Transactional
     public List<DocumentResponse> listVisibleDocuments(String actorUserId) {
-        return documentRepository.findVisibleDocuments(actorUserId)
-                .stream()
+        List<DocumentEntity> documents = documentRepository.findVisibleDocuments(actorUserId);
+        long[] groupVisible = groupVisibilityIndex.readableDocuments(actorUserId);
+        if (groupVisible.length > 0) {
+            Set<Long> direct = new HashSet<>();
+            documents.forEach((document) -> direct.add(document.getId()));
+            List<Long> groupOnly = Arrays.stream(groupVisible).filter((id) -> !direct.contains(id)).boxed().toList();
+            if (!groupOnly.isEmpty()) {
+                documents = new ArrayList<>(documents);
+                documents.addAll(documentRepository.findAllById(groupOnly));
+                documents.sort(Comparator.comparing(DocumentEntity::getId));
+            }
+        }
+        return documents.stream()
                 .map(this::toResponse)
                 .toList();
     }
 
+    /**
+     * Reads visible documents through a database cursor and hands them to {@code sink} in batches,
+     * loading each batch's shares with one query and detaching it afterwards, so memory stays flat
+     * and the query count grows per batch rather than per document. The transaction, and so its
+     * connection, stays open until {@code sink} has taken the last document.
+     */
+    @Transactional
+    public void streamVisibleDocuments(String actorUserId, Consumer<DocumentResponse> sink) {
+        List<DocumentEntity> batch = new ArrayList<>(STREAM_BATCH_SIZE);
+        Consumer<DocumentEntity> emit = (document) -> {
+            batch.add(document);
+            if (batch.size() == STREAM_BATCH_SIZE) {
+                emitBatch(batch, sink);
+            }
+        };
+        // Documents visible only through a group are merged into the cursor's id order in small batches.
+        long[] groupVisible = groupVisibilityIndex.readableDocuments(actorUserId);
+        int[] nextGroupDocument = {0};
+        try (Stream<DocumentEntity> documents = documentRepository.streamVisibleDocuments(actorUserId)) {
+            documents.forEach((document) -> {
+                nextGroupDocument[0] = emitGroupDocuments(groupVisible, nextGroupDocument[0], document.getId(), emit);
+                if (nextGroupDocument[0] < groupVisible.length && groupVisible[nextGroupDocument[0]] == document.getId()) {
+                    nextGroupDocument[0]++;
+                }
+                emit.accept(document);
+            });
+        }
+        emitGroupDocuments(groupVisible, nextGroupDocument[0], Long.MAX_VALUE, emit);
+        emitBatch(batch, sink);
+    }
+
+    /**
+     * Like {@link #streamVisibleDocuments}, limited to the documents the user owns.
+     */
+    @Transactional
+    public void streamOwnedDocuments(String actorUserId, Consumer<DocumentResponse> sink) {
+        List<DocumentEntity> batch = new ArrayList<>(STREAM_BATCH_SIZE);
+        try (Stream<DocumentEntity> documents = documentRepository.streamOwnedDocuments(actorUserId)) {
+            documents.forEach((document) -> {
+                batch.add(document);
+                if (batch.size() == STREAM_BATCH_SIZE) {
+                    emitBatch(batch, sink);
+                }
+            });
+        }
+        emitBatch(batch, sink);
+    }
+
+    @Transactional
+    public DocumentChangesApiResponse listChangesSince(String actorUserId, long since, int limit) {
+        if (since < 0 || limit < 1 || limit > MAX_CHANGES_PAGE_SIZE) {
+            throw new ApiBadRequestException("Invalid change cursor or limit");
+        }
+
+        // Group changes are one entry per group; the actor's current groups decide which ones are theirs.
+        List<Long> groupIds = userGroupMemberRepository.findGroupIdsByUserId(actorUserId);
+        List<DocumentChangeEntity> changes = documentChangeLog.changesSince(actorUserId, groupIds, since, limit + 1);
+        boolean hasMore = changes.size() > limit;
+        List<DocumentChangeEntity> page = hasMore ? changes.subList(0, limit) : changes;
+
+        Set<Long> changedIds = new LinkedHashSet<>();
+        for (DocumentChangeEntity change : page) {
+            changedIds.remove(change.getDocumentId());
+            changedIds.add(change.getDocumentId());
+        }
+
+        Map<Long, DocumentEntity> changed = new HashMap<>();
+        documentRepository.findAllById(changedIds).forEach((document) -> changed.put(document.getId(), document));
+        Set<Long> sharedWithGroups = groupIds.isEmpty() || changed.isEmpty()
+                ? Set.of()
+                : new HashSet<>(documentGroupPermissionRepository.findDocumentIdsSharedWithGroups(groupIds, changed.keySet()));
+
+        List<DocumentResponse> documents = new ArrayList<>();
+        List<Long> tombstones = new ArrayList<>();
+        for (Long documentId : changedIds) {
+            DocumentEntity document = changed.get(documentId);
+            // A group's entries do not say whether this member can still read the document, and access may have
+            // changed after any entry was written; report what the actor can read now and never leak current content.
+            if (document != null && (canReadDirectly(document, actorUserId) || sharedWithGroups.contains(documentId))) {
+                documents.add(toResponse(document));
+            } else {
+                tombstones.add(documentId);
+            }
+        }
+
+        long cursor = page.isEmpty() ? since : page.get(page.size() - 1).getSeq();
+        return new DocumentChangesApiResponse(documents, tombstones, cursor, hasMore);
+    }
+
     @Transactional
     public DocumentResponse createDocument(String actorUserId, CreateDocumentRequest request) {
         UserEntity owner = getOrCreateUser(actorUserId);
         DocumentEntity created = documentRepository.save(new DocumentEntity(owner, request.title(), request.content()));
+        recordAccess(owner.getId(), created.getId(), AccessRole.OWNER);
+        recordChange(owner.getId(), created.getId(), DocumentChangeType.UPSERT);
         DocumentResponse response = toResponse(created);
 
-        domainEventPublisher.publish(
+        publish(
                 "document.created",
                 String.valueOf(response.id()),
                 Map.of(
@@ -68,15 +246,57 @@ public class DocumentService {
         return response;
     }
 
-    @Transactional
     public DocumentResponse getDocument(Long id, String actorUserId) {
-        DocumentEntity document = getDocumentOrThrow(id);
+        return getDocumentSnapshot(id, actorUserId).document();
+    }
 
-        if (!canRead(document, actorUserId)) {
+    public DocumentSnapshot getDocumentSnapshot(Long id, String actorUserId) {
+        try (DocumentBody body = openDocument(id, actorUserId)) {
+            return new DocumentSnapshot(body.version(), withContent(body.document(), body.content().decode()));
+        }
+    }
+
+    /**
+     * Not transactional on purpose: callers coalesced onto another request's load must not hold
+     * a connection while they wait, so only the load itself runs in a (read-only) transaction.
+     * When the current version's content is already in {@link DocumentContentCache} the load
+     * skips the content column entirely.
+     */
+    public DocumentBody openDocument(Long id, String actorUserId) {
+        DocumentSnapshot snapshot = documentLoadCoalescer.load(id, () -> readOnlyTransactionTemplate.execute(
+                (status) -> loadSnapshot(id)
+        ));
+        if (!canRead(snapshot.document(), actorUserId)) {
             throw new ApiForbiddenException("Forbidden");
         }
 
-        return toResponse(document);
+        DocumentResponse document = snapshot.document();
+        if (document.content() != null) {
+            // The content did not fit in the cache.
+            return new DocumentBody(
+                    snapshot.version(),
+                    withContent(document, null),
+                    DocumentContentCache.Lease.onHeap(document.content())
+            );
+        }
+        DocumentContentCache.Lease content = documentContentCache.acquire(id, snapshot.version());
+        if (content != null) {
+            return new DocumentBody(snapshot.version(), document, content);
+        }
+
+        // Evicted since the load; read this caller's own copy.
+        DocumentSnapshot reloaded = readOnlyTransactionTemplate.execute((status) -> {
+            DocumentEntity entity = getDocumentOrThrow(id);
+            return new DocumentSnapshot(entity.getVersion(), toResponse(entity));
+        });
+        if (!canRead(reloaded.document(), actorUserId)) {
+            throw new ApiForbiddenException("Forbidden");
+        }
+        return new DocumentBody(
+                reloaded.version(),
+                withContent(reloaded.document(), null),
+                DocumentContentCache.Lease.onHeap(reloaded.document().content())
+        );
     }
 
     @Transactional
@@ -98,10 +318,13 @@ public class DocumentService {
         if (request.content() != null) {
             document.setContent(request.content());
         }
+        document.incrementVersion();
+        documentLoadCoalescer.invalidateAfterCommit(id);
 
         DocumentResponse response = toResponse(documentRepository.save(document));
+        recordChangeForReaders(id);
 
-        domainEventPublisher.publish(
+        publish(
                 "document.updated",
                 String.valueOf(response.id()),
                 Map.of(
@@ -138,10 +361,14 @@ public class DocumentService {
             DocumentPermissionEntity permissionEntity = new DocumentPermissionEntity(document, targetUser, request.role());
             documentPermissionRepository.save(permissionEntity);
         }
+        recordAccess(request.userId(), id, AccessRole.fromPermission(request.role()));
+        documentRepository.incrementVersion(id);
+        documentLoadCoalescer.invalidateAfterCommit(id);
+        recordChangeForReaders(id);
 
         DocumentResponse response = toResponse(getDocumentOrThrow(id));
 
-        domainEventPublisher.publish(
+        publish(
                 "document.shared",
                 String.valueOf(response.id()),
                 Map.of(
@@ -152,7 +379,7 @@ public class DocumentService {
                 )
         );
 
-        domainEventPublisher.publish(
+        publish(
                 "permission.changed",
                 String.valueOf(response.id()),
                 Map.of(
@@ -163,9 +390,172 @@ public class DocumentService {
                 )
         );
 
+        auditLog.recordOnCommit(AuditAction.DOCUMENT_SHARED, actorUserId, request.userId(), response.id(), null,
+                request.role().name().toLowerCase(Locale.ROOT));
+
+        return response;
+    }
+
+    @Transactional
+    public DocumentResponse unshareDocument(Long id, String actorUserId, String targetUserId) {
+        DocumentEntity document = getDocumentOrThrow(id);
+
+        if (!document.getOwner().getId().equals(actorUserId)) {
+            throw new ApiForbiddenException("Forbidden");
+        }
+        if (actorUserId.equals(targetUserId)) {
+            throw new ApiBadRequestException("Owner access cannot be revoked");
+        }
+
+        DocumentPermissionEntity permission = documentPermissionRepository.findByDocumentIdAndUserId(id, targetUserId)
+                .orElseThrow(() -> new ApiNotFoundException("Permission not found"));
+        document.getPermissions().remove(permission);
+        documentPermissionRepository.delete(permission);
+        userDocumentAccessRepository.deleteById(new UserDocumentAccessId(targetUserId, id));
+        documentRepository.incrementVersion(id);
+        documentLoadCoalescer.invalidateAfterCommit(id);
+        recordChange(targetUserId, id, DocumentChangeType.REVOKE);
+        recordChangeForReaders(id);
+
+        DocumentResponse response = toResponse(document);
+
+        publish(
+                "permission.changed",
+                String.valueOf(response.id()),
+                Map.of(
+                        "documentId", response.id(),
+                        "actorUserId", actorUserId,
+                        "targetUserId", targetUserId,
+                        "role", "none"
+                )
+        );
+
+        auditLog.recordOnCommit(AuditAction.DOCUMENT_UNSHARED, actorUserId, targetUserId, response.id(), null, null);
+
+        return response;
+    }
+
+    @Transactional
+    public DocumentResponse shareDocumentWithGroup(Long id, String actorUserId, ShareDocumentWithGroupRequest request) {
+        DocumentEntity document = getDocumentOrThrow(id);
+
+        if (!document.getOwner().getId().equals(actorUserId)) {
+            throw new ApiForbiddenException("Forbidden");
+        }
+        if (!userGroupRepository.existsById(request.groupId())) {
+            throw new ApiNotFoundException("Group not found");
+        }
+
+        DocumentGroupPermissionEntity permission = documentGroupPermissionRepository
+                .findByDocumentIdAndGroupId(id, request.groupId())
+                .orElseGet(() -> new DocumentGroupPermissionEntity(id, request.groupId(), request.role()));
+        permission.setRole(request.role());
+        documentGroupPermissionRepository.save(permission);
+        groupVisibilityIndex.grantChanged(request.groupId(), id, request.role());
+        documentRepository.incrementVersion(id);
+        documentLoadCoalescer.invalidateAfterCommit(id);
+        recordChangeForReaders(id);
+
+        DocumentResponse response = toResponse(document);
+        String role = request.role().name().toLowerCase(Locale.ROOT);
+
+        publish(
+                "document.shared",
+                String.valueOf(response.id()),
+                Map.of(
+                        "documentId", response.id(),
+                        "actorUserId", actorUserId,
+                        "targetGroupId", request.groupId(),
+                        "role", role
+                )
+        );
+
+        publish(
+                "permission.changed",
+                String.valueOf(response.id()),
+                Map.of(
+                        "documentId", response.id(),
+                        "actorUserId", actorUserId,
+                        "targetGroupId", request.groupId(),
+                        "role", role
+                )
+        );
+
+        auditLog.recordOnCommit(AuditAction.DOCUMENT_GROUP_SHARED, actorUserId, null, response.id(), request.groupId(), role);
+
+        return response;
+    }
+
+    @Transactional
+    public DocumentResponse unshareDocumentWithGroup(Long id, String actorUserId, Long groupId) {
+        DocumentEntity document = getDocumentOrThrow(id);
+
+        if (!document.getOwner().getId().equals(actorUserId)) {
+            throw new ApiForbiddenException("Forbidden");
+        }
+
+        DocumentGroupPermissionEntity permission = documentGroupPermissionRepository.findByDocumentIdAndGroupId(id, groupId)
+                .orElseThrow(() -> new ApiNotFoundException("Permission not found"));
+        documentGroupPermissionRepository.delete(permission);
+        groupVisibilityIndex.grantChanged(groupId, id, null);
+        documentRepository.incrementVersion(id);
+        documentLoadCoalescer.invalidateAfterCommit(id);
+        recordChangeForReaders(id);
+        // Members read this from the group's feed; each resolves it against whatever access they still have.
+        documentChangeLog.recordForGroup(groupId, id, DocumentChangeType.REVOKE);
+
+        DocumentResponse response = toResponse(document);
+
+        publish(
+                "permission.changed",
+                String.valueOf(response.id()),
+                Map.of(
+                        "documentId", response.id(),
+                        "actorUserId", actorUserId,
+                        "targetGroupId", groupId,
+                        "role", "none"
+                )
+        );
+
+        auditLog.recordOnCommit(AuditAction.DOCUMENT_GROUP_UNSHARED, actorUserId, null, response.id(), groupId, null);
+
         return response;
     }
 
+    /**
+     * Returns the document with a {@code null} content when that version's content is cached
+     * (on a miss it is cached here), or with the content when it is too large to cache.
+     */
+    private DocumentSnapshot loadSnapshot(Long id) {
+        while (true) {
+            List<DocumentHead> head = documentRepository.findHeadById(id);
+            if (head.isEmpty()) {
+                throw new ApiNotFoundException("Document not found");
+            }
+            long version = head.get(0).version();
+            if (documentContentCache.lookup(id, version)) {
+                return new DocumentSnapshot(version, toResponse(head, null));
+            }
+
+            StoredContent stored = documentRepository.findStoredContentById(id)
+                    .orElseThrow(() -> new ApiNotFoundException("Document not found"));
+            if (stored.version() != version) {
+                // Changed between the two reads; start over so metadata and content match.
+                continue;
+            }
+            boolean cached = stored.isTiered()
+                    ? documentContentCache.put(id, version, contentSegmentStore.readBytes(stored.pointer()))
+                    : documentContentCache.put(id, version, stored.content());
+            if (cached) {
+                return new DocumentSnapshot(version, toResponse(head, null));
+            }
+            return new DocumentSnapshot(
+                    version,
+                    toResponse(head, stored.isTiered() ? contentSegmentStore.read(stored.pointer()) : stored.content())
+            );
+        }
+    }
+
     private DocumentEntity getDocumentOrThrow(Long id) {
         return documentRepository.findById(id)
                 .orElseThrow(() -> new ApiNotFoundException("Document not found"));
@@ -176,23 +566,101 @@ public class DocumentService {
                 .orElseGet(() -> userRepository.save(new UserEntity(userId, userId + "@relaydocs.local")));
     }
 
-    private boolean canRead(DocumentEntity document, String actorUserId) {
+    private void recordAccess(String userId, Long documentId, AccessRole role) {
+        UserDocumentAccessEntity access = userDocumentAccessRepository.findById(new UserDocumentAccessId(userId, documentId))
+                .orElseGet(() -> new UserDocumentAccessEntity(userId, documentId, role));
+        access.setRole(role);
+        userDocumentAccessRepository.save(access);
+    }
+
+    private void recordChange(String userId, Long documentId, DocumentChangeType changeType) {
+        documentChangeLog.record(userId, documentId, changeType);
+    }
+
+    private void recordChangeForReaders(Long documentId) {
+        documentChangeLog.recordForReaders(documentId);
+    }
+
+    /**
+     * Emits the group-visible documents from {@code from} onward whose ids are below {@code before}.
+     *
+     * @return the index of the first id not emitted
+     */
+    private int emitGroupDocuments(long[] groupVisible, int from, long before, Consumer<DocumentEntity> emit) {
+        int end = from;
+        while (end < groupVisible.length && groupVisible[end] < before) {
+            end++;
+        }
+        for (int batchStart = from; batchStart < end; batchStart += GROUP_DOCUMENT_BATCH_SIZE) {
+            List<Long> batch = Arrays.stream(groupVisible, batchStart, Math.min(end, batchStart + GROUP_DOCUMENT_BATCH_SIZE))
+                    .boxed()
+                    .toList();
+            documentRepository.findAllById(batch).stream()
+                    .sorted(Comparator.comparing(DocumentEntity::getId))
+                    .forEach(emit);
+        }
+        return end;
+    }
+
+    private boolean canReadDirectly(DocumentEntity document, String actorUserId) {
         return document.getOwner().getId().equals(actorUserId)
                 || document.getPermissions().stream().anyMatch((permission) -> permission.getUser().getId().equals(actorUserId));
     }
 
+    private boolean canRead(DocumentResponse document, String actorUserId) {
+        return document.ownerUserId().equals(actorUserId)
+                || document.sharedWith().containsKey(actorUserId)
+                || groupVisibilityIndex.roleFor(actorUserId, document.id()) != null;
+    }
+
     private boolean canEdit(DocumentEntity document, String actorUserId) {
         if (document.getOwner().getId().equals(actorUserId)) {
             return true;
         }
 
-        return document.getPermissions().stream().anyMatch((permission) ->
+        boolean directEditor = document.getPermissions().stream().anyMatch((permission) ->
                 permission.getUser().getId().equals(actorUserId)
                         && permission.getRole() == PermissionRole.EDITOR
         );
+        if (directEditor) {
+            return true;
+        }
+        AccessRole groupRole = groupVisibilityIndex.roleFor(actorUserId, document.getId());
+        return groupRole != null && groupRole.canEdit();
+    }
+
+    private void publish(String eventType, String aggregateId, Map<String, Object> payload) {
+        domainEventPublisher.publish(eventType, aggregateId, payload);
+        documentListCache.evict(aggregateId, payload);
     }
 
     private DocumentResponse toResponse(DocumentEntity document) {
+        return toResponse(document, contentOf(document));
+    }
+
+    /**
+     * Hands a batch of streamed documents to {@code sink} with shares read in one query instead
+     * of initializing each document's permissions, then detaches and clears the batch.
+     */
+    private void emitBatch(List<DocumentEntity> batch, Consumer<DocumentResponse> sink) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<Long, Map<String, String>> sharesByDocument = new HashMap<>();
+        List<Long> documentIds = batch.stream().map(DocumentEntity::getId).toList();
+        for (DocumentShare share : documentPermissionRepository.findSharesByDocumentIds(documentIds)) {
+            sharesByDocument.computeIfAbsent(share.documentId(), (id) -> new LinkedHashMap<>())
+                    .put(share.userId(), share.role().name().toLowerCase(Locale.ROOT));
+        }
+        for (DocumentEntity document : batch) {
+            Map<String, String> sharedWith = sharesByDocument.getOrDefault(document.getId(), new LinkedHashMap<>());
+            sink.accept(toResponse(document, contentOf(document), sharedWith));
+            entityManager.detach(document);
+        }
+        batch.clear();
+    }
+
+    private DocumentResponse toResponse(DocumentEntity document, String content) {
         Map<String, String> sharedWith = new LinkedHashMap<>();
         document.getPermissions().stream()
                 .sorted((left, right) -> left.getUser().getId().compareTo(right.getUser().getId()))
@@ -200,15 +668,64 @@ public class DocumentService {
                         permission.getUser().getId(),
                         permission.getRole().name().toLowerCase(Locale.ROOT)
                 ));
+        return toResponse(document, content, sharedWith);
+    }
 
+    private DocumentResponse toResponse(DocumentEntity document, String content, Map<String, String> sharedWith) {
         return new DocumentResponse(
                 document.getId(),
                 document.getOwner().getId(),
                 document.getTitle(),
-                document.getContent(),
+                content,
                 sharedWith,
                 document.getCreatedAt(),
                 document.getUpdatedAt()
         );
     }
-}
+
+    private String contentOf(DocumentEntity document) {
+        if (!document.isContentTiered()) {
+            return document.getContent();
+        }
+        return contentSegmentStore.read(coldContentPointer(document));
+    }
+
+    private static ColdContentPointer coldContentPointer(DocumentEntity document) {
+        return new ColdContentPointer(
+                document.getId(),
+                document.getContentSegment(),
+                document.getContentOffset(),
+                document.getContentLength()
+        );
+    }
+
+    private static DocumentResponse toResponse(List<DocumentHead> rows, String content) {
+        Map<String, String> sharedWith = new LinkedHashMap<>();
+        rows.stream()
+                .filter((row) -> row.sharedUserId() != null)
+                .forEach((row) -> sharedWith.put(row.sharedUserId(), row.sharedRole().name().toLowerCase(Locale.ROOT)));
+
+        DocumentHead head = rows.get(0);
+        return new DocumentResponse(
+                head.id(),
+                head.ownerUserId(),
+                head.title(),
+                content,
+                sharedWith,
+                head.createdAt(),
+                head.updatedAt()
+        );
+    }
+
+    private static DocumentResponse withContent(DocumentResponse document, String content) {
+        return new DocumentResponse(
+                document.id(),
+                document.ownerUserId(),
+                document.title(),
+                content,
+                document.sharedWith(),
+                document.createdAt(),
+                document.updatedAt()
+        );
+    }
+}
\ No newline at end of file
@@ -0,0 +1,6 @@
+package com.relaydocs.documentservice.service;
+
+import com.relaydocs.documentservice.api.dto.DocumentResponse;
+
+public record DocumentSnapshot(long version, DocumentResponse document) {
+}
@@ -0,0 +1,139 @@
+package com.relaydocs.documentservice.service;
+
+import com.relaydocs.documentservice.api.dto.GroupResponse;
+import com.relaydocs.documentservice.domain.AuditAction;
+import com.relaydocs.documentservice.domain.DocumentChangeType;
+import com.relaydocs.documentservice.events.DomainEventPublisher;
+import com.relaydocs.documentservice.persistence.UserEntity;
+import com.relaydocs.documentservice.persistence.UserGroupEntity;
+import com.relaydocs.documentservice.persistence.UserGroupMemberEntity;
+import com.relaydocs.documentservice.persistence.UserGroupMemberId;
+import com.relaydocs.documentservice.persistence.UserGroupMemberRepository;
+import com.relaydocs.documentservice.persistence.UserGroupRepository;
+import com.relaydocs.documentservice.persistence.UserRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups are owned by the user who created them, who is also their first member. Only the owner
+ * changes membership, except that any member may leave.
+ */
+@Service
+public class GroupService {
+
+    public static final String GROUP_AGGREGATE_PREFIX = "group:";
+
+    private final UserGroupRepository userGroupRepository;
+    private final UserGroupMemberRepository userGroupMemberRepository;
+    private final UserRepository userRepository;
+    private final GroupVisibilityIndex groupVisibilityIndex;
+    private final DomainEventPublisher domainEventPublisher;
+    private final DocumentListCache documentListCache;
+    private final DocumentChangeLog documentChangeLog;
+    private final AuditLog auditLog;
+
+    public GroupService(
+            UserGroupRepository userGroupRepository,
+            UserGroupMemberRepository userGroupMemberRepository,
+            UserRepository userRepository,
+            GroupVisibilityIndex groupVisibilityIndex,
+            DomainEventPublisher domainEventPublisher,
+            DocumentListCache documentListCache,
+            DocumentChangeLog documentChangeLog,
+            AuditLog auditLog
+    ) {
+        this.userGroupRepository = userGroupRepository;
+        this.userGroupMemberRepository = userGroupMemberRepository;
+        this.userRepository = userRepository;
+        this.groupVisibilityIndex = groupVisibilityIndex;
+        this.domainEventPublisher = domainEventPublisher;
+        this.documentListCache = documentListCache;
+        this.documentChangeLog = documentChangeLog;
+        this.auditLog = auditLog;
+    }
+
+    @Transactional
+    public GroupResponse createGroup(String actorUserId, String name) {
+        getOrCreateUser(actorUserId);
+        UserGroupEntity group = userGroupRepository.save(new UserGroupEntity(actorUserId, name));
+        addMembership(group, actorUserId, actorUserId);
+        return toResponse(group);
+    }
+
+    @Transactional
+    public List<GroupResponse> listGroups(String actorUserId) {
+        return userGroupRepository.findOwnedOrJoined(actorUserId)
+                .stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    @Transactional
+    public GroupResponse addMember(Long groupId, String actorUserId, String userId) {
+        UserGroupEntity group = getGroupOrThrow(groupId);
+        if (!group.getOwnerUserId().equals(actorUserId)) {
+            throw new ApiForbiddenException("Forbidden");
+        }
+        if (!userGroupMemberRepository.existsById(new UserGroupMemberId(groupId, userId))) {
+            getOrCreateUser(userId);
+            addMembership(group, userId, actorUserId);
+        }
+        return toResponse(group);
+    }
+
+    @Transactional
+    public GroupResponse removeMember(Long groupId, String actorUserId, String userId) {
+        UserGroupEntity group = getGroupOrThrow(groupId);
+        if (!group.getOwnerUserId().equals(actorUserId) && !actorUserId.equals(userId)) {
+            throw new ApiForbiddenException("Forbidden");
+        }
+        UserGroupMemberEntity membership = userGroupMemberRepository.findById(new UserGroupMemberId(groupId, userId))
+                .orElseThrow(() -> new ApiNotFoundException("Member not found"));
+        userGroupMemberRepository.delete(membership);
+        groupVisibilityIndex.membershipChanged(groupId, userId, false);
+        for (long documentId : groupVisibilityIndex.documentsSharedWith(groupId)) {
+            documentChangeLog.recordGroupAccessEnded(List.of(userId), groupId, documentId);
+        }
+        publish("group.member.removed", group, userId, actorUserId);
+        auditLog.recordOnCommit(AuditAction.GROUP_MEMBER_REMOVED, actorUserId, userId, null, groupId, null);
+        return toResponse(group);
+    }
+
+    private void addMembership(UserGroupEntity group, String userId, String actorUserId) {
+        userGroupMemberRepository.save(new UserGroupMemberEntity(group.getId(), userId));
+        groupVisibilityIndex.membershipChanged(group.getId(), userId, true);
+        for (long documentId : groupVisibilityIndex.documentsSharedWith(group.getId())) {
+            documentChangeLog.record(userId, documentId, DocumentChangeType.UPSERT);
+        }
+        publish("group.member.added", group, userId, actorUserId);
+        auditLog.recordOnCommit(AuditAction.GROUP_MEMBER_ADDED, actorUserId, userId, null, group.getId(), null);
+    }
+
+    private void publish(String eventType, UserGroupEntity group, String targetUserId, String actorUserId) {
+        String aggregateId = GROUP_AGGREGATE_PREFIX + group.getId();
+        Map<String, Object> payload = Map.of(
+                "groupId", group.getId(),
+                "actorUserId", actorUserId,
+                "targetUserId", targetUserId
+        );
+        domainEventPublisher.publish(eventType, aggregateId, payload);
+        documentListCache.evict(aggregateId, payload);
+    }
+
+    private UserGroupEntity getGroupOrThrow(Long groupId) {
+        return userGroupRepository.findById(groupId)
+                .orElseThrow(() -> new ApiNotFoundException("Group not found"));
+    }
+
+    private UserEntity getOrCreateUser(String userId) {
+        return userRepository.findById(userId)
+                .orElseGet(() -> userRepository.save(new UserEntity(userId, userId + "@relaydocs.local")));
+    }
+
+    private GroupResponse toResponse(UserGroupEntity group) {
+        return new GroupResponse(group.getId(), group.getOwnerUserId(), group.getName(), group.getCreatedAt());
+    }
+}
@@ -0,0 +1,391 @@
+package com.relaydocs.documentservice.service;
+
+import com.relaydocs.documentservice.domain.AccessRole;
+import com.relaydocs.documentservice.domain.DocumentIdBitmap;
+import com.relaydocs.documentservice.domain.PermissionRole;
+import com.relaydocs.documentservice.persistence.DocumentGroupPermissionEntity;
+import com.relaydocs.documentservice.persistence.DocumentGroupPermissionRepository;
+import com.relaydocs.documentservice.persistence.GroupGrant;
+import com.relaydocs.documentservice.persistence.UserGroupMemberId;
+import com.relaydocs.documentservice.persistence.UserGroupMemberRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory view of group sharing: per group, a {@link DocumentIdBitmap} of the documents shared
+ * with it (and a second one for those shared as editor), plus every user's group memberships. A
+ * member's visible documents are the union of their groups' bitmaps, cached for recently active
+ * users and patched in place as grants and memberships change, so neither access checks nor
+ * listings ever query per-member rows.
+ * <p>
+ * Everything is loaded when the application is ready and reloaded every
+ * {@code relaydocs.groups.reload-interval}. Local changes are applied after their transaction
+ * commits; other nodes re-read the affected rows when they see the domain event, and otherwise
+ * catch up on their next reload. Changes applied while a load reads its snapshot are replayed
+ * over it, so a snapshot read before a change committed cannot undo that change.
+ */
+@Component
+public class GroupVisibilityIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GroupVisibilityIndex.class);
+    private static final long[] NO_GROUPS = new long[0];
+
+    private final UserGroupMemberRepository userGroupMemberRepository;
+    private final DocumentGroupPermissionRepository documentGroupPermissionRepository;
+    private final int cachedUserBitmaps;
+    private final Map<Long, GroupGrants> grantsByGroup = new HashMap<>();
+    private final Map<String, long[]> groupsByUser = new HashMap<>();
+    private final Map<Long, Set<String>> membersByGroup = new HashMap<>();
+    private final LinkedHashMap<String, DocumentIdBitmap> readableByUser = new LinkedHashMap<>(64, 0.75f, true);
+    private final Object loadLock = new Object();
+    private final boolean broadcastEnabled;
+    private final Duration reloadInterval;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private volatile boolean loaded;
+    // Changes applied since the running load started reading; null when no load is running.
+    private List<Runnable> changesDuringLoad;
+
+    public GroupVisibilityIndex(
+            UserGroupMemberRepository userGroupMemberRepository,
+            DocumentGroupPermissionRepository documentGroupPermissionRepository,
+            GroupVisibilityProperties properties,
+            @Value("#{${relaydocs.events.kafka.enabled:false} and ${relaydocs.events.kafka.consumer-enabled:false}}")
+            boolean broadcastEnabled,
+            MeterRegistry meterRegistry
+    ) {
+        this.userGroupMemberRepository = userGroupMemberRepository;
+        this.documentGroupPermissionRepository = documentGroupPermissionRepository;
+        this.cachedUserBitmaps = properties.getCachedUserBitmaps();
+        this.broadcastEnabled = broadcastEnabled;
+        this.reloadInterval = properties.getReloadInterval();
+        Gauge.builder("relaydocs.groups.indexed", this, (index) -> index.sizes()[0]).register(meterRegistry);
+        Gauge.builder("relaydocs.groups.members.indexed", this, (index) -> index.sizes()[1]).register(meterRegistry);
+        Gauge.builder("relaydocs.groups.cached.user.bitmaps", this, (index) -> index.sizes()[2]).register(meterRegistry);
+
+        this.scheduler = new ScheduledThreadPoolExecutor(1, (runnable) -> {
+            Thread thread = new Thread(runnable, "group-visibility-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = reloadInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::reloadSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        ensureLoaded();
+        if (!broadcastEnabled && sizes()[0] > 0) {
+            LOGGER.warn("Documents are shared with groups but this node does not consume domain events "
+                    + "(relaydocs.events.kafka.enabled and relaydocs.events.kafka.consumer-enabled). With more than one "
+                    + "node, group changes made on other nodes reach this one only on its reload every {}.", reloadInterval);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Replaces the whole index with the current rows; changes applied meanwhile are kept.
+     */
+    public void reload() {
+        synchronized (loadLock) {
+            load();
+            loaded = true;
+        }
+    }
+
+    /**
+     * @return the best role the user holds on the document through a group, or null
+     */
+    public AccessRole roleFor(String userId, long documentId) {
+        ensureLoaded();
+        synchronized (this) {
+            if (!readableBitmap(userId).contains(documentId)) {
+                return null;
+            }
+            for (long groupId : groupsByUser.getOrDefault(userId, NO_GROUPS)) {
+                GroupGrants grants = grantsByGroup.get(groupId);
+                if (grants != null && grants.editable.contains(documentId)) {
+                    return AccessRole.EDITOR;
+                }
+            }
+            return AccessRole.VIEWER;
+        }
+    }
+
+    /**
+     * @return ids of the documents the user can read through groups, ascending
+     */
+    public long[] readableDocuments(String userId) {
+        ensureLoaded();
+        synchronized (this) {
+            return readableBitmap(userId).toArray();
+        }
+    }
+
+    public Set<String> membersOf(long groupId) {
+        ensureLoaded();
+        synchronized (this) {
+            return Set.copyOf(membersByGroup.getOrDefault(groupId, Set.of()));
+        }
+    }
+
+    /**
+     * @return ids of the documents shared with the group, ascending
+     */
+    public long[] documentsSharedWith(long groupId) {
+        ensureLoaded();
+        synchronized (this) {
+            GroupGrants grants = grantsByGroup.get(groupId);
+            return grants == null ? new long[0] : grants.readable.toArray();
+        }
+    }
+
+    /**
+     * @return whether the user can read the document through a group other than {@code groupId}
+     */
+    public boolean readableOutsideGroup(String userId, long groupId, long documentId) {
+        ensureLoaded();
+        synchronized (this) {
+            return readableThroughOtherGroup(userId, groupId, documentId);
+        }
+    }
+
+    /**
+     * Records a grant change made by the current transaction once it commits.
+     *
+     * @param role the group's new role on the document, or null when the grant was removed
+     */
+    public void grantChanged(long groupId, long documentId, PermissionRole role) {
+        afterCommit(() -> applyChange(() -> applyGrant(groupId, documentId, role)));
+    }
+
+    public void membershipChanged(long groupId, String userId, boolean member) {
+        afterCommit(() -> applyChange(() -> applyMembership(groupId, userId, member)));
+    }
+
+    /**
+     * Re-reads one grant after another node changed it.
+     */
+    public void refreshGrant(long groupId, long documentId) {
+        PermissionRole role = documentGroupPermissionRepository.findByDocumentIdAndGroupId(documentId, groupId)
+                .map(DocumentGroupPermissionEntity::getRole)
+                .orElse(null);
+        applyChange(() -> applyGrant(groupId, documentId, role));
+    }
+
+    /**
+     * Re-reads one membership after another node changed it.
+     */
+    public void refreshMembership(long groupId, String userId) {
+        boolean member = userGroupMemberRepository.existsById(new UserGroupMemberId(groupId, userId));
+        applyChange(() -> applyMembership(groupId, userId, member));
+    }
+
+    synchronized void applyGrant(long groupId, long documentId, PermissionRole role) {
+        GroupGrants grants = grantsByGroup.computeIfAbsent(groupId, (ignored) -> new GroupGrants());
+        if (role == null) {
+            grants.readable.remove(documentId);
+            grants.editable.remove(documentId);
+        } else {
+            grants.readable.add(documentId);
+            if (role == PermissionRole.EDITOR) {
+                grants.editable.add(documentId);
+            } else {
+                grants.editable.remove(documentId);
+            }
+        }
+        if (grants.readable.isEmpty()) {
+            grantsByGroup.remove(groupId);
+        }
+
+        for (String member : membersByGroup.getOrDefault(groupId, Set.of())) {
+            DocumentIdBitmap readable = readableByUser.get(member);
+            if (readable == null) {
+                continue;
+            }
+            if (role != null) {
+                readable.add(documentId);
+            } else if (!readableThroughOtherGroup(member, groupId, documentId)) {
+                readable.remove(documentId);
+            }
+        }
+    }
+
+    synchronized void applyMembership(long groupId, String userId, boolean member) {
+        long[] groups = groupsByUser.getOrDefault(userId, NO_GROUPS);
+        int index = Arrays.binarySearch(groups, groupId);
+        if (member == index >= 0) {
+            return;
+        }
+
+        if (member) {
+            long[] updated = Arrays.copyOf(groups, groups.length + 1);
+            int insertAt = -index - 1;
+            System.arraycopy(groups, insertAt, updated, insertAt + 1, groups.length - insertAt);
+            updated[insertAt] = groupId;
+            groupsByUser.put(userId, updated);
+            membersByGroup.computeIfAbsent(groupId, (ignored) -> new HashSet<>()).add(userId);
+            DocumentIdBitmap readable = readableByUser.get(userId);
+            GroupGrants grants = grantsByGroup.get(groupId);
+            if (readable != null && grants != null) {
+                readable.or(grants.readable);
+            }
+        } else {
+            long[] updated = new long[groups.length - 1];
+            System.arraycopy(groups, 0, updated, 0, index);
+            System.arraycopy(groups, index + 1, updated, index, groups.length - index - 1);
+            if (updated.length == 0) {
+                groupsByUser.remove(userId);
+            } else {
+                groupsByUser.put(userId, updated);
+            }
+            Set<String> members = membersByGroup.get(groupId);
+            if (members != null && members.remove(userId) && members.isEmpty()) {
+                membersByGroup.remove(groupId);
+            }
+            // Documents may still be visible through another group, so rebuild rather than subtract.
+            readableByUser.remove(userId);
+        }
+    }
+
+    private DocumentIdBitmap readableBitmap(String userId) {
+        DocumentIdBitmap cached = readableByUser.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        DocumentIdBitmap readable = new DocumentIdBitmap();
+        for (long groupId : groupsByUser.getOrDefault(userId, NO_GROUPS)) {
+            GroupGrants grants = grantsByGroup.get(groupId);
+            if (grants != null) {
+                readable.or(grants.readable);
+            }
+        }
+        if (readable.isEmpty()) {
+            // Most users see nothing through groups; no need to hold an entry for them.
+            return readable;
+        }
+        readableByUser.put(userId, readable);
+        if (readableByUser.size() > cachedUserBitmaps) {
+            readableByUser.remove(readableByUser.keySet().iterator().next());
+        }
+        return readable;
+    }
+
+    private boolean readableThroughOtherGroup(String userId, long excludedGroupId, long documentId) {
+        for (long groupId : groupsByUser.getOrDefault(userId, NO_GROUPS)) {
+            GroupGrants grants = grantsByGroup.get(groupId);
+            if (groupId != excludedGroupId && grants != null && grants.readable.contains(documentId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (loadLock) {
+            if (loaded) {
+                return;
+            }
+            load();
+            loaded = true;
+        }
+    }
+
+    private void load() {
+        synchronized (this) {
+            changesDuringLoad = new ArrayList<>();
+        }
+        List<GroupGrant> grants;
+        List<UserGroupMemberId> memberships;
+        try {
+            grants = documentGroupPermissionRepository.findAllGrants();
+            memberships = userGroupMemberRepository.findAllIds();
+        } catch (RuntimeException exception) {
+            synchronized (this) {
+                changesDuringLoad = null;
+            }
+            throw exception;
+        }
+        synchronized (this) {
+            grantsByGroup.clear();
+            groupsByUser.clear();
+            membersByGroup.clear();
+            readableByUser.clear();
+            for (GroupGrant grant : grants) {
+                applyGrant(grant.groupId(), grant.documentId(), grant.role());
+            }
+            for (UserGroupMemberId membership : memberships) {
+                applyMembership(membership.getGroupId(), membership.getUserId(), true);
+            }
+            // The snapshot may predate these changes; applying them again restores their outcome.
+            List<Runnable> changes = changesDuringLoad;
+            changesDuringLoad = null;
+            changes.forEach(Runnable::run);
+        }
+    }
+
+    private synchronized void applyChange(Runnable change) {
+        change.run();
+        if (changesDuringLoad != null) {
+            changesDuringLoad.add(change);
+        }
+    }
+
+    private void reloadSafely() {
+        try {
+            reload();
+        } catch (RuntimeException exception) {
+            LOGGER.warn("Failed to reload group visibility; keeping the current index", exception);
+        }
+    }
+
+    private synchronized int[] sizes() {
+        return new int[] {grantsByGroup.size(), groupsByUser.size(), readableByUser.size()};
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private static final class GroupGrants {
+
+        private final DocumentIdBitmap readable = new DocumentIdBitmap();
+        private final DocumentIdBitmap editable = new DocumentIdBitmap();
+    }
+}
@@ -0,0 +1,32 @@
+package com.relaydocs.documentservice.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "relaydocs.groups")
+public class GroupVisibilityProperties {
+
+    // Users whose merged group bitmap is kept; others are rebuilt from their groups' bitmaps on demand.
+    private int cachedUserBitmaps = 10_000;
+    // Full reload from the database; bounds how long a change missed by the broadcast consumer is invisible.
+    private Duration reloadInterval = Duration.ofMinutes(1);
+
+    public int getCachedUserBitmaps() {
+        return cachedUserBitmaps;
+    }
+
+    public void setCachedUserBitmaps(int cachedUserBitmaps) {
+        this.cachedUserBitmaps = cachedUserBitmaps;
+    }
+
+    public Duration getReloadInterval() {
+        return reloadInterval;
+    }
+
+    public void setReloadInterval(Duration reloadInterval) {
+        this.reloadInterval = reloadInterval;
+    }
+}
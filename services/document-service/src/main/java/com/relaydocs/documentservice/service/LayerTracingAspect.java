@@ -0,0 +1,90 @@
+package com.relaydocs.documentservice.service;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Adds a child span for every controller, service, repository and domain event publisher call
+ * made inside a traced request or consumed event, so a trace shows where its time went. Calls
+ * with no current span (startup, scheduled jobs, the audit writer) are not traced: they would
+ * otherwise each start a trace of their own.
+ */
+@Aspect
+@Component
+public class LayerTracingAspect {
+
+    private static final String APPLICATION_PACKAGE = "com.relaydocs.documentservice";
+
+    private final Tracer tracer;
+
+    public LayerTracingAspect(ObjectProvider<Tracer> tracer) {
+        this.tracer = tracer.getIfAvailable(() -> Tracer.NOOP);
+    }
+
+    @Around("@within(org.springframework.web.bind.annotation.RestController)")
+    public Object traceController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, "controller", targetName(joinPoint), null);
+    }
+
+    @Around("within(com.relaydocs.documentservice.service..*) && "
+            + "(@within(org.springframework.stereotype.Service) || within(com.relaydocs.documentservice.service.PasswordHasher))")
+    public Object traceService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, "service", targetName(joinPoint), null);
+    }
+
+    @Around("execution(public * org.springframework.data.repository.Repository+.*(..))")
+    public Object traceRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, "repository", repositoryName(joinPoint), Span.Kind.CLIENT);
+    }
+
+    @Around("execution(* com.relaydocs.documentservice.events.DomainEventPublisher+.publish(..))")
+    public Object tracePublish(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, "event", targetName(joinPoint), Span.Kind.PRODUCER);
+    }
+
+    private Object trace(ProceedingJoinPoint joinPoint, String layer, String typeName, Span.Kind kind) throws Throwable {
+        if (tracer.currentSpan() == null) {
+            return joinPoint.proceed();
+        }
+        // Builders without an explicit parent continue the current span.
+        Span.Builder builder = tracer.spanBuilder()
+                .name(typeName + "." + joinPoint.getSignature().getName())
+                .tag("relaydocs.layer", layer);
+        if (kind != null) {
+            builder.kind(kind);
+        }
+        Span span = builder.start();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+            return joinPoint.proceed();
+        } catch (Throwable exception) {
+            span.error(exception);
+            throw exception;
+        } finally {
+            span.end();
+        }
+    }
+
+    private static String targetName(ProceedingJoinPoint joinPoint) {
+        Object target = joinPoint.getTarget();
+        return target == null
+                ? joinPoint.getSignature().getDeclaringType().getSimpleName()
+                : ClassUtils.getUserClass(target).getSimpleName();
+    }
+
+    private static String repositoryName(ProceedingJoinPoint joinPoint) {
+        // The target is Spring Data's generic implementation; name the application interface instead.
+        for (Class<?> type : AopProxyUtils.proxiedUserInterfaces(joinPoint.getThis())) {
+            if (type.getName().startsWith(APPLICATION_PACKAGE)) {
+                return type.getSimpleName();
+            }
+        }
+        return joinPoint.getSignature().getDeclaringType().getSimpleName();
+    }
+}
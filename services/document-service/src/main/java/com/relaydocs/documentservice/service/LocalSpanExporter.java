@@ -0,0 +1,233 @@
+package com.relaydocs.documentservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.common.InstrumentationScopeInfo;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Span exporter that needs no collector: finished spans are kept in a bounded in-memory window
+ * for {@code /actuator/spans} and, when {@code relaydocs.tracing.file} is set, appended to that
+ * file as OTLP/JSON export requests, one per line, which OpenTelemetry tooling can replay. The
+ * tracer hands spans over from its batch processor thread, never from a request thread.
+ */
+@Component
+public class LocalSpanExporter implements SpanExporter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalSpanExporter.class);
+
+    private final ObjectMapper objectMapper;
+    private final int capacity;
+    private final Deque<RecordedSpan> recent;
+    private final Path file;
+    private BufferedWriter writer;
+
+    public LocalSpanExporter(ObjectMapper objectMapper, TracingProperties properties) {
+        this.objectMapper = objectMapper;
+        this.capacity = Math.max(0, properties.getRecentSpans());
+        this.recent = new ArrayDeque<>(Math.min(capacity, 1024));
+        this.file = properties.getFile() == null || properties.getFile().isBlank() ? null : Path.of(properties.getFile());
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        if (capacity > 0) {
+            synchronized (recent) {
+                for (SpanData span : spans) {
+                    if (recent.size() == capacity) {
+                        recent.removeFirst();
+                    }
+                    recent.addLast(RecordedSpan.from(span));
+                }
+            }
+        }
+        if (file == null) {
+            return CompletableResultCode.ofSuccess();
+        }
+        try {
+            appendToFile(spans);
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException | RuntimeException exception) {
+            LOGGER.warn("Failed to append spans to file. file={}, spans={}", file, spans.size(), exception);
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public synchronized CompletableResultCode shutdown() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException exception) {
+                LOGGER.warn("Failed to close span file. file={}", file, exception);
+            }
+            writer = null;
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    /**
+     * @return the retained spans, oldest first
+     */
+    public List<RecordedSpan> recentSpans() {
+        synchronized (recent) {
+            return new ArrayList<>(recent);
+        }
+    }
+
+    public List<RecordedSpan> trace(String traceId) {
+        List<RecordedSpan> spans = new ArrayList<>();
+        synchronized (recent) {
+            for (RecordedSpan span : recent) {
+                if (span.traceId().equals(traceId)) {
+                    spans.add(span);
+                }
+            }
+        }
+        return spans;
+    }
+
+    private synchronized void appendToFile(Collection<SpanData> spans) throws IOException {
+        if (writer == null) {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        writer.write(objectMapper.writeValueAsString(toOtlpJson(spans)));
+        writer.newLine();
+        writer.flush();
+    }
+
+    /**
+     * Encodes spans as an OTLP {@code ExportTraceServiceRequest} in the protobuf JSON mapping:
+     * ids in hex, 64-bit integers as strings, enums as numbers.
+     */
+    ObjectNode toOtlpJson(Collection<SpanData> spans) {
+        Map<Resource, Map<InstrumentationScopeInfo, List<SpanData>>> grouped = new LinkedHashMap<>();
+        for (SpanData span : spans) {
+            grouped.computeIfAbsent(span.getResource(), (resource) -> new LinkedHashMap<>())
+                    .computeIfAbsent(span.getInstrumentationScopeInfo(), (scope) -> new ArrayList<>())
+                    .add(span);
+        }
+
+        ObjectNode request = objectMapper.createObjectNode();
+        ArrayNode resourceSpans = request.putArray("resourceSpans");
+        for (Map.Entry<Resource, Map<InstrumentationScopeInfo, List<SpanData>>> byResource : grouped.entrySet()) {
+            ObjectNode resourceNode = resourceSpans.addObject();
+            writeAttributes(resourceNode.putObject("resource").putArray("attributes"), byResource.getKey().getAttributes());
+            ArrayNode scopeSpans = resourceNode.putArray("scopeSpans");
+            for (Map.Entry<InstrumentationScopeInfo, List<SpanData>> byScope : byResource.getValue().entrySet()) {
+                ObjectNode scopeNode = scopeSpans.addObject();
+                ObjectNode scope = scopeNode.putObject("scope").put("name", byScope.getKey().getName());
+                if (byScope.getKey().getVersion() != null) {
+                    scope.put("version", byScope.getKey().getVersion());
+                }
+                ArrayNode spanNodes = scopeNode.putArray("spans");
+                for (SpanData span : byScope.getValue()) {
+                    writeSpan(spanNodes.addObject(), span);
+                }
+            }
+        }
+        return request;
+    }
+
+    private void writeSpan(ObjectNode node, SpanData span) {
+        node.put("traceId", span.getTraceId());
+        node.put("spanId", span.getSpanId());
+        if (span.getParentSpanContext().isValid()) {
+            node.put("parentSpanId", span.getParentSpanId());
+        }
+        node.put("name", span.getName());
+        // OTLP numbers kinds from 1 (internal) in the same order as the API enum.
+        node.put("kind", span.getKind().ordinal() + 1);
+        node.put("startTimeUnixNano", Long.toString(span.getStartEpochNanos()));
+        node.put("endTimeUnixNano", Long.toString(span.getEndEpochNanos()));
+        writeAttributes(node.putArray("attributes"), span.getAttributes());
+        ObjectNode status = node.putObject("status");
+        status.put("code", switch (span.getStatus().getStatusCode()) {
+            case UNSET -> 0;
+            case OK -> 1;
+            case ERROR -> 2;
+        });
+        if (!span.getStatus().getDescription().isEmpty()) {
+            status.put("message", span.getStatus().getDescription());
+        }
+    }
+
+    private static void writeAttributes(ArrayNode target, Attributes attributes) {
+        attributes.forEach((key, value) -> {
+            ObjectNode attribute = target.addObject();
+            attribute.put("key", key.getKey());
+            ObjectNode anyValue = attribute.putObject("value");
+            switch (key.getType()) {
+                case BOOLEAN -> anyValue.put("boolValue", (Boolean) value);
+                case LONG -> anyValue.put("intValue", value.toString());
+                case DOUBLE -> anyValue.put("doubleValue", (Double) value);
+                default -> anyValue.put("stringValue", value.toString());
+            }
+        });
+    }
+
+    /**
+     * A finished span as retained in memory.
+     */
+    public record RecordedSpan(
+            String traceId,
+            String spanId,
+            String parentSpanId,
+            String name,
+            String kind,
+            long startEpochNanos,
+            long durationNanos,
+            boolean error,
+            Map<String, String> attributes
+    ) {
+
+        static RecordedSpan from(SpanData span) {
+            Map<String, String> attributes = new LinkedHashMap<>();
+            span.getAttributes().forEach((AttributeKey<?> key, Object value) -> attributes.put(key.getKey(), String.valueOf(value)));
+            return new RecordedSpan(
+                    span.getTraceId(),
+                    span.getSpanId(),
+                    span.getParentSpanContext().isValid() ? span.getParentSpanId() : null,
+                    span.getName(),
+                    span.getKind().name(),
+                    span.getStartEpochNanos(),
+                    span.getEndEpochNanos() - span.getStartEpochNanos(),
+                    span.getStatus().getStatusCode() == StatusCode.ERROR,
+                    attributes
+            );
+        }
+    }
+}
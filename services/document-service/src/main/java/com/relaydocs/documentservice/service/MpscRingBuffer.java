@@ -0,0 +1,76 @@
+package com.relaydocs.documentservice.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded multi-producer, single-consumer ring buffer without locks. Producers claim a sequence
+ * with a CAS on the tail and then publish their element into its slot; the consumer takes slots
+ * in sequence order and stops at the first one that is claimed but not yet published. Only one
+ * thread may call {@link #drainTo} at a time.
+ */
+final class MpscRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Written only by the consumer; volatile so producers see freed slots.
+    private volatile long head;
+
+    MpscRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two, got " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @return false when the buffer is full
+     */
+    boolean offer(E element) {
+        while (true) {
+            long sequence = tail.get();
+            if (sequence - head > mask) {
+                return false;
+            }
+            if (tail.compareAndSet(sequence, sequence + 1)) {
+                slots.lazySet((int) sequence & mask, element);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Moves up to {@code limit} published elements, oldest first, into {@code target}.
+     *
+     * @return the number of elements moved
+     */
+    int drainTo(List<? super E> target, int limit) {
+        long sequence = head;
+        int drained = 0;
+        while (drained < limit) {
+            int index = (int) sequence & mask;
+            E element = slots.get(index);
+            if (element == null) {
+                break;
+            }
+            // Clear before advancing the head so a producer reusing the slot never sees it occupied.
+            slots.lazySet(index, null);
+            target.add(element);
+            sequence++;
+            drained++;
+        }
+        head = sequence;
+        return drained;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
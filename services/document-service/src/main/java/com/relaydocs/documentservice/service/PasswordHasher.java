@@ -0,0 +1,130 @@
+package com.relaydocs.documentservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs bcrypt work on a dedicated bounded pool so auth bursts cannot exhaust request threads.
+ * Submissions beyond the queue capacity are rejected immediately with a 503.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final String BUSY_MESSAGE = "Authentication is temporarily busy";
+
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordHasher(PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+        this.passwordEncoder = new BCryptPasswordEncoder(properties.getBcryptStrength());
+        this.retryAfterSeconds = properties.getRetryAfterSeconds();
+
+        int poolSize = properties.resolvedPoolSize();
+        this.executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        this.encodeTimer = Timer.builder("relaydocs.auth.hashing.duration")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchTimer = Timer.builder("relaydocs.auth.hashing.duration")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("relaydocs.auth.hashing.rejected")
+                .register(meterRegistry);
+        Gauge.builder("relaydocs.auth.hashing.queue.depth", executor, (pool) -> pool.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("relaydocs.auth.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+    }
+
+    public String encode(String rawPassword) {
+        return await(submit(() -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword))));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return await(submit(() -> matchTimer.record(() -> passwordEncoder.matches(rawPassword, encodedPassword))));
+    }
+
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Best-effort variant of {@link #encode(String)} for optional work: returns null instead of
+     * failing the caller when the pool is saturated.
+     */
+    public String encodeIfIdle(String rawPassword) {
+        try {
+            return encode(rawPassword);
+        } catch (ApiServiceUnavailableException exception) {
+            return null;
+        }
+    }
+
+    <T> Future<T> submit(Callable<T> task) {
+        try {
+            return executor.submit(task);
+        } catch (RejectedExecutionException exception) {
+            rejectedCounter.increment();
+            throw new ApiServiceUnavailableException(BUSY_MESSAGE, retryAfterSeconds);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new ApiServiceUnavailableException(BUSY_MESSAGE, retryAfterSeconds);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", exception.getCause());
+        }
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hasher-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.relaydocs.documentservice.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "relaydocs.auth.hashing")
+public class PasswordHashingProperties {
+
+    // 0 sizes the pool to the number of available processors.
+    private int poolSize = 0;
+    private int queueCapacity = 64;
+    private int bcryptStrength = 10;
+    private boolean rehashOnLogin = false;
+    private long retryAfterSeconds = 1;
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getBcryptStrength() {
+        return bcryptStrength;
+    }
+
+    public void setBcryptStrength(int bcryptStrength) {
+        this.bcryptStrength = bcryptStrength;
+    }
+
+    public boolean isRehashOnLogin() {
+        return rehashOnLogin;
+    }
+
+    public void setRehashOnLogin(boolean rehashOnLogin) {
+        this.rehashOnLogin = rehashOnLogin;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public void setRetryAfterSeconds(long retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int resolvedPoolSize() {
+        return poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+    }
+}
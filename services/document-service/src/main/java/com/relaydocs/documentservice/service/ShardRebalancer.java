@@ -0,0 +1,184 @@
+package com.relaydocs.documentservice.service;
+
+import com.relaydocs.documentservice.persistence.ShardDataSources;
+import com.relaydocs.documentservice.persistence.ShardPlacementDirectory;
+import com.relaydocs.documentservice.persistence.ShardingProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSourceUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Moves an owner's documents to another shard while the service keeps serving them. The owner is
+ * pinned to the target first so new documents land there; existing documents then move in
+ * batches. Each batch stays row-locked on the source while it is copied, its placements are
+ * published, and the source rows are deleted. Writes read documents without locking them, so a
+ * concurrent write that read a document before its batch was deleted fails once it writes: its
+ * update finds no row, or its child row has no document. {@link ShardRouter#onDocumentShard}
+ * sees the new placement and reruns such work on the target shard, so writers see a retry
+ * rather than an error. Copies are idempotent, so a failed move can simply be run again. Tiered
+ * content stays where it is: segment pointers are not shard-specific, so they are copied as-is.
+ */
+@Component
+@ConditionalOnProperty(name = "relaydocs.sharding.enabled", havingValue = "true")
+public class ShardRebalancer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    private final ShardDataSources shardDataSources;
+    private final ShardPlacementDirectory directory;
+    private final ShardRouter shardRouter;
+    private final int batchSize;
+
+    public ShardRebalancer(
+            ShardDataSources shardDataSources,
+            ShardPlacementDirectory directory,
+            ShardRouter shardRouter,
+            ShardingProperties properties
+    ) {
+        this.shardDataSources = shardDataSources;
+        this.directory = directory;
+        this.shardRouter = shardRouter;
+        this.batchSize = Math.max(1, properties.getRebalanceBatchSize());
+    }
+
+    public MoveResult moveOwner(String ownerUserId, int targetShard) {
+        if (targetShard < 0 || targetShard >= shardDataSources.size()) {
+            throw new ApiBadRequestException("Unknown shard: " + targetShard);
+        }
+
+        directory.placeOwner(ownerUserId, targetShard);
+        int moved = 0;
+        for (int sourceShard = 0; sourceShard < shardDataSources.size(); sourceShard++) {
+            if (sourceShard == targetShard) {
+                continue;
+            }
+            int source = sourceShard;
+            while (true) {
+                List<Long> batch = shardDataSources.transactionTemplate(source)
+                        .execute((status) -> moveBatch(ownerUserId, source, targetShard));
+                if (batch == null || batch.isEmpty()) {
+                    break;
+                }
+                moved += batch.size();
+                LOGGER.info("Moved document batch. owner={}, from={}, to={}, documents={}",
+                        ownerUserId, source, targetShard, batch.size());
+            }
+        }
+        return new MoveResult(ownerUserId, targetShard, moved);
+    }
+
+    private List<Long> moveBatch(String ownerUserId, int sourceShard, int targetShard) {
+        NamedParameterJdbcTemplate source = new NamedParameterJdbcTemplate(shardDataSources.jdbcTemplate(sourceShard));
+        List<Long> documentIds = source.getJdbcTemplate().queryForList(
+                "SELECT id FROM documents WHERE owner_id = ? ORDER BY id LIMIT ? FOR UPDATE",
+                Long.class,
+                ownerUserId,
+                batchSize
+        );
+        if (documentIds.isEmpty()) {
+            return documentIds;
+        }
+
+        MapSqlParameterSource ids = new MapSqlParameterSource("ids", documentIds);
+        List<Map<String, Object>> documents = source.queryForList(
+                """
+                        SELECT id, owner_id, title, content, content_segment, content_offset, content_length,
+                               created_at, updated_at, version
+                        FROM documents WHERE id IN (:ids)
+                        """,
+                ids
+        );
+        List<Map<String, Object>> permissions = source.queryForList(
+                "SELECT document_id, user_id, role, created_at FROM document_permissions WHERE document_id IN (:ids)",
+                ids
+        );
+        List<Map<String, Object>> access = source.queryForList(
+                "SELECT user_id, document_id, role, updated_at FROM user_document_access WHERE document_id IN (:ids)",
+                ids
+        );
+        List<Map<String, Object>> blocks = source.queryForList(
+                "SELECT document_id, block_key, content, created_at, updated_at FROM document_blocks WHERE document_id IN (:ids)",
+                ids
+        );
+        Set<String> userIds = new LinkedHashSet<>();
+        userIds.add(ownerUserId);
+        permissions.forEach((row) -> userIds.add((String) row.get("user_id")));
+        access.forEach((row) -> userIds.add((String) row.get("user_id")));
+        List<Map<String, Object>> users = source.queryForList(
+                "SELECT id, email, created_at FROM users WHERE id IN (:userIds)",
+                new MapSqlParameterSource("userIds", userIds)
+        );
+
+        NamedParameterJdbcTemplate target = new NamedParameterJdbcTemplate(shardDataSources.jdbcTemplate(targetShard));
+        shardDataSources.transactionTemplate(targetShard).executeWithoutResult((status) -> {
+            target.batchUpdate("""
+                    INSERT INTO users (id, email, created_at) VALUES (:id, :email, :created_at)
+                    ON CONFLICT DO NOTHING
+                    """, batch(users));
+            target.batchUpdate("""
+                    INSERT INTO documents (id, owner_id, title, content, content_segment, content_offset, content_length,
+                                           created_at, updated_at, version)
+                    VALUES (:id, :owner_id, :title, :content, :content_segment, :content_offset, :content_length,
+                            :created_at, :updated_at, :version)
+                    ON CONFLICT (id) DO NOTHING
+                    """, batch(documents));
+            target.batchUpdate("""
+                    INSERT INTO document_permissions (document_id, user_id, role, created_at)
+                    VALUES (:document_id, :user_id, :role, :created_at)
+                    ON CONFLICT (document_id, user_id) DO NOTHING
+                    """, batch(permissions));
+            target.batchUpdate("""
+                    INSERT INTO user_document_access (user_id, document_id, role, updated_at)
+                    VALUES (:user_id, :document_id, :role, :updated_at)
+                    ON CONFLICT (user_id, document_id) DO NOTHING
+                    """, batch(access));
+            target.batchUpdate("""
+                    INSERT INTO document_blocks (document_id, block_key, content, created_at, updated_at)
+                    VALUES (:document_id, :block_key, :content, :created_at, :updated_at)
+                    ON CONFLICT (document_id, block_key) DO NOTHING
+                    """, batch(blocks));
+        });
+
+        try {
+            directory.placeDocuments(documentIds, targetShard);
+        } catch (RuntimeException exception) {
+            // The source rows are still in place and their placements unchanged; drop the copies.
+            shardDataSources.transactionTemplate(targetShard)
+                    .executeWithoutResult((status) -> deleteDocumentRows(target, ids));
+            throw exception;
+        }
+        shardRouter.recordPlacements(documentIds, targetShard);
+
+        source.update("DELETE FROM document_changes WHERE document_id IN (:ids)", ids);
+        deleteDocumentRows(source, ids);
+        return documentIds;
+    }
+
+    /**
+     * Deletes exactly the rows a batch copies, children first, rather than relying on each
+     * table's foreign key cascading. Users are shared with other documents and are kept.
+     */
+    private static void deleteDocumentRows(NamedParameterJdbcTemplate shard, SqlParameterSource ids) {
+        shard.update("DELETE FROM document_blocks WHERE document_id IN (:ids)", ids);
+        shard.update("DELETE FROM user_document_access WHERE document_id IN (:ids)", ids);
+        shard.update("DELETE FROM document_permissions WHERE document_id IN (:ids)", ids);
+        shard.update("DELETE FROM documents WHERE id IN (:ids)", ids);
+    }
+
+    private static SqlParameterSource[] batch(List<Map<String, Object>> rows) {
+        return SqlParameterSourceUtils.createBatch(rows);
+    }
+
+    public record MoveResult(String ownerUserId, int targetShard, int movedDocuments) {
+    }
+}
@@ -0,0 +1,279 @@
+package com.relaydocs.documentservice.service;
+
+import com.relaydocs.documentservice.persistence.ShardContext;
+import com.relaydocs.documentservice.persistence.ShardKeys;
+import com.relaydocs.documentservice.persistence.ShardPlacementDirectory;
+import com.relaydocs.documentservice.persistence.ShardingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Binds the shard for a unit of document work before its transaction starts. With sharding
+ * disabled every method simply runs the work. Placements of moved documents are cached in a
+ * bounded LRU map: each refresh reads only the placements moved since the last one, and a
+ * document whose placement is not cached is found through the directory when its lookup misses.
+ */
+@Component
+public class ShardRouter {
+
+    // moved_at is the move's transaction start time, so a move that commits late can carry an
+    // older moved_at than placements already read; each refresh re-reads this much history.
+    static final Duration PLACEMENT_OVERLAP = Duration.ofMinutes(1);
+
+    private final ShardingProperties properties;
+    private final ShardPlacementDirectory directory;
+    private final Map<Long, Integer> documentPlacements;
+    private final ExecutorService scatterExecutor;
+    private final Counter misroutedCounter;
+    private volatile Long legacyMaxDocumentId;
+    private volatile long placementsLoadedAtNanos;
+    private Instant placementsMovedUntil = Instant.EPOCH;
+    private final Object placementRefreshLock = new Object();
+
+    public ShardRouter(
+            ShardingProperties properties,
+            ObjectProvider<ShardPlacementDirectory> directory,
+            MeterRegistry meterRegistry
+    ) {
+        this.properties = properties;
+        this.directory = directory.getIfAvailable();
+        int cacheSize = Math.max(1, properties.getPlacementCacheSize());
+        this.documentPlacements = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        if (properties.isEnabled()) {
+            AtomicInteger threadSequence = new AtomicInteger();
+            this.scatterExecutor = Executors.newFixedThreadPool(properties.shardCount(), (runnable) -> {
+                Thread thread = new Thread(runnable, "shard-scatter-" + threadSequence.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.scatterExecutor = null;
+        }
+        this.misroutedCounter = Counter.builder("relaydocs.sharding.misrouted").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public int shardCount() {
+        return properties.shardCount();
+    }
+
+    /**
+     * Where new documents of this owner are created. Read from the directory on every call so an
+     * owner moved by the rebalancer never gets new documents on the old shard.
+     */
+    public int shardForOwner(String ownerUserId) {
+        if (!isEnabled()) {
+            return 0;
+        }
+        return directory.ownerShard(ownerUserId)
+                .orElseGet(() -> ShardKeys.shardForOwner(ownerUserId, shardCount()));
+    }
+
+    public int shardForDocument(long documentId) {
+        if (!isEnabled()) {
+            return 0;
+        }
+        refreshPlacementsIfStale();
+        Integer placed = cachedPlacement(documentId);
+        if (placed != null) {
+            return placed;
+        }
+        int home = ShardKeys.homeShardOf(documentId, legacyMaxDocumentId());
+        if (home >= shardCount()) {
+            throw new ApiNotFoundException("Document not found");
+        }
+        return home;
+    }
+
+    public <T> T onOwnerShard(String ownerUserId, Supplier<T> work) {
+        if (!isEnabled()) {
+            return work.get();
+        }
+        return onShard(shardForOwner(ownerUserId), work);
+    }
+
+    /**
+     * Runs {@code work} on the document's shard. A miss can mean another node moved the document
+     * after this node cached its placement, so the directory is consulted once before giving up.
+     * Work that read the document just before a move deleted it fails on its write instead (a
+     * stale update or a child row without its document); those failures are retried the same way
+     * and rethrown unchanged when the document has not moved.
+     */
+    public <T> T onDocumentShard(Long documentId, Supplier<T> work) {
+        if (!isEnabled()) {
+            return work.get();
+        }
+        int shard = shardForDocument(documentId);
+        try {
+            return onShard(shard, work);
+        } catch (ApiNotFoundException
+                 | ApiConflictException
+                 | OptimisticLockingFailureException
+                 | DataIntegrityViolationException exception) {
+            Integer placed = directory.documentShard(documentId).orElse(null);
+            if (placed == null || placed == shard) {
+                throw exception;
+            }
+            misroutedCounter.increment();
+            cachePlacement(documentId, placed);
+            return onShard(placed, work);
+        }
+    }
+
+    public void runOnDocumentShard(Long documentId, Runnable work) {
+        onDocumentShard(documentId, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Scatter-gather: runs {@code work} on every shard in parallel and merges the results in
+     * {@code order}. Each shard's part runs in its own transaction, so the result is not a
+     * single snapshot across shards.
+     */
+    public <T> List<T> onEveryShard(Supplier<List<T>> work, Comparator<? super T> order) {
+        if (!isEnabled()) {
+            return work.get();
+        }
+        List<Future<List<T>>> parts = new ArrayList<>();
+        for (int index = 0; index < shardCount(); index++) {
+            int shard = index;
+            parts.add(scatterExecutor.submit(() -> onShard(shard, work)));
+        }
+
+        List<T> merged = new ArrayList<>();
+        for (Future<List<T>> part : parts) {
+            merged.addAll(await(part));
+        }
+        merged.sort(order);
+        return merged;
+    }
+
+    /**
+     * Runs {@code work} once per shard on the calling thread, shard by shard, for callers that
+     * stream into a sink that is not thread-safe.
+     */
+    public void forEachShard(Runnable work) {
+        if (!isEnabled()) {
+            work.run();
+            return;
+        }
+        for (int index = 0; index < shardCount(); index++) {
+            onShard(index, () -> {
+                work.run();
+                return null;
+            });
+        }
+    }
+
+    void recordPlacements(List<Long> documentIds, int shardIndex) {
+        documentIds.forEach((documentId) -> cachePlacement(documentId, shardIndex));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scatterExecutor != null) {
+            scatterExecutor.shutdownNow();
+        }
+    }
+
+    private <T> T onShard(int shard, Supplier<T> work) {
+        int bound = Objects.requireNonNullElse(ShardContext.current(), 0);
+        if (TransactionSynchronizationManager.isActualTransactionActive() && bound != shard) {
+            throw new IllegalStateException("Cannot switch to shard " + shard + " inside a transaction bound to shard " + bound);
+        }
+        try (ShardContext.Scope ignored = ShardContext.bind(shard)) {
+            return work.get();
+        }
+    }
+
+    private long legacyMaxDocumentId() {
+        Long value = legacyMaxDocumentId;
+        if (value == null) {
+            value = directory.legacyMaxDocumentId();
+            legacyMaxDocumentId = value;
+        }
+        return value;
+    }
+
+    private void refreshPlacementsIfStale() {
+        long interval = properties.getPlacementRefreshInterval().toNanos();
+        if (placementsLoadedAtNanos != 0 && System.nanoTime() - placementsLoadedAtNanos < interval) {
+            return;
+        }
+        synchronized (placementRefreshLock) {
+            if (placementsLoadedAtNanos != 0 && System.nanoTime() - placementsLoadedAtNanos < interval) {
+                return;
+            }
+            List<ShardPlacementDirectory.DocumentPlacement> moved = directory.documentPlacementsMovedSince(
+                    placementsMovedUntil.minus(PLACEMENT_OVERLAP),
+                    properties.getPlacementCacheSize()
+            );
+            // Newest first; cache the oldest first so the newest end up most recently used.
+            for (int index = moved.size() - 1; index >= 0; index--) {
+                ShardPlacementDirectory.DocumentPlacement placement = moved.get(index);
+                cachePlacement(placement.documentId(), placement.shardIndex());
+                if (placement.movedAt().isAfter(placementsMovedUntil)) {
+                    placementsMovedUntil = placement.movedAt();
+                }
+            }
+            placementsLoadedAtNanos = System.nanoTime();
+        }
+    }
+
+    private Integer cachedPlacement(long documentId) {
+        synchronized (documentPlacements) {
+            return documentPlacements.get(documentId);
+        }
+    }
+
+    private void cachePlacement(long documentId, int shardIndex) {
+        synchronized (documentPlacements) {
+            documentPlacements.put(documentId, shardIndex);
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for shard results", exception);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Shard query failed", exception.getCause());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.relaydocs.documentservice.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "relaydocs.tracing")
+public class TracingProperties {
+
+    // Finished spans kept in memory for /actuator/spans; oldest out first.
+    private int recentSpans = 10000;
+    // OTLP/JSON file that finished spans are appended to, one export request per line; empty disables it.
+    private String file = "";
+
+    public int getRecentSpans() {
+        return recentSpans;
+    }
+
+    public void setRecentSpans(int recentSpans) {
+        this.recentSpans = recentSpans;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+}
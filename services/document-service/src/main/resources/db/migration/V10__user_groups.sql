@@ -0,0 +1,27 @@
+CREATE TABLE user_groups (
+    id BIGSERIAL PRIMARY KEY,
+    owner_id VARCHAR(100) NOT NULL REFERENCES users(id),
+    name VARCHAR(255) NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+CREATE TABLE user_group_members (
+    group_id BIGINT NOT NULL REFERENCES user_groups(id) ON DELETE CASCADE,
+    user_id VARCHAR(100) NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (group_id, user_id)
+);
+
+-- One row per (document, group) however many members the group has.
+CREATE TABLE document_group_permissions (
+    id BIGSERIAL PRIMARY KEY,
+    document_id BIGINT NOT NULL REFERENCES documents(id) ON DELETE CASCADE,
+    group_id BIGINT NOT NULL REFERENCES user_groups(id) ON DELETE CASCADE,
+    role VARCHAR(50) NOT NULL CHECK (role IN ('VIEWER', 'EDITOR')),
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    UNIQUE (document_id, group_id)
+);
+
+CREATE INDEX idx_user_groups_owner_id ON user_groups(owner_id);
+CREATE INDEX idx_user_group_members_user_id ON user_group_members(user_id);
+CREATE INDEX idx_document_group_permissions_group_id ON document_group_permissions(group_id);
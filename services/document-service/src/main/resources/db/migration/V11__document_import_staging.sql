@@ -0,0 +1,11 @@
+-- Bulk imports COPY their rows here and merge them into documents within the same transaction.
+-- Rows never outlive that transaction, so the table skips the WAL.
+CREATE UNLOGGED TABLE document_import_staging (
+    batch_id UUID NOT NULL,
+    line_number INTEGER NOT NULL,
+    document_id BIGINT,
+    title VARCHAR(255) NOT NULL,
+    content TEXT NOT NULL,
+    shared_with JSONB,
+    PRIMARY KEY (batch_id, line_number)
+);
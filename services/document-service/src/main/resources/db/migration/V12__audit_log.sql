@@ -0,0 +1,18 @@
+-- Sign-in, sharing and membership changes, written in batches by the audit log writer.
+-- Partitioned by month so old months can be dropped whole; the application creates upcoming
+-- partitions ahead of time, and the default partition catches anything outside them.
+CREATE TABLE audit_log (
+    occurred_at TIMESTAMPTZ NOT NULL,
+    action VARCHAR(40) NOT NULL,
+    actor_user_id VARCHAR(100),
+    target_user_id VARCHAR(100),
+    document_id BIGINT,
+    group_id BIGINT,
+    detail VARCHAR(255),
+    request_id VARCHAR(100)
+) PARTITION BY RANGE (occurred_at);
+
+CREATE TABLE audit_log_default PARTITION OF audit_log DEFAULT;
+
+CREATE INDEX idx_audit_log_actor ON audit_log (actor_user_id, occurred_at);
+CREATE INDEX idx_audit_log_document ON audit_log (document_id, occurred_at);
@@ -0,0 +1,7 @@
+-- One row per user, locked while that user's change feed entries are written so they commit in seq order.
+CREATE TABLE document_change_locks (
+    user_id VARCHAR(100) PRIMARY KEY
+);
+
+-- Lets compaction find entries superseded by a later one for the same user and document.
+CREATE INDEX idx_document_changes_user_document_seq ON document_changes(user_id, document_id, seq);
@@ -0,0 +1,13 @@
+-- A group's entries stand for every member, so a change to a document shared with a group is one row
+-- however many members the group has; members read them merged with their own entries.
+ALTER TABLE document_changes ALTER COLUMN user_id DROP NOT NULL;
+ALTER TABLE document_changes ADD COLUMN group_id BIGINT;
+ALTER TABLE document_changes ADD CONSTRAINT document_changes_user_or_group CHECK ((user_id IS NULL) <> (group_id IS NULL));
+
+CREATE INDEX idx_document_changes_group_seq ON document_changes(group_id, seq) WHERE group_id IS NOT NULL;
+CREATE INDEX idx_document_changes_group_document_seq ON document_changes(group_id, document_id, seq) WHERE group_id IS NOT NULL;
+
+-- One row per group, locked while that group's change feed entries are written, like document_change_locks.
+CREATE TABLE group_change_locks (
+    group_id BIGINT PRIMARY KEY
+);
@@ -0,0 +1,18 @@
+CREATE TABLE user_document_access (
+    user_id VARCHAR(100) NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    document_id BIGINT NOT NULL REFERENCES documents(id) ON DELETE CASCADE,
+    role VARCHAR(50) NOT NULL CHECK (role IN ('OWNER', 'EDITOR', 'VIEWER')),
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (user_id, document_id)
+);
+
+CREATE INDEX idx_user_document_access_document_id ON user_document_access(document_id);
+
+INSERT INTO user_document_access (user_id, document_id, role, updated_at)
+SELECT owner_id, id, 'OWNER', updated_at
+FROM documents;
+
+INSERT INTO user_document_access (user_id, document_id, role, updated_at)
+SELECT user_id, document_id, role, created_at
+FROM document_permissions
+ON CONFLICT (user_id, document_id) DO NOTHING;
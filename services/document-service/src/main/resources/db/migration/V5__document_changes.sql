@@ -0,0 +1,15 @@
+CREATE TABLE document_changes (
+    seq BIGSERIAL PRIMARY KEY,
+    user_id VARCHAR(100) NOT NULL,
+    document_id BIGINT NOT NULL,
+    change_type VARCHAR(20) NOT NULL CHECK (change_type IN ('UPSERT', 'REVOKE')),
+    changed_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_document_changes_user_seq ON document_changes(user_id, seq);
+
+-- Seed the log so the first delta sync after rollout returns every currently visible document.
+INSERT INTO document_changes (user_id, document_id, change_type)
+SELECT user_id, document_id, 'UPSERT'
+FROM user_document_access
+ORDER BY document_id, user_id;
@@ -0,0 +1,10 @@
+CREATE TABLE document_blocks (
+    id BIGSERIAL PRIMARY KEY,
+    document_id BIGINT NOT NULL REFERENCES documents(id) ON DELETE CASCADE,
+    -- Fractional order keys are base-62 and must compare by code point, not locale collation.
+    block_key VARCHAR(255) COLLATE "C" NOT NULL,
+    content TEXT NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    CONSTRAINT uq_document_blocks_doc_key UNIQUE (document_id, block_key)
+);
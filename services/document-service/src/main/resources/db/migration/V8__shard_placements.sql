@@ -0,0 +1,17 @@
+-- Used only when relaydocs.sharding.enabled=true; the copies on shards other than 0 stay empty.
+CREATE TABLE shard_settings (
+    name VARCHAR(100) PRIMARY KEY,
+    value VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE shard_owner_placements (
+    owner_id VARCHAR(100) PRIMARY KEY,
+    shard_index INTEGER NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+CREATE TABLE shard_document_placements (
+    document_id BIGINT PRIMARY KEY,
+    shard_index INTEGER NOT NULL,
+    moved_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
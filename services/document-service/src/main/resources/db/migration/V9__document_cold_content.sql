@@ -0,0 +1,6 @@
+-- Set when the content has been moved to a local segment file; content is then ''.
+ALTER TABLE documents ADD COLUMN content_segment BIGINT;
+ALTER TABLE documents ADD COLUMN content_offset BIGINT;
+ALTER TABLE documents ADD COLUMN content_length INTEGER;
+
+CREATE INDEX idx_documents_content_segment ON documents(content_segment) WHERE content_segment IS NOT NULL;
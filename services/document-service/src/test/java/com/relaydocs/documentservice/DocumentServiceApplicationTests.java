@@ -1,18 +1,37 @@
 package com.relaydocs.documentservice;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.relaydocs.documentservice.service.AuditLog;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -23,6 +42,15 @@ class DocumentServiceApplicationTests {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     void healthEndpointReturnsOk() throws Exception {
         mockMvc.perform(get("/health"))
@@ -100,6 +128,584 @@ class DocumentServiceApplicationTests {
                 .andExpect(jsonPath("$.document.content").value("Updated by owner"));
     }
 
+    @Test
+    void listDocumentsReturnsOwnedAndSharedDocumentsOnly() throws Exception {
+        String ownedResponse = mockMvc.perform(post("/api/v1/documents")
+                        .header("X-User-Id", "list-owner")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "title": "Owned",
+                                  "content": "Owned body"
+                                }
+                                """))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String ownedId = ownedResponse.replaceAll(".*\\\"id\\\":(\\d+).*", "$1");
+
+        mockMvc.perform(post("/api/v1/documents")
+                        .header("X-User-Id", "list-other")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "title": "Not shared",
+                                  "content": "Hidden body"
+                                }
+                                """))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/api/v1/documents/{id}/share", ownedId)
+                        .header("X-User-Id", "list-owner")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "userId": "list-reader",
+                                  "role": "viewer"
+                                }
+                                """))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/documents").header("X-User-Id", "list-reader"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.documents.length()").value(1))
+                .andExpect(jsonPath("$.documents[0].id").value(Integer.parseInt(ownedId)))
+                .andExpect(jsonPath("$.documents[0].sharedWith.list-reader").value("viewer"));
+
+        mockMvc.perform(get("/api/v1/documents").header("X-User-Id", "list-owner"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.documents.length()").value(1));
+    }
+
+    @Test
+    void groupSharingGrantsAccessToCurrentMembersOnly() throws Exception {
+        String documentResponse = mockMvc.perform(post("/api/v1/documents")
+                        .header("X-User-Id", "group-owner")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "title": "Team doc",
+                                  "content": "Team body"
+                                }
+                                """))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String documentId = documentResponse.replaceAll(".*\\\"id\\\":(\\d+).*", "$1");
+
+        String groupResponse = mockMvc.perform(post("/api/v1/groups")
+                        .header("X-User-Id", "group-owner")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "name": "Team"
+                                }
+                                """))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.group.ownerUserId").value("group-owner"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String groupId = groupResponse.replaceAll(".*\\\"id\\\":(\\d+).*", "$1");
+
+        mockMvc.perform(put("/api/v1/groups/{id}/members/{userId}", groupId, "group-member")
+                        .header("X-User-Id", "group-member"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(put("/api/v1/groups/{id}/members/{userId}", groupId, "group-member")
+                        .header("X-User-Id", "group-owner"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/v1/documents/{id}/group-shares", documentId)
+                        .header("X-User-Id", "group-owner")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "groupId": %s,
+                                  "role": "viewer"
+                                }
+                                """.formatted(groupId)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/documents").header("X-User-Id", "group-member"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.documents.length()").value(1))
+                .andExpect(jsonPath("$.documents[0].id").value(Integer.parseInt(documentId)));
+        mockMvc.perform(get("/api/v1/documents/{id}", documentId).header("X-User-Id", "group-member"))
+                .andExpect(status().isOk());
+        mockMvc.perform(patch("/api/v1/documents/{id}", documentId)
+                        .header("X-User-Id", "group-member")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "title": "Team doc",
+                                  "content": "Edited by member"
+                                }
+                                """))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/v1/groups").header("X-User-Id", "group-member"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.groups.length()").value(1));
+
+        mockMvc.perform(delete("/api/v1/groups/{id}/members/{userId}", groupId, "group-member")
+                        .header("X-User-Id", "group-member"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/documents").header("X-User-Id", "group-member"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.documents.length()").value(0));
+        mockMvc.perform(get("/api/v1/documents/{id}", documentId).header("X-User-Id", "group-member"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void readEndpointsStayWithinQueryBudget() throws Exception {
+        String documentId = null;
+        for (int index = 0; index < 5; index++) {
+            documentId = mockMvc.perform(post("/api/v1/documents")
+                            .header("X-User-Id", "budget-owner")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"title\":\"Budget %d\",\"content\":\"Body\"}".formatted(index)))
+                    .andExpect(status().isCreated())
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString()
+                    .replaceAll(".*\\\"id\\\":(\\d+).*", "$1");
+        }
+
+        mockMvc.perform(get("/api/v1/documents").header("X-User-Id", "budget-owner"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.documents.length()").value(5))
+                .andExpect(QueryBudget.atMost(2));
+
+        mockMvc.perform(get("/api/v1/documents/{id}", documentId).header("X-User-Id", "budget-owner"))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(2));
+    }
+
+    @Test
+    void getDocumentServesCachedGzipBodyWhenClientAcceptsIt() throws Exception {
+        String largeContent = "Compressible paragraph. ".repeat(200);
+        String createResponse = mockMvc.perform(post("/api/v1/documents")
+                        .header("X-User-Id", "gzip-owner")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "title": "Large",
+                                  "content": "%s"
+                                }
+                                """.formatted(largeContent)))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String documentId = createResponse.replaceAll(".*\\\"id\\\":(\\d+).*", "$1");
+        double hitsBefore = cacheRequests("hit");
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            byte[] compressed = mockMvc.perform(get("/api/v1/documents/{id}", documentId)
+                            .header("X-User-Id", "gzip-owner")
+                            .header("Accept-Encoding", "br;q=0, gzip"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Encoding", "gzip"))
+                    .andExpect(header().string("Vary", "Accept-Encoding"))
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsByteArray();
+
+            try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+                String json = new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+                assertThat(json).contains(largeContent.trim());
+                assertThat(compressed.length).isLessThan(json.length());
+            }
+        }
+        assertThat(cacheRequests("hit") - hitsBefore).isEqualTo(1.0);
+
+        mockMvc.perform(get("/api/v1/documents/{id}", documentId).header("X-User-Id", "gzip-owner"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(jsonPath("$.document.title").value("Large"));
+
+        mockMvc.perform(get("/api/v1/documents/{id}", documentId)
+                        .header("X-User-Id", "gzip-outsider")
+                        .header("Accept-Encoding", "gzip"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void documentEndpointsNegotiateSmileWhenRequested() throws Exception {
+        ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+        MediaType smile = MediaType.valueOf("application/x-jackson-smile");
+
+        byte[] created = mockMvc.perform(post("/api/v1/documents")
+                        .header("X-User-Id", "smile-owner")
+                        .contentType(smile)
+                        .accept(smile)
+                        .content(smileMapper.writeValueAsBytes(Map.of("title", "Binary", "content", "Smile body"))))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentTypeCompatibleWith(smile))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+        long documentId = smileMapper.readTree(created).path("document").path("id").asLong();
+
+        byte[] fetched = mockMvc.perform(get("/api/v1/documents/{id}", documentId)
+                        .header("X-User-Id", "smile-owner")
+                        .header("Accept-Encoding", "gzip")
+                        .accept(smile))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(smile))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+        JsonNode document = smileMapper.readTree(fetched).path("document");
+        assertThat(document.path("content").asText()).isEqualTo("Smile body");
+
+        mockMvc.perform(get("/api/v1/documents/{id}", documentId).header("X-User-Id", "smile-owner"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void exportStreamsVisibleDocumentsInListShape() throws Exception {
+        for (String title : new String[]{"Export A", "Export B"}) {
+            mockMvc.perform(post("/api/v1/documents")
+                            .header("X-User-Id", "export-owner")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("""
+                                    {
+                                      "title": "%s",
+                                      "content": "Body of %s"
+                                    }
+                                    """.formatted(title, title)))
+                    .andExpect(status().isCreated());
+        }
+
+        MvcResult asyncResult = mockMvc.perform(get("/api/v1/documents/export").header("X-User-Id", "export-owner"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.documents.length()").value(2))
+                .andExpect(jsonPath("$.documents[0].title").value("Export A"))
+                .andExpect(jsonPath("$.documents[1].content").value("Body of Export B"))
+                .andExpect(jsonPath("$.documents[0].ownerUserId").value("export-owner"));
+    }
+
+    @Test
+    void bulkExportStreamsOwnedDocumentsAsNdjson() throws Exception {
+        String created = mockMvc.perform(post("/api/v1/documents")
+                        .header("X-User-Id", "bulk-owner")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "title": "Bulk A",
+                                  "content": "Line one\\nLine two"
+                                }
+                                """))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String sharedId = created.replaceAll(".*\\\"id\\\":(\\d+).*", "$1");
+        mockMvc.perform(post("/api/v1/documents/{id}/share", sharedId)
+                        .header("X-User-Id", "bulk-owner")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "userId": "bulk-reader",
+                                  "role": "editor"
+                                }
+                                """))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/v1/documents")
+                        .header("X-User-Id", "bulk-owner")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "title": "Bulk B",
+                                  "content": "Second"
+                                }
+                                """))
+                .andExpect(status().isCreated());
+
+        MvcResult asyncResult = mockMvc.perform(get("/api/v1/documents/bulk").header("X-User-Id", "bulk-owner"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String ndjson = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        String[] lines = ndjson.split("\n");
+        assertThat(ndjson).endsWith("\n");
+        assertThat(lines).hasSize(2);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.path("title").asText()).isEqualTo("Bulk A");
+        assertThat(first.path("content").asText()).isEqualTo("Line one\nLine two");
+        assertThat(first.path("sharedWith").path("bulk-reader").asText()).isEqualTo("editor");
+        assertThat(objectMapper.readTree(lines[1]).path("title").asText()).isEqualTo("Bulk B");
+
+        // Shared documents are not part of the reader's own export.
+        MvcResult readerResult = mockMvc.perform(get("/api/v1/documents/bulk").header("X-User-Id", "bulk-reader"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(readerResult))
+                .andExpect(status().isOk())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void bulkImportRequiresPostgres() throws Exception {
+        mockMvc.perform(post("/api/v1/documents/bulk")
+                        .header("X-User-Id", "bulk-importer")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"title\":\"A\",\"content\":\"B\"}\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid request"));
+    }
+
+    @Test
+    void changesSinceCursorReturnsOnlyNewChangesAndTombstones() throws Exception {
+        String createResponse = mockMvc.perform(post("/api/v1/documents")
+                        .header("X-User-Id", "sync-owner")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "title": "Synced",
+                                  "content": "Version one"
+                                }
+                                """))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String documentId = createResponse.replaceAll(".*\\\"id\\\":(\\d+).*", "$1");
+
+        mockMvc.perform(post("/api/v1/documents/{id}/share", documentId)
+                        .header("X-User-Id", "sync-owner")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "userId": "sync-reader",
+                                  "role": "viewer"
+                                }
+                                """))
+                .andExpect(status().isOk());
+
+        String initialSync = mockMvc.perform(get("/api/v1/documents/changes").header("X-User-Id", "sync-reader"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.documents.length()").value(1))
+                .andExpect(jsonPath("$.documents[0].content").value("Version one"))
+                .andExpect(jsonPath("$.tombstones.length()").value(0))
+                .andExpect(jsonPath("$.hasMore").value(false))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String cursor = initialSync.replaceAll(".*\\\"cursor\\\":(\\d+).*", "$1");
+
+        mockMvc.perform(get("/api/v1/documents/changes").param("since", cursor).header("X-User-Id", "sync-reader"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.documents.length()").value(0))
+                .andExpect(jsonPath("$.cursor").value(Integer.parseInt(cursor)));
+
+        mockMvc.perform(patch("/api/v1/documents/{id}", documentId)
+                        .header("X-User-Id", "sync-owner")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "content": "Version two"
+                                }
+                                """))
+                .andExpect(status().isOk());
+
+        String updateSync = mockMvc.perform(get("/api/v1/documents/changes").param("since", cursor).header("X-User-Id", "sync-reader"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.documents.length()").value(1))
+                .andExpect(jsonPath("$.documents[0].content").value("Version two"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String updateCursor = updateSync.replaceAll(".*\\\"cursor\\\":(\\d+).*", "$1");
+
+        mockMvc.perform(delete("/api/v1/documents/{id}/share/{userId}", documentId, "sync-reader")
+                        .header("X-User-Id", "sync-owner"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/documents/changes").param("since", updateCursor).header("X-User-Id", "sync-reader"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.documents.length()").value(0))
+                .andExpect(jsonPath("$.tombstones[0]").value(Integer.parseInt(documentId)));
+
+        mockMvc.perform(get("/api/v1/documents/{id}", documentId).header("X-User-Id", "sync-reader"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void changesReportGroupSharesEditsAndMembershipChanges() throws Exception {
+        String createResponse = mockMvc.perform(post("/api/v1/documents")
+                        .header("X-User-Id", "sync-group-owner")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "title": "Group synced",
+                                  "content": "Version one"
+                                }
+                                """))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String documentId = createResponse.replaceAll(".*\\\"id\\\":(\\d+).*", "$1");
+        String groupResponse = mockMvc.perform(post("/api/v1/groups")
+                        .header("X-User-Id", "sync-group-owner")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "name": "Sync team"
+                                }
+                                """))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String groupId = groupResponse.replaceAll(".*\\\"id\\\":(\\d+).*", "$1");
+        mockMvc.perform(put("/api/v1/groups/{id}/members/{userId}", groupId, "sync-group-member")
+                        .header("X-User-Id", "sync-group-owner"))
+                .andExpect(status().isOk());
+
+        String groupShare = """
+                {
+                  "groupId": %s,
+                  "role": "viewer"
+                }
+                """.formatted(groupId);
+        mockMvc.perform(post("/api/v1/documents/{id}/group-shares", documentId)
+                        .header("X-User-Id", "sync-group-owner")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(groupShare))
+                .andExpect(status().isOk());
+        String cursor = changesCursor(mockMvc.perform(get("/api/v1/documents/changes").header("X-User-Id", "sync-group-member"))
+                .andExpect(jsonPath("$.documents.length()").value(1))
+                .andExpect(jsonPath("$.documents[0].content").value("Version one"))
+                .andReturn());
+
+        mockMvc.perform(patch("/api/v1/documents/{id}", documentId)
+                        .header("X-User-Id", "sync-group-owner")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "content": "Version two"
+                                }
+                                """))
+                .andExpect(status().isOk());
+        cursor = changesCursor(mockMvc.perform(get("/api/v1/documents/changes").param("since", cursor).header("X-User-Id", "sync-group-member"))
+                .andExpect(jsonPath("$.documents.length()").value(1))
+                .andExpect(jsonPath("$.documents[0].content").value("Version two"))
+                .andReturn());
+
+        mockMvc.perform(delete("/api/v1/documents/{id}/group-shares/{groupId}", documentId, groupId)
+                        .header("X-User-Id", "sync-group-owner"))
+                .andExpect(status().isOk());
+        cursor = changesCursor(mockMvc.perform(get("/api/v1/documents/changes").param("since", cursor).header("X-User-Id", "sync-group-member"))
+                .andExpect(jsonPath("$.documents.length()").value(0))
+                .andExpect(jsonPath("$.tombstones[0]").value(Integer.parseInt(documentId)))
+                .andReturn());
+        mockMvc.perform(get("/api/v1/documents/changes").param("since", "0").header("X-User-Id", "sync-group-owner"))
+                .andExpect(jsonPath("$.documents.length()").value(1))
+                .andExpect(jsonPath("$.tombstones.length()").value(0));
+
+        mockMvc.perform(post("/api/v1/documents/{id}/group-shares", documentId)
+                        .header("X-User-Id", "sync-group-owner")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(groupShare))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/v1/groups/{id}/members/{userId}", groupId, "sync-group-member")
+                        .header("X-User-Id", "sync-group-owner"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/documents/changes").param("since", cursor).header("X-User-Id", "sync-group-member"))
+                .andExpect(jsonPath("$.documents.length()").value(0))
+                .andExpect(jsonPath("$.tombstones[0]").value(Integer.parseInt(documentId)));
+    }
+
+    @Test
+    void blocksSupportOrderedInsertRangeFetchAndPartialUpdate() throws Exception {
+        String createResponse = mockMvc.perform(post("/api/v1/documents")
+                        .header("X-User-Id", "block-owner")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "title": "Blocks",
+                                  "content": "Summary"
+                                }
+                                """))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String documentId = createResponse.replaceAll(".*\\\"id\\\":(\\d+).*", "$1");
+
+        String firstBlock = mockMvc.perform(post("/api/v1/documents/{id}/blocks", documentId)
+                        .header("X-User-Id", "block-owner")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"content\": \"First\"}"))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String firstKey = firstBlock.replaceAll(".*\\\"key\\\":\\\"([^\\\"]+)\\\".*", "$1");
+
+        mockMvc.perform(post("/api/v1/documents/{id}/blocks", documentId)
+                        .header("X-User-Id", "block-owner")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"content\": \"Third\"}"))
+                .andExpect(status().isCreated());
+
+        String secondBlock = mockMvc.perform(post("/api/v1/documents/{id}/blocks", documentId)
+                        .header("X-User-Id", "block-owner")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"afterKey\": \"" + firstKey + "\", \"content\": \"Second\"}"))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String secondKey = secondBlock.replaceAll(".*\\\"key\\\":\\\"([^\\\"]+)\\\".*", "$1");
+
+        mockMvc.perform(get("/api/v1/documents/{id}/blocks", documentId)
+                        .param("limit", "2")
+                        .header("X-User-Id", "block-owner"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.blocks.length()").value(2))
+                .andExpect(jsonPath("$.blocks[0].content").value("First"))
+                .andExpect(jsonPath("$.blocks[1].content").value("Second"))
+                .andExpect(jsonPath("$.nextAfter").value(secondKey));
+
+        mockMvc.perform(put("/api/v1/documents/{id}/blocks/{key}", documentId, secondKey)
+                        .header("X-User-Id", "block-owner")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"content\": \"Second (edited)\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.block.key").value(secondKey));
+
+        mockMvc.perform(get("/api/v1/documents/{id}/blocks", documentId)
+                        .param("after", firstKey)
+                        .header("X-User-Id", "block-owner"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.blocks.length()").value(2))
+                .andExpect(jsonPath("$.blocks[0].content").value("Second (edited)"))
+                .andExpect(jsonPath("$.blocks[1].content").value("Third"))
+                .andExpect(jsonPath("$.nextAfter").doesNotExist());
+
+        mockMvc.perform(get("/api/v1/documents/{id}/blocks", documentId)
+                        .header("X-User-Id", "block-outsider"))
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     void ownerCannotShareDocumentWithSelf() throws Exception {
         String createResponse = mockMvc.perform(post("/api/v1/documents")
@@ -169,4 +775,84 @@ class DocumentServiceApplicationTests {
                 .andExpect(status().isUnauthorized())
                 .andExpect(jsonPath("$.message").value("Invalid credentials"));
     }
+
+    @Test
+    void signInAndSharingAreWrittenToTheAuditLog() throws Exception {
+        mockMvc.perform(post("/api/v1/auth/signup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "username": "audit-user",
+                                  "password": "password123"
+                                }
+                                """))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/api/v1/auth/login")
+                        .header("X-Request-Id", "req-audit-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "username": "audit-user",
+                                  "password": "wrong-password"
+                                }
+                                """))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "username": "audit-user",
+                                  "password": "password123"
+                                }
+                                """))
+                .andExpect(status().isOk());
+
+        String createResponse = mockMvc.perform(post("/api/v1/documents")
+                        .header("X-User-Id", "audit-user")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "title": "Audited",
+                                  "content": "Body"
+                                }
+                                """))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        long documentId = Long.parseLong(createResponse.replaceAll(".*\\\"id\\\":(\\d+).*", "$1"));
+        mockMvc.perform(post("/api/v1/documents/{id}/share", documentId)
+                        .header("X-User-Id", "audit-user")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "userId": "audit-reader",
+                                  "role": "viewer"
+                                }
+                                """))
+                .andExpect(status().isOk());
+
+        auditLog.flush();
+
+        var rows = jdbcTemplate.queryForList(
+                "SELECT action, target_user_id, document_id, detail, request_id FROM audit_log WHERE actor_user_id = ? ORDER BY occurred_at",
+                "audit-user"
+        );
+        assertThat(rows).extracting((row) -> row.get("ACTION"))
+                .containsExactly("LOGIN_FAILED", "LOGIN_SUCCEEDED", "DOCUMENT_SHARED");
+        assertThat(rows.get(0).get("DETAIL")).isEqualTo("wrong_password");
+        assertThat(rows.get(0).get("REQUEST_ID")).isEqualTo("req-audit-1");
+        assertThat(rows.get(2).get("TARGET_USER_ID")).isEqualTo("audit-reader");
+        assertThat(((Number) rows.get(2).get("DOCUMENT_ID")).longValue()).isEqualTo(documentId);
+        assertThat(rows.get(2).get("DETAIL")).isEqualTo("viewer");
+    }
+
+    private double cacheRequests(String result) {
+        return meterRegistry.get("relaydocs.compression.cache.requests").tag("result", result).counter().count();
+    }
+
+    private static String changesCursor(MvcResult result) throws Exception {
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        return result.getResponse().getContentAsString().replaceAll(".*\\\"cursor\\\":(\\d+).*", "$1");
+    }
 }
@@ -0,0 +1,30 @@
+package com.relaydocs.documentservice;
+
+import com.relaydocs.documentservice.api.RequestCorrelationFilter;
+import com.relaydocs.documentservice.persistence.QueryStats;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * MockMvc matcher that fails when a request ran more SQL statements than its budget, e.g.
+ * {@code .andExpect(QueryBudget.atMost(3))}. Catches N+1 regressions at the endpoint level.
+ */
+public final class QueryBudget {
+
+    private QueryBudget() {
+    }
+
+    public static ResultMatcher atMost(int maxStatements) {
+        return (result) -> {
+            QueryStats stats = (QueryStats) result.getRequest().getAttribute(RequestCorrelationFilter.QUERY_STATS_ATTRIBUTE);
+            assertThat(stats).as("query stats recorded for request").isNotNull();
+            assertThat(stats.getStatements())
+                    .as("SQL statements for %s %s (most repeated: %s)",
+                            result.getRequest().getMethod(),
+                            result.getRequest().getRequestURI(),
+                            stats.mostRepeatedStatement())
+                    .isLessThanOrEqualTo(maxStatements);
+        };
+    }
+}
@@ -0,0 +1,113 @@
+package com.relaydocs.documentservice;
+
+import com.relaydocs.documentservice.api.SpansEndpoint;
+import com.relaydocs.documentservice.events.KafkaTracing;
+import com.relaydocs.documentservice.service.LocalSpanExporter;
+import com.relaydocs.documentservice.service.LocalSpanExporter.RecordedSpan;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.TraceContext;
+import io.micrometer.tracing.Tracer;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "management.tracing.sampling.probability=1.0")
+@AutoConfigureMockMvc
+@AutoConfigureObservability(metrics = false)
+@ActiveProfiles("test")
+class TracingIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SdkTracerProvider sdkTracerProvider;
+
+    @Autowired
+    private LocalSpanExporter localSpanExporter;
+
+    @Autowired
+    private SpansEndpoint spansEndpoint;
+
+    @Autowired
+    private Tracer tracer;
+
+    @Autowired
+    private KafkaTracing kafkaTracing;
+
+    @Test
+    void loginTraceBreaksDownIntoServiceHashingAndQuerySpans() throws Exception {
+        mockMvc.perform(post("/api/v1/auth/signup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "username": "traced-user",
+                                  "password": "password123"
+                                }
+                                """))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "username": "traced-user",
+                                  "password": "password123"
+                                }
+                                """))
+                .andExpect(status().isOk());
+        sdkTracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+
+        RecordedSpan login = localSpanExporter.recentSpans()
+                .stream()
+                .filter((span) -> span.name().equals("AuthService.login"))
+                .reduce((first, second) -> second)
+                .orElseThrow();
+        List<RecordedSpan> trace = localSpanExporter.trace(login.traceId());
+
+        assertThat(trace).extracting(RecordedSpan::name)
+                .contains("AuthController.login", "PasswordHasher.matches", "AuthCredentialRepository.findById",
+                        "db.connection.acquire", "db.query", "db.commit");
+        assertThat(trace).anySatisfy((span) -> {
+            assertThat(span.kind()).isEqualTo("SERVER");
+            assertThat(span.parentSpanId()).isNull();
+        });
+        assertThat(trace).filteredOn((span) -> span.name().equals("db.query"))
+                .allSatisfy((span) -> assertThat(span.attributes()).containsKey("db.statement"));
+        assertThat(spansEndpoint.trace(login.traceId()))
+                .hasSize(trace.size())
+                .allSatisfy((span) -> assertThat((double) span.get("selfMs")).isLessThanOrEqualTo((double) span.get("durationMs")));
+    }
+
+    @Test
+    void consumerSpanContinuesTheTraceCarriedInRecordHeaders() {
+        ConsumerRecord<String, byte[]> record = new ConsumerRecord<>("relaydocs.domain-events", 0, 42L, "7", new byte[0]);
+        Span producer = tracer.nextSpan().name("publish").start();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(producer)) {
+            kafkaTracing.inject(record.headers());
+        } finally {
+            producer.end();
+        }
+
+        AtomicReference<TraceContext> consumed = new AtomicReference<>();
+        kafkaTracing.consume(record, "domain-event consume", () -> consumed.set(tracer.currentSpan().context()));
+
+        assertThat(record.headers().lastHeader("traceparent")).isNotNull();
+        assertThat(consumed.get().traceId()).isEqualTo(producer.context().traceId());
+        assertThat(consumed.get().parentId()).isEqualTo(producer.context().spanId());
+    }
+}
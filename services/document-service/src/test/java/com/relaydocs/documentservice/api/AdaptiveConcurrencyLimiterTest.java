@@ -0,0 +1,70 @@
+package com.relaydocs.documentservice.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    @Test
+    void rejectsOnceInFlightReachesLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(limit(2, 1, 10), 0.5);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+
+        limiter.release(FAST, false);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void slowOrFailedCompletionsShrinkLimitDownToMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(limit(16, 4, 32), 0.5);
+
+        limiter.tryAcquire();
+        limiter.release(SLOW, false);
+        assertThat(limiter.getLimit()).isEqualTo(8);
+
+        limiter.tryAcquire();
+        limiter.release(FAST, true);
+        assertThat(limiter.getLimit()).isEqualTo(4);
+
+        limiter.tryAcquire();
+        limiter.release(SLOW, false);
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void fastCompletionsGrowLimitOnlyWhileItIsUsed() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(limit(4, 1, 5), 0.5);
+
+        for (int round = 0; round < 20; round++) {
+            limiter.tryAcquire();
+            limiter.release(FAST, false);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(4);
+
+        for (int round = 0; round < 20; round++) {
+            while (limiter.tryAcquire()) {
+                // saturate the current limit
+            }
+            for (int inFlight = limiter.getInFlight(); inFlight > 0; inFlight--) {
+                limiter.release(FAST, false);
+            }
+        }
+        assertThat(limiter.getLimit()).isEqualTo(5);
+    }
+
+    private static ConcurrencyLimitProperties.Limit limit(int initial, int min, int max) {
+        return new ConcurrencyLimitProperties.Limit(initial, min, max, Duration.ofMillis(100));
+    }
+}
@@ -0,0 +1,88 @@
+package com.relaydocs.documentservice.api;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        // Every completion on the adaptive limits counts as slow, so any feedback would shrink them.
+        properties.setRead(new ConcurrencyLimitProperties.Limit(2, 1, 10, Duration.ZERO));
+        properties.setWrite(new ConcurrencyLimitProperties.Limit(2, 1, 10, Duration.ZERO));
+        properties.setBulkLimit(1);
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new ConcurrencyLimitFilter(properties, meterRegistry);
+    }
+
+    @Test
+    void bulkStreamsUseTheirOwnBulkheadAndLeaveAdaptiveLimitsAlone() throws Exception {
+        MockHttpServletRequest export = request("GET", "/api/v1/documents/bulk");
+        filter.doFilter(export, new MockHttpServletResponse(), startAsync());
+
+        assertThat(gauge("relaydocs.concurrency.inflight", "bulk")).isEqualTo(1.0);
+        assertThat(gauge("relaydocs.concurrency.inflight", "read")).isZero();
+
+        MockHttpServletResponse secondExport = new MockHttpServletResponse();
+        filter.doFilter(request("GET", "/api/v1/documents/export"), secondExport, startAsync());
+        assertThat(secondExport.getStatus()).isEqualTo(503);
+
+        MockHttpServletResponse read = new MockHttpServletResponse();
+        filter.doFilter(request("GET", "/api/v1/documents/42"), read, (req, res) -> { });
+        assertThat(read.getStatus()).isEqualTo(200);
+
+        export.getAsyncContext().complete();
+
+        assertThat(gauge("relaydocs.concurrency.inflight", "bulk")).isZero();
+        assertThat(gauge("relaydocs.concurrency.limit", "write")).isEqualTo(2.0);
+        assertThat(meterRegistry.get("relaydocs.concurrency.rejected").tag("type", "bulk").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void bulkImportIsNotCountedAsAWrite() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request("POST", "/api/v1/documents/bulk"), response, (req, res) -> { });
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(gauge("relaydocs.concurrency.limit", "write")).isEqualTo(2.0);
+        assertThat(gauge("relaydocs.concurrency.inflight", "bulk")).isZero();
+    }
+
+    @Test
+    void slowInteractiveRequestsStillShrinkTheirLimit() throws Exception {
+        filter.doFilter(request("GET", "/api/v1/documents/42"), new MockHttpServletResponse(), (req, res) -> { });
+
+        assertThat(gauge("relaydocs.concurrency.limit", "read")).isEqualTo(1.0);
+    }
+
+    private double gauge(String name, String type) {
+        return meterRegistry.get(name).tag("type", type).gauge().value();
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setAsyncSupported(true);
+        return request;
+    }
+
+    private static FilterChain startAsync() {
+        return (request, response) -> {
+            AsyncContext context = request.startAsync();
+            context.setTimeout(0);
+        };
+    }
+}
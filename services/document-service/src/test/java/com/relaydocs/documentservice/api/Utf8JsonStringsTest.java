@@ -0,0 +1,34 @@
+package com.relaydocs.documentservice.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Utf8JsonStringsTest {
+
+    @Test
+    void escapesLikeJacksonAcrossBufferBoundaries() throws Exception {
+        StringBuilder content = new StringBuilder("quote \" backslash \\ slash / tab\t newline\n bell\u0007 del\u007f é ✓ 𝄞 ");
+        for (char control = 0; control < 0x20; control++) {
+            content.append(control);
+        }
+        content.append("z".repeat(9000)).append('"');
+        byte[] utf8 = content.toString().getBytes(StandardCharsets.UTF_8);
+
+        List<ByteBuffer> chunks = new ArrayList<>();
+        for (int offset = 0; offset < utf8.length; offset += 7) {
+            chunks.add(ByteBuffer.wrap(utf8, offset, Math.min(7, utf8.length - offset)).slice());
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Utf8JsonStrings.writeQuoted(chunks, output);
+
+        assertThat(output.toByteArray()).isEqualTo(new ObjectMapper().writeValueAsBytes(content.toString()));
+    }
+}
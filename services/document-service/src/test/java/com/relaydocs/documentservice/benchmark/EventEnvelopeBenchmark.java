@@ -0,0 +1,108 @@
+package com.relaydocs.documentservice.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.relaydocs.documentservice.events.AvroEventCodec;
+import com.relaydocs.documentservice.events.DomainEventHandler;
+import com.relaydocs.documentservice.events.EventSchemaRegistry;
+import com.relaydocs.documentservice.events.KafkaTracing;
+import com.relaydocs.documentservice.events.RelayEventProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consumer envelope handling: the byte-level streaming path in {@link DomainEventHandler} against
+ * the previous String + JsonNode tree + {@code String.format} hex path. Both include the work a
+ * record needs before it reaches the consumption recorder; the String path also pays for UTF-8
+ * decoding, as it did behind the StringDeserializer.
+ *
+ * <p>Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.relaydocs.documentservice.benchmark.EventEnvelopeBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventEnvelopeBenchmark {
+
+    @Param({"true", "false"})
+    public boolean withEventId;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private byte[] record;
+    private DomainEventHandler handler;
+    private Blackhole blackhole;
+
+    @Setup(Level.Trial)
+    public void setUp(Blackhole blackhole) {
+        this.blackhole = blackhole;
+        String eventId = withEventId ? "\"eventId\":\"9b2f7f7e-3c55-4b7a-9a55-0f0d1c0e6a11\"," : "";
+        record = ("{" + eventId
+                + "\"eventType\":\"document.updated\",\"aggregateId\":\"42\","
+                + "\"occurredAt\":\"" + Instant.parse("2026-02-12T00:00:00Z") + "\","
+                + "\"payload\":{\"documentId\":42,\"actorUserId\":\"editor-user\",\"blockKey\":\"a0V\"}}")
+                .getBytes(StandardCharsets.UTF_8);
+        RelayEventProperties properties = new RelayEventProperties();
+        handler = new DomainEventHandler(
+                objectMapper,
+                (consumerName, id, eventType, aggregateId, occurredAt) -> {
+                    this.blackhole.consume(id);
+                    this.blackhole.consume(occurredAt);
+                    return true;
+                },
+                properties,
+                new AvroEventCodec(new EventSchemaRegistry(properties, new DefaultResourceLoader())),
+                KafkaTracing.disabled()
+        );
+    }
+
+    @Benchmark
+    public void streamingBytes() {
+        handler.handle(record);
+    }
+
+    @Benchmark
+    public void legacyStringTree() throws Exception {
+        String rawEvent = new String(record, StandardCharsets.UTF_8);
+        JsonNode root = objectMapper.readTree(rawEvent);
+        String eventId = root.path("eventId").isTextual() ? root.path("eventId").asText() : null;
+        if (eventId == null || eventId.isBlank()) {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(rawEvent.getBytes(StandardCharsets.UTF_8));
+            StringBuilder builder = new StringBuilder(hash.length * 2);
+            for (byte hashByte : hash) {
+                builder.append(String.format("%02x", hashByte));
+            }
+            eventId = builder.toString();
+        }
+        blackhole.consume(root.path("eventType").asText());
+        blackhole.consume(root.path("aggregateId").asText());
+        blackhole.consume(eventId);
+        blackhole.consume(Instant.parse(root.path("occurredAt").asText()));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EventEnvelopeBenchmark.class.getSimpleName()).build()).run();
+    }
+}
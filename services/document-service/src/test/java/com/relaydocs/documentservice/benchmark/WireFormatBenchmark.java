@@ -0,0 +1,118 @@
+package com.relaydocs.documentservice.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.relaydocs.documentservice.api.dto.DocumentResponse;
+import com.relaydocs.documentservice.api.dto.SingleDocumentApiResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization cost of typical single-document responses in JSON, Smile and CBOR.
+ *
+ * <p>Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.relaydocs.documentservice.benchmark.WireFormatBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    @Param({"1024", "102400"})
+    public int contentLength;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private SingleDocumentApiResponse response;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper mapper = mapperFor(format);
+        writer = mapper.writerFor(SingleDocumentApiResponse.class);
+        reader = mapper.readerFor(SingleDocumentApiResponse.class);
+        response = sampleResponse(contentLength);
+        encoded = writer.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public SingleDocumentApiResponse deserialize() throws IOException {
+        return reader.readValue(encoded);
+    }
+
+    public static void main(String[] args) throws IOException, RunnerException {
+        for (int length : new int[]{1024, 102400}) {
+            SingleDocumentApiResponse sample = sampleResponse(length);
+            for (String candidate : new String[]{"json", "smile", "cbor"}) {
+                int size = mapperFor(candidate).writeValueAsBytes(sample).length;
+                System.out.printf("payload format=%s contentLength=%d bytes=%d%n", candidate, length, size);
+            }
+        }
+        new Runner(new OptionsBuilder().include(WireFormatBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static ObjectMapper mapperFor(String format) {
+        JsonFactory factory = switch (format) {
+            case "smile" -> new SmileFactory();
+            case "cbor" -> new CBORFactory();
+            default -> new JsonFactory();
+        };
+        return new ObjectMapper(factory).registerModule(new JavaTimeModule());
+    }
+
+    private static SingleDocumentApiResponse sampleResponse(int contentLength) {
+        Map<String, String> sharedWith = new LinkedHashMap<>();
+        for (int index = 0; index < 5; index++) {
+            sharedWith.put("collaborator-" + index, index % 2 == 0 ? "viewer" : "editor");
+        }
+        StringBuilder content = new StringBuilder(contentLength);
+        while (content.length() < contentLength) {
+            content.append("Relay docs paragraph with ordinary prose and punctuation. ");
+        }
+        Instant now = Instant.parse("2026-02-12T00:00:00Z");
+        return new SingleDocumentApiResponse(new DocumentResponse(
+                42L,
+                "owner-user",
+                "Quarterly planning notes",
+                content.substring(0, contentLength),
+                sharedWith,
+                now,
+                now
+        ));
+    }
+}
@@ -0,0 +1,64 @@
+package com.relaydocs.documentservice.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DocumentIdBitmapTest {
+
+    @Test
+    void keepsIdsAcrossContainersInAscendingOrder() {
+        DocumentIdBitmap bitmap = DocumentIdBitmap.of(70_000L, 3L, 1L << 40, 65_535L, 3L);
+
+        assertThat(bitmap.cardinality()).isEqualTo(4L);
+        assertThat(bitmap.toArray()).containsExactly(3L, 65_535L, 70_000L, 1L << 40);
+        assertThat(bitmap.contains(65_536L)).isFalse();
+
+        assertThat(bitmap.remove(70_000L)).isTrue();
+        assertThat(bitmap.remove(70_000L)).isFalse();
+        assertThat(bitmap.toArray()).containsExactly(3L, 65_535L, 1L << 40);
+    }
+
+    @Test
+    void switchesBetweenArrayAndBitsetContainersWithoutLosingIds() {
+        DocumentIdBitmap bitmap = new DocumentIdBitmap();
+        long[] dense = LongStream.range(0, 10_000).map((value) -> value * 3).toArray();
+        for (long documentId : dense) {
+            bitmap.add(documentId);
+        }
+
+        assertThat(bitmap.toArray()).containsExactly(dense);
+
+        for (int index = 0; index < 8_000; index++) {
+            bitmap.remove(dense[index]);
+        }
+
+        assertThat(bitmap.cardinality()).isEqualTo(2_000L);
+        assertThat(bitmap.contains(dense[7_999])).isFalse();
+        assertThat(bitmap.contains(dense[8_000])).isTrue();
+    }
+
+    @Test
+    void orMergesWithoutSharingContainers() {
+        DocumentIdBitmap left = DocumentIdBitmap.of(1L, 2L, 100_000L);
+        DocumentIdBitmap right = new DocumentIdBitmap();
+        LongStream.range(0, 5_000).forEach(right::add);
+        right.add(200_000L);
+
+        left.or(right);
+        right.remove(200_000L);
+
+        assertThat(left.cardinality()).isEqualTo(5_002L);
+        assertThat(left.contains(200_000L)).isTrue();
+        assertThat(left.contains(100_000L)).isTrue();
+        assertThat(left.toArray()[4_999]).isEqualTo(4_999L);
+    }
+
+    @Test
+    void rejectsNegativeIds() {
+        assertThatThrownBy(() -> DocumentIdBitmap.of(-1L)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
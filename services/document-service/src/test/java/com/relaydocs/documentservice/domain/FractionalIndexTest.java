@@ -0,0 +1,87 @@
+package com.relaydocs.documentservice.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FractionalIndexTest {
+
+    @Test
+    void betweenProducesKeysStrictlyInsideBounds() {
+        String first = FractionalIndex.between(null, null);
+        String appended = FractionalIndex.between(first, null);
+        String prepended = FractionalIndex.between(null, first);
+        String middle = FractionalIndex.between(first, appended);
+
+        assertThat(prepended).isLessThan(first);
+        assertThat(first).isLessThan(middle);
+        assertThat(middle).isLessThan(appended);
+        assertThat(List.of(first, appended, prepended, middle)).allMatch(FractionalIndex::isValid);
+    }
+
+    @Test
+    void repeatedInsertsAtSamePositionStayOrdered() {
+        String lower = FractionalIndex.between(null, null);
+        String upper = FractionalIndex.between(lower, null);
+        List<String> inserted = new ArrayList<>();
+
+        for (int index = 0; index < 200; index++) {
+            upper = FractionalIndex.between(lower, upper);
+            inserted.add(upper);
+            assertThat(upper).isGreaterThan(lower);
+            assertThat(FractionalIndex.isValid(upper)).isTrue();
+        }
+        for (int index = 1; index < inserted.size(); index++) {
+            assertThat(inserted.get(index)).isLessThan(inserted.get(index - 1));
+        }
+    }
+
+    @Test
+    void appendingAndPrependingKeepKeysShort() {
+        String last = FractionalIndex.between(null, null);
+        String first = last;
+        int longest = last.length();
+
+        for (int index = 0; index < 10_000; index++) {
+            String appended = FractionalIndex.between(last, null);
+            String prepended = FractionalIndex.between(null, first);
+            assertThat(appended).isGreaterThan(last);
+            assertThat(prepended).isLessThan(first);
+            assertThat(FractionalIndex.isValid(appended)).isTrue();
+            assertThat(FractionalIndex.isValid(prepended)).isTrue();
+            last = appended;
+            first = prepended;
+            longest = Math.max(longest, Math.max(appended.length(), prepended.length()));
+        }
+
+        assertThat(longest).isLessThanOrEqualTo(5);
+    }
+
+    @Test
+    void appendingAfterLegacyKeysStaysWithinTheColumn() {
+        // Keys of this shape came from appending by bisection.
+        String legacy = "z".repeat(200) + "V";
+        String appended = legacy;
+
+        for (int index = 0; index < 1_000; index++) {
+            String next = FractionalIndex.between(appended, null);
+            assertThat(next).isGreaterThan(appended);
+            appended = next;
+        }
+
+        assertThat(appended.length()).isLessThanOrEqualTo(255);
+        assertThat(FractionalIndex.between("Uzzzzzzzz", null)).isEqualTo("V");
+        assertThat(FractionalIndex.between(null, "1")).isLessThan("1");
+    }
+
+    @Test
+    void betweenRejectsUnorderedOrMalformedBounds() {
+        assertThatThrownBy(() -> FractionalIndex.between("b", "a")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FractionalIndex.between("a0", null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FractionalIndex.between("a-", null)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
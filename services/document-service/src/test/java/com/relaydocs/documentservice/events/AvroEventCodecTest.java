@@ -0,0 +1,121 @@
+package com.relaydocs.documentservice.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AvroEventCodecTest {
+
+    private final AvroEventCodec codec = new AvroEventCodec(
+            new EventSchemaRegistry(new RelayEventProperties(), new DefaultResourceLoader())
+    );
+
+    @Test
+    void roundTripsRegisteredEventTypesAndIsSmallerThanJson() throws Exception {
+        Instant occurredAt = Instant.parse("2026-02-12T10:15:30.123456Z");
+        Map<String, Object> payload = Map.of(
+                "documentId", 42L,
+                "actorUserId", "owner-user",
+                "targetUserId", "viewer-user",
+                "role", "viewer"
+        );
+
+        AvroEventCodec.EncodedEvent encoded = codec.encode("event-1", "document.shared", "42", occurredAt, payload);
+        AvroEventCodec.DecodedEvent decoded = codec.decode(encoded.schemaId(), encoded.bytes());
+
+        assertThat(decoded.eventType()).isEqualTo("document.shared");
+        assertThat(decoded.eventId()).isEqualTo("event-1");
+        assertThat(decoded.aggregateId()).isEqualTo("42");
+        assertThat(decoded.occurredAt()).isEqualTo(occurredAt);
+        assertThat(decoded.payload()).isEqualTo(payload);
+
+        byte[] json = new ObjectMapper().writeValueAsBytes(Map.of(
+                "eventId", "event-1",
+                "eventType", "document.shared",
+                "aggregateId", "42",
+                "occurredAt", occurredAt.toString(),
+                "payload", payload
+        ));
+        assertThat(encoded.bytes().length).isLessThan(json.length / 2);
+    }
+
+    @Test
+    void fallsBackWhenSchemaCannotRepresentEvent() {
+        Instant now = Instant.now();
+
+        assertThat(codec.encode("event-1", "document.archived", "1", now, Map.of("documentId", 1L))).isNull();
+        assertThat(codec.encode("event-1", "document.updated", "1", now, Map.of(
+                "documentId", 1L,
+                "actorUserId", "owner-user",
+                "unexpected", "field"
+        ))).isNull();
+
+        Map<String, Object> withoutOptionalBlockKey = new HashMap<>();
+        withoutOptionalBlockKey.put("documentId", 1L);
+        withoutOptionalBlockKey.put("actorUserId", "owner-user");
+        assertThat(codec.encode("event-1", "document.updated", "1", now, withoutOptionalBlockKey)).isNotNull();
+    }
+
+    @Test
+    void coalescedUpdatesUseLatestDocumentUpdatedSchema() {
+        Map<String, Object> payload = Map.of(
+                "documentId", 42L,
+                "actorUserId", "editor-user",
+                "firstOccurredAt", "2026-02-12T10:00:00Z",
+                "lastOccurredAt", "2026-02-12T10:00:02Z",
+                "updateCount", 5
+        );
+
+        AvroEventCodec.EncodedEvent encoded = codec.encode("event-1", "document.updated", "42", Instant.now(), payload);
+
+        assertThat(codec.decode(encoded.schemaId(), encoded.bytes()).payload())
+                .containsEntry("updateCount", 5)
+                .containsEntry("lastOccurredAt", "2026-02-12T10:00:02Z");
+    }
+
+    @Test
+    void handlerAcceptsAvroAndJsonRecords() {
+        Map<String, String> recorded = new HashMap<>();
+        DomainEventHandler handler = new DomainEventHandler(
+                new ObjectMapper(),
+                (consumerName, eventId, eventType, aggregateId, occurredAt) -> {
+                    recorded.put(eventId, eventType + "@" + aggregateId);
+                    return true;
+                },
+                new RelayEventProperties(),
+                codec,
+                KafkaTracing.disabled()
+        );
+        AvroEventCodec.EncodedEvent encoded = codec.encode(
+                "avro-event",
+                "document.created",
+                "7",
+                Instant.now(),
+                Map.of("documentId", 7L, "ownerUserId", "owner-user", "actorUserId", "owner-user")
+        );
+        ConsumerRecord<String, byte[]> avroRecord = new ConsumerRecord<>("relaydocs.domain-events", 0, 0L, "7", encoded.bytes());
+        avroRecord.headers().add(AvroEventCodec.SCHEMA_ID_HEADER, AvroEventCodec.schemaIdHeaderValue(encoded.schemaId()));
+        ConsumerRecord<String, byte[]> jsonRecord = new ConsumerRecord<>(
+                "relaydocs.domain-events",
+                0,
+                1L,
+                "8",
+                "{\"eventId\":\"json-event\",\"eventType\":\"document.updated\",\"aggregateId\":\"8\"}"
+                        .getBytes(StandardCharsets.UTF_8)
+        );
+
+        handler.handle(avroRecord);
+        handler.handle(jsonRecord);
+
+        assertThat(recorded).containsEntry("avro-event", "document.created@7")
+                .containsEntry("json-event", "document.updated@8");
+    }
+}
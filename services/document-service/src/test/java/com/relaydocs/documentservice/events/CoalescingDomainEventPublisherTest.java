@@ -0,0 +1,102 @@
+package com.relaydocs.documentservice.events;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class CoalescingDomainEventPublisherTest {
+
+    private final List<PublishedEvent> published = new CopyOnWriteArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CoalescingDomainEventPublisher publisher;
+
+    @AfterEach
+    void tearDown() {
+        publisher.shutdown();
+    }
+
+    @Test
+    void collapsesUpdatesWithinWindowIntoOneEvent() {
+        publisher = publisher(Duration.ofMillis(100));
+
+        publisher.publish("document.updated", "42", Map.of("documentId", 42L, "actorUserId", "a", "blockKey", "V"));
+        publisher.publish("document.updated", "42", Map.of("documentId", 42L, "actorUserId", "b", "blockKey", "k"));
+        publisher.publish("document.updated", "42", Map.of("documentId", 42L, "actorUserId", "c", "blockKey", "k"));
+        publisher.publish("document.updated", "7", Map.of("documentId", 7L, "actorUserId", "a"));
+
+        await().atMost(Duration.ofSeconds(2)).until(() -> published.size() == 2);
+        PublishedEvent coalesced = published.stream().filter((event) -> event.aggregateId().equals("42")).findFirst().orElseThrow();
+        assertThat(coalesced.payload())
+                .containsEntry("actorUserId", "c")
+                .containsEntry("updateCount", 3)
+                .containsKeys("firstOccurredAt", "lastOccurredAt")
+                .doesNotContainKey("blockKey");
+        assertThat(meterRegistry.get("relaydocs.events.coalesced").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void flushesPendingUpdateBeforeAnyOtherEventForSameAggregate() {
+        publisher = publisher(Duration.ofMinutes(1));
+
+        publisher.publish("document.updated", "42", Map.of("documentId", 42L, "actorUserId", "owner"));
+        publisher.publish("document.updated", "42", Map.of("documentId", 42L, "actorUserId", "owner"));
+        publisher.publish("document.created", "43", Map.of("documentId", 43L));
+        publisher.publish("permission.changed", "42", Map.of("documentId", 42L, "role", "viewer"));
+        publisher.publish("document.updated", "42", Map.of("documentId", 42L, "actorUserId", "owner"));
+
+        assertThat(published).extracting(PublishedEvent::eventType)
+                .containsExactly("document.created", "document.updated", "permission.changed");
+        assertThat(published.get(1).payload()).containsEntry("updateCount", 2);
+
+        publisher.shutdown();
+
+        assertThat(published).hasSize(4);
+        assertThat(published.get(3).payload()).containsEntry("updateCount", 1);
+    }
+
+    @Test
+    void takesEventsOnlyOnceTheirTransactionCommits() {
+        publisher = publisher(Duration.ofMinutes(1));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            publisher.publish("document.created", "43", Map.of("documentId", 43L));
+            assertThat(published).isEmpty();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(published).extracting(PublishedEvent::eventType).containsExactly("document.created");
+    }
+
+    private CoalescingDomainEventPublisher publisher(Duration window) {
+        EventCoalescingProperties properties = new EventCoalescingProperties();
+        properties.setWindow(window);
+        KafkaDomainEventPublisher kafkaPublisher = mock(KafkaDomainEventPublisher.class);
+        doAnswer((invocation) -> published.add(new PublishedEvent(
+                invocation.getArgument(0),
+                invocation.getArgument(1),
+                invocation.getArgument(2)
+        ))).when(kafkaPublisher).send(any(), any(), anyMap());
+        return new CoalescingDomainEventPublisher(kafkaPublisher, properties, meterRegistry);
+    }
+
+    private record PublishedEvent(String eventType, String aggregateId, Map<String, Object> payload) {
+    }
+}
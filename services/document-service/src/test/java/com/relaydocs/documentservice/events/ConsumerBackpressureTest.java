@@ -0,0 +1,171 @@
+package com.relaydocs.documentservice.events;
+
+import com.relaydocs.documentservice.api.RequestCorrelationFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ConsumerBackpressureTest {
+
+    @Mock
+    private ObjectProvider<KafkaListenerEndpointRegistry> registryProvider;
+
+    @Mock
+    private ObjectProvider<KafkaAdmin> kafkaAdmin;
+
+    @Mock
+    private KafkaListenerEndpointRegistry registry;
+
+    @Mock
+    private MessageListenerContainer container;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final ConsumerBackpressureProperties properties = new ConsumerBackpressureProperties();
+    private ConsumerBackpressure backpressure;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(registryProvider.getIfAvailable()).thenReturn(registry);
+        lenient().when(registry.getListenerContainer(KafkaConsumerConfiguration.DOMAIN_EVENT_LISTENER_ID)).thenReturn(container);
+        Tags pool = Tags.of("pool", "HikariPool-1");
+        Gauge.builder("hikaricp.connections.max", () -> 10).tags(pool).register(meterRegistry);
+        Gauge.builder("hikaricp.connections.active", active, AtomicInteger::get).tags(pool).register(meterRegistry);
+        Gauge.builder("hikaricp.connections.pending", pending, AtomicInteger::get).tags(pool).register(meterRegistry);
+        // Checks run only when a test calls check().
+        properties.setCheckInterval(Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        backpressure.shutdown();
+    }
+
+    @Test
+    void pausesAtPoolThresholdAndResumesOnlyBelowResumeThreshold() {
+        backpressure = newBackpressure();
+
+        active.set(8);
+        backpressure.check();
+        assertThat(backpressure.isPaused()).isTrue();
+        assertThat(backpressure.status()).containsEntry("pauseReason", "pool_utilization");
+        verify(container).pause();
+
+        // Between the thresholds: stays paused rather than flapping.
+        active.set(6);
+        backpressure.check();
+        assertThat(backpressure.isPaused()).isTrue();
+        verify(container, never()).resume();
+
+        active.set(5);
+        backpressure.check();
+        assertThat(backpressure.isPaused()).isFalse();
+        verify(container).resume();
+        assertThat(meterRegistry.get("relaydocs.kafka.consumer.pauses").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void reportsUnknownLagForPartitionsWithoutACommittedOffset() {
+        backpressure = newBackpressure();
+        assertThat(meterRegistry.get("relaydocs.kafka.consumer.lag").gauge().value()).isEqualTo(-1.0);
+
+        assertThat(ConsumerBackpressure.partitionLag(new OffsetAndMetadata(40L), 100L)).isEqualTo(60L);
+        assertThat(ConsumerBackpressure.partitionLag(null, 100L)).isEqualTo(-1L);
+        assertThat(ConsumerBackpressure.totalLag(Map.of(0, 60L, 1, 5L))).isEqualTo(65L);
+        assertThat(ConsumerBackpressure.totalLag(Map.of(0, 60L, 1, -1L))).isEqualTo(-1L);
+    }
+
+    @Test
+    void pausesWhileRequestsWaitForConnections() {
+        backpressure = newBackpressure();
+
+        pending.set(1);
+        backpressure.check();
+
+        assertThat(backpressure.status()).containsEntry("pauseReason", "pending_connections");
+        assertThat(meterRegistry.get("relaydocs.kafka.consumer.paused").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void pausesOnHttpP99() {
+        backpressure = newBackpressure();
+        Timer latency = Timer.builder(RequestCorrelationFilter.LATENCY_TIMER)
+                .publishPercentiles(0.99)
+                .register(meterRegistry);
+
+        latency.record(10, TimeUnit.MILLISECONDS);
+        backpressure.check();
+        assertThat(backpressure.isPaused()).isFalse();
+
+        for (int index = 0; index < 100; index++) {
+            latency.record(800, TimeUnit.MILLISECONDS);
+        }
+        backpressure.check();
+
+        assertThat(backpressure.status()).containsEntry("pauseReason", "http_p99");
+        assertThat((double) backpressure.status().get("httpP99Ms")).isGreaterThanOrEqualTo(500.0);
+    }
+
+    @Test
+    void resumesAfterMaxPauseEvenUnderLoad() {
+        properties.setMaxPause(Duration.ZERO);
+        properties.setMinRunAfterMaxPause(Duration.ZERO);
+        backpressure = newBackpressure();
+        active.set(10);
+
+        backpressure.check();
+        backpressure.check();
+        assertThat(backpressure.isPaused()).isFalse();
+        backpressure.check();
+
+        assertThat(backpressure.isPaused()).isTrue();
+        verify(container, times(2)).pause();
+        verify(container).resume();
+    }
+
+    @Test
+    void runsForTheMinimumWindowAfterAForcedResume() {
+        properties.setMaxPause(Duration.ZERO);
+        properties.setMinRunAfterMaxPause(Duration.ofHours(1));
+        backpressure = newBackpressure();
+        active.set(10);
+
+        backpressure.check();
+        backpressure.check();
+        backpressure.check();
+        backpressure.check();
+
+        assertThat(backpressure.isPaused()).isFalse();
+        verify(container, times(1)).pause();
+        verify(container).resume();
+    }
+
+    private ConsumerBackpressure newBackpressure() {
+        return new ConsumerBackpressure(properties, new RelayEventProperties(), registryProvider, kafkaAdmin, meterRegistry);
+    }
+}
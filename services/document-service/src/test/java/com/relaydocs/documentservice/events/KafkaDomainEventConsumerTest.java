@@ -2,12 +2,22 @@ package com.relaydocs.documentservice.events;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.HexFormat;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class KafkaDomainEventConsumerTest {
 
+    private static final AvroEventCodec CODEC = new AvroEventCodec(
+            new EventSchemaRegistry(new RelayEventProperties(), new DefaultResourceLoader())
+    );
+
     @Test
     void handleEventUsesHashAsFallbackEventIdWhenMissing() {
         FakeEventConsumptionRecorder eventConsumptionRecorder = new FakeEventConsumptionRecorder(true);
@@ -16,7 +26,9 @@ class KafkaDomainEventConsumerTest {
         KafkaDomainEventConsumer consumer = new KafkaDomainEventConsumer(
                 new ObjectMapper(),
                 eventConsumptionRecorder,
-                relayEventProperties
+                relayEventProperties,
+                CODEC,
+                KafkaTracing.disabled()
         );
         String payload = """
                 {
@@ -36,6 +48,28 @@ class KafkaDomainEventConsumerTest {
         assertThat(eventConsumptionRecorder.lastEventId).hasSize(64);
     }
 
+    @Test
+    void byteRecordsReadOnlyTopLevelEnvelopeFieldsAndHashRawBytes() throws Exception {
+        FakeEventConsumptionRecorder eventConsumptionRecorder = new FakeEventConsumptionRecorder(true);
+        KafkaDomainEventConsumer consumer = new KafkaDomainEventConsumer(
+                new ObjectMapper(),
+                eventConsumptionRecorder,
+                new RelayEventProperties(),
+                CODEC,
+                KafkaTracing.disabled()
+        );
+        byte[] record = """
+                {"payload":{"eventId":"nested","aggregateId":"nested"},"eventId":7,"eventType":"document.updated","aggregateId":"9","occurredAt":"2026-02-12T00:00:00Z"}
+                """.strip().getBytes(StandardCharsets.UTF_8);
+
+        consumer.handleEvent(record);
+
+        byte[] expectedHash = MessageDigest.getInstance("SHA-256").digest(record);
+        assertThat(eventConsumptionRecorder.lastEventId).isEqualTo(HexFormat.of().formatHex(expectedHash));
+        assertThat(eventConsumptionRecorder.lastAggregateId).isEqualTo("9");
+        assertThat(eventConsumptionRecorder.lastOccurredAt).isEqualTo(Instant.parse("2026-02-12T00:00:00Z"));
+    }
+
     @Test
     void handleEventThrowsForInvalidPayload() {
         FakeEventConsumptionRecorder eventConsumptionRecorder = new FakeEventConsumptionRecorder(true);
@@ -43,7 +77,9 @@ class KafkaDomainEventConsumerTest {
         KafkaDomainEventConsumer consumer = new KafkaDomainEventConsumer(
                 new ObjectMapper(),
                 eventConsumptionRecorder,
-                relayEventProperties
+                relayEventProperties,
+                CODEC,
+                KafkaTracing.disabled()
         );
 
         assertThatThrownBy(() -> consumer.handleEvent("{\"aggregateId\":\"1\"}"))
@@ -0,0 +1,53 @@
+package com.relaydocs.documentservice.events;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.util.List;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class KafkaListenerReadyStarterTest {
+
+    @Mock
+    private ObjectProvider<KafkaListenerEndpointRegistry> registryProvider;
+
+    @Mock
+    private KafkaListenerEndpointRegistry registry;
+
+    @Mock
+    private MessageListenerContainer stoppedContainer;
+
+    @Mock
+    private MessageListenerContainer runningContainer;
+
+    @Test
+    void startsStoppedContainersOnceReadyWhenDeferred() {
+        RelayEventProperties properties = new RelayEventProperties();
+        properties.setKafkaConsumerStartWhenReady(true);
+        when(registryProvider.getIfAvailable()).thenReturn(registry);
+        when(registry.getListenerContainers()).thenReturn(List.of(stoppedContainer, runningContainer));
+        when(runningContainer.isRunning()).thenReturn(true);
+
+        new KafkaListenerReadyStarter(properties, registryProvider).startListeners();
+
+        verify(stoppedContainer).start();
+        verify(runningContainer, never()).start();
+    }
+
+    @Test
+    void leavesContainersAloneWhenNotDeferred() {
+        new KafkaListenerReadyStarter(new RelayEventProperties(), registryProvider).startListeners();
+
+        verifyNoInteractions(registryProvider);
+    }
+}
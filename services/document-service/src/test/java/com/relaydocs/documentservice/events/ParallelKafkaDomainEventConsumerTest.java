@@ -0,0 +1,179 @@
+package com.relaydocs.documentservice.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class ParallelKafkaDomainEventConsumerTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("relaydocs.domain-events", 0);
+
+    private final OrderRecordingRecorder recorder = new OrderRecordingRecorder();
+    private final MockConsumer<String, byte[]> kafkaConsumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    private ParallelKafkaDomainEventConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        kafkaConsumer.assign(List.of(PARTITION));
+    }
+
+    @AfterEach
+    void tearDown() {
+        recorder.blocked.countDown();
+        consumer.shutdown();
+    }
+
+    @Test
+    void preservesOrderPerAggregateAcrossWorkers() {
+        consumer = consumer(4);
+        List<ConsumerRecord<String, byte[]>> records = new ArrayList<>();
+        for (int index = 0; index < 40; index++) {
+            String aggregateId = String.valueOf(index % 4);
+            records.add(record(index, aggregateId, "event-" + index));
+        }
+
+        consumer.handleBatch(records, kafkaConsumer);
+
+        awaitCommitted(40);
+        assertThat(recorder.eventIdsByAggregate).hasSize(4);
+        recorder.eventIdsByAggregate.forEach((aggregateId, eventIds) -> {
+            List<Integer> sequence = eventIds.stream().map((eventId) -> Integer.parseInt(eventId.substring(6))).toList();
+            assertThat(sequence).isSorted().hasSize(10);
+        });
+    }
+
+    @Test
+    void retriesFailuresWithinTheirLaneWithoutFailingTheBatch() {
+        consumer = consumer(2);
+        recorder.failuresLeft.put("event-1", 1);
+        recorder.failuresLeft.put("event-3", Integer.MAX_VALUE);
+        List<ConsumerRecord<String, byte[]>> records = List.of(
+                record(0, "a", "event-0"),
+                record(1, "b", "event-1"),
+                record(2, "a", "event-2"),
+                record(3, "b", "event-3"),
+                record(4, "a", "event-4"),
+                record(5, "b", "event-5")
+        );
+
+        consumer.handleBatch(records, kafkaConsumer);
+
+        awaitCommitted(6);
+        // event-1 succeeds on its retry; event-3 never does and is skipped after the last attempt.
+        assertThat(recorder.eventIdsByAggregate.get("b")).containsExactly("event-1", "event-5");
+        assertThat(recorder.eventIdsByAggregate.get("a")).containsExactly("event-0", "event-2", "event-4");
+        assertThat(recorder.attempts.get("event-3")).isEqualTo(KafkaConsumerConfiguration.MAX_RETRIES + 1);
+    }
+
+    @Test
+    void keepsPollingWhileALaneWaitsAndCommitsOnlyTheFinishedPrefix() {
+        consumer = consumer(2);
+        recorder.blockedEventId = "event-1";
+        consumer.handleBatch(List.of(
+                record(0, "a", "event-0"),
+                record(1, "b", "event-1"),
+                record(2, "a", "event-2"),
+                record(3, "b", "event-3")
+        ), kafkaConsumer);
+
+        // The next poll is handled while event-1 is still running.
+        consumer.handleBatch(List.of(record(4, "a", "event-4")), kafkaConsumer);
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> recorder.eventIdsByAggregate.getOrDefault("a", List.of()).size() == 3);
+        consumer.commitCompleted(kafkaConsumer);
+
+        assertThat(recorder.eventIdsByAggregate.get("a")).containsExactly("event-0", "event-2", "event-4");
+        assertThat(recorder.eventIdsByAggregate).doesNotContainKey("b");
+        assertThat(committedOffset()).isEqualTo(1L);
+
+        recorder.blocked.countDown();
+        awaitCommitted(5);
+        assertThat(recorder.eventIdsByAggregate.get("b")).containsExactly("event-1", "event-3");
+    }
+
+    private void awaitCommitted(long offset) {
+        await().atMost(Duration.ofSeconds(10)).until(() -> {
+            consumer.commitCompleted(kafkaConsumer);
+            Long committed = committedOffset();
+            return committed != null && committed == offset;
+        });
+    }
+
+    private Long committedOffset() {
+        OffsetAndMetadata committed = kafkaConsumer.committed(Set.of(PARTITION)).get(PARTITION);
+        return committed == null ? null : committed.offset();
+    }
+
+    private ParallelKafkaDomainEventConsumer consumer(int workers) {
+        RelayEventProperties properties = new RelayEventProperties();
+        properties.setKafkaConsumerWorkerThreads(workers);
+        AvroEventCodec codec = new AvroEventCodec(new EventSchemaRegistry(properties, new DefaultResourceLoader()));
+        return new ParallelKafkaDomainEventConsumer(new ObjectMapper(), recorder, properties, codec, KafkaTracing.disabled());
+    }
+
+    private static ConsumerRecord<String, byte[]> record(long offset, String aggregateId, String eventId) {
+        String payload = """
+                {"eventId":"%s","eventType":"document.updated","aggregateId":"%s","payload":{}}
+                """.formatted(eventId, aggregateId);
+        return new ConsumerRecord<>("relaydocs.domain-events", 0, offset, aggregateId, payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static final class OrderRecordingRecorder implements EventConsumptionRecorder {
+
+        private final Map<String, List<String>> eventIdsByAggregate = new ConcurrentHashMap<>();
+        private final Map<String, Integer> failuresLeft = new ConcurrentHashMap<>();
+        private final Map<String, Long> attempts = new ConcurrentHashMap<>();
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private volatile String blockedEventId;
+
+        @Override
+        public boolean recordIfNew(
+                String consumerName,
+                String eventId,
+                String eventType,
+                String aggregateId,
+                Instant occurredAt
+        ) {
+            attempts.merge(eventId, 1L, Long::sum);
+            if (eventId.equals(blockedEventId)) {
+                awaitRelease();
+            }
+            if (failuresLeft.computeIfPresent(eventId, (key, left) -> left - 1) != null
+                    && failuresLeft.get(eventId) >= 0) {
+                throw new IllegalStateException("Simulated failure for " + eventId);
+            }
+            eventIdsByAggregate.computeIfAbsent(aggregateId, (key) -> Collections.synchronizedList(new ArrayList<>())).add(eventId);
+            return true;
+        }
+
+        private void awaitRelease() {
+            try {
+                blocked.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.relaydocs.documentservice.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ContentSegmentStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private ContentSegmentStore store;
+
+    @AfterEach
+    void tearDown() {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    @Test
+    void appendedContentReadsBackThroughTheMapping() {
+        store = store(1024);
+
+        ColdContentPointer first = store.append(1L, "first body");
+        ColdContentPointer second = store.append(2L, "zweiter Körper ✓");
+
+        assertThat(store.read(first)).isEqualTo("first body");
+        assertThat(store.read(second)).isEqualTo("zweiter Körper ✓");
+        assertThat(second.offset()).isEqualTo(ContentSegmentStore.HEADER_BYTES + first.length());
+        assertThat(store.readBytes(second).isReadOnly()).isTrue();
+    }
+
+    @Test
+    void rollsToANewSegmentWhenFullAndSealsTheOldOne() {
+        store = store(64);
+
+        ColdContentPointer first = store.append(1L, "a".repeat(40));
+        ColdContentPointer second = store.append(2L, "b".repeat(40));
+
+        assertThat(second.segment()).isGreaterThan(first.segment());
+        assertThat(store.activeSegment()).isEqualTo(second.segment());
+        assertThat(store.sealedSegments()).containsExactly(first.segment());
+        assertThat(store.read(first)).isEqualTo("a".repeat(40));
+    }
+
+    @Test
+    void retiredSegmentsStayReadableUntilPurged() throws Exception {
+        store = store(64);
+        ColdContentPointer first = store.append(1L, "a".repeat(40));
+        store.append(2L, "b".repeat(40));
+
+        store.retire(first.segment());
+
+        assertThat(store.sealedSegments()).isEmpty();
+        assertThat(store.read(first)).isEqualTo("a".repeat(40));
+
+        store.purgeRetired();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.map((path) -> path.getFileName().toString())).noneMatch((name) -> name.endsWith(".retired"));
+        }
+    }
+
+    @Test
+    void nextProcessNeverAppendsToAnExistingSegment() {
+        store = store(1024);
+        ColdContentPointer first = store.append(1L, "before restart");
+        store.close();
+
+        store = store(1024);
+        ColdContentPointer second = store.append(2L, "after restart");
+
+        assertThat(second.segment()).isGreaterThan(first.segment());
+        assertThat(store.read(first)).isEqualTo("before restart");
+    }
+
+    @Test
+    void rejectsPointersThatDoNotMatchTheEntry() throws Exception {
+        store = store(1024);
+        ColdContentPointer pointer = store.append(7L, "payload");
+        store.force();
+
+        assertThatThrownBy(() -> store.read(new ColdContentPointer(8L, pointer.segment(), pointer.offset(), pointer.length())))
+                .isInstanceOf(IllegalStateException.class);
+
+        Path segmentFile;
+        try (Stream<Path> files = Files.list(directory)) {
+            segmentFile = files.findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap("P".getBytes(StandardCharsets.UTF_8)), ContentSegmentStore.HEADER_BYTES);
+        }
+        store.close();
+        store = store(1024);
+
+        assertThatThrownBy(() -> store.read(pointer))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("checksum");
+    }
+
+    private ContentSegmentStore store(long maxSegmentBytes) {
+        ContentTieringProperties properties = new ContentTieringProperties();
+        properties.setDirectory(directory.toString());
+        properties.setMaxSegmentBytes(maxSegmentBytes);
+        return new ContentSegmentStore(properties);
+    }
+}
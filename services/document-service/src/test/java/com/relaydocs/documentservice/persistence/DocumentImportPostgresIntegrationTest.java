@@ -0,0 +1,122 @@
+package com.relaydocs.documentservice.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.driver-class-name=org.postgresql.Driver",
+        "spring.datasource.username=relaydocs",
+        "spring.datasource.password=relaydocs",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class DocumentImportPostgresIntegrationTest {
+
+    @Container
+    static final GenericContainer<?> POSTGRES = new GenericContainer<>("postgres:16-alpine")
+            .withEnv("POSTGRES_USER", "relaydocs")
+            .withEnv("POSTGRES_PASSWORD", "relaydocs")
+            .withEnv("POSTGRES_DB", "relaydocs")
+            .withExposedPorts(5432)
+            .waitingFor(Wait.forLogMessage(".*database system is ready to accept connections.*", 2));
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:postgresql://%s:%d/relaydocs".formatted(
+                POSTGRES.getHost(),
+                POSTGRES.getMappedPort(5432)
+        ));
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void importsNdjsonThroughCopyAndExportsItBack() throws Exception {
+        String ndjson = """
+                {"title":"First","content":"Tabs\\tand\\nlines \\\\ kept","sharedWith":{"import-reader":"viewer"}}
+                {"title":"Second","content":"Plain","sharedWith":{"import-owner":"editor","import-editor":"editor"}}
+                """;
+
+        mockMvc.perform(post("/api/v1/documents/bulk")
+                        .header("X-User-Id", "import-owner")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.documentIds.length()").value(2));
+
+        mockMvc.perform(get("/api/v1/documents").header("X-User-Id", "import-reader"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.documents.length()").value(1))
+                .andExpect(jsonPath("$.documents[0].content").value("Tabs\tand\nlines \\ kept"))
+                .andExpect(jsonPath("$.documents[0].sharedWith.import-reader").value("viewer"));
+        mockMvc.perform(get("/api/v1/documents/changes").header("X-User-Id", "import-editor"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.documents[0].title").value("Second"));
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM document_import_staging", Long.class)).isZero();
+
+        MvcResult export = mockMvc.perform(get("/api/v1/documents/bulk").header("X-User-Id", "import-owner"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String exported = mockMvc.perform(asyncDispatch(export))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        mockMvc.perform(post("/api/v1/documents/bulk")
+                        .header("X-User-Id", "import-reader")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(exported))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.imported").value(2));
+    }
+
+    @Test
+    void rejectsInvalidLinesWithoutImportingAnything() throws Exception {
+        String ndjson = """
+                {"title":"Valid","content":"Body"}
+                {"title":"","content":"Missing title"}
+                """;
+
+        mockMvc.perform(post("/api/v1/documents/bulk")
+                        .header("X-User-Id", "import-rejected")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid request"));
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM documents WHERE owner_id = 'import-rejected'",
+                Long.class
+        )).isZero();
+    }
+}
@@ -0,0 +1,21 @@
+package com.relaydocs.documentservice.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocumentImportStagingTest {
+
+    @Test
+    void escapesCopyTextDelimitersAndNulls() {
+        StringBuilder row = new StringBuilder();
+
+        DocumentImportStaging.appendField(row, "tab\there\nnew\r\\end é");
+        row.append('|');
+        DocumentImportStaging.appendField(row, null);
+        row.append('|');
+        DocumentImportStaging.appendField(row, "\\N");
+
+        assertThat(row.toString()).isEqualTo("tab\\there\\nnew\\r\\\\end é|\\N|\\\\N");
+    }
+}
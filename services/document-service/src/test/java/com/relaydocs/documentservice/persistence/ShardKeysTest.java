@@ -0,0 +1,32 @@
+package com.relaydocs.documentservice.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardKeysTest {
+
+    @Test
+    void ownerHashIsStableAndSpreadsSequentialIds() {
+        assertThat(ShardKeys.shardForOwner("user-1", 4)).isEqualTo(ShardKeys.shardForOwner("user-1", 4));
+        assertThat(IntStream.range(0, 64).map((index) -> ShardKeys.shardForOwner("user-" + index, 4)).distinct().count())
+                .isEqualTo(4L);
+    }
+
+    @Test
+    void firstIdAboveFloorEncodesShardAndNeverCollidesWithLegacyIds() {
+        long floor = 5000L;
+
+        for (int shard = 0; shard < 3; shard++) {
+            long firstId = ShardKeys.firstIdAbove(floor, shard);
+            assertThat(firstId).isGreaterThan(floor);
+            assertThat(ShardKeys.homeShardOf(firstId, floor)).isEqualTo(shard);
+            assertThat(ShardKeys.homeShardOf(firstId + 7L * ShardKeys.ID_SPACE, floor)).isEqualTo(shard);
+        }
+        assertThat(ShardKeys.homeShardOf(floor, floor)).isZero();
+        assertThat(ShardKeys.homeShardOf(1027L, floor)).isZero();
+        assertThat(ShardKeys.firstIdAbove(0L, 0)).isEqualTo(ShardKeys.ID_SPACE);
+    }
+}
@@ -0,0 +1,105 @@
+package com.relaydocs.documentservice.service;
+
+import com.relaydocs.documentservice.domain.AuditAction;
+import com.relaydocs.documentservice.persistence.AuditLogWriter;
+import com.relaydocs.documentservice.persistence.AuditRecord;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class AuditLogTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AuditLogWriter writer = mock(AuditLogWriter.class);
+    private final List<AuditRecord> written = new ArrayList<>();
+    private AuditLog auditLog;
+
+    @AfterEach
+    void shutdown() {
+        if (auditLog != null) {
+            auditLog.shutdown();
+        }
+    }
+
+    @Test
+    void dropsAndCountsRecordsWhenTheBufferIsFull() {
+        captureWrites();
+        auditLog = auditLog(AuditLogProperties.OverflowPolicy.DROP, 4);
+
+        for (int index = 0; index < 6; index++) {
+            auditLog.record(AuditAction.LOGIN_SUCCEEDED, "user-" + index, null, null, null, null);
+        }
+        assertThat(auditLog.bufferedRecords()).isEqualTo(4);
+
+        auditLog.flush();
+
+        assertThat(written).extracting(AuditRecord::actorUserId).containsExactly("user-0", "user-1", "user-2", "user-3");
+        assertThat(meterRegistry.get("relaydocs.audit.dropped").tag("reason", "overflow").counter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("relaydocs.audit.records").tag("result", "written").counter().count()).isEqualTo(4.0);
+    }
+
+    @Test
+    void blockingPolicyWaitsForTheWriterInsteadOfDropping() {
+        captureWrites();
+        auditLog = auditLog(AuditLogProperties.OverflowPolicy.BLOCK, 4);
+
+        for (int index = 0; index < 6; index++) {
+            auditLog.record(AuditAction.DOCUMENT_SHARED, "owner", "user-" + index, 7L, null, "viewer");
+        }
+        auditLog.flush();
+
+        assertThat(written).hasSize(6);
+        assertThat(meterRegistry.get("relaydocs.audit.dropped").tag("reason", "overflow").counter().count()).isZero();
+    }
+
+    @Test
+    void countsRecordsLostToAFailedWrite() {
+        doThrow(new IllegalStateException("database down")).when(writer).write(anyList());
+        auditLog = auditLog(AuditLogProperties.OverflowPolicy.DROP, 16);
+
+        auditLog.record(AuditAction.LOGIN_FAILED, "user", null, null, null, "wrong_password");
+        auditLog.record(AuditAction.LOGIN_FAILED, "user", null, null, null, "wrong_password");
+        auditLog.flush();
+
+        assertThat(meterRegistry.get("relaydocs.audit.dropped").tag("reason", "write_failed").counter().count()).isEqualTo(2.0);
+        assertThat(auditLog.bufferedRecords()).isZero();
+    }
+
+    @Test
+    void disabledLogRecordsNothing() {
+        AuditLogProperties properties = new AuditLogProperties();
+        properties.setEnabled(false);
+        auditLog = new AuditLog(writer, properties, meterRegistry);
+
+        auditLog.record(AuditAction.LOGIN_SUCCEEDED, "user", null, null, null, null);
+
+        assertThat(auditLog.bufferedRecords()).isZero();
+    }
+
+    private void captureWrites() {
+        doAnswer((invocation) -> {
+            written.addAll(invocation.getArgument(0));
+            return null;
+        }).when(writer).write(anyList());
+    }
+
+    private AuditLog auditLog(AuditLogProperties.OverflowPolicy policy, int capacity) {
+        AuditLogProperties properties = new AuditLogProperties();
+        properties.setBufferCapacity(capacity);
+        properties.setBatchSize(100);
+        properties.setFlushInterval(Duration.ofHours(1));
+        properties.setOverflowPolicy(policy);
+        properties.setBlockTimeout(Duration.ofSeconds(5));
+        return new AuditLog(writer, properties, meterRegistry);
+    }
+}
@@ -0,0 +1,178 @@
+package com.relaydocs.documentservice.service;
+
+import com.relaydocs.documentservice.api.dto.AutosaveAcknowledgementResponse;
+import com.relaydocs.documentservice.api.dto.UpdateDocumentRequest;
+import com.relaydocs.documentservice.domain.AccessRole;
+import com.relaydocs.documentservice.persistence.DocumentRepository;
+import com.relaydocs.documentservice.persistence.ShardPlacementDirectory;
+import com.relaydocs.documentservice.persistence.ShardingProperties;
+import com.relaydocs.documentservice.persistence.UserDocumentAccessEntity;
+import com.relaydocs.documentservice.persistence.UserDocumentAccessId;
+import com.relaydocs.documentservice.persistence.UserDocumentAccessRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AutosaveBufferTest {
+
+    @Mock
+    private DocumentService documentService;
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private UserDocumentAccessRepository userDocumentAccessRepository;
+
+    @Mock
+    private GroupVisibilityIndex groupVisibilityIndex;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AutosaveBuffer autosaveBuffer;
+
+    @AfterEach
+    void tearDown() {
+        if (autosaveBuffer != null) {
+            autosaveBuffer.shutdown();
+        }
+    }
+
+    @Test
+    void mergesSavesWithinQuietWindowIntoOneUpdate() {
+        autosaveBuffer = buffer(Duration.ofMillis(200), Duration.ofSeconds(10));
+        grantAccess("editor-user", 42L, AccessRole.EDITOR);
+
+        AutosaveAcknowledgementResponse first = autosaveBuffer.submit(42L, "editor-user", new UpdateDocumentRequest("Draft", "one"));
+        AutosaveAcknowledgementResponse second = autosaveBuffer.submit(42L, "editor-user", new UpdateDocumentRequest(null, "two"));
+        autosaveBuffer.submit(42L, "editor-user", new UpdateDocumentRequest(null, "three"));
+
+        assertThat(second.sequence()).isGreaterThan(first.sequence());
+        verify(documentService, timeout(2000)).updateDocument(42L, "editor-user", new UpdateDocumentRequest("Draft", "three"));
+        verify(documentService, after(300).times(1)).updateDocument(anyLong(), anyString(), any());
+        assertThat(meterRegistry.get("relaydocs.autosave.flushes").tag("result", "success").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void flushesPendingSavesOnShutdown() {
+        autosaveBuffer = buffer(Duration.ofMinutes(1), Duration.ofMinutes(5));
+        grantAccess("owner-user", 7L, AccessRole.OWNER);
+
+        autosaveBuffer.submit(7L, "owner-user", new UpdateDocumentRequest(null, "unsaved"));
+        verify(documentService, never()).updateDocument(anyLong(), anyString(), any());
+
+        autosaveBuffer.shutdown();
+        autosaveBuffer = null;
+
+        verify(documentService, times(1)).updateDocument(7L, "owner-user", new UpdateDocumentRequest(null, "unsaved"));
+    }
+
+    @Test
+    void rejectsViewers() {
+        autosaveBuffer = buffer(Duration.ofMillis(50), Duration.ofSeconds(1));
+        grantAccess("viewer-user", 7L, AccessRole.VIEWER);
+
+        assertThatThrownBy(() -> autosaveBuffer.submit(7L, "viewer-user", new UpdateDocumentRequest(null, "nope")))
+                .isInstanceOf(ApiForbiddenException.class);
+    }
+
+    @Test
+    void rejectsNewDocumentsOnceTheBufferIsFull() {
+        autosaveBuffer = buffer(Duration.ofMinutes(1), Duration.ofMinutes(5), 1);
+        grantAccess("owner-user", 7L, AccessRole.OWNER);
+        grantAccess("owner-user", 8L, AccessRole.OWNER);
+
+        autosaveBuffer.submit(7L, "owner-user", new UpdateDocumentRequest(null, "first"));
+
+        assertThatThrownBy(() -> autosaveBuffer.submit(8L, "owner-user", new UpdateDocumentRequest(null, "second")))
+                .isInstanceOf(ApiServiceUnavailableException.class);
+        assertThat(autosaveBuffer.submit(7L, "owner-user", new UpdateDocumentRequest(null, "again")).buffered()).isTrue();
+        assertThat(meterRegistry.get("relaydocs.autosave.rejected").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void flushesEachEditorsSavesUnderTheirOwnName() {
+        autosaveBuffer = buffer(Duration.ofMillis(200), Duration.ofSeconds(10));
+        grantAccess("owner-user", 42L, AccessRole.OWNER);
+        grantAccess("editor-user", 42L, AccessRole.EDITOR);
+
+        autosaveBuffer.submit(42L, "owner-user", new UpdateDocumentRequest("Draft", "one"));
+        autosaveBuffer.submit(42L, "editor-user", new UpdateDocumentRequest(null, "two"));
+
+        InOrder order = inOrder(documentService);
+        order.verify(documentService, timeout(2000)).updateDocument(42L, "owner-user", new UpdateDocumentRequest("Draft", "one"));
+        order.verify(documentService, timeout(2000)).updateDocument(42L, "editor-user", new UpdateDocumentRequest(null, "two"));
+    }
+
+    @Test
+    void writesTheNextSaveSynchronouslyAfterAFailedFlush() {
+        autosaveBuffer = buffer(Duration.ofMillis(50), Duration.ofSeconds(1));
+        grantAccess("editor-user", 42L, AccessRole.EDITOR);
+        UpdateDocumentRequest lost = new UpdateDocumentRequest("Draft", "one");
+        doThrow(new IllegalStateException("database unavailable"))
+                .when(documentService).updateDocument(42L, "editor-user", lost);
+
+        autosaveBuffer.submit(42L, "editor-user", lost);
+        verify(documentService, timeout(2000)).updateDocument(42L, "editor-user", lost);
+        verify(documentService, after(100).times(1)).updateDocument(anyLong(), anyString(), any());
+
+        AutosaveAcknowledgementResponse next = autosaveBuffer.submit(42L, "editor-user", new UpdateDocumentRequest(null, "two"));
+
+        assertThat(next.buffered()).isFalse();
+        assertThat(next.flushBy()).isNull();
+        verify(documentService).updateDocument(42L, "editor-user", new UpdateDocumentRequest("Draft", "two"));
+    }
+
+    private AutosaveBuffer buffer(Duration quietWindow, Duration maxDelay) {
+        return buffer(quietWindow, maxDelay, new AutosaveProperties().getMaxPendingDocuments());
+    }
+
+    private AutosaveBuffer buffer(Duration quietWindow, Duration maxDelay, int maxPendingDocuments) {
+        AutosaveProperties properties = new AutosaveProperties();
+        properties.setQuietWindow(quietWindow);
+        properties.setMaxDelay(maxDelay);
+        properties.setMaxPendingDocuments(maxPendingDocuments);
+        ShardRouter shardRouter = new ShardRouter(
+                new ShardingProperties(),
+                new StaticListableBeanFactory().getBeanProvider(ShardPlacementDirectory.class),
+                meterRegistry
+        );
+        return new AutosaveBuffer(
+                documentService,
+                documentRepository,
+                userDocumentAccessRepository,
+                groupVisibilityIndex,
+                shardRouter,
+                properties,
+                meterRegistry
+        );
+    }
+
+    private void grantAccess(String userId, Long documentId, AccessRole role) {
+        when(userDocumentAccessRepository.findById(new UserDocumentAccessId(userId, documentId)))
+                .thenReturn(Optional.of(new UserDocumentAccessEntity(userId, documentId, role)));
+    }
+}
@@ -0,0 +1,175 @@
+package com.relaydocs.documentservice.service;
+
+import com.relaydocs.documentservice.domain.DocumentChangeType;
+import com.relaydocs.documentservice.persistence.DocumentChangeEntity;
+import com.relaydocs.documentservice.persistence.DocumentChangeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DocumentChangeLogIntegrationTest {
+
+    @Autowired
+    private DocumentChangeLog documentChangeLog;
+
+    @Autowired
+    private DocumentChangeRepository documentChangeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void laterWriterForTheSameUserWaitsUntilTheEarlierOneCommits() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CountDownLatch firstWritten = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = executor.submit(() -> transactionTemplate.executeWithoutResult((status) -> {
+                documentChangeLog.record("interleaved-reader", 1L, DocumentChangeType.UPSERT);
+                // Registered after the change log's own synchronization, so it runs once the entry is inserted.
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void beforeCommit(boolean readOnly) {
+                        firstWritten.countDown();
+                        awaitQuietly(releaseFirst);
+                    }
+                });
+            }));
+            assertThat(firstWritten.await(5, TimeUnit.SECONDS)).isTrue();
+
+            Future<?> second = executor.submit(() -> transactionTemplate.executeWithoutResult((status) ->
+                    documentChangeLog.record("interleaved-reader", 2L, DocumentChangeType.UPSERT)
+            ));
+            // Without the user lock the second entry would commit with a higher seq while the first is still open,
+            // and a client syncing now would move its cursor past the first for good.
+            assertThatThrownBy(() -> second.get(500, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+            assertThat(changesSince("interleaved-reader", 0L)).isEmpty();
+
+            releaseFirst.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+        } finally {
+            releaseFirst.countDown();
+            executor.shutdownNow();
+        }
+
+        List<DocumentChangeEntity> changes = changesSince("interleaved-reader", 0L);
+        assertThat(changes).extracting(DocumentChangeEntity::getDocumentId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void compactionKeepsOnlyTheLatestEntryPerUserAndDocument() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult((status) ->
+                documentChangeLog.record(List.of("compacted-a", "compacted-b"), 10L, DocumentChangeType.UPSERT));
+        transactionTemplate.executeWithoutResult((status) -> documentChangeLog.record("compacted-a", 10L, DocumentChangeType.UPSERT));
+        transactionTemplate.executeWithoutResult((status) -> documentChangeLog.record("compacted-a", 11L, DocumentChangeType.UPSERT));
+        transactionTemplate.executeWithoutResult((status) -> documentChangeLog.record("compacted-a", 10L, DocumentChangeType.REVOKE));
+        long cursorBeforeRevoke = changesSince("compacted-a", 0L).get(2).getSeq();
+
+        documentChangeLog.compact();
+
+        assertThat(changesSince("compacted-a", 0L))
+                .extracting(DocumentChangeEntity::getDocumentId, DocumentChangeEntity::getChangeType)
+                .containsExactly(tuple(11L, DocumentChangeType.UPSERT), tuple(10L, DocumentChangeType.REVOKE));
+        assertThat(changesSince("compacted-a", cursorBeforeRevoke))
+                .extracting(DocumentChangeEntity::getChangeType)
+                .containsExactly(DocumentChangeType.REVOKE);
+        assertThat(changesSince("compacted-b", 0L)).hasSize(1);
+    }
+
+    @Test
+    void groupChangesAreOneEntryMergedIntoEachMembersFeed() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult((status) -> documentChangeLog.record("merged-member", 20L, DocumentChangeType.UPSERT));
+        transactionTemplate.executeWithoutResult((status) -> documentChangeLog.recordForGroup(900L, 21L, DocumentChangeType.UPSERT));
+        transactionTemplate.executeWithoutResult((status) -> documentChangeLog.recordForGroup(900L, 21L, DocumentChangeType.REVOKE));
+        transactionTemplate.executeWithoutResult((status) -> documentChangeLog.recordForGroup(901L, 22L, DocumentChangeType.UPSERT));
+
+        documentChangeLog.compact();
+
+        assertThat(documentChangeRepository.findAll())
+                .filteredOn((change) -> Long.valueOf(900L).equals(change.getGroupId()))
+                .extracting(DocumentChangeEntity::getUserId, DocumentChangeEntity::getDocumentId, DocumentChangeEntity::getChangeType)
+                .containsExactly(tuple(null, 21L, DocumentChangeType.REVOKE));
+        assertThat(mergedChangesSince("merged-member", List.of(900L), 0L))
+                .extracting(DocumentChangeEntity::getDocumentId, DocumentChangeEntity::getChangeType)
+                .containsExactly(tuple(20L, DocumentChangeType.UPSERT), tuple(21L, DocumentChangeType.REVOKE));
+        assertThat(mergedChangesSince("merged-member", List.of(), 0L))
+                .extracting(DocumentChangeEntity::getDocumentId)
+                .containsExactly(20L);
+    }
+
+    @Test
+    void readerWaitsForAnOpenWriterToOneOfItsGroups() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CountDownLatch groupWritten = new CountDownLatch(1);
+        CountDownLatch releaseWriter = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> writer = executor.submit(() -> transactionTemplate.executeWithoutResult((status) -> {
+                documentChangeLog.recordForGroup(910L, 30L, DocumentChangeType.UPSERT);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void beforeCommit(boolean readOnly) {
+                        groupWritten.countDown();
+                        awaitQuietly(releaseWriter);
+                    }
+                });
+            }));
+            assertThat(groupWritten.await(5, TimeUnit.SECONDS)).isTrue();
+
+            Future<List<DocumentChangeEntity>> reader = executor.submit(() ->
+                    mergedChangesSince("waiting-member", List.of(910L), 0L));
+            // Reading now could return a later entry of the member's own feed and move the cursor past this one.
+            assertThatThrownBy(() -> reader.get(500, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+
+            releaseWriter.countDown();
+            writer.get(5, TimeUnit.SECONDS);
+            assertThat(reader.get(5, TimeUnit.SECONDS))
+                    .extracting(DocumentChangeEntity::getDocumentId)
+                    .containsExactly(30L);
+        } finally {
+            releaseWriter.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private List<DocumentChangeEntity> changesSince(String userId, long since) {
+        return documentChangeRepository.findByUserIdAndSeqGreaterThanOrderBySeqAsc(userId, since, PageRequest.of(0, 100));
+    }
+
+    private List<DocumentChangeEntity> mergedChangesSince(String userId, List<Long> groupIds, long since) {
+        return new TransactionTemplate(transactionManager).execute((status) ->
+                documentChangeLog.changesSince(userId, groupIds, since, 100));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
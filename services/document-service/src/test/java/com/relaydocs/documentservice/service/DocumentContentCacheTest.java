@@ -0,0 +1,77 @@
+package com.relaydocs.documentservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocumentContentCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void storesUtf8AcrossChunksExactlyAsStringGetBytes() {
+        DocumentContentCache cache = cache(4096, 1024, 16);
+        String content = "naïve ✓ 𝄞 " + "x".repeat(40) + "\uD800 tail";
+
+        assertThat(cache.put(1L, 1L, content)).isTrue();
+
+        try (DocumentContentCache.Lease lease = cache.acquire(1L, 1L)) {
+            assertThat(lease.length()).isEqualTo(content.getBytes(StandardCharsets.UTF_8).length);
+            assertThat(lease.chunks()).hasSizeGreaterThan(1);
+            assertThat(lease.decode()).isEqualTo(new String(content.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8));
+        }
+        assertThat(cache.acquire(1L, 2L)).isNull();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesOnceSlabsAreFull() {
+        DocumentContentCache cache = cache(64, 64, 16);
+        cache.put(1L, 1L, "a".repeat(32));
+        cache.put(2L, 1L, "b".repeat(32));
+        assertThat(cache.lookup(1L, 1L)).isTrue();
+        cache.acquire(1L, 1L).close();
+
+        cache.put(3L, 1L, ByteBuffer.wrap("c".repeat(20).getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(cache.lookup(2L, 1L)).isFalse();
+        assertThat(cache.lookup(1L, 1L)).isTrue();
+        assertThat(cache.contentBytes()).isEqualTo(52L);
+        assertThat(cache.reservedBytes()).isEqualTo(64L);
+        assertThat(meterRegistry.get("relaydocs.content.cache.requests").tag("result", "hit").counter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("relaydocs.content.cache.evictions").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void pinnedEntriesKeepTheirBytesUntilReleased() {
+        DocumentContentCache cache = cache(32, 32, 16);
+        cache.put(1L, 1L, "a".repeat(32));
+        DocumentContentCache.Lease lease = cache.acquire(1L, 1L);
+
+        assertThat(cache.put(2L, 1L, "b".repeat(32))).isFalse();
+        assertThat(lease.decode()).isEqualTo("a".repeat(32));
+        assertThat(cache.acquire(1L, 1L)).isNull();
+
+        lease.close();
+        assertThat(cache.put(2L, 1L, "b".repeat(32))).isTrue();
+    }
+
+    @Test
+    void rejectsContentLargerThanTheCache() {
+        DocumentContentCache cache = cache(32, 32, 16);
+
+        assertThat(cache.put(1L, 1L, "a".repeat(33))).isFalse();
+        assertThat(cache.size()).isZero();
+    }
+
+    private DocumentContentCache cache(long maxBytes, int slabBytes, int chunkBytes) {
+        DocumentContentCacheProperties properties = new DocumentContentCacheProperties();
+        properties.setMaxBytes(maxBytes);
+        properties.setSlabBytes(slabBytes);
+        properties.setChunkBytes(chunkBytes);
+        return new DocumentContentCache(properties, meterRegistry);
+    }
+}
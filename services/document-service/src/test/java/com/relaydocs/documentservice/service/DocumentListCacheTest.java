@@ -0,0 +1,112 @@
+package com.relaydocs.documentservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class DocumentListCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void documentEventEvictsOnlyListsContainingTheDocument() {
+        DocumentListCache cache = cache(1024);
+        cache.put("alice", cache.beginRead(), new long[] {1L, 2L}, body("alice"));
+        cache.put("bob", cache.beginRead(), new long[] {2L, 3L}, body("bob"));
+        cache.put("carol", cache.beginRead(), new long[] {3L}, body("carol"));
+
+        cache.evict("1", Map.of("actorUserId", "alice"));
+
+        assertThat(cache.get("alice")).isNull();
+        assertThat(cache.get("bob")).isEqualTo(body("bob"));
+        assertThat(cache.get("carol")).isEqualTo(body("carol"));
+
+        cache.evict("4", Map.of("targetUserId", "carol"));
+
+        assertThat(cache.get("bob")).isEqualTo(body("bob"));
+        assertThat(cache.get("carol")).isNull();
+        assertThat(meterRegistry.get("relaydocs.list.cache.invalidations").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void batchEventEvictsEveryNamedUser() {
+        DocumentListCache cache = cache(1024);
+        cache.put("alice", cache.beginRead(), new long[] {1L}, body("alice"));
+        cache.put("bob", cache.beginRead(), new long[] {2L}, body("bob"));
+        cache.put("carol", cache.beginRead(), new long[] {3L}, body("carol"));
+
+        cache.evict("import:batch", Map.of("ownerUserId", "alice", "targetUserIds", List.of("bob")));
+
+        assertThat(cache.get("alice")).isNull();
+        assertThat(cache.get("bob")).isNull();
+        assertThat(cache.get("carol")).isEqualTo(body("carol"));
+    }
+
+    @Test
+    void dropsFillsThatRacedAnOverlappingInvalidation() {
+        DocumentListCache cache = cache(1024);
+        long aliceRead = cache.beginRead();
+        long bobRead = cache.beginRead();
+
+        cache.invalidateDocument(2L);
+        cache.put("alice", aliceRead, new long[] {1L, 2L}, body("alice"));
+        cache.put("bob", bobRead, new long[] {3L}, body("bob"));
+
+        assertThat(cache.get("alice")).isNull();
+        assertThat(cache.get("bob")).isEqualTo(body("bob"));
+
+        long carolRead = cache.beginRead();
+        cache.invalidateUser("carol");
+        cache.put("carol", carolRead, new long[0], body("carol"));
+
+        assertThat(cache.get("carol")).isNull();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedListsOverTheByteBudget() {
+        DocumentListCache cache = cache(20);
+        cache.put("alice", cache.beginRead(), new long[] {1L}, new byte[8]);
+        cache.put("bob", cache.beginRead(), new long[] {1L}, new byte[8]);
+        assertThat(cache.get("alice")).isNotNull();
+
+        cache.put("carol", cache.beginRead(), new long[] {2L}, new byte[8]);
+
+        assertThat(cache.get("bob")).isNull();
+        assertThat(cache.get("alice")).isNotNull();
+        assertThat(cache.currentBytes()).isEqualTo(16L);
+
+        cache.invalidateDocument(1L);
+        assertThat(cache.currentBytes()).isEqualTo(8L);
+    }
+
+    @Test
+    void expiresListsAfterTheirTtl() {
+        DocumentListCache cache = cache(1024, Duration.ZERO);
+        cache.put("alice", cache.beginRead(), new long[] {1L}, body("alice"));
+
+        assertThat(cache.get("alice")).isNull();
+        assertThat(cache.currentBytes()).isZero();
+    }
+
+    private DocumentListCache cache(long maxBytes) {
+        return cache(maxBytes, Duration.ofMinutes(5));
+    }
+
+    private DocumentListCache cache(long maxBytes, Duration ttl) {
+        DocumentListCacheProperties properties = new DocumentListCacheProperties();
+        properties.setEnabled(true);
+        properties.setMaxBytes(maxBytes);
+        properties.setTtl(ttl);
+        return new DocumentListCache(properties, mock(GroupVisibilityIndex.class), meterRegistry);
+    }
+
+    private static byte[] body(String userId) {
+        return ("{\"user\":\"" + userId + "\"}").getBytes();
+    }
+}
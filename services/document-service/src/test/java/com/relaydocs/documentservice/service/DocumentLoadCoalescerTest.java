@@ -0,0 +1,114 @@
+package com.relaydocs.documentservice.service;
+
+import com.relaydocs.documentservice.api.dto.DocumentResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DocumentLoadCoalescerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DocumentLoadCoalescer coalescer = new DocumentLoadCoalescer(meterRegistry);
+
+    @Test
+    void concurrentLoadsOfSameDocumentShareOneFetch() throws Exception {
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            Future<DocumentSnapshot> leader = executor.submit(() -> coalescer.load(42L, () -> {
+                loads.incrementAndGet();
+                loaderStarted.countDown();
+                await(releaseLoader);
+                return snapshot(42L);
+            }));
+            loaderStarted.await();
+
+            Future<DocumentSnapshot> follower = executor.submit(() -> coalescer.load(42L, () -> {
+                loads.incrementAndGet();
+                return snapshot(42L);
+            }));
+            while (meterRegistry.get("relaydocs.documents.loads").tag("result", "coalesced").counter().count() < 1) {
+                Thread.onSpinWait();
+            }
+            releaseLoader.countDown();
+
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isSameAs(leader.get(5, TimeUnit.SECONDS));
+            assertThat(loads).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        coalescer.load(42L, () -> {
+            loads.incrementAndGet();
+            return snapshot(42L);
+        });
+        assertThat(loads).hasValue(2);
+        assertThat(meterRegistry.get("relaydocs.documents.loads").tag("result", "executed").counter().count())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    void loadStartedAfterAWriteDoesNotJoinTheEarlierFlight() throws Exception {
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            DocumentSnapshot stale = snapshot(42L);
+            Future<DocumentSnapshot> leader = executor.submit(() -> coalescer.load(42L, () -> {
+                loaderStarted.countDown();
+                await(releaseLoader);
+                return stale;
+            }));
+            loaderStarted.await();
+
+            coalescer.invalidateAfterCommit(42L);
+            DocumentSnapshot fresh = snapshot(42L);
+
+            assertThat(coalescer.load(42L, () -> fresh)).isSameAs(fresh);
+            releaseLoader.countDown();
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isSameAs(stale);
+        } finally {
+            releaseLoader.countDown();
+            executor.shutdownNow();
+        }
+        assertThat(meterRegistry.get("relaydocs.documents.loads").tag("result", "coalesced").counter().count())
+                .isZero();
+    }
+
+    @Test
+    void failedLoadIsNotRemembered() {
+        assertThatThrownBy(() -> coalescer.load(7L, () -> {
+            throw new ApiNotFoundException("Document not found");
+        })).isInstanceOf(ApiNotFoundException.class);
+
+        assertThat(coalescer.load(7L, () -> snapshot(7L)).document().id()).isEqualTo(7L);
+    }
+
+    private static DocumentSnapshot snapshot(Long id) {
+        Instant now = Instant.now();
+        return new DocumentSnapshot(1L, new DocumentResponse(id, "owner-user", "Title", "Body", Map.of(), now, now));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,15 +1,22 @@
 package com.relaydocs.documentservice.service;
 
+import com.relaydocs.documentservice.api.dto.DocumentResponse;
 import com.relaydocs.documentservice.api.dto.ShareDocumentRequest;
 import com.relaydocs.documentservice.api.dto.UpdateDocumentRequest;
+import com.relaydocs.documentservice.domain.AccessRole;
+import com.relaydocs.documentservice.domain.AuditAction;
 import com.relaydocs.documentservice.domain.PermissionRole;
 import com.relaydocs.documentservice.events.DomainEventPublisher;
 import com.relaydocs.documentservice.persistence.DocumentEntity;
 import com.relaydocs.documentservice.persistence.DocumentPermissionEntity;
 import com.relaydocs.documentservice.persistence.DocumentPermissionRepository;
 import com.relaydocs.documentservice.persistence.DocumentRepository;
+import com.relaydocs.documentservice.persistence.DocumentShare;
+import com.relaydocs.documentservice.persistence.UserDocumentAccessRepository;
 import com.relaydocs.documentservice.persistence.UserEntity;
+import com.relaydocs.documentservice.persistence.UserGroupMemberRepository;
 import com.relaydocs.documentservice.persistence.UserRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -18,7 +25,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -39,12 +50,36 @@ class DocumentServiceTest {
     @Mock
     private DocumentPermissionRepository documentPermissionRepository;
 
+    @Mock
+    private UserDocumentAccessRepository userDocumentAccessRepository;
+
+    @Mock
+    private UserGroupMemberRepository userGroupMemberRepository;
+
+    @Mock
+    private DocumentChangeLog documentChangeLog;
+
     @Mock
     private UserRepository userRepository;
 
     @Mock
     private DomainEventPublisher domainEventPublisher;
 
+    @Mock
+    private DocumentListCache documentListCache;
+
+    @Mock
+    private GroupVisibilityIndex groupVisibilityIndex;
+
+    @Mock
+    private DocumentLoadCoalescer documentLoadCoalescer;
+
+    @Mock
+    private AuditLog auditLog;
+
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private DocumentService documentService;
 
@@ -97,7 +132,13 @@ class DocumentServiceTest {
         assertThat(existingPermission.getRole()).isEqualTo(PermissionRole.EDITOR);
         assertThat(response.sharedWith()).containsEntry("target-user", "editor");
         verify(documentPermissionRepository).save(existingPermission);
+        verify(userDocumentAccessRepository).save(argThat((access) ->
+                "target-user".equals(access.getId().getUserId())
+                        && Long.valueOf(7L).equals(access.getId().getDocumentId())
+                        && access.getRole() == AccessRole.EDITOR
+        ));
         verify(domainEventPublisher, times(2)).publish(any(), eq("7"), any());
+        verify(auditLog).recordOnCommit(AuditAction.DOCUMENT_SHARED, "owner-user", "target-user", 7L, null, "editor");
     }
 
     @Test
@@ -134,6 +175,28 @@ class DocumentServiceTest {
         );
     }
 
+    @Test
+    void streamOwnedDocumentsLoadsSharesOncePerBatch() {
+        DocumentEntity first = createDocumentWithId(1L, "owner-user", "First", "One");
+        DocumentEntity second = createDocumentWithId(2L, "owner-user", "Second", "Two");
+        when(documentRepository.streamOwnedDocuments("owner-user")).thenReturn(Stream.of(first, second));
+        when(documentPermissionRepository.findSharesByDocumentIds(List.of(1L, 2L))).thenReturn(List.of(
+                new DocumentShare(2L, "editor-user", PermissionRole.EDITOR),
+                new DocumentShare(2L, "viewer-user", PermissionRole.VIEWER)
+        ));
+        List<DocumentResponse> exported = new ArrayList<>();
+
+        documentService.streamOwnedDocuments("owner-user", exported::add);
+
+        assertThat(exported).extracting("id").containsExactly(1L, 2L);
+        assertThat(exported.get(0).sharedWith()).isEmpty();
+        assertThat(exported.get(1).sharedWith())
+                .containsExactly(Map.entry("editor-user", "editor"), Map.entry("viewer-user", "viewer"));
+        verify(documentPermissionRepository, times(1)).findSharesByDocumentIds(any());
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+    }
+
     private static DocumentEntity createDocumentWithId(Long id, String ownerUserId, String title, String content) {
         UserEntity owner = new UserEntity(ownerUserId, ownerUserId + "@relaydocs.local");
         DocumentEntity document = new DocumentEntity(owner, title, content);
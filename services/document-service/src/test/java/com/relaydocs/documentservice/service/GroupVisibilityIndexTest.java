@@ -0,0 +1,122 @@
+package com.relaydocs.documentservice.service;
+
+import com.relaydocs.documentservice.domain.AccessRole;
+import com.relaydocs.documentservice.domain.PermissionRole;
+import com.relaydocs.documentservice.persistence.DocumentGroupPermissionRepository;
+import com.relaydocs.documentservice.persistence.GroupGrant;
+import com.relaydocs.documentservice.persistence.UserGroupMemberId;
+import com.relaydocs.documentservice.persistence.UserGroupMemberRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GroupVisibilityIndexTest {
+
+    @Mock
+    private UserGroupMemberRepository userGroupMemberRepository;
+
+    @Mock
+    private DocumentGroupPermissionRepository documentGroupPermissionRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private GroupVisibilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(documentGroupPermissionRepository.findAllGrants()).thenReturn(List.of(
+                new GroupGrant(1L, 10L, PermissionRole.VIEWER),
+                new GroupGrant(2L, 10L, PermissionRole.EDITOR),
+                new GroupGrant(2L, 20L, PermissionRole.VIEWER)
+        ));
+        when(userGroupMemberRepository.findAllIds()).thenReturn(List.of(
+                new UserGroupMemberId(1L, "alice"),
+                new UserGroupMemberId(2L, "bob")
+        ));
+        index = new GroupVisibilityIndex(
+                userGroupMemberRepository,
+                documentGroupPermissionRepository,
+                new GroupVisibilityProperties(),
+                false,
+                meterRegistry
+        );
+        index.preload();
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.shutdown();
+    }
+
+    @Test
+    void resolvesStrongestRoleAcrossGroups() {
+        assertThat(index.roleFor("alice", 10L)).isEqualTo(AccessRole.VIEWER);
+        assertThat(index.roleFor("alice", 20L)).isNull();
+        assertThat(index.roleFor("bob", 10L)).isEqualTo(AccessRole.EDITOR);
+        assertThat(index.readableDocuments("bob")).containsExactly(10L, 20L);
+
+        index.applyMembership(2L, "alice", true);
+
+        assertThat(index.roleFor("alice", 10L)).isEqualTo(AccessRole.EDITOR);
+        assertThat(index.readableDocuments("alice")).containsExactly(10L, 20L);
+        assertThat(index.membersOf(2L)).containsExactlyInAnyOrder("alice", "bob");
+        assertThat(index.readableDocuments("carol")).isEmpty();
+    }
+
+    @Test
+    void updatesCachedUserSetsIncrementally() {
+        index.applyMembership(2L, "alice", true);
+        assertThat(index.readableDocuments("alice")).containsExactly(10L, 20L);
+
+        index.applyGrant(1L, 30L, PermissionRole.EDITOR);
+        index.applyGrant(2L, 10L, null);
+
+        // Still readable through group 1.
+        assertThat(index.readableDocuments("alice")).containsExactly(10L, 20L, 30L);
+        assertThat(index.roleFor("alice", 10L)).isEqualTo(AccessRole.VIEWER);
+        assertThat(index.readableDocuments("bob")).containsExactly(20L);
+
+        index.applyMembership(1L, "alice", false);
+
+        assertThat(index.readableDocuments("alice")).containsExactly(20L);
+        assertThat(index.roleFor("alice", 30L)).isNull();
+        assertThat(meterRegistry.get("relaydocs.groups.indexed").gauge().value()).isEqualTo(2.0);
+    }
+
+    @Test
+    void reloadKeepsChangesCommittedWhileItReadsItsSnapshot() {
+        // The grant rows are read before the revoke commits; the revoke applies before the snapshot does.
+        when(userGroupMemberRepository.findAllIds()).thenAnswer((invocation) -> {
+            index.grantChanged(2L, 20L, null);
+            index.membershipChanged(1L, "carol", true);
+            return List.of(new UserGroupMemberId(1L, "alice"), new UserGroupMemberId(2L, "bob"));
+        });
+
+        index.reload();
+
+        assertThat(index.readableDocuments("bob")).containsExactly(10L);
+        assertThat(index.roleFor("bob", 20L)).isNull();
+        assertThat(index.membersOf(1L)).containsExactlyInAnyOrder("alice", "carol");
+    }
+
+    @Test
+    void reloadPicksUpChangesItWasNeverTold() {
+        when(documentGroupPermissionRepository.findAllGrants()).thenReturn(List.of(
+                new GroupGrant(1L, 10L, PermissionRole.EDITOR)
+        ));
+
+        index.reload();
+
+        assertThat(index.roleFor("alice", 10L)).isEqualTo(AccessRole.EDITOR);
+        assertThat(index.readableDocuments("bob")).isEmpty();
+    }
+}
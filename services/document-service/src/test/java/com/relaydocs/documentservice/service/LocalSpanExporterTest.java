@@ -0,0 +1,97 @@
+package com.relaydocs.documentservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalSpanExporterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void keepsTheMostRecentSpansWithTheirParents() {
+        LocalSpanExporter exporter = exporter(3, "");
+        Tracer tracer = tracer(exporter);
+
+        Span request = tracer.spanBuilder("http post /api/v1/auth/login").setSpanKind(SpanKind.SERVER).startSpan();
+        try (Scope ignored = request.makeCurrent()) {
+            tracer.spanBuilder("AuthService.login").startSpan().end();
+            Span query = tracer.spanBuilder("db.query").setSpanKind(SpanKind.CLIENT).startSpan();
+            query.setAttribute("db.statement", "select 1");
+            query.setStatus(StatusCode.ERROR);
+            query.end();
+        }
+        request.end();
+        tracer.spanBuilder("unrelated").startSpan().end();
+
+        List<LocalSpanExporter.RecordedSpan> spans = exporter.recentSpans();
+        assertThat(spans).extracting(LocalSpanExporter.RecordedSpan::name)
+                .containsExactly("db.query", "http post /api/v1/auth/login", "unrelated");
+        LocalSpanExporter.RecordedSpan query = spans.get(0);
+        assertThat(query.parentSpanId()).isEqualTo(request.getSpanContext().getSpanId());
+        assertThat(query.kind()).isEqualTo("CLIENT");
+        assertThat(query.error()).isTrue();
+        assertThat(query.attributes()).containsEntry("db.statement", "select 1");
+        assertThat(exporter.trace(request.getSpanContext().getTraceId())).hasSize(2);
+    }
+
+    @Test
+    void appendsOtlpJsonLinesToTheConfiguredFile() throws Exception {
+        Path file = directory.resolve("traces/spans.jsonl");
+        LocalSpanExporter exporter = exporter(0, file.toString());
+        Tracer tracer = tracer(exporter);
+
+        Span parent = tracer.spanBuilder("DocumentService.shareDocument").startSpan();
+        try (Scope ignored = parent.makeCurrent()) {
+            Span publish = tracer.spanBuilder("KafkaDomainEventPublisher.publish").setSpanKind(SpanKind.PRODUCER).startSpan();
+            publish.setAttribute("attempt", 2L);
+            publish.end();
+        }
+        parent.end();
+        exporter.shutdown();
+
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(2);
+        JsonNode span = objectMapper.readTree(lines.get(0))
+                .at("/resourceSpans/0/scopeSpans/0/spans/0");
+        assertThat(span.path("name").asText()).isEqualTo("KafkaDomainEventPublisher.publish");
+        assertThat(span.path("kind").asInt()).isEqualTo(4);
+        assertThat(span.path("traceId").asText()).isEqualTo(parent.getSpanContext().getTraceId());
+        assertThat(span.path("parentSpanId").asText()).isEqualTo(parent.getSpanContext().getSpanId());
+        assertThat(Long.parseLong(span.path("endTimeUnixNano").asText()))
+                .isGreaterThanOrEqualTo(Long.parseLong(span.path("startTimeUnixNano").asText()));
+        assertThat(span.at("/attributes/0/value/intValue").asText()).isEqualTo("2");
+        assertThat(exporter.recentSpans()).isEmpty();
+    }
+
+    private LocalSpanExporter exporter(int recentSpans, String file) {
+        TracingProperties properties = new TracingProperties();
+        properties.setRecentSpans(recentSpans);
+        properties.setFile(file);
+        return new LocalSpanExporter(objectMapper, properties);
+    }
+
+    private static Tracer tracer(LocalSpanExporter exporter) {
+        return SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .build()
+                .get("test");
+    }
+}
@@ -0,0 +1,84 @@
+package com.relaydocs.documentservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MpscRingBufferTest {
+
+    @Test
+    void rejectsOffersOnceFullAndReusesDrainedSlots() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        for (int value = 0; value < 4; value++) {
+            assertThat(buffer.offer(value)).isTrue();
+        }
+        assertThat(buffer.offer(4)).isFalse();
+
+        List<Integer> drained = new ArrayList<>();
+        assertThat(buffer.drainTo(drained, 3)).isEqualTo(3);
+        assertThat(drained).containsExactly(0, 1, 2);
+        assertThat(buffer.offer(5)).isTrue();
+        assertThat(buffer.size()).isEqualTo(2);
+
+        drained.clear();
+        buffer.drainTo(drained, 10);
+        assertThat(drained).containsExactly(3, 5);
+    }
+
+    @Test
+    void concurrentProducersLoseNothing() throws Exception {
+        int producers = 4;
+        int perProducer = 5_000;
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(256);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            for (int producer = 0; producer < producers; producer++) {
+                int base = producer * perProducer;
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int value = base; value < base + perProducer; value++) {
+                        while (!buffer.offer(value)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                });
+            }
+            start.countDown();
+
+            Set<Integer> seen = new HashSet<>();
+            List<Integer> batch = new ArrayList<>();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (seen.size() < producers * perProducer && System.nanoTime() < deadline) {
+                batch.clear();
+                buffer.drainTo(batch, 64);
+                seen.addAll(batch);
+            }
+
+            assertThat(seen).hasSize(producers * perProducer);
+            assertThat(buffer.size()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void requiresPowerOfTwoCapacity() {
+        assertThatThrownBy(() -> new MpscRingBuffer<>(6)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
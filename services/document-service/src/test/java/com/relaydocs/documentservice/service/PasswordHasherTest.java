@@ -0,0 +1,80 @@
+package com.relaydocs.documentservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHasherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordHasher passwordHasher;
+
+    @AfterEach
+    void tearDown() {
+        if (passwordHasher != null) {
+            passwordHasher.shutdown();
+        }
+    }
+
+    @Test
+    void encodeAndMatchRoundTripOnHashingPool() {
+        passwordHasher = new PasswordHasher(properties(1, 1, 4), meterRegistry);
+
+        String hash = passwordHasher.encode("password123");
+
+        assertThat(passwordHasher.matches("password123", hash)).isTrue();
+        assertThat(passwordHasher.matches("wrong-password", hash)).isFalse();
+        assertThat(meterRegistry.get("relaydocs.auth.hashing.duration").tag("operation", "encode").timer().count())
+                .isEqualTo(1L);
+    }
+
+    @Test
+    void rejectsWithServiceUnavailableWhenQueueIsFull() throws Exception {
+        passwordHasher = new PasswordHasher(properties(1, 1, 4), meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        passwordHasher.submit(() -> {
+            started.countDown();
+            release.await();
+            return null;
+        });
+        started.await();
+        passwordHasher.submit(() -> null);
+
+        try {
+            assertThatThrownBy(() -> passwordHasher.encode("password123"))
+                    .isInstanceOf(ApiServiceUnavailableException.class)
+                    .satisfies((exception) -> assertThat(((ApiServiceUnavailableException) exception).getRetryAfterSeconds())
+                            .isEqualTo(1L));
+            assertThat(passwordHasher.encodeIfIdle("password123")).isNull();
+            assertThat(meterRegistry.get("relaydocs.auth.hashing.rejected").counter().count()).isEqualTo(2.0);
+            assertThat(meterRegistry.get("relaydocs.auth.hashing.queue.depth").gauge().value()).isEqualTo(1.0);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void needsRehashWhenStoredCostIsBelowConfiguredStrength() {
+        passwordHasher = new PasswordHasher(properties(1, 1, 6), meterRegistry);
+        String weakHash = new BCryptPasswordEncoder(4).encode("password123");
+
+        assertThat(passwordHasher.needsRehash(weakHash)).isTrue();
+        assertThat(passwordHasher.needsRehash(passwordHasher.encode("password123"))).isFalse();
+    }
+
+    private static PasswordHashingProperties properties(int poolSize, int queueCapacity, int strength) {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setPoolSize(poolSize);
+        properties.setQueueCapacity(queueCapacity);
+        properties.setBcryptStrength(strength);
+        return properties;
+    }
+}
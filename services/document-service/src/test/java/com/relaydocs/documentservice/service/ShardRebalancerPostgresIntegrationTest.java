@@ -0,0 +1,239 @@
+package com.relaydocs.documentservice.service;
+
+import com.relaydocs.documentservice.persistence.ShardContext;
+import com.relaydocs.documentservice.persistence.ShardDataSources;
+import com.relaydocs.documentservice.persistence.ShardPlacementDirectory;
+import com.relaydocs.documentservice.persistence.ShardSchemaMigrator;
+import com.relaydocs.documentservice.persistence.ShardingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+
+@Testcontainers(disabledWithoutDocker = true)
+class ShardRebalancerPostgresIntegrationTest {
+
+    private static final AtomicInteger DATABASE_SEQUENCE = new AtomicInteger();
+    private static final String OWNER = "moving-owner";
+    private static final String READER = "moving-reader";
+
+    @Container
+    static final GenericContainer<?> POSTGRES = new GenericContainer<>("postgres:16-alpine")
+            .withEnv("POSTGRES_USER", "relaydocs")
+            .withEnv("POSTGRES_PASSWORD", "relaydocs")
+            .withEnv("POSTGRES_DB", "relaydocs")
+            .withExposedPorts(5432)
+            .waitingFor(Wait.forLogMessage(".*database system is ready to accept connections.*", 2));
+
+    private ShardingProperties properties;
+    private ShardDataSources shardDataSources;
+    private ShardPlacementDirectory directory;
+    private ShardRouter shardRouter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        int run = DATABASE_SEQUENCE.incrementAndGet();
+        properties = new ShardingProperties();
+        properties.setEnabled(true);
+        properties.setRebalanceBatchSize(2);
+        List<ShardingProperties.Shard> shards = new ArrayList<>();
+        for (int index = 0; index < 2; index++) {
+            shards.add(shard(createDatabase("rebalance_" + run + "_" + index)));
+        }
+        properties.setShards(shards);
+
+        shardDataSources = new ShardDataSources(properties, new SimpleMeterRegistry());
+        new ShardSchemaMigrator(shardDataSources).migrate(Flyway.configure().load());
+        directory = spy(new ShardPlacementDirectory(shardDataSources));
+        shardRouter = spy(router(directory, new SimpleMeterRegistry()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        shardRouter.shutdown();
+        shardDataSources.close();
+    }
+
+    @Test
+    void movesDocumentsWithTheirRowsAndRerunsAsANoOp() {
+        List<Long> documentIds = seedDocuments(0, 3);
+
+        ShardRebalancer.MoveResult result = rebalancer().moveOwner(OWNER, 1);
+
+        assertThat(result.movedDocuments()).isEqualTo(3);
+        assertRowCounts(0, 0);
+        assertRowCounts(1, 3);
+        assertThat(directory.ownerShard(OWNER)).contains(1);
+        documentIds.forEach((documentId) -> {
+            assertThat(directory.documentShard(documentId)).contains(1);
+            assertThat(shardRouter.shardForDocument(documentId)).isEqualTo(1);
+        });
+
+        assertThat(rebalancer().moveOwner(OWNER, 1).movedDocuments()).isZero();
+        assertRowCounts(1, 3);
+    }
+
+    @Test
+    void dropsEveryCopiedRowWhenPublishingPlacementsFailsAndCanBeRerun() {
+        seedDocuments(0, 3);
+        doThrow(new DataAccessResourceFailureException("directory unavailable"))
+                .doCallRealMethod()
+                .when(directory).placeDocuments(anyCollection(), eq(1));
+
+        assertThatThrownBy(() -> rebalancer().moveOwner(OWNER, 1))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+
+        assertRowCounts(0, 3);
+        assertRowCounts(1, 0);
+
+        assertThat(rebalancer().moveOwner(OWNER, 1).movedDocuments()).isEqualTo(3);
+        assertRowCounts(0, 0);
+        assertRowCounts(1, 3);
+    }
+
+    @Test
+    void finishesAMoveInterruptedAfterItsPlacementsWerePublished() {
+        // Moving off shard 1 so the placements, kept on shard 0, commit before the source delete.
+        List<Long> documentIds = seedDocuments(1, 3);
+        doThrow(new IllegalStateException("node stopped"))
+                .doCallRealMethod()
+                .when(shardRouter).recordPlacements(anyList(), eq(0));
+
+        assertThatThrownBy(() -> rebalancer().moveOwner(OWNER, 0)).isInstanceOf(IllegalStateException.class);
+
+        // The first batch is on both shards and already routed to the target.
+        assertRowCounts(1, 3);
+        assertThat(count(0, "SELECT COUNT(*) FROM documents")).isEqualTo(2);
+        assertThat(directory.documentShard(documentIds.get(0))).contains(0);
+
+        assertThat(rebalancer().moveOwner(OWNER, 0).movedDocuments()).isEqualTo(3);
+        assertRowCounts(1, 0);
+        assertRowCounts(0, 3);
+    }
+
+    @Test
+    void reroutesAWriteThatWaitedOnAMovingBatch() throws Exception {
+        long documentId = seedDocuments(0, 1).get(0);
+        SimpleMeterRegistry otherNodeMeters = new SimpleMeterRegistry();
+        ShardRouter otherNode = router(new ShardPlacementDirectory(shardDataSources), otherNodeMeters);
+        List<CompletableFuture<Integer>> writes = new ArrayList<>();
+        doAnswer((invocation) -> {
+            // The batch is row-locked on the source; a write from another node now waits on it.
+            writes.add(CompletableFuture.supplyAsync(() -> otherNode.onDocumentShard(documentId, () -> {
+                int updated = shardDataSources.jdbcTemplate(ShardContext.current()).update(
+                        "UPDATE documents SET title = ?, version = version + 1 WHERE id = ?",
+                        "Edited during move",
+                        documentId
+                );
+                if (updated == 0) {
+                    throw new ApiNotFoundException("Document not found");
+                }
+                return ShardContext.current();
+            })));
+            await().atMost(Duration.ofSeconds(10)).until(() -> count(1,
+                    "SELECT COUNT(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock'") > 0);
+            return invocation.callRealMethod();
+        }).when(directory).placeDocuments(anyCollection(), eq(1));
+
+        rebalancer().moveOwner(OWNER, 1);
+
+        try {
+            assertThat(writes.get(0).get(10, TimeUnit.SECONDS)).isEqualTo(1);
+            assertThat(shardDataSources.jdbcTemplate(1).queryForObject(
+                    "SELECT title FROM documents WHERE id = ?", String.class, documentId
+            )).isEqualTo("Edited during move");
+            assertThat(otherNodeMeters.get("relaydocs.sharding.misrouted").counter().count()).isEqualTo(1.0);
+        } finally {
+            otherNode.shutdown();
+        }
+    }
+
+    private ShardRebalancer rebalancer() {
+        return new ShardRebalancer(shardDataSources, directory, shardRouter, properties);
+    }
+
+    private ShardRouter router(ShardPlacementDirectory placementDirectory, SimpleMeterRegistry meterRegistry) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("shardPlacementDirectory", placementDirectory);
+        return new ShardRouter(properties, beans.getBeanProvider(ShardPlacementDirectory.class), meterRegistry);
+    }
+
+    private List<Long> seedDocuments(int shardIndex, int documents) {
+        JdbcTemplate shard = shardDataSources.jdbcTemplate(shardIndex);
+        shard.update("INSERT INTO users (id, email) VALUES (?, ?), (?, ?)",
+                OWNER, OWNER + "@example.com", READER, READER + "@example.com");
+        List<Long> documentIds = new ArrayList<>();
+        for (int index = 0; index < documents; index++) {
+            Long documentId = shard.queryForObject(
+                    "INSERT INTO documents (owner_id, title, content) VALUES (?, ?, '') RETURNING id",
+                    Long.class,
+                    OWNER,
+                    "Document " + index
+            );
+            shard.update("INSERT INTO document_permissions (document_id, user_id, role) VALUES (?, ?, 'VIEWER')",
+                    documentId, READER);
+            shard.update("INSERT INTO user_document_access (user_id, document_id, role) VALUES (?, ?, 'OWNER'), (?, ?, 'VIEWER')",
+                    OWNER, documentId, READER, documentId);
+            shard.update("INSERT INTO document_blocks (document_id, block_key, content) VALUES (?, 'V', 'first'), (?, 'k', 'second')",
+                    documentId, documentId);
+            documentIds.add(documentId);
+        }
+        return documentIds;
+    }
+
+    private void assertRowCounts(int shardIndex, int documents) {
+        assertThat(count(shardIndex, "SELECT COUNT(*) FROM documents")).isEqualTo(documents);
+        assertThat(count(shardIndex, "SELECT COUNT(*) FROM document_permissions")).isEqualTo(documents);
+        assertThat(count(shardIndex, "SELECT COUNT(*) FROM user_document_access")).isEqualTo(2L * documents);
+        assertThat(count(shardIndex, "SELECT COUNT(*) FROM document_blocks")).isEqualTo(2L * documents);
+    }
+
+    private long count(int shardIndex, String sql) {
+        return shardDataSources.jdbcTemplate(shardIndex).queryForObject(sql, Long.class);
+    }
+
+    private static String createDatabase(String name) throws Exception {
+        String server = "jdbc:postgresql://%s:%d/".formatted(POSTGRES.getHost(), POSTGRES.getMappedPort(5432));
+        try (Connection connection = DriverManager.getConnection(server + "relaydocs", "relaydocs", "relaydocs");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE " + name);
+        }
+        return server + name;
+    }
+
+    private static ShardingProperties.Shard shard(String url) {
+        ShardingProperties.Shard shard = new ShardingProperties.Shard();
+        shard.setUrl(url);
+        shard.setUsername("relaydocs");
+        shard.setPassword("relaydocs");
+        return shard;
+    }
+}
@@ -0,0 +1,174 @@
+package com.relaydocs.documentservice.service;
+
+import com.relaydocs.documentservice.persistence.ShardContext;
+import com.relaydocs.documentservice.persistence.ShardKeys;
+import com.relaydocs.documentservice.persistence.ShardPlacementDirectory;
+import com.relaydocs.documentservice.persistence.ShardingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ShardRouterTest {
+
+    private static final long LEGACY_MAX_ID = 100L;
+
+    @Mock
+    private ShardPlacementDirectory directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ShardRouter shardRouter;
+
+    @BeforeEach
+    void setUp() {
+        shardRouter = router(shardingProperties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        shardRouter.shutdown();
+    }
+
+    @Test
+    void routesDocumentsByEncodedShardLegacyCeilingAndPlacements() {
+        when(directory.legacyMaxDocumentId()).thenReturn(LEGACY_MAX_ID);
+        when(directory.documentPlacementsMovedSince(any(), anyInt()))
+                .thenReturn(List.of(new ShardPlacementDirectory.DocumentPlacement(documentId(9, 2), 0, Instant.now())));
+
+        assertThat(shardRouter.shardForDocument(42L)).isZero();
+        assertThat(shardRouter.shardForDocument(documentId(5, 3))).isEqualTo(3);
+        assertThat(shardRouter.shardForDocument(documentId(9, 2))).isZero();
+        assertThatThrownBy(() -> shardRouter.shardForDocument(documentId(5, 7)))
+                .isInstanceOf(ApiNotFoundException.class);
+    }
+
+    @Test
+    void rerunsWritesThatRacedAMoveOnTheNewShard() {
+        long movedId = documentId(3, 1);
+        when(directory.legacyMaxDocumentId()).thenReturn(LEGACY_MAX_ID);
+        when(directory.documentPlacementsMovedSince(any(), anyInt())).thenReturn(List.of());
+        when(directory.documentShard(movedId)).thenReturn(Optional.of(2));
+
+        Integer servedBy = shardRouter.onDocumentShard(movedId, () -> {
+            if (ShardContext.current() != 2) {
+                throw new ObjectOptimisticLockingFailureException("DocumentEntity", movedId);
+            }
+            return ShardContext.current();
+        });
+        assertThat(servedBy).isEqualTo(2);
+
+        long stayedId = documentId(4, 1);
+        when(directory.documentShard(stayedId)).thenReturn(Optional.of(1));
+        assertThatThrownBy(() -> shardRouter.onDocumentShard(stayedId, () -> {
+            throw new DataIntegrityViolationException("duplicate key");
+        })).isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void retriesOnDirectoryPlacementWhenCachedShardMisses() {
+        long movedId = documentId(3, 1);
+        when(directory.legacyMaxDocumentId()).thenReturn(LEGACY_MAX_ID);
+        when(directory.documentPlacementsMovedSince(any(), anyInt())).thenReturn(List.of());
+        when(directory.documentShard(movedId)).thenReturn(Optional.of(2));
+
+        Integer servedBy = shardRouter.onDocumentShard(movedId, () -> {
+            if (ShardContext.current() != 2) {
+                throw new ApiNotFoundException("Document not found");
+            }
+            return ShardContext.current();
+        });
+
+        assertThat(servedBy).isEqualTo(2);
+        assertThat(shardRouter.shardForDocument(movedId)).isEqualTo(2);
+        assertThat(meterRegistry.get("relaydocs.sharding.misrouted").counter().count()).isEqualTo(1.0);
+        assertThat(ShardContext.current()).isNull();
+    }
+
+    @Test
+    void refreshesOnlyNewlyMovedPlacementsIntoABoundedCache() {
+        ShardingProperties properties = shardingProperties();
+        properties.setPlacementRefreshInterval(Duration.ZERO);
+        properties.setPlacementCacheSize(2);
+        shardRouter.shutdown();
+        shardRouter = router(properties);
+
+        Instant movedAt = Instant.parse("2026-03-01T12:00:00Z");
+        long oldest = documentId(1, 3);
+        long middle = documentId(2, 3);
+        long newest = documentId(3, 3);
+        when(directory.legacyMaxDocumentId()).thenReturn(LEGACY_MAX_ID);
+        when(directory.documentPlacementsMovedSince(Instant.EPOCH.minus(ShardRouter.PLACEMENT_OVERLAP), 2)).thenReturn(List.of(
+                new ShardPlacementDirectory.DocumentPlacement(newest, 0, movedAt.plusSeconds(2)),
+                new ShardPlacementDirectory.DocumentPlacement(middle, 0, movedAt.plusSeconds(1)),
+                new ShardPlacementDirectory.DocumentPlacement(oldest, 0, movedAt)
+        ));
+        when(directory.documentPlacementsMovedSince(movedAt.plusSeconds(2).minus(ShardRouter.PLACEMENT_OVERLAP), 2))
+                .thenReturn(List.of());
+
+        assertThat(shardRouter.shardForDocument(newest)).isZero();
+        assertThat(shardRouter.shardForDocument(middle)).isZero();
+        // Evicted: routed by its id again until a miss finds it in the directory.
+        assertThat(shardRouter.shardForDocument(oldest)).isEqualTo(3);
+    }
+
+    @Test
+    void scatterGatherRunsOnEveryShardAndMergesInOrder() {
+        List<Long> merged = shardRouter.onEveryShard(
+                () -> {
+                    int shard = ShardContext.current();
+                    return List.of(documentId(2, shard), documentId(1, shard));
+                },
+                Comparator.naturalOrder()
+        );
+
+        assertThat(merged).hasSize(8).isSorted();
+        assertThat(merged).extracting((id) -> (int) (id % ShardKeys.ID_SPACE)).containsOnly(0, 1, 2, 3);
+    }
+
+    @Test
+    void ownersFollowDirectoryPinBeforeHash() {
+        when(directory.ownerShard("pinned-owner")).thenReturn(Optional.of(3));
+        when(directory.ownerShard("hashed-owner")).thenReturn(Optional.empty());
+
+        assertThat(shardRouter.shardForOwner("pinned-owner")).isEqualTo(3);
+        assertThat(shardRouter.shardForOwner("hashed-owner")).isEqualTo(ShardKeys.shardForOwner("hashed-owner", 4));
+    }
+
+    private ShardRouter router(ShardingProperties properties) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("shardPlacementDirectory", directory);
+        return new ShardRouter(properties, beans.getBeanProvider(ShardPlacementDirectory.class), meterRegistry);
+    }
+
+    private static ShardingProperties shardingProperties() {
+        ShardingProperties properties = new ShardingProperties();
+        properties.setEnabled(true);
+        properties.setShards(new ArrayList<>(IntStream.range(0, 4).mapToObj((index) -> new ShardingProperties.Shard()).toList()));
+        return properties;
+    }
+
+    private static long documentId(long sequence, int shard) {
+        return ShardKeys.firstIdAbove(LEGACY_MAX_ID, shard) + sequence * ShardKeys.ID_SPACE;
+    }
+}
@@ -0,0 +1,20 @@
+-- Tables without a JPA entity, which create-drop would not produce. H2 has no declarative
+-- partitioning, so audit_log is a plain table here.
+CREATE TABLE IF NOT EXISTS audit_log (
+    occurred_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    action VARCHAR(40) NOT NULL,
+    actor_user_id VARCHAR(100),
+    target_user_id VARCHAR(100),
+    document_id BIGINT,
+    group_id BIGINT,
+    detail VARCHAR(255),
+    request_id VARCHAR(100)
+);
+
+CREATE TABLE IF NOT EXISTS document_change_locks (
+    user_id VARCHAR(100) PRIMARY KEY
+);
+
+CREATE TABLE IF NOT EXISTS group_change_locks (
+    group_id BIGINT PRIMARY KEY
+);